@@ -0,0 +1,327 @@
+package com.krawl.backend.cache;
+
+import com.krawl.backend.config.DataSourceConfig;
+import com.krawl.backend.config.properties.LocalCacheProperties;
+import com.krawl.backend.repository.CacheInvalidationRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the local caches of every instance coherent. Evictions made through
+ * {@link InvalidatingCacheManager} are queued once the surrounding transaction commits (right
+ * away outside one) and a sender thread NOTIFYs them in batches. Each instance holds one
+ * dedicated LISTEN connection, opened outside the Hikari pool, and applies the other instances'
+ * evictions to its local caches; its own come back too and are skipped by origin.
+ *
+ * <p>Notifications sent while the listener is disconnected are lost, so after a reconnect every
+ * local cache is cleared before listening resumes. Sending is best effort: a failed batch is
+ * logged and dropped, leaving the other instances on the cache's expiry.</p>
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus implements SmartLifecycle {
+
+    /**
+     * Every local cache, in an {@link Invalidation} applied after a reconnect.
+     */
+    public static final String ALL_CACHES = "*";
+
+    // Postgres rejects NOTIFY payloads of 8000 bytes or more
+    static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final int BATCH_SIZE = 500;
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+
+    private final LocalCacheProperties.Invalidation properties;
+    private final CacheInvalidationRepository repository;
+    private final PlatformTransactionManager transactionManager;
+    private final DataSource dataSource;
+
+    private final String origin = UUID.randomUUID().toString();
+    private final BlockingQueue<String> outbox;
+    private volatile Consumer<Invalidation> receiver = invalidation -> { };
+    private volatile boolean running;
+    private volatile Connection listenerConnection;
+    private Thread sender;
+    private Thread listener;
+
+    /**
+     * An eviction of {@code key} from {@code cacheName}; a null key clears the whole cache.
+     */
+    public record Invalidation(String cacheName, Object key) {
+    }
+
+    public CacheInvalidationBus(LocalCacheProperties properties,
+                                CacheInvalidationRepository repository,
+                                PlatformTransactionManager transactionManager,
+                                DataSource dataSource) {
+        this.properties = properties.getInvalidation();
+        this.repository = repository;
+        this.transactionManager = transactionManager;
+        this.dataSource = dataSource;
+        this.outbox = new LinkedBlockingQueue<>(Math.max(1, this.properties.getQueueCapacity()));
+        if (!CHANNEL.matcher(this.properties.getChannel()).matches()) {
+            throw new IllegalStateException("app.cache.invalidation.channel must be a lower-case SQL identifier: "
+                + this.properties.getChannel());
+        }
+    }
+
+    /**
+     * Sets what receives the other instances' invalidations. Called once by the cache manager.
+     */
+    public void onInvalidation(Consumer<Invalidation> receiver) {
+        this.receiver = receiver;
+    }
+
+    /**
+     * Broadcasts an eviction of {@code key}, or of the whole cache when {@code key} is null,
+     * after the current transaction commits. Nothing is sent if it rolls back.
+     */
+    public void publish(String cacheName, Object key) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        String payload = encode(origin, cacheName, key);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(payload);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(payload);
+            }
+        });
+    }
+
+    private void enqueue(String payload) {
+        if (!outbox.offer(payload)) {
+            log.warn("Cache invalidation queue full, dropped: {}", payload);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        sender = Thread.ofPlatform().name("cache-invalidation-sender").daemon().start(this::sendLoop);
+        listener = Thread.ofPlatform().name("cache-invalidation-listener").daemon().start(this::listenLoop);
+    }
+
+    /**
+     * Sends what is still queued and closes the listener connection.
+     */
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        closeQuietly(listenerConnection);
+        try {
+            sender.join(TimeUnit.SECONDS.toMillis(5));
+            listener.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before the web server and stops after it, so evictions made while requests drain
+     * are still sent.
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private void sendLoop() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        while (running || !outbox.isEmpty()) {
+            List<String> batch = new ArrayList<>();
+            try {
+                String first = outbox.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            outbox.drainTo(batch, BATCH_SIZE - 1);
+            try {
+                transactionTemplate.executeWithoutResult(status -> repository.send(properties.getChannel(), batch));
+            } catch (RuntimeException e) {
+                log.warn("Failed to send {} cache invalidations, other instances keep them until expiry: {}",
+                    batch.size(), e.getMessage());
+            }
+        }
+    }
+
+    private void listenLoop() {
+        boolean subscribed = false;
+        while (running) {
+            try (Connection connection = openListenerConnection()) {
+                listenerConnection = connection;
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + properties.getChannel());
+                }
+                if (subscribed) {
+                    log.info("Cache invalidation listener re-subscribed; clearing local caches");
+                    receiver.accept(new Invalidation(ALL_CACHES, null));
+                }
+                subscribed = true;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                int timeoutMs = (int) properties.getPollTimeout().toMillis();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(timeoutMs);
+                    if (notifications == null || notifications.length == 0) {
+                        // Idle: a dead socket only shows up on a round trip
+                        try (Statement statement = connection.createStatement()) {
+                            statement.execute("SELECT 1");
+                        }
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        receive(notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener disconnected, retrying in {}: {}",
+                    properties.getReconnectDelay(), e.getMessage());
+                try {
+                    Thread.sleep(properties.getReconnectDelay());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } finally {
+                listenerConnection = null;
+            }
+        }
+    }
+
+    void receive(String payload) {
+        Message message = decode(payload);
+        if (message == null) {
+            log.warn("Ignoring malformed cache invalidation: {}", payload);
+        } else if (!origin.equals(message.origin())) {
+            receiver.accept(message.invalidation());
+        }
+    }
+
+    /**
+     * Opens the listener's own session: a pooled connection would go back to Hikari between
+     * statements and Hikari may retire it at max-lifetime, dropping the LISTEN.
+     */
+    private Connection openListenerConnection() throws SQLException {
+        Connection connection;
+        if (dataSource.isWrapperFor(HikariDataSource.class)) {
+            HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+            if (DataSourceConfig.isUsingPooler(hikari.getJdbcUrl())) {
+                log.warn("Cache invalidation listener is connecting through a pooler; LISTEN only works in session mode");
+            }
+            Properties info = new Properties();
+            if (hikari.getUsername() != null) {
+                info.setProperty("user", hikari.getUsername());
+            }
+            if (hikari.getPassword() != null) {
+                info.setProperty("password", hikari.getPassword());
+            }
+            info.setProperty("ApplicationName", "krawl-cache-listener-" + origin);
+            connection = DriverManager.getConnection(hikari.getJdbcUrl(), info);
+        } else {
+            connection = dataSource.getConnection();
+        }
+        connection.setAutoCommit(true);
+        return connection;
+    }
+
+    String origin() {
+        return origin;
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Closing cache invalidation listener: {}", e.getMessage());
+        }
+    }
+
+    record Message(String origin, Invalidation invalidation) {
+    }
+
+    /**
+     * {@code origin TAB cache TAB kind TAB key}, kind being U (UUID key), S (String key) or
+     * C (whole cache). Keys of any other type, and keys too long for a NOTIFY payload, are
+     * sent as a whole-cache clear: correct, only coarser.
+     */
+    static String encode(String origin, String cacheName, Object key) {
+        String clear = String.join("\t", origin, cacheName, "C", "");
+        String payload;
+        if (key instanceof UUID uuid) {
+            payload = String.join("\t", origin, cacheName, "U", uuid.toString());
+        } else if (key instanceof String value) {
+            payload = String.join("\t", origin, cacheName, "S", value);
+        } else {
+            return clear;
+        }
+        return payload.getBytes(StandardCharsets.UTF_8).length < MAX_PAYLOAD_BYTES ? payload : clear;
+    }
+
+    static Message decode(String payload) {
+        String[] parts = payload.split("\t", 4);
+        if (parts.length != 4) {
+            return null;
+        }
+        try {
+            Object key = switch (parts[2]) {
+                case "U" -> UUID.fromString(parts[3]);
+                case "S" -> parts[3];
+                case "C" -> null;
+                default -> throw new IllegalArgumentException(parts[2]);
+            };
+            return new Message(parts[0], new Invalidation(parts[1], key));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
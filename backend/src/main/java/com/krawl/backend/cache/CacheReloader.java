@@ -0,0 +1,16 @@
+package com.krawl.backend.cache;
+
+/**
+ * Loads entries of one Spring cache by key, outside the {@code @Cacheable} method that normally
+ * fills it. Required for caches configured with refresh-after-write; it must return what that
+ * method would return for the key.
+ */
+public interface CacheReloader {
+
+    String cacheName();
+
+    /**
+     * The current value for {@code key}, or null when there is none (the entry is dropped).
+     */
+    Object reload(Object key);
+}
@@ -0,0 +1,223 @@
+package com.krawl.backend.cache;
+
+import com.krawl.backend.config.properties.MapProperties;
+import com.krawl.backend.event.GemChangedEvent;
+import com.krawl.backend.repository.GemMarkerRepository;
+import com.krawl.backend.repository.projection.GemMarkerRow;
+import com.krawl.backend.util.BoundingBox;
+import com.krawl.backend.util.TileGrid;
+import com.krawl.backend.util.WeightedLruCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Point;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Viewport result cache keyed by quantized grid tiles.
+ *
+ * <p>A viewport is mapped to the coarsest grid zoom where it spans at most
+ * {@code maxTilesPerAxis} cells per axis, each cell's ranked marker list is served from
+ * the cache (or loaded with one viewport query per missing cell, at most
+ * {@code maxCellLoadsPerRequest} per request), and the response is the top-N of the union
+ * of those cells filtered to the viewport, as the viewport query would return it. Every cell
+ * keeps the viewport's hard cap of rows, so cells wholly inside the viewport are exact; when
+ * a truncated edge cell could hide a better visible gem the caller runs the query instead.</p>
+ *
+ * <p>Gem changes evict only the cells containing the old and new location at each grid zoom.
+ * A cell loaded while a change was evicting is not cached, since it may predate the change.
+ * Rating and vouch changes are not evented, so cells also expire after a short TTL.</p>
+ */
+@Slf4j
+@Component
+public class GemViewportCache {
+
+    private static final double BOUNDARY_EPSILON = 1e-9;
+
+    private final GemMarkerRepository gemMarkerRepository;
+    private final MapProperties.ViewportCache settings;
+    private final int rowsPerCell;
+    private final WeightedLruCache<String, List<GemMarkerRow>> cells;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    // Bumped on every eviction; guarded by the cells' monitor so a check and a put are atomic
+    private long generation;
+
+    public GemViewportCache(GemMarkerRepository gemMarkerRepository, MapProperties mapProperties,
+                            MeterRegistry meterRegistry) {
+        this.gemMarkerRepository = gemMarkerRepository;
+        this.settings = mapProperties.getViewportCache();
+        this.rowsPerCell = mapProperties.getViewport().getMaxResults();
+        this.cells = new WeightedLruCache<>(settings.getMaxRows(), rows -> Math.max(rows.size(), 1),
+            Duration.ofSeconds(settings.getTtlSeconds()));
+
+        FunctionCounter.builder("krawl.map.viewport.cache.requests", hits, LongAdder::sum)
+            .tag("result", "hit")
+            .description("Viewport cache cell lookups served from memory")
+            .register(meterRegistry);
+        FunctionCounter.builder("krawl.map.viewport.cache.requests", misses, LongAdder::sum)
+            .tag("result", "miss")
+            .description("Viewport cache cell lookups loaded from the database")
+            .register(meterRegistry);
+        Gauge.builder("krawl.map.viewport.cache.hit.ratio", this, GemViewportCache::hitRatio)
+            .description("Share of viewport cache cell lookups served from memory")
+            .register(meterRegistry);
+        Gauge.builder("krawl.map.viewport.cache.rows", cells, WeightedLruCache::weight)
+            .description("Marker rows currently held by the viewport cache")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    /**
+     * Returns the top {@code limit} markers inside {@code bbox}, assembled from cache cells, or
+     * empty when the cells cannot answer exactly and the caller should run the viewport query:
+     * more cells are missing than one request may load, or a cell that is only partly inside
+     * the viewport was truncated above the result's last row.
+     */
+    public Optional<List<GemMarkerRow>> findInViewport(BoundingBox bbox, int limit) {
+        int zoom = cacheZoom(bbox);
+        double cellSize = TileGrid.cellSizeDegrees(zoom, 1);
+
+        Map<UUID, GemMarkerRow> merged = new LinkedHashMap<>();
+        List<GemMarkerRow> truncatedFloors = new ArrayList<>();
+        int loads = 0;
+        boolean complete = true;
+        for (long x = cellIndex(bbox.getMinLng(), cellSize); x <= cellIndex(bbox.getMaxLng(), cellSize); x++) {
+            for (long y = cellIndex(bbox.getMinLat(), cellSize); y <= cellIndex(bbox.getMaxLat(), cellSize); y++) {
+                BoundingBox cellBox = cellBox(x, y, cellSize);
+                List<GemMarkerRow> rows = cells.get(key(zoom, x, y));
+                if (rows != null) {
+                    hits.increment();
+                } else {
+                    misses.increment();
+                    // Keep loading up to the cap so the viewport warms over a few requests
+                    if (loads >= settings.getMaxCellLoadsPerRequest()) {
+                        complete = false;
+                        continue;
+                    }
+                    rows = loadCell(zoom, x, y, cellBox);
+                    loads++;
+                }
+                if (rows.size() >= rowsPerCell && !covers(bbox, cellBox)) {
+                    truncatedFloors.add(rows.get(rows.size() - 1));
+                }
+                for (GemMarkerRow row : rows) {
+                    merged.putIfAbsent(row.gemId(), row);
+                }
+            }
+        }
+        if (!complete) {
+            return Optional.empty();
+        }
+
+        List<GemMarkerRow> ranked = new ArrayList<>();
+        for (GemMarkerRow row : merged.values()) {
+            if (bbox.contains(row.longitude(), row.latitude())) {
+                ranked.add(row);
+            }
+        }
+        ranked.sort(GemMarkerRow.RANKING);
+        List<GemMarkerRow> top = ranked.size() > limit ? ranked.subList(0, limit) : ranked;
+
+        // A truncated edge cell may hold visible gems below its last cached row
+        for (GemMarkerRow floor : truncatedFloors) {
+            if (top.size() < limit || GemMarkerRow.RANKING.compare(top.get(top.size() - 1), floor) > 0) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(top);
+    }
+
+    public double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGemChanged(GemChangedEvent event) {
+        synchronized (cells) {
+            generation++;
+            evictCellsContaining(event.getOldLocation());
+            evictCellsContaining(event.getNewLocation());
+        }
+    }
+
+    private List<GemMarkerRow> loadCell(int zoom, long x, long y, BoundingBox cellBox) {
+        long loadedAt;
+        synchronized (cells) {
+            loadedAt = generation;
+        }
+        List<GemMarkerRow> rows = List.copyOf(gemMarkerRepository.findInBoundingBox(cellBox, rowsPerCell));
+        synchronized (cells) {
+            // A gem changed while loading; the rows may predate it
+            if (generation == loadedAt) {
+                cells.put(key(zoom, x, y), rows);
+            }
+        }
+        return rows;
+    }
+
+    private static BoundingBox cellBox(long x, long y, double cellSize) {
+        return BoundingBox.of(
+            Math.max(-180, x * cellSize),
+            Math.max(-90, y * cellSize),
+            Math.min(180, (x + 1) * cellSize),
+            Math.min(90, (y + 1) * cellSize)
+        );
+    }
+
+    private static boolean covers(BoundingBox outer, BoundingBox inner) {
+        return inner.getMinLng() >= outer.getMinLng() && inner.getMaxLng() <= outer.getMaxLng()
+            && inner.getMinLat() >= outer.getMinLat() && inner.getMaxLat() <= outer.getMaxLat();
+    }
+
+    private void evictCellsContaining(Point location) {
+        if (location == null) {
+            return;
+        }
+        double lng = location.getX();
+        double lat = location.getY();
+        for (int zoom = 0; zoom <= settings.getMaxZoom(); zoom++) {
+            double cellSize = TileGrid.cellSizeDegrees(zoom, 1);
+            // Points exactly on a cell edge are returned by both neighbouring cells (&& is inclusive)
+            for (long x = cellIndex(lng - BOUNDARY_EPSILON, cellSize); x <= cellIndex(lng + BOUNDARY_EPSILON, cellSize); x++) {
+                for (long y = cellIndex(lat - BOUNDARY_EPSILON, cellSize); y <= cellIndex(lat + BOUNDARY_EPSILON, cellSize); y++) {
+                    cells.invalidate(key(zoom, x, y));
+                }
+            }
+        }
+        log.debug("Evicted viewport cache cells around ({}, {})", lng, lat);
+    }
+
+    private int cacheZoom(BoundingBox bbox) {
+        double span = Math.max(bbox.getMaxLng() - bbox.getMinLng(), bbox.getMaxLat() - bbox.getMinLat());
+        if (span <= 0) {
+            return settings.getMaxZoom();
+        }
+        int zoom = (int) Math.floor(Math.log(360.0 * settings.getMaxTilesPerAxis() / span) / Math.log(2));
+        return Math.min(Math.max(zoom, 0), settings.getMaxZoom());
+    }
+
+    private static long cellIndex(double coordinate, double cellSize) {
+        return (long) Math.floor(coordinate / cellSize);
+    }
+
+    private static String key(int zoom, long x, long y) {
+        return zoom + "/" + x + "/" + y;
+    }
+}
@@ -0,0 +1,170 @@
+package com.krawl.backend.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Local caches whose evictions also reach the other instances. evict / evictIfPresent publish
+ * the key and clear / invalidate publish the cache name on the {@link CacheInvalidationBus}, so
+ * {@code @CacheEvict} and direct {@link Cache} calls stay coherent across instances without
+ * changes at the call sites. Invalidations received from the bus are applied to the local
+ * caches only, and so are evictions made through {@link #localCache(Cache)}: a scheduled pass
+ * that runs on every instance evicts what it found on its own instance, and broadcasting it
+ * would only repeat the same eviction once per instance.
+ */
+public class InvalidatingCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final CacheInvalidationBus bus;
+    private final Map<String, InvalidatingCache> caches = new ConcurrentHashMap<>();
+
+    public InvalidatingCacheManager(CacheManager delegate, CacheInvalidationBus bus) {
+        this.delegate = delegate;
+        this.bus = bus;
+        bus.onInvalidation(this::apply);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        InvalidatingCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache local = delegate.getCache(name);
+        return local != null ? caches.computeIfAbsent(name, key -> new InvalidatingCache(local, bus)) : null;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    /**
+     * The local cache behind {@code cache}, whose evictions are not broadcast; any other cache is
+     * returned as is.
+     */
+    public static Cache localCache(Cache cache) {
+        return cache instanceof InvalidatingCache invalidating ? invalidating.getDelegate() : cache;
+    }
+
+    void apply(CacheInvalidationBus.Invalidation invalidation) {
+        if (CacheInvalidationBus.ALL_CACHES.equals(invalidation.cacheName())) {
+            delegate.getCacheNames().forEach(name -> delegate.getCache(name).invalidate());
+            return;
+        }
+        Cache local = delegate.getCache(invalidation.cacheName());
+        if (local == null) {
+            return;
+        }
+        if (invalidation.key() == null) {
+            local.invalidate();
+        } else {
+            local.evictIfPresent(invalidation.key());
+        }
+    }
+
+    /**
+     * A local cache that publishes its evictions. Reads and writes go straight to the delegate.
+     */
+    public static class InvalidatingCache implements Cache {
+
+        private final Cache delegate;
+        private final CacheInvalidationBus bus;
+
+        InvalidatingCache(Cache delegate, CacheInvalidationBus bus) {
+            this.delegate = delegate;
+            this.bus = bus;
+        }
+
+        public Cache getDelegate() {
+            return delegate;
+        }
+
+        /**
+         * Broadcasts an eviction of {@code key} to the other instances, after the current
+         * transaction commits, without touching the local cache.
+         */
+        public void publish(Object key) {
+            bus.publish(getName(), key);
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return delegate.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return delegate.get(key);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return delegate.get(key, type);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return delegate.get(key, valueLoader);
+        }
+
+        @Override
+        public CompletableFuture<?> retrieve(Object key) {
+            return delegate.retrieve(key);
+        }
+
+        @Override
+        public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+            return delegate.retrieve(key, valueLoader);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            delegate.put(key, value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return delegate.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            delegate.evict(key);
+            bus.publish(getName(), key);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            boolean present = delegate.evictIfPresent(key);
+            // Another instance may hold the key even when this one does not
+            bus.publish(getName(), key);
+            return present;
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+            bus.publish(getName(), null);
+        }
+
+        @Override
+        public boolean invalidate() {
+            boolean present = delegate.invalidate();
+            bus.publish(getName(), null);
+            return present;
+        }
+    }
+}
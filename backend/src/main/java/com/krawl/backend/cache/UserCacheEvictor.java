@@ -0,0 +1,75 @@
+package com.krawl.backend.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Evicts one user from the "users" cache. UserServiceImpl caches the same profile under three
+ * keys: the user id, "username:" + username and "email:" + email, so a change to one user has to
+ * evict all of them, and the previous username as well when it changes. Every other cached
+ * profile stays.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCacheEvictor {
+
+    public static final String CACHE = "users";
+    public static final String USERNAME_PREFIX = "username:";
+    public static final String EMAIL_PREFIX = "email:";
+
+    private final CacheManager cacheManager;
+
+    /**
+     * Evicts the user's id and email keys and a username key per entry of {@code usernames};
+     * null usernames are skipped. Inside a transaction the keys are evicted once it commits, so
+     * a concurrent read cannot cache the old row again in between; nothing is evicted if it
+     * rolls back.
+     */
+    public void evict(UUID userId, String email, String... usernames) {
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache == null) {
+            return;
+        }
+        List<String> keys = keys(userId, email, usernames);
+        if (cache instanceof InvalidatingCacheManager.InvalidatingCache invalidating) {
+            // The bus defers its sends to the commit itself
+            keys.forEach(invalidating::publish);
+        }
+        evictAfterCommit(InvalidatingCacheManager.localCache(cache), keys);
+    }
+
+    private static List<String> keys(UUID userId, String email, String... usernames) {
+        List<String> keys = new ArrayList<>();
+        keys.add(userId.toString());
+        if (email != null) {
+            keys.add(EMAIL_PREFIX + email);
+        }
+        for (String username : usernames) {
+            if (username != null) {
+                keys.add(USERNAME_PREFIX + username);
+            }
+        }
+        return keys;
+    }
+
+    private static void evictAfterCommit(Cache cache, List<String> keys) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            keys.forEach(cache::evict);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                keys.forEach(cache::evict);
+            }
+        });
+    }
+}
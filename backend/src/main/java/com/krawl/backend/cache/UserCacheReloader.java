@@ -0,0 +1,39 @@
+package com.krawl.backend.cache;
+
+import com.krawl.backend.mapper.UserMapper;
+import com.krawl.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Reloads "users" entries under the keys UserServiceImpl caches them by: the user id, or
+ * "username:" / "email:" followed by the lookup value.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCacheReloader implements CacheReloader {
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+
+    @Override
+    public String cacheName() {
+        return UserCacheEvictor.CACHE;
+    }
+
+    @Override
+    public Object reload(Object key) {
+        String value = key.toString();
+        if (value.startsWith(UserCacheEvictor.USERNAME_PREFIX)) {
+            return userRepository.findByUsername(value.substring(UserCacheEvictor.USERNAME_PREFIX.length()))
+                .map(userMapper::toResponse).orElse(null);
+        }
+        if (value.startsWith(UserCacheEvictor.EMAIL_PREFIX)) {
+            return userRepository.findByEmail(value.substring(UserCacheEvictor.EMAIL_PREFIX.length()))
+                .map(userMapper::toResponse).orElse(null);
+        }
+        return userRepository.findById(UUID.fromString(value)).map(userMapper::toResponse).orElse(null);
+    }
+}
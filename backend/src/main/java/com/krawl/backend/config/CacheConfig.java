@@ -1,23 +1,99 @@
 package com.krawl.backend.config;
 
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.krawl.backend.cache.CacheInvalidationBus;
+import com.krawl.backend.cache.CacheReloader;
+import com.krawl.backend.cache.InvalidatingCacheManager;
+import com.krawl.backend.config.properties.LocalCacheProperties;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.CaffeineCacheMeterBinderProvider;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded Caffeine caches, one per entry under {@code app.cache.caches}. Every cache records
+ * stats, which Actuator publishes as cache.gets / cache.puts / cache.evictions / cache.size on
+ * /actuator/metrics. Caches with refresh-after-write reload stale entries asynchronously through
+ * their {@link CacheReloader}; a read never waits for a refresh. Evictions are broadcast to the
+ * other instances through {@link InvalidatingCacheManager}.
+ */
 @Configuration
 @EnableCaching
 public class CacheConfig {
-    
+
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager(
-            "tags",
-            "users",
-            "publicGems",
-            "publicKrawls"
-        );
+    public CacheManager cacheManager(LocalCacheProperties properties, List<CacheReloader> reloaders,
+                                     CacheInvalidationBus invalidationBus) {
+        return new InvalidatingCacheManager(caffeineCacheManager(properties, reloaders), invalidationBus);
+    }
+
+    /**
+     * Cache metrics for the wrapped Caffeine caches; Actuator only recognises a bare CaffeineCache.
+     */
+    @Bean
+    public CacheMeterBinderProvider<InvalidatingCacheManager.InvalidatingCache> invalidatingCacheMeterBinderProvider() {
+        CaffeineCacheMeterBinderProvider caffeine = new CaffeineCacheMeterBinderProvider();
+        return new CacheMeterBinderProvider<>() {
+            @Override
+            public MeterBinder getMeterBinder(InvalidatingCacheManager.InvalidatingCache cache, Iterable<Tag> tags) {
+                return cache.getDelegate() instanceof CaffeineCache local ? caffeine.getMeterBinder(local, tags) : null;
+            }
+        };
     }
-}
 
+    static CaffeineCacheManager caffeineCacheManager(LocalCacheProperties properties, List<CacheReloader> reloaders) {
+        Map<String, CacheReloader> byName = reloaders.stream()
+            .collect(Collectors.toMap(CacheReloader::cacheName, Function.identity()));
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Static: a cache name missing from the configuration fails instead of growing unbounded
+        cacheManager.setCacheNames(List.of());
+        properties.getCaches().forEach((name, spec) -> {
+            Caffeine<Object, Object> builder = builder(name, spec);
+            CacheReloader reloader = byName.get(name);
+            if (reloader != null) {
+                cacheManager.registerCustomCache(name, builder.build((CacheLoader<Object, Object>) reloader::reload));
+            } else if (spec.getRefreshAfterWrite() != null) {
+                throw new IllegalStateException("Cache '" + name + "' has refresh-after-write but no CacheReloader");
+            } else {
+                cacheManager.registerCustomCache(name, builder.build());
+            }
+        });
+        return cacheManager;
+    }
+
+    static Caffeine<Object, Object> builder(String name, LocalCacheProperties.Spec spec) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        if (spec.getMaximumSize() != null) {
+            builder.maximumSize(spec.getMaximumSize());
+        } else if (spec.getMaximumWeight() != null) {
+            builder.maximumWeight(spec.getMaximumWeight())
+                .weigher((key, value) -> value instanceof Collection<?> collection ? Math.max(collection.size(), 1) : 1);
+        } else {
+            throw new IllegalStateException("Cache '" + name + "' needs maximum-size or maximum-weight");
+        }
+        if (spec.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        if (spec.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(spec.getExpireAfterAccess());
+        }
+        if (spec.getRefreshAfterWrite() != null) {
+            builder.refreshAfterWrite(spec.getRefreshAfterWrite());
+        }
+        return builder;
+    }
+}
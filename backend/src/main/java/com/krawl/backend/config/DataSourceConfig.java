@@ -168,7 +168,7 @@ public class DataSourceConfig {
      * - Port 6543 (common pooler port)
      * - Or explicit pooler indicators in the URL
      */
-    private boolean isUsingPooler(String jdbcUrl) {
+    public static boolean isUsingPooler(String jdbcUrl) {
         if (!StringUtils.hasText(jdbcUrl)) {
             return false;
         }
@@ -1,5 +1,7 @@
 package com.krawl.backend.config;
 
+import com.krawl.backend.service.RatingReconciliationService;
+import com.krawl.backend.service.SyncMutationService;
 import com.krawl.backend.service.impl.TokenServiceImpl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -8,7 +10,10 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 
 /**
- * Configuration for scheduled tasks
+ * Configuration for scheduled tasks. Spring's scheduler has a single thread by default, so the
+ * tag index rebuild (a full-table stream) would hold up the short-interval passes: the counter
+ * flush, krawl cache eviction, creator scores and trending. spring.task.scheduling.pool.size
+ * gives every @Scheduled job in the app its own thread; raise it when adding one.
  */
 @Slf4j
 @Configuration
@@ -17,6 +22,8 @@ import org.springframework.scheduling.annotation.Scheduled;
 public class SchedulingConfig {
     
     private final TokenServiceImpl tokenService;
+    private final SyncMutationService syncMutationService;
+    private final RatingReconciliationService ratingReconciliationService;
     
     /**
      * Cleanup expired refresh tokens and blacklisted tokens daily at 2 AM
@@ -31,5 +38,28 @@ public class SchedulingConfig {
             log.error("Error during token cleanup", e);
         }
     }
-}
 
+    /**
+     * Drop recorded offline replay outcomes past their retention daily at 3 AM
+     */
+    @Scheduled(cron = "0 0 3 * * *")
+    public void purgeClientOperations() {
+        try {
+            syncMutationService.purgeExpiredOperations();
+        } catch (Exception e) {
+            log.error("Error during client operation purge", e);
+        }
+    }
+
+    /**
+     * Recount rating aggregates daily at 4 AM to catch drift in the incremental triggers
+     */
+    @Scheduled(cron = "0 0 4 * * *")
+    public void reconcileRatingAggregates() {
+        try {
+            ratingReconciliationService.reconcile();
+        } catch (Exception e) {
+            log.error("Error during rating reconciliation", e);
+        }
+    }
+}
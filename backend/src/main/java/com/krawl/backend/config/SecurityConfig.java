@@ -53,9 +53,13 @@ public class SecurityConfig {
                 // Permit authentication endpoints (both v1 and legacy)
                 .requestMatchers("/api/auth/**", "/api/v1/auth/**").permitAll()
                 
+                // Full-table export of the public gems is for authenticated jobs only (must come before the public gem GETs)
+                .requestMatchers(HttpMethod.GET, "/api/v1/gems/export").authenticated()
+
                 // Permit public GET endpoints (both v1 and legacy)
                 .requestMatchers(HttpMethod.GET, "/api/gems/**", "/api/v1/gems/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/krawls/**", "/api/v1/krawls/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/v1/tiles/**").permitAll()
                 
                 // Explicitly require auth for /api/v1/users/me (must come before permitAll)
                 .requestMatchers("/api/v1/users/me", "/api/v1/users/me/**").authenticated()
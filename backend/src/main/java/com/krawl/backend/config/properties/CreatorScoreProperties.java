@@ -0,0 +1,24 @@
+package com.krawl.backend.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the asynchronous creator score and reputation tier recompute.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.users.creator-score")
+@Data
+public class CreatorScoreProperties {
+
+    /**
+     * Pause between recompute passes; every creator touched in between is recomputed once.
+     */
+    private long recomputeIntervalMs = 10_000;
+
+    /**
+     * Creators recomputed per UPDATE statement.
+     */
+    private int batchSize = 500;
+}
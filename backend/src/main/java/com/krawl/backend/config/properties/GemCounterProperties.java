@@ -0,0 +1,29 @@
+package com.krawl.backend.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the write-behind vouch and view counters.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.gems.counters")
+@Data
+public class GemCounterProperties {
+
+    /**
+     * Pause between flushes of the in-memory deltas to the gems table.
+     */
+    private long flushIntervalMs = 2_000;
+
+    /**
+     * Gems per UPDATE ... FROM (VALUES ...) statement.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Uncounted vouches claimed per flush; a larger backlog is worked off over several flushes.
+     */
+    private int maxVouchesPerFlush = 50_000;
+}
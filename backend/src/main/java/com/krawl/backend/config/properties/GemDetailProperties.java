@@ -0,0 +1,24 @@
+package com.krawl.backend.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the gem detail read model.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.gems.detail")
+@Data
+public class GemDetailProperties {
+
+    /**
+     * Photos returned with the detail; clients page the rest.
+     */
+    private int maxPhotos = 12;
+
+    /**
+     * Tag names returned with the detail.
+     */
+    private int maxTags = 30;
+}
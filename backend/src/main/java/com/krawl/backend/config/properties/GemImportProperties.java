@@ -0,0 +1,42 @@
+package com.krawl.backend.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for the bulk gem import.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.gems.import")
+@Data
+public class GemImportProperties {
+
+    /**
+     * Rows sent per COPY; each batch commits in its own transaction.
+     */
+    private int batchSize = 5000;
+
+    /**
+     * Uploads are cut off after this many records.
+     */
+    private long maxRows = 200_000;
+
+    /**
+     * Uploads are cut off after this many bytes.
+     */
+    private long maxBytes = 50L * 1024 * 1024;
+
+    /**
+     * Row errors beyond this are counted but not listed in the report.
+     */
+    private int maxReportedErrors = 1000;
+
+    /**
+     * Reputation tiers allowed to import; an empty list allows every user.
+     */
+    private List<String> allowedTiers = new ArrayList<>(List.of("Trail Maker", "Kanto Guide"));
+}
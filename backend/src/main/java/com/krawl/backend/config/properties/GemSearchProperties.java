@@ -0,0 +1,47 @@
+package com.krawl.backend.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for gem search: paging limits, fuzzy matching and ranking weights.
+ * Weights are applied to components that are each normalised to [0, 1].
+ */
+@Component
+@ConfigurationProperties(prefix = "app.gems.search")
+@Data
+public class GemSearchProperties {
+
+    private int defaultResults = 20;
+    private int maxResults = 50;
+    private int minQueryLength = 2;
+    private int maxQueryLength = 200;
+    private double maxRadiusMeters = 50_000;
+
+    /**
+     * Best full-text matches by ts_rank_cd considered as candidates, so a common word does not
+     * score every gem it matches.
+     */
+    private int textCandidates = 500;
+
+    /**
+     * Nearest names by trigram distance considered as fuzzy candidates.
+     */
+    private int fuzzyCandidates = 200;
+
+    /**
+     * Minimum pg_trgm similarity for a fuzzy candidate to be kept.
+     */
+    private double minSimilarity = 0.3;
+
+    private double textWeight = 0.6;
+    private double ratingWeight = 0.15;
+    private double vouchWeight = 0.1;
+    private double distanceWeight = 0.15;
+
+    /**
+     * Distance at which the proximity boost has halved.
+     */
+    private double distanceHalfMeters = 2_000;
+}
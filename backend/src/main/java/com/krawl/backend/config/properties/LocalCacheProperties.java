@@ -0,0 +1,76 @@
+package com.krawl.backend.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for the Spring caches ({@code @Cacheable} and friends). Every cache
+ * the code uses must be listed; a name that is not configured has no cache.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.cache")
+@Data
+public class LocalCacheProperties {
+
+    private Map<String, Spec> caches = new LinkedHashMap<>();
+
+    private Invalidation invalidation = new Invalidation();
+
+    @Data
+    public static class Spec {
+        /**
+         * Entry count bound. One of maximumSize or maximumWeight is required.
+         */
+        private Long maximumSize;
+
+        /**
+         * Weight bound; a collection value weighs its element count, anything else weighs 1.
+         */
+        private Long maximumWeight;
+
+        private Duration expireAfterWrite;
+
+        private Duration expireAfterAccess;
+
+        /**
+         * Entries older than this are reloaded in the background on their next read while the
+         * old value keeps being served. Needs a {@link com.krawl.backend.cache.CacheReloader}
+         * for the cache.
+         */
+        private Duration refreshAfterWrite;
+    }
+
+    @Data
+    public static class Invalidation {
+        /**
+         * Broadcast evictions to the other instances through Postgres NOTIFY and apply theirs.
+         * Needs a session-mode connection: LISTEN does not work through a transaction pooler.
+         */
+        private boolean enabled = true;
+
+        /**
+         * NOTIFY channel shared by every instance of the same deployment.
+         */
+        private String channel = "krawl_cache_invalidation";
+
+        /**
+         * How long the listener waits for a notification before checking its connection.
+         */
+        private Duration pollTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Delay before reconnecting a lost listener connection.
+         */
+        private Duration reconnectDelay = Duration.ofSeconds(5);
+
+        /**
+         * Invalidations queued for sending; when full, further ones are dropped and logged.
+         */
+        private int queueCapacity = 10_000;
+    }
+}
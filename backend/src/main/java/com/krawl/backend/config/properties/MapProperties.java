@@ -0,0 +1,132 @@
+package com.krawl.backend.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for map read paths (viewport search and related endpoints).
+ */
+@Component
+@ConfigurationProperties(prefix = "app.map")
+@Data
+public class MapProperties {
+
+    private Viewport viewport = new Viewport();
+    private ViewportCache viewportCache = new ViewportCache();
+    private Clusters clusters = new Clusters();
+    private Tiles tiles = new Tiles();
+    private Nearby nearby = new Nearby();
+
+    @Data
+    public static class Viewport {
+        /**
+         * Hard cap on gems returned for a single viewport request.
+         */
+        private int maxResults = 500;
+
+        /**
+         * Result size used when the client does not pass a limit.
+         */
+        private int defaultResults = 200;
+
+        /**
+         * Edge length in pixels of the featured-photo thumbnail attached to markers.
+         */
+        private int thumbnailSize = 160;
+    }
+
+    @Data
+    public static class ViewportCache {
+        private boolean enabled = true;
+
+        /**
+         * A viewport is served from the coarsest grid where it spans at most this many cells per axis.
+         */
+        private int maxTilesPerAxis = 4;
+
+        /**
+         * Finest grid zoom used for cache cells.
+         */
+        private int maxZoom = 16;
+
+        /**
+         * Missing cells one request may load; past this the request runs the viewport query
+         * directly, so a cold viewport costs a few cell queries per request instead of dozens.
+         */
+        private int maxCellLoadsPerRequest = 8;
+
+        /**
+         * Total marker rows kept across all cells.
+         */
+        private long maxRows = 200_000;
+
+        /**
+         * Cells expire this long after being loaded, so rating/vouch changes show up without an event.
+         */
+        private long ttlSeconds = 60;
+    }
+
+    @Data
+    public static class Clusters {
+        /**
+         * From this zoom level upwards the clusters endpoint returns individual markers.
+         */
+        private int markerZoom = 15;
+
+        /**
+         * Grid cells per tile side; 4 gives roughly 64px cells on 256px tiles.
+         */
+        private int cellsPerTile = 4;
+
+        /**
+         * Upper bound on cells returned for a single request.
+         */
+        private int maxCells = 2000;
+
+        /**
+         * Cache-Control max-age for cluster responses.
+         */
+        private long cacheMaxAgeSeconds = 60;
+    }
+
+    @Data
+    public static class Tiles {
+        /**
+         * Total bytes of encoded tiles kept in memory.
+         */
+        private long cacheMaxBytes = 64L * 1024 * 1024;
+
+        /**
+         * Tiles expire this long after being rendered, so rating/vouch changes show up without an event.
+         */
+        private long cacheTtlSeconds = 60;
+
+        /**
+         * MVT extent and buffer passed to ST_AsMVTGeom.
+         */
+        private int extent = 4096;
+        private int buffer = 64;
+
+        /**
+         * Highest-ranked gems kept per tile.
+         */
+        private int maxFeatures = 5000;
+
+        /**
+         * Cache-Control max-age for tiles; clients revalidate with the ETag afterwards.
+         */
+        private long cacheMaxAgeSeconds = 30;
+    }
+
+    @Data
+    public static class Nearby {
+        private int defaultResults = 20;
+        private int maxResults = 100;
+
+        /**
+         * Upper bound for the optional radius filter, in metres.
+         */
+        private double maxRadiusMeters = 50_000;
+    }
+}
@@ -0,0 +1,29 @@
+package com.krawl.backend.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for offline mutation replay.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.sync.mutations")
+@Data
+public class SyncProperties {
+
+    /**
+     * Operations applied per transaction; a failed chunk only fails its own operations.
+     */
+    private int chunkSize = 100;
+
+    /**
+     * Largest batch accepted in one request.
+     */
+    private int maxOperations = 500;
+
+    /**
+     * Recorded outcomes are kept this long; a replay after that applies the operation again.
+     */
+    private int retentionDays = 30;
+}
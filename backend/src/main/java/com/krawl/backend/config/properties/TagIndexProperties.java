@@ -0,0 +1,31 @@
+package com.krawl.backend.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the in-memory tag bitmap index.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.gems.tag-index")
+@Data
+public class TagIndexProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Grid zoom of the spatial cell bitmaps (see TileGrid); 10 gives cells of about 0.35 degrees.
+     */
+    private int cellZoom = 10;
+
+    /**
+     * Viewports covering more cells than this skip the cell prefilter and rely on the exact bbox check.
+     */
+    private int maxCells = 256;
+
+    /**
+     * Full rebuilds compact ordinals and pick up rating drift and tag edits made outside the application.
+     */
+    private long rebuildIntervalMs = 900_000;
+}
@@ -0,0 +1,61 @@
+package com.krawl.backend.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the trending krawls and gems feed.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.trending")
+@Data
+public class TrendingProperties {
+
+    /**
+     * Pause between scoring passes; the served snapshot is at most this old.
+     */
+    private long refreshIntervalMs = 300_000;
+
+    /**
+     * Time for an event's contribution to a score to halve.
+     */
+    private double halfLifeHours = 48;
+
+    /**
+     * Oldest events a pass reads: the backfill of the first pass and the catch-up after a long
+     * outage. Contributions older than this have decayed to almost nothing anyway.
+     */
+    private int windowDays = 14;
+
+    /**
+     * Rows kept in each snapshot, and the most a client can ask for.
+     */
+    private int size = 50;
+
+    private int defaultResults = 20;
+
+    /**
+     * Scores below this are dropped, so trending_scores only holds recently active rows.
+     */
+    private double minScore = 0.01;
+
+    /**
+     * Browser / CDN max-age of the trending responses.
+     */
+    private int cacheMaxAgeSeconds = 60;
+
+    private Weights weights = new Weights();
+
+    /**
+     * Contribution of one event at the moment it happens. A rating counts rating / 5 times
+     * its weight, so a one-star rating adds little.
+     */
+    @Data
+    public static class Weights {
+        private double rating = 2.0;
+        private double save = 3.0;
+        private double vouch = 2.0;
+        private double view = 0.1;
+    }
+}
@@ -1,23 +1,51 @@
 package com.krawl.backend.controller.v1;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.krawl.backend.dto.request.GemCreateRequest;
+import com.krawl.backend.config.properties.GemImportProperties;
+import com.krawl.backend.config.properties.MapProperties;
+import com.krawl.backend.config.properties.TrendingProperties;
+import com.krawl.backend.dto.response.CursorPage;
+import com.krawl.backend.dto.response.GemClusterResponse;
+import com.krawl.backend.dto.response.GemDetailResponse;
+import com.krawl.backend.dto.response.GemImportResponse;
+import com.krawl.backend.dto.response.GemMarkerResponse;
+import com.krawl.backend.dto.response.GemNearbyResponse;
 import com.krawl.backend.dto.response.GemResponse;
+import com.krawl.backend.dto.response.GemSearchResponse;
+import com.krawl.backend.dto.response.TrendingGemResponse;
+import com.krawl.backend.exception.ValidationException;
 import com.krawl.backend.security.UserPrincipal;
+import com.krawl.backend.service.GemDetailService;
+import com.krawl.backend.service.GemExportService;
+import com.krawl.backend.service.GemImportService;
 import com.krawl.backend.service.GemService;
+import com.krawl.backend.service.TrendingService;
+import com.krawl.backend.service.importer.GemImportFormat;
+import com.krawl.backend.util.BoundingBox;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/v1/gems")
@@ -26,17 +54,124 @@ import java.util.UUID;
 public class GemControllerV1 {
 
     private final GemService gemService;
+    private final GemDetailService gemDetailService;
+    private final GemImportService gemImportService;
+    private final GemExportService gemExportService;
+    private final GemImportProperties gemImportProperties;
+    private final MapProperties mapProperties;
+    private final TrendingService trendingService;
+    private final TrendingProperties trendingProperties;
+    private final ObjectMapper objectMapper;
 
-    @Operation(summary = "List gems", description = "Returns a paginated list of gems")
+    @Operation(
+        summary = "List gems",
+        description = "Returns gems one cursor page at a time. sortBy is one of createdAt (default), averageRating, "
+            + "vouchCount or name; pass nextCursor back as cursor with the same sortBy for the next page"
+    )
     @GetMapping
-    public ResponseEntity<List<GemResponse>> list(
-        @RequestParam(defaultValue = "0") int page,
-        @RequestParam(defaultValue = "20") int size
+    public ResponseEntity<CursorPage<GemResponse>> list(
+        @RequestParam(required = false) String sortBy,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer size
     ) {
-        int cappedSize = Math.min(Math.max(size, 1), 100);
-        var pageable = PageRequest.of(page, cappedSize, Sort.by(Sort.Direction.DESC, "createdAt"));
-        var result = gemService.getAllGems(pageable);
-        return ResponseEntity.ok(result.getContent());
+        return ResponseEntity.ok(gemService.listGems(sortBy, cursor, size));
+    }
+
+    @Operation(
+        summary = "Gems in viewport",
+        description = "Returns approved gems inside bbox=minLng,minLat,maxLng,maxLat, ranked by rating, vouches and recency"
+    )
+    @GetMapping("/viewport")
+    public ResponseEntity<StreamingResponseBody> viewport(
+        @RequestParam String bbox,
+        @RequestParam(required = false) Integer limit
+    ) {
+        var viewport = BoundingBox.parse(bbox);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                gemService.streamGemsInViewport(viewport, limit, marker -> writeMarker(generator, marker));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(body);
+    }
+
+    @Operation(
+        summary = "Discover gems by tag",
+        description = "Approved gems inside bbox carrying every tag in all and at least one tag in any "
+            + "(comma-separated tag names), best rated first"
+    )
+    @GetMapping("/discover")
+    public ResponseEntity<List<GemMarkerResponse>> discover(
+        @RequestParam String bbox,
+        @RequestParam(required = false) List<String> all,
+        @RequestParam(required = false) List<String> any,
+        @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(gemService.discoverGems(BoundingBox.parse(bbox), all, any, limit));
+    }
+
+    @Operation(
+        summary = "Gem clusters",
+        description = "Groups approved gems into grid cells for the given zoom; returns individual markers at high zoom"
+    )
+    @GetMapping("/clusters")
+    public ResponseEntity<GemClusterResponse> clusters(
+        @RequestParam String bbox,
+        @RequestParam int zoom
+    ) {
+        var result = gemService.getGemClusters(BoundingBox.parse(bbox), zoom);
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(mapProperties.getClusters().getCacheMaxAgeSeconds(), TimeUnit.SECONDS)
+                .cachePublic())
+            .body(result);
+    }
+
+    @Operation(
+        summary = "Trending gems",
+        description = "Returns approved gems ranked by recent vouches, ratings and views, older activity counting less; "
+            + "the ranking is refreshed every few minutes"
+    )
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingGemResponse>> trending(@RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(trendingProperties.getCacheMaxAgeSeconds(), TimeUnit.SECONDS).cachePublic())
+            .body(trendingService.getTrendingGems(limit));
+    }
+
+    @Operation(
+        summary = "Gems near a location",
+        description = "Returns approved gems ordered by distance, optionally within radius metres; page with nextCursor"
+    )
+    @GetMapping("/nearby")
+    public ResponseEntity<CursorPage<GemNearbyResponse>> nearby(
+        @RequestParam double lat,
+        @RequestParam double lng,
+        @RequestParam(required = false) Double radius,
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(required = false) String cursor
+    ) {
+        return ResponseEntity.ok(gemService.getNearbyGems(lat, lng, radius, limit, cursor));
+    }
+
+    @Operation(
+        summary = "Search gems",
+        description = "Full-text and typo-tolerant search over gem names and descriptions, ranked by relevance, "
+            + "rating, vouches and (with lat/lng) proximity; page with nextCursor"
+    )
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<GemSearchResponse>> search(
+        @RequestParam String q,
+        @RequestParam(required = false) Double lat,
+        @RequestParam(required = false) Double lng,
+        @RequestParam(required = false) Double radius,
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(required = false) String cursor
+    ) {
+        return ResponseEntity.ok(gemService.searchGems(q, lat, lng, radius, limit, cursor));
     }
 
     @Operation(summary = "Get gem details", description = "Returns gem details by ID")
@@ -45,6 +180,15 @@ public class GemControllerV1 {
         return ResponseEntity.ok(gemService.getGemById(id));
     }
 
+    @Operation(
+        summary = "Get gem detail",
+        description = "Returns the gem with its founder, featured-first photos (capped), tags and rating distribution"
+    )
+    @GetMapping("/{id}/detail")
+    public ResponseEntity<GemDetailResponse> getDetail(@PathVariable("id") UUID id) {
+        return ResponseEntity.ok(gemDetailService.getGemDetail(id));
+    }
+
     @Operation(summary = "Create a new gem")
     @SecurityRequirement(name = "bearerAuth")
     @PostMapping
@@ -55,6 +199,67 @@ public class GemControllerV1 {
         GemResponse created = gemService.createGem(request, principal.getUserId());
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
-}
 
+    @Operation(
+        summary = "Bulk import gems",
+        description = "Streams an NDJSON, CSV or GeoJSON FeatureCollection upload (chosen by Content-Type or format) "
+            + "into pending gems and returns a per-row error report. Limited to established creators (see "
+            + "app.gems.import.allowed-tiers) and to app.gems.import.max-bytes per upload"
+    )
+    @SecurityRequirement(name = "bearerAuth")
+    @PostMapping("/import")
+    public ResponseEntity<GemImportResponse> importGems(
+        HttpServletRequest request,
+        @RequestParam(required = false) String format,
+        @AuthenticationPrincipal UserPrincipal principal
+    ) throws IOException {
+        var importFormat = GemImportFormat.resolve(format, request.getContentType());
+        if (request.getContentLengthLong() > gemImportProperties.getMaxBytes()) {
+            throw new ValidationException("file", "must be at most " + gemImportProperties.getMaxBytes() + " bytes");
+        }
+        // Read the raw body so the upload is never buffered by multipart handling or message conversion
+        var report = gemImportService.importGems(request.getInputStream(), importFormat, principal.getUserId());
+        return ResponseEntity.ok(report);
+    }
+
+    @Operation(
+        summary = "Export all public gems",
+        description = "Streams every approved, non-deleted gem as NDJSON (default, re-importable) or a GeoJSON FeatureCollection"
+    )
+    @SecurityRequirement(name = "bearerAuth")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format) {
+        GemExportService.Format exportFormat = switch (format.toLowerCase(Locale.ROOT)) {
+            case "ndjson" -> GemExportService.Format.NDJSON;
+            case "geojson" -> GemExportService.Format.GEOJSON;
+            default -> throw new ValidationException("format", "must be ndjson or geojson");
+        };
+        boolean geoJson = exportFormat == GemExportService.Format.GEOJSON;
+        StreamingResponseBody body = out -> gemExportService.exportGems(exportFormat, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(geoJson ? "application/geo+json" : "application/x-ndjson"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(geoJson ? "gems.geojson" : "gems.ndjson")
+                .build()
+                .toString())
+            .body(body);
+    }
 
+    private static void writeMarker(JsonGenerator generator, GemMarkerResponse marker) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("id", marker.getId().toString());
+            generator.writeNumberField("lat", marker.getLat());
+            generator.writeNumberField("lng", marker.getLng());
+            generator.writeStringField("name", marker.getName());
+            generator.writeNumberField("rating", marker.getRating());
+            generator.writeStringField("status", marker.getStatus());
+            if (marker.getThumb() != null) {
+                generator.writeStringField("thumb", marker.getThumb());
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,23 +1,38 @@
 package com.krawl.backend.controller.v1;
 
+import com.krawl.backend.config.properties.TrendingProperties;
 import com.krawl.backend.dto.request.KrawlCreateRequest;
+import com.krawl.backend.dto.response.CursorPage;
+import com.krawl.backend.dto.response.KrawlAreaResponse;
 import com.krawl.backend.dto.response.KrawlResponse;
+import com.krawl.backend.dto.response.KrawlRouteOptimizationResponse;
+import com.krawl.backend.dto.response.TrendingKrawlResponse;
 import com.krawl.backend.security.UserPrincipal;
+import com.krawl.backend.service.KrawlBundleService;
+import com.krawl.backend.service.KrawlRouteService;
 import com.krawl.backend.service.KrawlService;
+import com.krawl.backend.service.TrendingService;
+import com.krawl.backend.util.BoundingBox;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/v1/krawls")
@@ -26,17 +41,48 @@ import java.util.UUID;
 public class KrawlControllerV1 {
 
     private final KrawlService krawlService;
+    private final KrawlRouteService krawlRouteService;
+    private final KrawlBundleService krawlBundleService;
+    private final TrendingService trendingService;
+    private final TrendingProperties trendingProperties;
 
-    @Operation(summary = "List krawls", description = "Returns a paginated list of public krawls")
+    @Operation(
+        summary = "List krawls",
+        description = "Returns public krawls one cursor page at a time. sortBy is createdAt (default) or averageRating; "
+            + "pass nextCursor back as cursor with the same sortBy for the next page"
+    )
     @GetMapping
-    public ResponseEntity<List<KrawlResponse>> list(
-        @RequestParam(defaultValue = "0") int page,
-        @RequestParam(defaultValue = "20") int size
+    public ResponseEntity<CursorPage<KrawlResponse>> list(
+        @RequestParam(required = false) String sortBy,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer size
     ) {
-        int cappedSize = Math.min(Math.max(size, 1), 100);
-        var pageable = PageRequest.of(page, cappedSize, Sort.by(Sort.Direction.DESC, "createdAt"));
-        var result = krawlService.getAllKrawls(pageable);
-        return ResponseEntity.ok(result.getContent());
+        return ResponseEntity.ok(krawlService.getPublicKrawls(sortBy, cursor, size));
+    }
+
+    @Operation(
+        summary = "Krawls in map area",
+        description = "Returns public krawls whose route bounding box intersects bbox=minLng,minLat,maxLng,maxLat, "
+            + "best rated first, each with its precomputed route"
+    )
+    @GetMapping("/area")
+    public ResponseEntity<List<KrawlAreaResponse>> inArea(
+        @RequestParam String bbox,
+        @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(krawlRouteService.findKrawlsInArea(BoundingBox.parse(bbox), limit));
+    }
+
+    @Operation(
+        summary = "Trending krawls",
+        description = "Returns public krawls ranked by recent ratings and saves, older activity counting less; "
+            + "the ranking is refreshed every few minutes"
+    )
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingKrawlResponse>> trending(@RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(trendingProperties.getCacheMaxAgeSeconds(), TimeUnit.SECONDS).cachePublic())
+            .body(trendingService.getTrendingKrawls(limit));
     }
 
     @Operation(summary = "Get krawl details", description = "Returns krawl details by ID")
@@ -45,6 +91,92 @@ public class KrawlControllerV1 {
         return ResponseEntity.ok(krawlService.getKrawlById(id));
     }
 
+    @Operation(
+        summary = "Propose an optimized route",
+        description = "Returns a shorter visiting order for the krawl's stops and the walking distance saved. "
+            + "fixStart / fixEnd keep the current first / last stop in place. Nothing is saved."
+    )
+    @GetMapping("/{id}/optimized-route")
+    public ResponseEntity<KrawlRouteOptimizationResponse> optimizedRoute(
+        @PathVariable("id") UUID id,
+        @RequestParam(defaultValue = "false") boolean fixStart,
+        @RequestParam(defaultValue = "false") boolean fixEnd,
+        @AuthenticationPrincipal UserPrincipal principal
+    ) {
+        UUID requesterId = principal == null ? null : principal.getUserId();
+        return ResponseEntity.ok(krawlRouteService.optimizeRoute(id, requesterId, fixStart, fixEnd));
+    }
+
+    @Operation(
+        summary = "Offline bundle",
+        description = "Returns the krawl, its items, full gem records and photo thumbnail URLs as one JSON document, "
+            + "gzip-encoded when the client accepts it. Supports If-None-Match and Range/If-Range for resumable "
+            + "downloads; once the last byte is written, a signed-in user's saved krawl is marked downloaded."
+    )
+    @GetMapping("/{id}/offline-bundle")
+    public ResponseEntity<?> offlineBundle(
+        @PathVariable("id") UUID id,
+        @AuthenticationPrincipal UserPrincipal principal,
+        HttpServletRequest request
+    ) {
+        UUID requesterId = principal == null ? null : principal.getUserId();
+        var bundle = krawlBundleService.getBundle(id, requesterId);
+
+        // Each encoding is its own representation, so it gets its own validator
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = "\"" + bundle.contentHash() + (gzip ? "-gzip" : "") + "\"";
+        if (etagMatches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        byte[] body = gzip ? bundle.gzip() : bundle.json();
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // A stale If-Range gets the full body
+        List<HttpRange> ranges = range != null && (ifRange == null || ifRange.equals(etag)) ? parseRanges(range) : List.of();
+        long start = 0;
+        long end = body.length - 1L;
+        if (ranges.size() == 1) {
+            start = ranges.get(0).getRangeStart(body.length);
+            end = ranges.get(0).getRangeEnd(body.length);
+            if (start >= body.length) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + body.length)
+                    .build();
+            }
+        }
+
+        var response = ResponseEntity.status(ranges.size() == 1 ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+            .eTag(etag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+            .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        if (ranges.size() > 1) {
+            // Multipart byteranges are left to Spring; such a download is not recorded
+            return response.body(new ByteArrayResource(body));
+        }
+        if (ranges.size() == 1) {
+            response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + body.length);
+        }
+
+        int offset = (int) start;
+        int length = (int) (end - start + 1);
+        boolean completesDownload = requesterId != null && end == body.length - 1L;
+        // Recorded only once the last byte has been written; an aborted download throws first
+        StreamingResponseBody stream = out -> {
+            out.write(body, offset, length);
+            out.flush();
+            if (completesDownload) {
+                krawlBundleService.recordDownload(id, requesterId);
+            }
+        };
+        return response.contentLength(length).body(stream);
+    }
+
     @Operation(summary = "Create a new krawl")
     @SecurityRequirement(name = "bearerAuth")
     @PostMapping
@@ -55,6 +187,45 @@ public class KrawlControllerV1 {
         KrawlResponse created = krawlService.createKrawl(request, principal.getUserId());
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
-}
 
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (("gzip".equalsIgnoreCase(parts[0].trim()) || "*".equals(parts[0].trim()))
+                    && !(parts.length > 1 && parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if ("*".equals(value) || etag.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
+    /**
+     * Parsed Range header; a malformed one is ignored, as RFC 9110 allows.
+     */
+    private static List<HttpRange> parseRanges(String range) {
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+}
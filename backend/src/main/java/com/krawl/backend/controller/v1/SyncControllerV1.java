@@ -0,0 +1,61 @@
+package com.krawl.backend.controller.v1;
+
+import com.krawl.backend.dto.request.SyncMutationRequest;
+import com.krawl.backend.dto.response.SyncChangesResponse;
+import com.krawl.backend.dto.response.SyncMutationResponse;
+import com.krawl.backend.security.UserPrincipal;
+import com.krawl.backend.service.SyncMutationService;
+import com.krawl.backend.service.SyncService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/sync")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "Sync V1", description = "Delta sync for the offline client")
+public class SyncControllerV1 {
+
+    private final SyncService syncService;
+    private final SyncMutationService syncMutationService;
+
+    @Operation(
+        summary = "Changes since a cursor",
+        description = "Returns gems, krawls (with items) and the caller's saved krawls changed since the cursor, "
+            + "with deletions as removed ids. Omit since for a full sync. Repeat with nextCursor while hasMore; "
+            + "keep the final nextCursor for the next sync."
+    )
+    @GetMapping("/changes")
+    public ResponseEntity<SyncChangesResponse> changes(
+        @AuthenticationPrincipal UserPrincipal principal,
+        @RequestParam(required = false) String since,
+        @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(syncService.getChanges(principal.getUserId(), since, limit));
+    }
+
+    @Operation(
+        summary = "Replay queued offline actions",
+        description = "Applies an ordered batch of CREATE_GEM, VOUCH_GEM, RATE_GEM and SAVE_KRAWL operations and "
+            + "returns one result per operation. Replaying a clientOpId returns the recorded result instead of "
+            + "applying it again; only FAILED operations need to be retried."
+    )
+    @PostMapping("/mutations")
+    public ResponseEntity<SyncMutationResponse> mutations(
+        @AuthenticationPrincipal UserPrincipal principal,
+        @Valid @RequestBody SyncMutationRequest request
+    ) {
+        return ResponseEntity.ok(syncMutationService.applyMutations(principal.getUserId(), request));
+    }
+}
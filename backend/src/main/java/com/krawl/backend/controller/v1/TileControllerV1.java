@@ -0,0 +1,56 @@
+package com.krawl.backend.controller.v1;
+
+import com.krawl.backend.config.properties.MapProperties;
+import com.krawl.backend.service.GemTileService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/v1/tiles")
+@RequiredArgsConstructor
+@Tag(name = "Tiles V1", description = "Mapbox Vector Tile endpoints for map layers")
+public class TileControllerV1 {
+
+    public static final MediaType MVT = MediaType.parseMediaType("application/vnd.mapbox-vector-tile");
+
+    private final GemTileService gemTileService;
+    private final MapProperties mapProperties;
+
+    @Operation(summary = "Gem vector tile", description = "Returns approved gems in tile z/x/y as a Mapbox Vector Tile (layer 'gems')")
+    @GetMapping("/gems/{z}/{x}/{y}.mvt")
+    public ResponseEntity<byte[]> gems(
+        @PathVariable("z") int z,
+        @PathVariable("x") int x,
+        @PathVariable("y") int y,
+        WebRequest request
+    ) {
+        var tile = gemTileService.getGemTile(z, x, y);
+        var cacheControl = CacheControl.maxAge(mapProperties.getTiles().getCacheMaxAgeSeconds(), TimeUnit.SECONDS)
+            .cachePublic();
+
+        if (request.checkNotModified(tile.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(tile.getEtag())
+                .cacheControl(cacheControl)
+                .build();
+        }
+
+        return ResponseEntity.ok()
+            .contentType(MVT)
+            .eTag(tile.getEtag())
+            .cacheControl(cacheControl)
+            .body(tile.getData());
+    }
+}
@@ -1,6 +1,7 @@
 package com.krawl.backend.controller.v1;
 
 import com.krawl.backend.dto.request.UpdateProfileRequest;
+import com.krawl.backend.dto.response.CursorPage;
 import com.krawl.backend.dto.response.KrawlSummaryResponse;
 import com.krawl.backend.dto.response.UserResponse;
 import com.krawl.backend.security.UserPrincipal;
@@ -10,8 +11,6 @@ import com.krawl.backend.service.UserStatsService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
@@ -43,15 +42,14 @@ public class UserControllerV1 {
     }
 
     @GetMapping("/krawls")
-    public ResponseEntity<List<KrawlSummaryResponse>> getMyKrawls(
+    public ResponseEntity<CursorPage<KrawlSummaryResponse>> getMyKrawls(
         @AuthenticationPrincipal UserPrincipal principal,
-        @RequestParam(defaultValue = "0") int page,
-        @RequestParam(defaultValue = "20") int size
+        @RequestParam(required = false) String sortBy,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer size
     ) {
-        int cappedSize = Math.min(Math.max(size, 1), 100);
-        var pageable = PageRequest.of(page, cappedSize, Sort.by(Sort.Direction.DESC, "createdAt"));
-        var result = krawlService.getKrawlSummariesByCreator(principal.getUserId(), pageable);
-        return ResponseEntity.ok(result.getContent());
+        return ResponseEntity.ok(
+            krawlService.getKrawlSummariesByCreator(principal.getUserId(), sortBy, cursor, size));
     }
 
     @PatchMapping
@@ -0,0 +1,43 @@
+package com.krawl.backend.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Queued offline actions, in the order they were made. Operations are checked one by one so a
+ * bad entry is rejected on its own instead of failing the whole replay.
+ */
+@Data
+public class SyncMutationRequest {
+
+    @NotEmpty(message = "Operations are required")
+    private List<Operation> operations = new ArrayList<>();
+
+    public enum OperationType {
+        CREATE_GEM, VOUCH_GEM, RATE_GEM, SAVE_KRAWL
+    }
+
+    @Data
+    public static class Operation {
+        /**
+         * Client-chosen id, unique per user; replaying the same id never applies twice.
+         */
+        private String clientOpId;
+        private OperationType type;
+
+        /**
+         * Target of VOUCH_GEM / RATE_GEM. For CREATE_GEM, an optional client-generated id so
+         * later operations in the queue can refer to the new gem.
+         */
+        private UUID gemId;
+        private UUID krawlId;
+
+        private GemCreateRequest gem;
+        private Integer rating;
+        private String comment;
+    }
+}
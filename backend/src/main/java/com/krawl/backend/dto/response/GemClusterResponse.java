@@ -0,0 +1,35 @@
+package com.krawl.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GemClusterResponse {
+    private int zoom;
+    private boolean clustered;
+    private List<Cluster> clusters;
+    private List<GemMarkerResponse> markers;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Cluster {
+        private String cellId;
+        private long count;
+        private Double latitude;
+        private Double longitude;
+        private UUID topGemId;
+        private String topGemName;
+        private BigDecimal topGemRating;
+    }
+}
@@ -0,0 +1,65 @@
+package com.krawl.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Everything the gem detail screen shows, assembled with a fixed number of queries.
+ * Photos and tags are capped; {@code morePhotos} tells the client to page the rest.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GemDetailResponse {
+    private GemResponse gem;
+    private Founder founder;
+    private List<Photo> photos;
+    private boolean morePhotos;
+    private List<String> tags;
+    private RatingSummary ratings;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Founder {
+        private UUID userId;
+        private String username;
+        private String reputationTier;
+        private BigDecimal creatorScore;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Photo {
+        private UUID photoId;
+        private String url;
+        private String caption;
+        private boolean featured;
+        private LocalDateTime createdAt;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class RatingSummary {
+        private BigDecimal average;
+        private Integer count;
+        /**
+         * Number of ratings per star value 1-5; every star is present, zero when unused.
+         */
+        private Map<Integer, Long> distribution;
+    }
+}
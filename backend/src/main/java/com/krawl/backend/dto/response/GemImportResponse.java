@@ -0,0 +1,29 @@
+package com.krawl.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GemImportResponse {
+    private long totalRows;
+    private long importedRows;
+    private long failedRows;
+    private boolean truncated;
+    private List<RowError> errors;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long row;
+        private String field;
+        private String message;
+    }
+}
@@ -0,0 +1,29 @@
+package com.krawl.backend.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Compact map marker. Field names are short on purpose; this is the payload
+ * sent for every gem on screen.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GemMarkerResponse {
+    private UUID id;
+    private Double lat;
+    private Double lng;
+    private String name;
+    private BigDecimal rating;
+    private String status;
+    private String thumb;
+}
@@ -22,6 +22,7 @@ public class GemResponse {
     private UUID founderId;
     private String founderUsername;
     private Integer vouchCount;
+    private Long viewCount;
     private BigDecimal averageRating;
     private Integer ratingCount;
     private String approvalStatus;
@@ -0,0 +1,27 @@
+package com.krawl.backend.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GemSearchResponse {
+    private UUID gemId;
+    private String name;
+    private Double latitude;
+    private Double longitude;
+    private BigDecimal averageRating;
+    private Integer vouchCount;
+    private String lifecycleStatus;
+    private Double distanceMeters;
+    private Double score;
+}
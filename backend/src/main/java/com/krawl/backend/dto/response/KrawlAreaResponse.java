@@ -0,0 +1,20 @@
+package com.krawl.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class KrawlAreaResponse {
+    private UUID krawlId;
+    private String title;
+    private BigDecimal averageRating;
+    private KrawlRouteResponse route;
+}
@@ -0,0 +1,48 @@
+package com.krawl.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Offline bundle for one krawl: the krawl with its route, and every stop's full gem record
+ * with tags and photos (original and thumbnail URLs). Served gzip-compressed; the ETag is a
+ * hash of this document, so it carries no build timestamp.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class KrawlBundleResponse {
+    private int formatVersion;
+    private KrawlResponse krawl;
+    private List<BundleGem> gems;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class BundleGem {
+        private GemResponse gem;
+        private List<String> tags;
+        private List<Photo> photos;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Photo {
+        private UUID photoId;
+        private String url;
+        private String thumbnailUrl;
+        private String caption;
+        private boolean featured;
+        private LocalDateTime createdAt;
+    }
+}
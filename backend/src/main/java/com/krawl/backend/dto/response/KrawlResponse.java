@@ -24,7 +24,9 @@ public class KrawlResponse {
     private String visibility;
     private BigDecimal averageRating;
     private Integer ratingCount;
+    private Integer itemCount;
     private List<KrawlItemResponse> items;
+    private KrawlRouteResponse route;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
@@ -0,0 +1,39 @@
+package com.krawl.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Proposed stop order for a krawl. Nothing is saved; stops are listed in the proposed order
+ * and distances are straight-line (haversine) walking legs in metres.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class KrawlRouteOptimizationResponse {
+    private UUID krawlId;
+    private boolean fixedStart;
+    private boolean fixedEnd;
+    private double originalMeters;
+    private double optimizedMeters;
+    private double savedMeters;
+    private List<Stop> stops;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Stop {
+        private UUID krawlItemId;
+        private UUID gemId;
+        private String gemName;
+        private Integer currentStepOrder;
+        private Integer proposedStepOrder;
+    }
+}
@@ -0,0 +1,43 @@
+package com.krawl.backend.dto.response;
+
+import com.krawl.backend.repository.projection.KrawlRouteRow;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Precomputed route of a krawl. {@code path} is GeoJSON-ordered [lng, lat] pairs in step
+ * order, {@code bbox} is [minLng, minLat, maxLng, maxLat] and {@code legMeters[i]} is the
+ * distance from stop i to stop i+1. Walk time assumes straight-line legs at 1.3 m/s.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class KrawlRouteResponse {
+    private int stopCount;
+    private double totalMeters;
+    private int walkSeconds;
+    private double[] legMeters;
+    private double[] bbox;
+    private double[][] path;
+    private OffsetDateTime updatedAt;
+
+    public static KrawlRouteResponse from(KrawlRouteRow row) {
+        if (row == null) {
+            return null;
+        }
+        return KrawlRouteResponse.builder()
+            .stopCount(row.stopCount())
+            .totalMeters(row.totalMeters())
+            .walkSeconds(row.walkSeconds())
+            .legMeters(row.legMeters())
+            .bbox(row.bbox())
+            .path(row.path())
+            .updatedAt(row.updatedAt())
+            .build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.krawl.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One chunk of a delta sync. Apply the chunk, store {@code nextCursor}, and call again with it
+ * while {@code hasMore} is true; once false, keep the cursor for the next sync. Krawls always
+ * carry their complete item list, so item changes arrive as krawl changes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyncChangesResponse {
+    private OffsetDateTime watermark;
+    @Builder.Default
+    private List<GemResponse> gems = new ArrayList<>();
+    @Builder.Default
+    private List<UUID> removedGemIds = new ArrayList<>();
+    @Builder.Default
+    private List<KrawlResponse> krawls = new ArrayList<>();
+    @Builder.Default
+    private List<UUID> removedKrawlIds = new ArrayList<>();
+    @Builder.Default
+    private List<SavedKrawl> savedKrawls = new ArrayList<>();
+    @Builder.Default
+    private List<UUID> unsavedKrawlIds = new ArrayList<>();
+    private String nextCursor;
+    private boolean hasMore;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class SavedKrawl {
+        private UUID krawlId;
+        private OffsetDateTime savedAt;
+        private boolean downloaded;
+        private OffsetDateTime lastDownloadedAt;
+    }
+}
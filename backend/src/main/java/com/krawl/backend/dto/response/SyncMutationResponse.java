@@ -0,0 +1,46 @@
+package com.krawl.backend.dto.response;
+
+import com.krawl.backend.dto.request.SyncMutationRequest;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Per-operation outcomes in request order. APPLIED, REJECTED and NOT_FOUND are final and the
+ * client can drop the queued action; FAILED means its chunk hit a database error and the action
+ * should be retried with the same clientOpId.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyncMutationResponse {
+    private List<Result> results;
+
+    public enum Status {
+        APPLIED, REJECTED, NOT_FOUND, FAILED
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Result {
+        private String clientOpId;
+        private SyncMutationRequest.OperationType type;
+        private Status status;
+        /**
+         * True when the outcome was recorded by an earlier replay of the same clientOpId.
+         */
+        private boolean replayed;
+        /**
+         * Id of the created or affected gem or krawl.
+         */
+        private UUID resultId;
+        private String message;
+    }
+}
@@ -0,0 +1,24 @@
+package com.krawl.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TrendingGemResponse {
+    private int rank;
+    private UUID gemId;
+    private String name;
+    private Double latitude;
+    private Double longitude;
+    private BigDecimal averageRating;
+    private int vouchCount;
+    private double score;
+}
@@ -0,0 +1,26 @@
+package com.krawl.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TrendingKrawlResponse {
+    private int rank;
+    private UUID krawlId;
+    private String title;
+    private String description;
+    private UUID creatorId;
+    private String creatorUsername;
+    private BigDecimal averageRating;
+    private int ratingCount;
+    private int stopCount;
+    private double score;
+}
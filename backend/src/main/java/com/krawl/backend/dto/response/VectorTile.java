@@ -0,0 +1,9 @@
+package com.krawl.backend.dto.response;
+
+import lombok.Value;
+
+@Value
+public class VectorTile {
+    byte[] data;
+    String etag;
+}
@@ -2,6 +2,7 @@ package com.krawl.backend.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Formula;
 import org.locationtech.jts.geom.Point;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
@@ -35,13 +36,18 @@ public class Gem {
     @JoinColumn(name = "founder_id")
     private User founder;
     
-    @Column(name = "vouch_count", nullable = false)
+    // Vouch and view counts are written behind by GemCounterService and rating aggregates are
+    // maintained by database triggers; never written from here. Views live in gem_counters (V21)
+    @Column(name = "vouch_count", nullable = false, insertable = false, updatable = false)
     private Integer vouchCount = 0;
     
-    @Column(name = "average_rating", precision = 3, scale = 2, nullable = false)
+    @Formula("(SELECT COALESCE(MAX(c.view_count), 0) FROM gem_counters c WHERE c.gem_id = gem_id)")
+    private Long viewCount = 0L;
+    
+    @Column(name = "average_rating", precision = 3, scale = 2, nullable = false, insertable = false, updatable = false)
     private java.math.BigDecimal averageRating = java.math.BigDecimal.ZERO;
     
-    @Column(name = "rating_count", nullable = false)
+    @Column(name = "rating_count", nullable = false, insertable = false, updatable = false)
     private Integer ratingCount = 0;
     
     @Column(name = "approval_status", length = 50, nullable = false)
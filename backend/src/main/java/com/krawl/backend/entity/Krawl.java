@@ -34,10 +34,11 @@ public class Krawl {
     @Column(name = "visibility", length = 50, nullable = false)
     private String visibility = "public";
     
-    @Column(name = "average_rating", precision = 3, scale = 2, nullable = false)
+    // Rating aggregates are maintained by database triggers (V15); never written from here
+    @Column(name = "average_rating", precision = 3, scale = 2, nullable = false, insertable = false, updatable = false)
     private java.math.BigDecimal averageRating = java.math.BigDecimal.ZERO;
     
-    @Column(name = "rating_count", nullable = false)
+    @Column(name = "rating_count", nullable = false, insertable = false, updatable = false)
     private Integer ratingCount = 0;
     
     @CreatedDate
@@ -32,10 +32,11 @@ public class User {
     @Column(name = "bio", columnDefinition = "TEXT")
     private String bio;
     
-    @Column(name = "creator_score", precision = 3, scale = 2)
+    // Maintained by CreatorScoreService; never written from here
+    @Column(name = "creator_score", precision = 3, scale = 2, insertable = false, updatable = false)
     private java.math.BigDecimal creatorScore = java.math.BigDecimal.ZERO;
     
-    @Column(name = "reputation_tier", length = 50)
+    @Column(name = "reputation_tier", length = 50, insertable = false, updatable = false)
     private String reputationTier = "Newcomer";
     
     @CreatedDate
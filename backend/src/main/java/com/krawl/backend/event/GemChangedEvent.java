@@ -0,0 +1,36 @@
+package com.krawl.backend.event;
+
+import com.krawl.backend.entity.Gem;
+import lombok.Value;
+import org.locationtech.jts.geom.Point;
+
+import java.util.UUID;
+
+/**
+ * Published by GemServiceImpl whenever a gem is created, updated or deleted.
+ * Carries the location before and after the change so map caches can evict
+ * exactly the cells/tiles that contained the gem. Either side may be null
+ * (no previous location on create, no new location on delete).
+ */
+@Value
+public class GemChangedEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    UUID gemId;
+    Type type;
+    Point oldLocation;
+    Point newLocation;
+
+    public static GemChangedEvent created(Gem gem) {
+        return new GemChangedEvent(gem.getGemId(), Type.CREATED, null, gem.getLocation());
+    }
+
+    public static GemChangedEvent updated(Gem gem, Point oldLocation) {
+        return new GemChangedEvent(gem.getGemId(), Type.UPDATED, oldLocation, gem.getLocation());
+    }
+
+    public static GemChangedEvent deleted(UUID gemId, Point oldLocation) {
+        return new GemChangedEvent(gemId, Type.DELETED, oldLocation, null);
+    }
+}
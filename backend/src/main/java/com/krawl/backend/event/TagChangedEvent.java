@@ -0,0 +1,15 @@
+package com.krawl.backend.event;
+
+import lombok.Value;
+
+/**
+ * Published when a tag is created or deleted, so in-memory tag structures can follow.
+ */
+@Value
+public class TagChangedEvent {
+
+    public enum Type { CREATED, DELETED }
+
+    Integer tagId;
+    Type type;
+}
@@ -0,0 +1,336 @@
+package com.krawl.backend.index;
+
+import com.krawl.backend.config.properties.TagIndexProperties;
+import com.krawl.backend.event.GemChangedEvent;
+import com.krawl.backend.event.TagChangedEvent;
+import com.krawl.backend.repository.GemTagIndexRepository;
+import com.krawl.backend.repository.projection.GemTagIndexRow;
+import com.krawl.backend.util.BoundingBox;
+import com.krawl.backend.util.TileGrid;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory tag filter for visible gems.
+ *
+ * <p>Each gem gets a dense int ordinal. Every tag and every spatial grid cell (at
+ * {@code cellZoom}) maps to a Roaring bitmap of ordinals, so "tag A AND tag B in this viewport"
+ * is an AND of two tag bitmaps with the OR of the covering cells, followed by an exact bbox check
+ * and a top-N by rating on the few surviving ordinals.</p>
+ *
+ * <p>The index is built in full on startup and every {@code rebuildIntervalMs}, and kept current in
+ * between by reloading single gems on {@link GemChangedEvent}. Changes that arrive while a rebuild is
+ * streaming are replayed onto the new snapshot before it is published.</p>
+ */
+@Slf4j
+@Component
+public class TagBitmapIndex {
+
+    private final GemTagIndexRepository repository;
+    private final TagIndexProperties settings;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<UUID> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    private volatile Snapshot snapshot;
+    private volatile boolean rebuilding;
+
+    public TagBitmapIndex(GemTagIndexRepository repository, TagIndexProperties settings) {
+        this.repository = repository;
+        this.settings = settings;
+    }
+
+    public boolean isReady() {
+        return settings.isEnabled() && snapshot != null;
+    }
+
+    public int size() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.live.getCardinality();
+    }
+
+    /**
+     * Gem ids in {@code bbox} that carry every tag in {@code allTagIds} and at least one tag in
+     * {@code anyTagIds} (an empty set means no constraint), highest indexed rating first.
+     */
+    public List<UUID> find(BoundingBox bbox, Collection<Integer> allTagIds, Collection<Integer> anyTagIds, int limit) {
+        lock.readLock().lock();
+        try {
+            Snapshot current = snapshot;
+            if (current == null) {
+                throw new IllegalStateException("Tag index has not been built yet");
+            }
+            RoaringBitmap matches = current.match(allTagIds, anyTagIds);
+            if (matches == null || matches.isEmpty()) {
+                return List.of();
+            }
+            RoaringBitmap cells = current.cellsCovering(bbox, settings.getMaxCells());
+            if (cells != null) {
+                matches = RoaringBitmap.and(matches, cells);
+            }
+            return current.topRated(matches, bbox, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.gems.tag-index.rebuild-interval-ms:900000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        rebuilding = true;
+        changedDuringRebuild.clear();
+        try {
+            Snapshot next = new Snapshot(settings.getCellZoom());
+            repository.streamIndexRows(next::upsert);
+
+            lock.writeLock().lock();
+            try {
+                snapshot = next;
+                rebuilding = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            for (UUID gemId : changedDuringRebuild) {
+                refresh(gemId);
+            }
+            changedDuringRebuild.clear();
+            log.info("Tag index rebuilt: {} gems, {} tags in {} ms", next.live.getCardinality(),
+                next.byTag.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Tag index rebuild failed; keeping the previous snapshot", e);
+        } finally {
+            rebuilding = false;
+        }
+    }
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGemChanged(GemChangedEvent event) {
+        if (rebuilding) {
+            changedDuringRebuild.add(event.getGemId());
+        }
+        if (snapshot != null) {
+            refresh(event.getGemId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagChanged(TagChangedEvent event) {
+        if (event.getType() != TagChangedEvent.Type.DELETED || snapshot == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            snapshot.byTag.remove(event.getTagId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void refresh(UUID gemId) {
+        var row = repository.findIndexRow(gemId);
+        lock.writeLock().lock();
+        try {
+            if (row.isPresent()) {
+                snapshot.upsert(row.get());
+            } else {
+                snapshot.remove(gemId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ordinal-addressed columns plus the tag and cell bitmaps. Ordinals of removed gems stay reserved
+     * until the next full rebuild so bitmaps never need renumbering.
+     */
+    static final class Snapshot {
+        private static final int[] NO_TAGS = new int[0];
+
+        private final double cellSize;
+        private final Map<UUID, Integer> ordinals = new HashMap<>();
+        private final Map<Integer, RoaringBitmap> byTag = new HashMap<>();
+        private final Map<Long, RoaringBitmap> byCell = new HashMap<>();
+        private final RoaringBitmap live = new RoaringBitmap();
+        private UUID[] gemIds = new UUID[1024];
+        private double[] latitudes = new double[1024];
+        private double[] longitudes = new double[1024];
+        private float[] ratings = new float[1024];
+        private int[][] tags = new int[1024][];
+        private int next;
+
+        Snapshot(int cellZoom) {
+            this.cellSize = TileGrid.cellSizeDegrees(cellZoom, 1);
+        }
+
+        void upsert(GemTagIndexRow row) {
+            Integer existing = ordinals.get(row.gemId());
+            int ordinal;
+            if (existing != null) {
+                ordinal = existing;
+                unlink(ordinal);
+            } else {
+                ordinal = next++;
+                ensureCapacity(ordinal + 1);
+                ordinals.put(row.gemId(), ordinal);
+                gemIds[ordinal] = row.gemId();
+            }
+            latitudes[ordinal] = row.latitude();
+            longitudes[ordinal] = row.longitude();
+            ratings[ordinal] = row.averageRating();
+            tags[ordinal] = row.tagIds() != null ? row.tagIds() : NO_TAGS;
+
+            for (int tagId : tags[ordinal]) {
+                byTag.computeIfAbsent(tagId, id -> new RoaringBitmap()).add(ordinal);
+            }
+            byCell.computeIfAbsent(cell(row.longitude(), row.latitude()), key -> new RoaringBitmap()).add(ordinal);
+            live.add(ordinal);
+        }
+
+        void remove(UUID gemId) {
+            Integer ordinal = ordinals.get(gemId);
+            if (ordinal != null && live.contains(ordinal)) {
+                unlink(ordinal);
+                tags[ordinal] = NO_TAGS;
+            }
+        }
+
+        private void unlink(int ordinal) {
+            for (int tagId : tags[ordinal]) {
+                RoaringBitmap bitmap = byTag.get(tagId);
+                if (bitmap != null) {
+                    bitmap.remove(ordinal);
+                }
+            }
+            RoaringBitmap cellBitmap = byCell.get(cell(longitudes[ordinal], latitudes[ordinal]));
+            if (cellBitmap != null) {
+                cellBitmap.remove(ordinal);
+            }
+            live.remove(ordinal);
+        }
+
+        /**
+         * AND of the required tags (smallest first) intersected with the OR of the optional ones.
+         * Returns null when a required tag is unknown, i.e. nothing can match.
+         */
+        RoaringBitmap match(Collection<Integer> allTagIds, Collection<Integer> anyTagIds) {
+            RoaringBitmap result = null;
+            if (!allTagIds.isEmpty()) {
+                List<RoaringBitmap> required = new ArrayList<>(allTagIds.size());
+                for (Integer tagId : allTagIds) {
+                    RoaringBitmap bitmap = byTag.get(tagId);
+                    if (bitmap == null) {
+                        return null;
+                    }
+                    required.add(bitmap);
+                }
+                required.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+                result = FastAggregation.and(required.iterator());
+            }
+            if (!anyTagIds.isEmpty()) {
+                List<RoaringBitmap> optional = new ArrayList<>(anyTagIds.size());
+                for (Integer tagId : anyTagIds) {
+                    RoaringBitmap bitmap = byTag.get(tagId);
+                    if (bitmap != null) {
+                        optional.add(bitmap);
+                    }
+                }
+                RoaringBitmap union = FastAggregation.or(optional.iterator());
+                result = result == null ? union : RoaringBitmap.and(result, union);
+            }
+            return result != null ? result : live;
+        }
+
+        /**
+         * OR of the cell bitmaps under {@code bbox}, or null when the bbox spans too many cells to be worth it.
+         */
+        RoaringBitmap cellsCovering(BoundingBox bbox, int maxCells) {
+            long minX = index(bbox.getMinLng());
+            long maxX = index(bbox.getMaxLng());
+            long minY = index(bbox.getMinLat());
+            long maxY = index(bbox.getMaxLat());
+            if ((maxX - minX + 1) * (maxY - minY + 1) > maxCells) {
+                return null;
+            }
+            List<RoaringBitmap> covering = new ArrayList<>();
+            for (long x = minX; x <= maxX; x++) {
+                for (long y = minY; y <= maxY; y++) {
+                    RoaringBitmap bitmap = byCell.get(pack(x, y));
+                    if (bitmap != null) {
+                        covering.add(bitmap);
+                    }
+                }
+            }
+            return FastAggregation.or(covering.iterator());
+        }
+
+        List<UUID> topRated(RoaringBitmap candidates, BoundingBox bbox, int limit) {
+            // Min-heap on rating so the weakest of the current top N is evicted first
+            PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1,
+                Comparator.<Integer>comparingDouble(ordinal -> ratings[ordinal])
+                    .thenComparing(Comparator.<Integer>reverseOrder()));
+            candidates.forEach((int ordinal) -> {
+                if (bbox.contains(longitudes[ordinal], latitudes[ordinal])) {
+                    top.add(ordinal);
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            });
+
+            UUID[] result = new UUID[top.size()];
+            for (int i = result.length - 1; i >= 0; i--) {
+                result[i] = gemIds[top.poll()];
+            }
+            return Arrays.asList(result);
+        }
+
+        private long cell(double lng, double lat) {
+            return pack(index(lng), index(lat));
+        }
+
+        private long index(double coordinate) {
+            return (long) Math.floor(coordinate / cellSize);
+        }
+
+        private static long pack(long x, long y) {
+            return (x << 32) ^ (y & 0xffffffffL);
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= gemIds.length) {
+                return;
+            }
+            int grown = Math.max(capacity, gemIds.length * 2);
+            gemIds = Arrays.copyOf(gemIds, grown);
+            latitudes = Arrays.copyOf(latitudes, grown);
+            longitudes = Arrays.copyOf(longitudes, grown);
+            ratings = Arrays.copyOf(ratings, grown);
+            tags = Arrays.copyOf(tags, grown);
+        }
+    }
+}
@@ -2,18 +2,37 @@ package com.krawl.backend.mapper;
 
 import com.krawl.backend.dto.request.GemCreateRequest;
 import com.krawl.backend.dto.request.GemUpdateRequest;
+import com.krawl.backend.dto.response.GemClusterResponse;
+import com.krawl.backend.dto.response.GemDetailResponse;
+import com.krawl.backend.dto.response.GemMarkerResponse;
+import com.krawl.backend.dto.response.GemNearbyResponse;
 import com.krawl.backend.dto.response.GemResponse;
+import com.krawl.backend.dto.response.GemSearchResponse;
 import com.krawl.backend.entity.Gem;
+import com.krawl.backend.entity.GemPhoto;
+import com.krawl.backend.entity.User;
+import com.krawl.backend.repository.projection.GemClusterRow;
+import com.krawl.backend.repository.projection.GemMarkerRow;
+import com.krawl.backend.repository.projection.GemNearbyRow;
+import com.krawl.backend.repository.projection.GemSearchRow;
+import com.krawl.backend.service.GemCounterService;
+import lombok.RequiredArgsConstructor;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Point;
 import org.springframework.stereotype.Component;
 
+import java.util.UUID;
+
 @Component
+@RequiredArgsConstructor
 public class GemMapper {
     
     private static final GeometryFactory geometryFactory = new GeometryFactory();
     
+    // Vouch and view counts are merged with the deltas not yet written back
+    private final GemCounterService gemCounterService;
+    
     public GemResponse toResponse(Gem gem) {
         if (gem == null) {
             return null;
@@ -34,7 +53,8 @@ public class GemMapper {
                 .longitude(longitude)
                 .founderId(gem.getFounder() != null ? gem.getFounder().getUserId() : null)
                 .founderUsername(gem.getFounder() != null ? gem.getFounder().getUsername() : null)
-                .vouchCount(gem.getVouchCount())
+                .vouchCount(vouchCount(gem.getGemId(), gem.getVouchCount()))
+                .viewCount(viewCount(gem.getGemId(), gem.getViewCount()))
                 .averageRating(gem.getAverageRating())
                 .ratingCount(gem.getRatingCount())
                 .approvalStatus(gem.getApprovalStatus())
@@ -45,6 +65,100 @@ public class GemMapper {
                 .build();
     }
     
+    public GemDetailResponse.Founder toFounder(User founder) {
+        if (founder == null) {
+            return null;
+        }
+        
+        return GemDetailResponse.Founder.builder()
+                .userId(founder.getUserId())
+                .username(founder.getUsername())
+                .reputationTier(founder.getReputationTier())
+                .creatorScore(founder.getCreatorScore())
+                .build();
+    }
+    
+    public GemDetailResponse.Photo toPhoto(GemPhoto photo) {
+        if (photo == null) {
+            return null;
+        }
+        
+        return GemDetailResponse.Photo.builder()
+                .photoId(photo.getPhotoId())
+                .url(photo.getPhotoUrl())
+                .caption(photo.getCaption())
+                .featured(Boolean.TRUE.equals(photo.getIsFeatured()))
+                .createdAt(photo.getCreatedAt())
+                .build();
+    }
+    
+    public GemMarkerResponse toMarker(GemMarkerRow row, String thumbUrl) {
+        if (row == null) {
+            return null;
+        }
+        
+        return GemMarkerResponse.builder()
+                .id(row.gemId())
+                .lat(row.latitude())
+                .lng(row.longitude())
+                .name(row.name())
+                .rating(row.averageRating())
+                .status(row.lifecycleStatus())
+                .thumb(thumbUrl)
+                .build();
+    }
+    
+    public GemClusterResponse.Cluster toCluster(GemClusterRow row, int zoom) {
+        if (row == null) {
+            return null;
+        }
+        
+        return GemClusterResponse.Cluster.builder()
+                .cellId(zoom + "/" + row.getCellX() + "/" + row.getCellY())
+                .count(row.getGemCount())
+                .latitude(row.getCentroidLatitude())
+                .longitude(row.getCentroidLongitude())
+                .topGemId(row.getTopGemId())
+                .topGemName(row.getTopGemName())
+                .topGemRating(row.getTopGemRating())
+                .build();
+    }
+    
+    public GemNearbyResponse toNearby(GemNearbyRow row) {
+        if (row == null) {
+            return null;
+        }
+        
+        return GemNearbyResponse.builder()
+                .gemId(row.gemId())
+                .name(row.name())
+                .latitude(row.latitude())
+                .longitude(row.longitude())
+                .averageRating(row.averageRating())
+                .vouchCount(vouchCount(row.gemId(), row.vouchCount()))
+                .lifecycleStatus(row.lifecycleStatus())
+                .distanceMeters(row.distanceMeters())
+                .build();
+    }
+    
+    public GemSearchResponse toSearchResult(GemSearchRow row) {
+        if (row == null) {
+            return null;
+        }
+        
+        return GemSearchResponse.builder()
+                .gemId(row.gemId())
+                .name(row.name())
+                .latitude(row.latitude())
+                .longitude(row.longitude())
+                .averageRating(row.averageRating())
+                .vouchCount(vouchCount(row.gemId(), row.vouchCount()))
+                .lifecycleStatus(row.lifecycleStatus())
+                .distanceMeters(row.distanceMeters())
+                .score(row.score())
+                .build();
+    }
+    
     public Gem toEntity(GemCreateRequest request) {
         if (request == null) {
             return null;
@@ -85,5 +199,18 @@ public class GemMapper {
             gem.setLocation(location);
         }
     }
+    
+    private Integer vouchCount(UUID gemId, Integer stored) {
+        if (gemId == null || stored == null) {
+            return stored;
+        }
+        return Math.toIntExact(stored + gemCounterService.pendingVouches(gemId));
+    }
+    
+    private Long viewCount(UUID gemId, Long stored) {
+        if (gemId == null || stored == null) {
+            return stored;
+        }
+        return stored + gemCounterService.pendingViews(gemId);
+    }
 }
-
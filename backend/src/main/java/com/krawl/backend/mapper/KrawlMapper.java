@@ -0,0 +1,88 @@
+package com.krawl.backend.mapper;
+
+import com.krawl.backend.dto.response.KrawlResponse;
+import com.krawl.backend.dto.response.KrawlRouteResponse;
+import com.krawl.backend.entity.Krawl;
+import com.krawl.backend.entity.KrawlItem;
+import com.krawl.backend.repository.projection.KrawlRouteRow;
+import com.krawl.backend.repository.projection.PublicKrawlRow;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+@Component
+public class KrawlMapper {
+
+    public KrawlResponse toResponse(Krawl krawl) {
+        return toResponse(krawl, null);
+    }
+
+    /**
+     * Maps a krawl whose creator and items (with gems) are already loaded.
+     */
+    public KrawlResponse toResponse(Krawl krawl, KrawlRouteRow route) {
+        if (krawl == null) {
+            return null;
+        }
+
+        List<KrawlResponse.KrawlItemResponse> items = krawl.getItems() == null
+            ? List.of()
+            : krawl.getItems().stream().map(this::toItem).toList();
+
+        return KrawlResponse.builder()
+            .krawlId(krawl.getKrawlId())
+            .title(krawl.getTitle())
+            .description(krawl.getDescription())
+            .creatorId(krawl.getCreator().getUserId())
+            .creatorUsername(krawl.getCreator().getUsername())
+            .creatorScore(krawl.getCreator().getCreatorScore())
+            .visibility(krawl.getVisibility())
+            .averageRating(krawl.getAverageRating())
+            .ratingCount(krawl.getRatingCount())
+            .itemCount(items.size())
+            .items(items)
+            .route(KrawlRouteResponse.from(route))
+            .createdAt(krawl.getCreatedAt())
+            .updatedAt(krawl.getUpdatedAt())
+            .build();
+    }
+
+    /**
+     * Maps a list row; items are left out and only counted.
+     */
+    public KrawlResponse toResponse(PublicKrawlRow row, KrawlRouteRow route) {
+        return KrawlResponse.builder()
+            .krawlId(row.krawlId())
+            .title(row.title())
+            .description(row.description())
+            .creatorId(row.creatorId())
+            .creatorUsername(row.creatorUsername())
+            .creatorScore(row.creatorScore())
+            .visibility(row.visibility())
+            .averageRating(row.averageRating())
+            .ratingCount(row.ratingCount())
+            .itemCount((int) row.itemCount())
+            .route(KrawlRouteResponse.from(route))
+            .createdAt(toLocal(row.createdAt()))
+            .updatedAt(toLocal(row.updatedAt()))
+            .build();
+    }
+
+    public KrawlResponse.KrawlItemResponse toItem(KrawlItem item) {
+        return KrawlResponse.KrawlItemResponse.builder()
+            .krawlItemId(item.getKrawlItemId())
+            .gemId(item.getGem().getGemId())
+            .gemName(item.getGem().getName())
+            .stepOrder(item.getStepOrder())
+            .creatorNote(item.getCreatorNote())
+            .lokalSecret(item.getLokalSecret())
+            .build();
+    }
+
+    private static LocalDateTime toLocal(OffsetDateTime value) {
+        return value == null ? null : value.atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+}
@@ -0,0 +1,35 @@
+package com.krawl.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Sends cache invalidations to the other instances. Postgres delivers NOTIFY when the sending
+ * transaction commits, to every session LISTENing on the channel, including the sender's own.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CacheInvalidationRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Sends one notification per payload in a single statement.
+     */
+    public void send(String channel, List<String> payloads) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.query("""
+                SELECT pg_notify(:channel, p.payload)
+                FROM unnest(CAST(ARRAY[:payloads] AS text[])) AS p(payload)
+                """,
+            new MapSqlParameterSource("channel", channel)
+                .addValue("payloads", payloads),
+            rs -> { });
+    }
+}
@@ -0,0 +1,107 @@
+package com.krawl.backend.repository;
+
+import com.krawl.backend.repository.projection.UserCacheKeyRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Set-based creator score and reputation tier recompute (V16), and the pass's watermark (V22).
+ */
+@Repository
+@RequiredArgsConstructor
+public class CreatorScoreRepository {
+
+    public static final String WATERMARK = "creator_scores";
+
+    /**
+     * Score: average rating of the creator's live krawls with at least 3 ratings.
+     * Tiers (docs/reference/glossary.md): Kanto Guide at score >= 4.2 with 10+ high-rated
+     * krawls (3+ ratings averaging 4.0 or more), Trail Maker at score >= 3.5 with 3+ krawls,
+     * Newcomer otherwise. Only rows whose score or tier changed are written.
+     */
+    private static final String RECOMPUTE_SQL = """
+        WITH stats AS (
+            SELECT u.user_id,
+                   COALESCE(AVG(k.average_rating) FILTER (WHERE k.rating_count >= 3), 0)::NUMERIC(3,2) AS score,
+                   COUNT(k.krawl_id) AS krawls,
+                   COUNT(k.krawl_id) FILTER (WHERE k.rating_count >= 3 AND k.average_rating >= 4.0) AS high_rated
+            FROM users u
+            LEFT JOIN krawls k ON k.creator_id = u.user_id AND k.deleted_at IS NULL
+            WHERE u.user_id IN (:ids)
+            GROUP BY u.user_id
+        ), computed AS (
+            SELECT user_id, score,
+                   CASE
+                       WHEN score >= 4.2 AND high_rated >= 10 THEN 'Kanto Guide'
+                       WHEN score >= 3.5 AND krawls >= 3 THEN 'Trail Maker'
+                       ELSE 'Newcomer'
+                   END AS tier
+            FROM stats
+        )
+        UPDATE users u
+        SET creator_score = c.score,
+            reputation_tier = c.tier
+        FROM computed c
+        WHERE u.user_id = c.user_id
+          AND (u.creator_score IS DISTINCT FROM c.score OR u.reputation_tier IS DISTINCT FROM c.tier)
+        RETURNING u.user_id, u.username, u.email
+        """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Locks the creator score watermark for the rest of the transaction and returns it, creating
+     * it at {@code floor} if missing. A second instance running the pass waits here.
+     */
+    public OffsetDateTime lockWatermark(OffsetDateTime floor) {
+        var params = new MapSqlParameterSource("counter", WATERMARK).addValue("floor", floor);
+        jdbcTemplate.update("""
+                INSERT INTO counter_checkpoints (counter, flushed_at) VALUES (:counter, :floor)
+                ON CONFLICT (counter) DO NOTHING
+                """, params);
+        return jdbcTemplate.queryForObject(
+            "SELECT flushed_at FROM counter_checkpoints WHERE counter = :counter FOR UPDATE",
+            params, OffsetDateTime.class);
+    }
+
+    public void saveWatermark(OffsetDateTime upper) {
+        jdbcTemplate.update("UPDATE counter_checkpoints SET flushed_at = :upper WHERE counter = :counter",
+            new MapSqlParameterSource("counter", WATERMARK).addValue("upper", upper));
+    }
+
+    /**
+     * Creators of krawls changed in [since, upper). Rating writes move krawls.updated_at
+     * through the V15 aggregate update, as do edits and soft deletes.
+     */
+    public List<UUID> findCreatorsOfChangedKrawls(OffsetDateTime since, OffsetDateTime upper) {
+        return jdbcTemplate.queryForList("""
+                SELECT DISTINCT creator_id
+                FROM krawls
+                WHERE updated_at >= :since AND updated_at < :upper
+                """,
+            new MapSqlParameterSource().addValue("since", since).addValue("upper", upper),
+            UUID.class);
+    }
+
+    /**
+     * Recomputes the given creators and returns the cache keys of those whose score or tier
+     * changed.
+     */
+    public List<UserCacheKeyRow> recompute(Collection<UUID> creatorIds) {
+        if (creatorIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(RECOMPUTE_SQL, new MapSqlParameterSource("ids", creatorIds),
+            (rs, rowNum) -> new UserCacheKeyRow(
+                rs.getObject("user_id", UUID.class),
+                rs.getString("username"),
+                rs.getString("email")));
+    }
+}
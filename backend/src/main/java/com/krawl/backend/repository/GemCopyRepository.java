@@ -0,0 +1,71 @@
+package com.krawl.backend.repository;
+
+import com.krawl.backend.dto.request.GemCreateRequest;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Loads batches of new gems with PostgreSQL {@code COPY ... FROM STDIN}.
+ * Uses the connection bound to the current transaction, so each batch commits or rolls back with its caller.
+ */
+@Repository
+@RequiredArgsConstructor
+public class GemCopyRepository {
+
+    private static final String COPY_SQL =
+        "COPY gems (name, description, location, founder_id) FROM STDIN WITH (FORMAT csv)";
+
+    private final DataSource dataSource;
+
+    /**
+     * Copies already-validated rows; returns the number of rows written.
+     */
+    public long copyGems(List<GemCreateRequest> rows, UUID founderId) throws SQLException, IOException {
+        StringBuilder csv = new StringBuilder(rows.size() * 128);
+        String founder = founderId.toString();
+        for (GemCreateRequest row : rows) {
+            appendQuoted(csv, row.getName()).append(',');
+            if (row.getDescription() != null) {
+                appendQuoted(csv, row.getDescription());
+            }
+            // EWKT is accepted directly by the geography input function
+            csv.append(",SRID=4326;POINT(")
+                .append(row.getLongitude()).append(' ').append(row.getLatitude())
+                .append("),").append(founder).append('\n');
+        }
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            return connection.unwrap(PGConnection.class)
+                .getCopyAPI()
+                .copyIn(COPY_SQL, new StringReader(csv.toString()));
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Quoted CSV fields are never read as NULL, and embedded quotes are doubled.
+     */
+    private static StringBuilder appendQuoted(StringBuilder csv, String value) {
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        return csv.append('"');
+    }
+}
@@ -0,0 +1,110 @@
+package com.krawl.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ToLongFunction;
+
+/**
+ * Write-back of the gem counters: claimed vouches to gems, in-memory view deltas to gem_counters
+ * (V17, V20, V21).
+ */
+@Repository
+@RequiredArgsConstructor
+public class GemCounterRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record Delta(UUID gemId, long vouches, long views) {
+    }
+
+    /**
+     * Adds vouch deltas to gems with one UPDATE ... FROM (VALUES ...) and view deltas to
+     * gem_counters (V21) with one upsert, and returns the number of rows written. The gems are
+     * locked in id order first, like the rating and vouch triggers do, so a flush cannot deadlock
+     * with them; views of gems deleted meanwhile are dropped.
+     */
+    public int applyDeltas(List<Delta> deltas) {
+        List<Delta> vouched = deltas.stream().filter(delta -> delta.vouches() != 0).toList();
+        List<Delta> viewed = deltas.stream().filter(delta -> delta.views() != 0).toList();
+        int rows = 0;
+        if (!vouched.isEmpty()) {
+            jdbcTemplate.query(
+                "SELECT gem_id FROM gems WHERE gem_id IN (:ids) ORDER BY gem_id FOR NO KEY UPDATE",
+                new MapSqlParameterSource("ids", vouched.stream().map(Delta::gemId).toList()),
+                rs -> { });
+            MapSqlParameterSource params = new MapSqlParameterSource();
+            rows += jdbcTemplate.update("""
+                UPDATE gems g
+                SET vouch_count = g.vouch_count + d.delta
+                FROM (VALUES %s) AS d(gem_id, delta)
+                WHERE g.gem_id = d.gem_id
+                """.formatted(values(vouched, Delta::vouches, "integer", params)), params);
+        }
+        if (!viewed.isEmpty()) {
+            MapSqlParameterSource params = new MapSqlParameterSource();
+            rows += jdbcTemplate.update("""
+                INSERT INTO gem_counters (gem_id, view_count, updated_at)
+                SELECT d.gem_id, d.delta, CURRENT_TIMESTAMP
+                FROM (VALUES %s) AS d(gem_id, delta)
+                JOIN gems g ON g.gem_id = d.gem_id
+                ORDER BY d.gem_id
+                ON CONFLICT (gem_id) DO UPDATE
+                SET view_count = gem_counters.view_count + EXCLUDED.view_count,
+                    updated_at = EXCLUDED.updated_at
+                """.formatted(values(viewed, Delta::views, "bigint", params)), params);
+        }
+        return rows;
+    }
+
+    /**
+     * Marks up to {@code limit} uncounted vouches counted (V20) and returns how many were claimed
+     * per gem. Rows locked by a concurrent flush or delete are skipped, so every vouch is claimed
+     * by exactly one flush; the caller adds the result in the same transaction.
+     */
+    public Map<UUID, Long> claimUncountedVouches(int limit) {
+        Map<UUID, Long> claimed = new HashMap<>();
+        jdbcTemplate.query("""
+                WITH claimed AS (
+                    UPDATE gem_vouches v
+                    SET counted = TRUE
+                    FROM (
+                        SELECT gem_id, user_id
+                        FROM gem_vouches
+                        WHERE NOT counted
+                        LIMIT :limit
+                        FOR UPDATE SKIP LOCKED
+                    ) c
+                    WHERE v.gem_id = c.gem_id AND v.user_id = c.user_id
+                    RETURNING v.gem_id
+                )
+                SELECT gem_id, COUNT(*) AS n FROM claimed GROUP BY gem_id
+                """,
+            new MapSqlParameterSource("limit", limit),
+            rs -> {
+                claimed.put(rs.getObject("gem_id", UUID.class), rs.getLong("n"));
+            });
+        return claimed;
+    }
+
+    private static String values(List<Delta> deltas, ToLongFunction<Delta> amount, String type,
+                                 MapSqlParameterSource params) {
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < deltas.size(); i++) {
+            Delta delta = deltas.get(i);
+            if (i > 0) {
+                values.append(", ");
+            }
+            values.append("(CAST(:g").append(i).append(" AS uuid), CAST(:d").append(i)
+                .append(" AS ").append(type).append("))");
+            params.addValue("g" + i, delta.gemId()).addValue("d" + i, amount.applyAsLong(delta));
+        }
+        return values.toString();
+    }
+}
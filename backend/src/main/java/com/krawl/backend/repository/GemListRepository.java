@@ -0,0 +1,53 @@
+package com.krawl.backend.repository;
+
+import com.krawl.backend.repository.projection.KeysetRow;
+import com.krawl.backend.util.KeysetSort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keyset pages over non-deleted gems. Only ids and the sort value are read here; the
+ * service hydrates the page with {@link GemRepository#findWithFounderByGemIdIn}. Every
+ * entry in {@link #SORTS} has a partial composite index from V10, so each page is one
+ * index range scan with no OFFSET and no count query.
+ */
+@Repository
+@RequiredArgsConstructor
+public class GemListRepository {
+
+    public static final Map<String, KeysetSort> SORTS = KeysetSort.index(
+        KeysetSort.timestamp("createdAt", "created_at"),
+        KeysetSort.decimal("averageRating", "average_rating"),
+        KeysetSort.integer("vouchCount", "vouch_count"),
+        KeysetSort.text("name", "name")
+    );
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<KeysetRow> findPage(KeysetSort sort, KeysetSort.Position after, int limit) {
+        StringBuilder sql = new StringBuilder("""
+            SELECT g.gem_id, g.%s AS sort_value
+            FROM gems g
+            WHERE g.deleted_at IS NULL
+            """.formatted(sort.column()));
+
+        var params = new MapSqlParameterSource("limit", limit);
+        if (after != null) {
+            sql.append("  AND ").append(sort.seekAfter("g", "gem_id")).append('\n');
+            params.addValue("afterValue", after.value()).addValue("afterId", after.id());
+        }
+        sql.append("ORDER BY ").append(sort.orderBy("g", "gem_id")).append('\n')
+            .append("LIMIT :limit");
+
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> new KeysetRow(
+            rs.getObject("gem_id", UUID.class),
+            sort.readValue(rs, "sort_value")
+        ));
+    }
+}
@@ -0,0 +1,137 @@
+package com.krawl.backend.repository;
+
+import com.krawl.backend.repository.projection.GemMarkerRow;
+import com.krawl.backend.util.BoundingBox;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Marker read model for map reads, read straight from JDBC into {@link GemMarkerRow}
+ * records so no Gem/User entities are hydrated on the hot path.
+ */
+@Repository
+public class GemMarkerRepository {
+
+    private static final int FETCH_SIZE = 500;
+
+    /**
+     * Viewport search over approved, non-deleted gems.
+     * The bbox test is written against CAST(location AS geometry) so it matches the
+     * partial GiST index idx_gems_location_geom_visible (V6); the status predicates
+     * must stay literal for the planner to pick that partial index. The featured photo
+     * is joined only after the ranked LIMIT so it is looked up once per returned marker.
+     */
+    public static final String VIEWPORT_SQL = """
+        SELECT v.gem_id, v.latitude, v.longitude, v.name, v.average_rating, v.vouch_count, v.created_at,
+               v.lifecycle_status, p.photo_url AS featured_photo_url
+        FROM (
+            SELECT g.gem_id,
+                   ST_Y(CAST(g.location AS geometry)) AS latitude,
+                   ST_X(CAST(g.location AS geometry)) AS longitude,
+                   g.name,
+                   g.average_rating,
+                   g.vouch_count,
+                   g.lifecycle_status,
+                   g.created_at
+            FROM gems g
+            WHERE CAST(g.location AS geometry) && ST_MakeEnvelope(:minLng, :minLat, :maxLng, :maxLat, 4326)
+              AND g.approval_status = 'approved'
+              AND g.deleted_at IS NULL
+            ORDER BY g.average_rating DESC, g.vouch_count DESC, g.created_at DESC
+            LIMIT :limit
+        ) v
+        LEFT JOIN LATERAL (
+            SELECT gp.photo_url
+            FROM gem_photos gp
+            WHERE gp.gem_id = v.gem_id AND gp.is_featured
+            ORDER BY gp.created_at DESC
+            LIMIT 1
+        ) p ON true
+        ORDER BY v.average_rating DESC, v.vouch_count DESC, v.created_at DESC
+        """;
+
+    /**
+     * Markers for gems already chosen elsewhere (e.g. by the tag index); callers restore their own order.
+     */
+    private static final String BY_IDS_SQL = """
+        SELECT g.gem_id,
+               ST_Y(CAST(g.location AS geometry)) AS latitude,
+               ST_X(CAST(g.location AS geometry)) AS longitude,
+               g.name,
+               g.average_rating,
+               g.vouch_count,
+               g.created_at,
+               g.lifecycle_status,
+               p.photo_url AS featured_photo_url
+        FROM gems g
+        LEFT JOIN LATERAL (
+            SELECT gp.photo_url
+            FROM gem_photos gp
+            WHERE gp.gem_id = g.gem_id AND gp.is_featured
+            ORDER BY gp.created_at DESC
+            LIMIT 1
+        ) p ON true
+        WHERE g.gem_id IN (:gemIds)
+          AND g.approval_status = 'approved'
+          AND g.deleted_at IS NULL
+        """;
+
+    private static final RowMapper<GemMarkerRow> ROW_MAPPER = (rs, rowNum) -> new GemMarkerRow(
+        rs.getObject("gem_id", UUID.class),
+        rs.getDouble("latitude"),
+        rs.getDouble("longitude"),
+        rs.getString("name"),
+        rs.getBigDecimal("average_rating"),
+        rs.getInt("vouch_count"),
+        rs.getObject("created_at", OffsetDateTime.class),
+        rs.getString("lifecycle_status"),
+        rs.getString("featured_photo_url")
+    );
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public GemMarkerRepository(DataSource dataSource) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(FETCH_SIZE);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+    }
+
+    public List<GemMarkerRow> findInBoundingBox(BoundingBox bbox, int limit) {
+        return jdbcTemplate.query(VIEWPORT_SQL, params(bbox, limit), ROW_MAPPER);
+    }
+
+    /**
+     * Hands each row to {@code consumer} as it is read, so callers can write markers
+     * out without holding the whole result in memory.
+     */
+    public void streamInBoundingBox(BoundingBox bbox, int limit, Consumer<GemMarkerRow> consumer) {
+        jdbcTemplate.query(VIEWPORT_SQL, params(bbox, limit),
+            rs -> consumer.accept(ROW_MAPPER.mapRow(rs, rs.getRow())));
+    }
+
+    public List<GemMarkerRow> findByIds(Collection<UUID> gemIds) {
+        if (gemIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(BY_IDS_SQL, new MapSqlParameterSource("gemIds", gemIds), ROW_MAPPER);
+    }
+
+    private static MapSqlParameterSource params(BoundingBox bbox, int limit) {
+        return new MapSqlParameterSource()
+            .addValue("minLng", bbox.getMinLng())
+            .addValue("minLat", bbox.getMinLat())
+            .addValue("maxLng", bbox.getMaxLng())
+            .addValue("maxLat", bbox.getMaxLat())
+            .addValue("limit", limit);
+    }
+}
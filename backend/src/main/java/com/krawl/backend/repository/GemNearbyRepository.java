@@ -0,0 +1,73 @@
+package com.krawl.backend.repository;
+
+import com.krawl.backend.repository.projection.GemNearbyRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Nearest-gem search using the PostGIS KNN operator on idx_gems_location.
+ * Distance, ordering and the keyset cursor all use the same {@code location <-> origin}
+ * expression so pages never skip or repeat rows. The radius filter and cursor are
+ * appended only when present, which keeps every variant a plain KNN index scan.
+ */
+@Repository
+@RequiredArgsConstructor
+public class GemNearbyRepository {
+
+    private static final String ORIGIN = "ST_SetSRID(ST_MakePoint(:lng, :lat), 4326)::geography";
+
+    private static final RowMapper<GemNearbyRow> ROW_MAPPER = (rs, rowNum) -> new GemNearbyRow(
+        rs.getObject("gem_id", UUID.class),
+        rs.getString("name"),
+        rs.getDouble("latitude"),
+        rs.getDouble("longitude"),
+        rs.getBigDecimal("average_rating"),
+        rs.getInt("vouch_count"),
+        rs.getString("lifecycle_status"),
+        rs.getDouble("distance_meters")
+    );
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<GemNearbyRow> findNearest(double lat, double lng, Double radiusMeters,
+                                          Double afterDistance, UUID afterGemId, int limit) {
+        StringBuilder sql = new StringBuilder("""
+            SELECT g.gem_id,
+                   g.name,
+                   ST_Y(CAST(g.location AS geometry)) AS latitude,
+                   ST_X(CAST(g.location AS geometry)) AS longitude,
+                   g.average_rating,
+                   g.vouch_count,
+                   g.lifecycle_status,
+                   g.location <-> %1$s AS distance_meters
+            FROM gems g
+            WHERE g.approval_status = 'approved'
+              AND g.deleted_at IS NULL
+            """.formatted(ORIGIN));
+
+        var params = new MapSqlParameterSource()
+            .addValue("lat", lat)
+            .addValue("lng", lng)
+            .addValue("limit", limit);
+
+        if (radiusMeters != null) {
+            sql.append("  AND ST_DWithin(g.location, ").append(ORIGIN).append(", :radius)\n");
+            params.addValue("radius", radiusMeters);
+        }
+        if (afterDistance != null && afterGemId != null) {
+            sql.append("  AND (g.location <-> ").append(ORIGIN).append(", g.gem_id) > (:afterDistance, :afterGemId)\n");
+            params.addValue("afterDistance", afterDistance);
+            params.addValue("afterGemId", afterGemId);
+        }
+        sql.append("ORDER BY g.location <-> ").append(ORIGIN).append(", g.gem_id\n");
+        sql.append("LIMIT :limit");
+
+        return jdbcTemplate.query(sql.toString(), params, ROW_MAPPER);
+    }
+}
@@ -1,14 +1,26 @@
 package com.krawl.backend.repository;
 
 import com.krawl.backend.entity.GemPhoto;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface GemPhotoRepository extends JpaRepository<GemPhoto, UUID> {
     List<GemPhoto> findByGem_GemId(UUID gemId);
+
+    /**
+     * A page of photos without the count query a {@code Page} return type would add.
+     */
+    List<GemPhoto> findSliceByGem_GemId(UUID gemId, Pageable pageable);
+
+    @Query("SELECT p FROM GemPhoto p WHERE p.gem.gemId IN :gemIds ORDER BY p.isFeatured DESC, p.createdAt DESC, p.photoId")
+    List<GemPhoto> findByGemIds(@Param("gemIds") Collection<UUID> gemIds);
 }
 
@@ -1,7 +1,10 @@
 package com.krawl.backend.repository;
 
 import com.krawl.backend.entity.GemRating;
+import com.krawl.backend.repository.projection.RatingBucketRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,5 +15,8 @@ import java.util.UUID;
 public interface GemRatingRepository extends JpaRepository<GemRating, UUID> {
     Optional<GemRating> findByGem_GemIdAndUser_UserId(UUID gemId, UUID userId);
     List<GemRating> findByGem_GemId(UUID gemId);
+
+    @Query("SELECT r.rating AS rating, COUNT(r) AS count FROM GemRating r WHERE r.gem.gemId = :gemId GROUP BY r.rating")
+    List<RatingBucketRow> countByRating(@Param("gemId") UUID gemId);
 }
 
@@ -1,25 +1,120 @@
 package com.krawl.backend.repository;
 
 import com.krawl.backend.entity.Gem;
+import com.krawl.backend.repository.projection.GemClusterRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.locationtech.jts.geom.Polygon;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface GemRepository extends JpaRepository<Gem, UUID> {
-    
+
+    int EXPORT_FETCH_SIZE = 500;
+
+    /**
+     * Grid clustering over the same visible-gem filter as {@link GemMarkerRepository#VIEWPORT_SQL}.
+     * Cells are floor(coordinate / cellSize) on a global grid; each cell reports its
+     * count, centroid and best-ranked gem.
+     */
+    String CLUSTER_SQL = """
+        WITH binned AS (
+            SELECT g.gem_id,
+                   g.name,
+                   g.average_rating,
+                   g.vouch_count,
+                   g.created_at,
+                   ST_X(CAST(g.location AS geometry)) AS lng,
+                   ST_Y(CAST(g.location AS geometry)) AS lat,
+                   floor(ST_X(CAST(g.location AS geometry)) / :cellSize)::bigint AS cell_x,
+                   floor(ST_Y(CAST(g.location AS geometry)) / :cellSize)::bigint AS cell_y
+            FROM gems g
+            WHERE CAST(g.location AS geometry) && ST_MakeEnvelope(:minLng, :minLat, :maxLng, :maxLat, 4326)
+              AND g.approval_status = 'approved'
+              AND g.deleted_at IS NULL
+        ),
+        cells AS (
+            SELECT cell_x, cell_y, count(*) AS gem_count, avg(lat) AS centroid_lat, avg(lng) AS centroid_lng
+            FROM binned
+            GROUP BY cell_x, cell_y
+        ),
+        top_gems AS (
+            SELECT DISTINCT ON (cell_x, cell_y) cell_x, cell_y, gem_id, name, average_rating
+            FROM binned
+            ORDER BY cell_x, cell_y, average_rating DESC, vouch_count DESC, created_at DESC
+        )
+        SELECT c.cell_x AS "cellX",
+               c.cell_y AS "cellY",
+               c.gem_count AS "gemCount",
+               c.centroid_lat AS "centroidLatitude",
+               c.centroid_lng AS "centroidLongitude",
+               t.gem_id AS "topGemId",
+               t.name AS "topGemName",
+               t.average_rating AS "topGemRating"
+        FROM cells c
+        JOIN top_gems t ON t.cell_x = c.cell_x AND t.cell_y = c.cell_y
+        ORDER BY c.gem_count DESC
+        LIMIT :maxCells
+        """;
+
+    /**
+     * @deprecated casts the geography column per row, so idx_gems_location is never used
+     * and the whole table is scanned. Use {@link GemMarkerRepository#findInBoundingBox} instead.
+     */
+    @Deprecated
     @Query(value = "SELECT * FROM gems WHERE ST_Within(location::geometry, :viewport::geometry) = true AND deleted_at IS NULL", 
            nativeQuery = true)
     List<Gem> findGemsInViewport(@Param("viewport") Polygon viewport);
+
+    @Query(value = CLUSTER_SQL, nativeQuery = true)
+    List<GemClusterRow> findClustersInBoundingBox(
+        @Param("minLng") double minLng,
+        @Param("minLat") double minLat,
+        @Param("maxLng") double maxLng,
+        @Param("maxLat") double maxLat,
+        @Param("cellSize") double cellSize,
+        @Param("maxCells") int maxCells
+    );
     
+    @EntityGraph(attributePaths = "founder")
+    Optional<Gem> findWithFounderByGemId(UUID gemId);
+
+    /**
+     * Hydrates one keyset page from {@link GemListRepository}; callers restore the page order.
+     */
+    @EntityGraph(attributePaths = "founder")
+    List<Gem> findWithFounderByGemIdIn(Collection<UUID> gemIds);
+
     List<Gem> findByFounderUserId(UUID founderId);
     long countByFounderUserId(UUID founderId);
     
+    /**
+     * @deprecated materialises every gem; use {@link #streamPublic()} for full-table jobs
+     */
+    @Deprecated
     List<Gem> findByDeletedAtIsNull();
-}
 
+    /**
+     * Server-side cursor over every gem the public read paths show (approved, not deleted), fetched {@value #EXPORT_FETCH_SIZE} rows at a time as
+     * read-only entities. Must be consumed inside a transaction (Hikari runs with auto-commit off, which the
+     * PostgreSQL driver needs to honour the fetch size) and closed afterwards.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT g FROM Gem g WHERE g.deletedAt IS NULL AND g.approvalStatus = 'approved'")
+    Stream<Gem> streamPublic();
+}
@@ -0,0 +1,143 @@
+package com.krawl.backend.repository;
+
+import com.krawl.backend.config.properties.GemSearchProperties;
+import com.krawl.backend.repository.projection.GemSearchRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Gem search over idx_gems_search_vector_visible (full text) and idx_gems_name_trgm_visible (fuzzy names).
+ *
+ * <p>Candidates are the union of the best full-text matches by ts_rank_cd and the nearest names by trigram
+ * distance that clear the similarity floor, both capped, so neither a typo nor a common word makes every
+ * matching gem go through scoring. Only candidates are scored:
+ * text relevance (the better of ts_rank_cd and name similarity), rating, vouches and, when an origin is
+ * given, a proximity boost, each normalised to [0, 1] and weighted from {@link GemSearchProperties}.
+ * Pages are keyed on {@code (score DESC, gem_id)}.</p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class GemSearchRepository {
+
+    private static final String ORIGIN = "ST_SetSRID(ST_MakePoint(:lng, :lat), 4326)::geography";
+
+    private static final String VISIBLE = "g.approval_status = 'approved' AND g.deleted_at IS NULL";
+
+    private static final RowMapper<GemSearchRow> ROW_MAPPER = (rs, rowNum) -> new GemSearchRow(
+        rs.getObject("gem_id", UUID.class),
+        rs.getString("name"),
+        rs.getDouble("latitude"),
+        rs.getDouble("longitude"),
+        rs.getBigDecimal("average_rating"),
+        rs.getInt("vouch_count"),
+        rs.getString("lifecycle_status"),
+        rs.getObject("distance_meters", Double.class),
+        rs.getDouble("score")
+    );
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final GemSearchProperties settings;
+
+    public List<GemSearchRow> search(String query, Double lat, Double lng, Double radiusMeters,
+                                     Double afterScore, UUID afterGemId, int limit) {
+        boolean withOrigin = lat != null && lng != null;
+        boolean withRadius = withOrigin && radiusMeters != null;
+        boolean withCursor = afterScore != null && afterGemId != null;
+
+        var params = new MapSqlParameterSource()
+            .addValue("q", query)
+            .addValue("textCandidates", settings.getTextCandidates())
+            .addValue("fuzzyCandidates", settings.getFuzzyCandidates())
+            .addValue("minSimilarity", settings.getMinSimilarity())
+            .addValue("textWeight", settings.getTextWeight())
+            .addValue("ratingWeight", settings.getRatingWeight())
+            .addValue("vouchWeight", settings.getVouchWeight())
+            .addValue("limit", limit);
+        if (withOrigin) {
+            params.addValue("lat", lat)
+                .addValue("lng", lng)
+                .addValue("distanceWeight", settings.getDistanceWeight())
+                .addValue("distanceHalf", settings.getDistanceHalfMeters());
+        }
+        if (withRadius) {
+            params.addValue("radius", radiusMeters);
+        }
+        if (withCursor) {
+            params.addValue("afterScore", afterScore).addValue("afterGemId", afterGemId);
+        }
+
+        return jdbcTemplate.query(searchSql(withOrigin, withRadius, withCursor), params, ROW_MAPPER);
+    }
+
+    static String searchSql(boolean withOrigin, boolean withRadius, boolean withCursor) {
+        String radiusFilter = withRadius ? "AND ST_DWithin(g.location, " + ORIGIN + ", :radius)" : "";
+        String distance = withOrigin ? "ST_Distance(g.location, " + ORIGIN + ")" : "CAST(NULL AS float8)";
+        String proximity = withOrigin
+            ? "+ :distanceWeight * (:distanceHalf / (:distanceHalf + s.distance_meters))"
+            : "";
+        String cursor = withCursor
+            ? "WHERE r.score < :afterScore OR (r.score = :afterScore AND r.gem_id > :afterGemId)"
+            : "";
+
+        return """
+            WITH q AS (
+                SELECT websearch_to_tsquery('simple', :q) AS tsq
+            ),
+            candidates AS (
+                SELECT t.gem_id
+                FROM (
+                    SELECT g.gem_id
+                    FROM gems g, q
+                    WHERE g.search_vector @@ q.tsq
+                      AND %1$s
+                      %2$s
+                    ORDER BY ts_rank_cd(g.search_vector, q.tsq, 32) DESC
+                    LIMIT :textCandidates
+                ) t
+                UNION
+                SELECT f.gem_id
+                FROM (
+                    SELECT g.gem_id, g.name
+                    FROM gems g
+                    WHERE %1$s
+                      %2$s
+                    ORDER BY g.name <-> :q
+                    LIMIT :fuzzyCandidates
+                ) f
+                WHERE similarity(f.name, :q) >= :minSimilarity
+            ),
+            scored AS (
+                SELECT g.gem_id,
+                       g.name,
+                       ST_Y(CAST(g.location AS geometry)) AS latitude,
+                       ST_X(CAST(g.location AS geometry)) AS longitude,
+                       g.average_rating,
+                       g.vouch_count,
+                       g.lifecycle_status,
+                       %3$s AS distance_meters,
+                       greatest(ts_rank_cd(g.search_vector, q.tsq, 32), similarity(g.name, :q)) AS text_score
+                FROM candidates c
+                JOIN gems g ON g.gem_id = c.gem_id, q
+            ),
+            ranked AS (
+                SELECT s.*,
+                       CAST(:textWeight * s.text_score
+                            + :ratingWeight * (CAST(s.average_rating AS float8) / 5)
+                            + :vouchWeight * (1 - 1 / (1 + ln(CAST(1 + s.vouch_count AS float8))))
+                            %4$s AS float8) AS score
+                FROM scored s
+            )
+            SELECT r.*
+            FROM ranked r
+            %5$s
+            ORDER BY r.score DESC, r.gem_id
+            LIMIT :limit
+            """.formatted(VISIBLE, radiusFilter, distance, proximity, cursor);
+    }
+}
@@ -0,0 +1,122 @@
+package com.krawl.backend.repository;
+
+import com.krawl.backend.repository.projection.GemTagIndexRow;
+import com.krawl.backend.util.BoundingBox;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Feeds the in-memory tag index and provides the equivalent SQL tag filter, which is used
+ * until the index has been built (and as the baseline in TagFilterBenchmark).
+ */
+@Repository
+public class GemTagIndexRepository {
+
+    private static final int FETCH_SIZE = 2000;
+
+    private static final String INDEX_ROWS_SQL = """
+        SELECT g.gem_id,
+               ST_Y(CAST(g.location AS geometry)) AS latitude,
+               ST_X(CAST(g.location AS geometry)) AS longitude,
+               g.average_rating,
+               ARRAY(SELECT gt.tag_id FROM gem_tags gt WHERE gt.gem_id = g.gem_id) AS tag_ids
+        FROM gems g
+        WHERE g.approval_status = 'approved'
+          AND g.deleted_at IS NULL
+        """;
+
+    private static final RowMapper<GemTagIndexRow> ROW_MAPPER = (rs, rowNum) -> new GemTagIndexRow(
+        rs.getObject("gem_id", UUID.class),
+        rs.getDouble("latitude"),
+        rs.getDouble("longitude"),
+        rs.getFloat("average_rating"),
+        toIntArray(rs.getArray("tag_ids"))
+    );
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public GemTagIndexRepository(DataSource dataSource) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(FETCH_SIZE);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+    }
+
+    /**
+     * Streams every visible gem with its tag ids. Needs a transaction for the fetch size to apply.
+     */
+    public void streamIndexRows(Consumer<GemTagIndexRow> consumer) {
+        jdbcTemplate.query(INDEX_ROWS_SQL, new MapSqlParameterSource(),
+            rs -> consumer.accept(ROW_MAPPER.mapRow(rs, rs.getRow())));
+    }
+
+    /**
+     * The gem's current index row, or empty if it is no longer visible.
+     */
+    public Optional<GemTagIndexRow> findIndexRow(UUID gemId) {
+        return jdbcTemplate.query(INDEX_ROWS_SQL + "  AND g.gem_id = :gemId",
+                new MapSqlParameterSource("gemId", gemId), ROW_MAPPER)
+            .stream()
+            .findFirst();
+    }
+
+    /**
+     * SQL form of the tag filter: visible gems in {@code bbox} carrying every tag in {@code allTagIds}
+     * and at least one of {@code anyTagIds} (either may be empty), best rated first.
+     */
+    public List<UUID> findIdsByTags(BoundingBox bbox, Collection<Integer> allTagIds,
+                                    Collection<Integer> anyTagIds, int limit) {
+        StringBuilder sql = new StringBuilder("""
+            SELECT g.gem_id
+            FROM gems g
+            WHERE CAST(g.location AS geometry) && ST_MakeEnvelope(:minLng, :minLat, :maxLng, :maxLat, 4326)
+              AND g.approval_status = 'approved'
+              AND g.deleted_at IS NULL
+            """);
+        var params = new MapSqlParameterSource()
+            .addValue("minLng", bbox.getMinLng())
+            .addValue("minLat", bbox.getMinLat())
+            .addValue("maxLng", bbox.getMaxLng())
+            .addValue("maxLat", bbox.getMaxLat())
+            .addValue("limit", limit);
+
+        if (!allTagIds.isEmpty()) {
+            sql.append("""
+                  AND (SELECT count(*) FROM gem_tags gt WHERE gt.gem_id = g.gem_id AND gt.tag_id IN (:allTagIds)) = :allCount
+                """);
+            params.addValue("allTagIds", allTagIds).addValue("allCount", allTagIds.size());
+        }
+        if (!anyTagIds.isEmpty()) {
+            sql.append("""
+                  AND EXISTS (SELECT 1 FROM gem_tags gt WHERE gt.gem_id = g.gem_id AND gt.tag_id IN (:anyTagIds))
+                """);
+            params.addValue("anyTagIds", anyTagIds);
+        }
+        sql.append("ORDER BY g.average_rating DESC, g.vouch_count DESC, g.created_at DESC\nLIMIT :limit");
+
+        return jdbcTemplate.queryForList(sql.toString(), params, UUID.class);
+    }
+
+    private static int[] toIntArray(Array array) throws SQLException {
+        if (array == null) {
+            return new int[0];
+        }
+        Integer[] values = (Integer[]) array.getArray();
+        int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i];
+        }
+        return result;
+    }
+}
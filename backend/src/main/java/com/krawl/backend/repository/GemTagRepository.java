@@ -2,10 +2,24 @@ package com.krawl.backend.repository;
 
 import com.krawl.backend.entity.GemTag;
 import com.krawl.backend.entity.GemTagId;
+import com.krawl.backend.repository.projection.GemTagNameRow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
 @Repository
 public interface GemTagRepository extends JpaRepository<GemTag, GemTagId> {
+
+    @Query("SELECT t.tagName FROM GemTag gt JOIN gt.tag t WHERE gt.gem.gemId = :gemId ORDER BY t.tagName")
+    List<String> findTagNamesByGemId(@Param("gemId") UUID gemId, Pageable pageable);
+
+    @Query("SELECT gt.gem.gemId AS gemId, t.tagName AS tagName FROM GemTag gt JOIN gt.tag t WHERE gt.gem.gemId IN :gemIds ORDER BY t.tagName")
+    List<GemTagNameRow> findTagNamesByGemIds(@Param("gemIds") Collection<UUID> gemIds);
 }
 
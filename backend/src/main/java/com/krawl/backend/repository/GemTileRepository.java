@@ -0,0 +1,53 @@
+package com.krawl.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Renders the gem layer as Mapbox Vector Tiles with ST_AsMVT.
+ * Kept on plain JDBC because the result is a single bytea and no entity is involved.
+ */
+@Repository
+@RequiredArgsConstructor
+public class GemTileRepository {
+
+    public static final String LAYER_NAME = "gems";
+
+    private static final String TILE_SQL = """
+        WITH bounds AS (
+            SELECT ST_TileEnvelope(:z, :x, :y) AS merc,
+                   ST_Transform(ST_TileEnvelope(:z, :x, :y), 4326) AS wgs
+        ),
+        features AS (
+            SELECT ST_AsMVTGeom(ST_Transform(CAST(g.location AS geometry), 3857), b.merc, :extent, :buffer, true) AS geom,
+                   g.gem_id::text AS gem_id,
+                   g.name,
+                   g.average_rating::float8 AS rating,
+                   g.vouch_count,
+                   g.lifecycle_status
+            FROM gems g, bounds b
+            WHERE CAST(g.location AS geometry) && b.wgs
+              AND g.approval_status = 'approved'
+              AND g.deleted_at IS NULL
+            ORDER BY g.average_rating DESC, g.vouch_count DESC, g.created_at DESC
+            LIMIT :maxFeatures
+        )
+        SELECT ST_AsMVT(features.*, '%s', :extent, 'geom') FROM features
+        """.formatted(LAYER_NAME);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public byte[] renderTile(int z, int x, int y, int extent, int buffer, int maxFeatures) {
+        var params = new MapSqlParameterSource()
+            .addValue("z", z)
+            .addValue("x", x)
+            .addValue("y", y)
+            .addValue("extent", extent)
+            .addValue("buffer", buffer)
+            .addValue("maxFeatures", maxFeatures);
+        byte[] tile = jdbcTemplate.queryForObject(TILE_SQL, params, byte[].class);
+        return tile != null ? tile : new byte[0];
+    }
+}
@@ -0,0 +1,77 @@
+package com.krawl.backend.repository;
+
+import com.krawl.backend.repository.projection.KrawlBundleRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Stored offline bundles (V12). source_version is bumped by triggers whenever anything in
+ * the bundle changes; a bundle built from version v is current while source_version == v.
+ */
+@Repository
+@RequiredArgsConstructor
+public class KrawlBundleRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Bundle state, with the payload only when it is current so stale bytes are never read.
+     */
+    public Optional<KrawlBundleRow> find(UUID krawlId) {
+        return jdbcTemplate.query("""
+                SELECT source_version, built_version, content_hash, raw_bytes,
+                       CASE WHEN built_version >= source_version THEN payload END AS payload
+                FROM krawl_bundles
+                WHERE krawl_id = :krawlId
+                """,
+            new MapSqlParameterSource("krawlId", krawlId),
+            (rs, rowNum) -> new KrawlBundleRow(
+                rs.getLong("source_version"),
+                rs.getLong("built_version"),
+                rs.getString("content_hash"),
+                rs.getBytes("payload"),
+                rs.getInt("raw_bytes")
+            )).stream().findFirst();
+    }
+
+    /**
+     * Starts tracking a krawl and returns the source version a build must record. Read this
+     * before reading the bundle contents: a change committed in between only causes one
+     * extra rebuild, never a stale bundle marked current.
+     */
+    public long startBuild(UUID krawlId) {
+        var params = new MapSqlParameterSource("krawlId", krawlId);
+        jdbcTemplate.update(
+            "INSERT INTO krawl_bundles (krawl_id) VALUES (:krawlId) ON CONFLICT (krawl_id) DO NOTHING", params);
+        Long version = jdbcTemplate.queryForObject(
+            "SELECT source_version FROM krawl_bundles WHERE krawl_id = :krawlId", params, Long.class);
+        return version == null ? 0 : version;
+    }
+
+    /**
+     * Stores a build unless a build of the same or a newer version already landed.
+     */
+    public void saveBuild(UUID krawlId, long version, String contentHash, byte[] payload, int rawBytes) {
+        jdbcTemplate.update("""
+                UPDATE krawl_bundles
+                SET built_version = :version,
+                    content_hash = :contentHash,
+                    payload = :payload,
+                    raw_bytes = :rawBytes,
+                    built_at = CURRENT_TIMESTAMP
+                WHERE krawl_id = :krawlId
+                  AND built_version < :version
+                """,
+            new MapSqlParameterSource()
+                .addValue("krawlId", krawlId)
+                .addValue("version", version)
+                .addValue("contentHash", contentHash)
+                .addValue("payload", payload)
+                .addValue("rawBytes", rawBytes));
+    }
+}
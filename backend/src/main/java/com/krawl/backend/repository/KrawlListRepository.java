@@ -0,0 +1,141 @@
+package com.krawl.backend.repository;
+
+import com.krawl.backend.repository.projection.KrawlSummaryKeysetRow;
+import com.krawl.backend.repository.projection.PublicKrawlRow;
+import com.krawl.backend.util.KeysetSort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keyset pages over krawls: the public feed and a creator's own list. Both sorts are
+ * backed by composite indexes from V10 ({@code (created_at, krawl_id)} and
+ * {@code (average_rating, krawl_id)}, partial on public rows and prefixed by
+ * creator_id respectively), so deep pages are index range scans rather than OFFSETs.
+ */
+@Repository
+@RequiredArgsConstructor
+public class KrawlListRepository {
+
+    public static final Map<String, KeysetSort> SORTS = KeysetSort.index(
+        KeysetSort.timestamp("createdAt", "created_at"),
+        KeysetSort.decimal("averageRating", "average_rating")
+    );
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * One page of public_krawls_with_creator with creator fields and the stop count in a single
+     * statement; the count is a correlated subquery evaluated only for the rows that survive the
+     * LIMIT. Items are not loaded.
+     */
+    public List<PublicKrawlRow> findPublicPage(KeysetSort sort, KeysetSort.Position after, int limit) {
+        // The view already filters on these; they give the seek predicate a WHERE to extend
+        StringBuilder sql = new StringBuilder("""
+            SELECT k.krawl_id,
+                   k.title,
+                   k.description,
+                   k.creator_id,
+                   k.creator_username,
+                   k.creator_score,
+                   k.visibility,
+                   k.average_rating,
+                   k.rating_count,
+                   (SELECT count(*) FROM krawl_items i WHERE i.krawl_id = k.krawl_id) AS item_count,
+                   k.created_at,
+                   k.updated_at,
+                   k.%s AS sort_value
+            FROM public_krawls_with_creator k
+            WHERE k.visibility = 'public'
+              AND k.deleted_at IS NULL
+            """.formatted(sort.column()));
+
+        var params = new MapSqlParameterSource("limit", limit);
+        appendSeek(sql, params, sort, after);
+
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> new PublicKrawlRow(
+            rs.getObject("krawl_id", UUID.class),
+            rs.getString("title"),
+            rs.getString("description"),
+            rs.getObject("creator_id", UUID.class),
+            rs.getString("creator_username"),
+            rs.getBigDecimal("creator_score"),
+            rs.getString("visibility"),
+            rs.getBigDecimal("average_rating"),
+            rs.getInt("rating_count"),
+            rs.getLong("item_count"),
+            rs.getObject("created_at", OffsetDateTime.class),
+            rs.getObject("updated_at", OffsetDateTime.class),
+            sort.readValue(rs, "sort_value")
+        ));
+    }
+
+    /**
+     * Summary rows for one creator. The stop count is a correlated subquery evaluated only
+     * for the rows that survive the LIMIT, instead of a join plus GROUP BY over every krawl.
+     */
+    public List<KrawlSummaryKeysetRow> findCreatorSummaries(UUID creatorId, KeysetSort sort,
+                                                            KeysetSort.Position after, int limit) {
+        StringBuilder sql = new StringBuilder("""
+            SELECT k.krawl_id,
+                   k.title,
+                   k.description,
+                   k.average_rating,
+                   k.created_at,
+                   (SELECT count(*) FROM krawl_items i WHERE i.krawl_id = k.krawl_id) AS item_count,
+                   k.%s AS sort_value
+            FROM krawls k
+            WHERE k.creator_id = :creatorId
+              AND k.deleted_at IS NULL
+            """.formatted(sort.column()));
+
+        var params = new MapSqlParameterSource("limit", limit).addValue("creatorId", creatorId);
+        appendSeek(sql, params, sort, after);
+
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> new KrawlSummaryKeysetRow(
+            rs.getObject("krawl_id", UUID.class),
+            rs.getString("title"),
+            rs.getString("description"),
+            rs.getBigDecimal("average_rating"),
+            rs.getObject("created_at", OffsetDateTime.class),
+            rs.getLong("item_count"),
+            sort.readValue(rs, "sort_value")
+        ));
+    }
+
+    /**
+     * Krawls whose detail may have changed in [since, upper): their own updated_at moved (edits,
+     * item changes and rating changes all stamp it, V1, V13), or a gem on one of their items did,
+     * since the detail embeds gem names. Vouch and view counts do not stamp gems (V21) and are not
+     * in the detail. Creator username and score are not tracked here; the cache's expire-after-write
+     * bounds how long they stay stale.
+     */
+    public List<UUID> findChangedKrawlIds(OffsetDateTime since, OffsetDateTime upper) {
+        return jdbcTemplate.queryForList("""
+                SELECT krawl_id FROM krawls
+                WHERE updated_at >= :since AND updated_at < :upper
+                UNION
+                SELECT i.krawl_id
+                FROM gems g
+                JOIN krawl_items i ON i.gem_id = g.gem_id
+                WHERE g.updated_at >= :since AND g.updated_at < :upper
+                """,
+            new MapSqlParameterSource("since", since).addValue("upper", upper), UUID.class);
+    }
+
+    private static void appendSeek(StringBuilder sql, MapSqlParameterSource params,
+                                   KeysetSort sort, KeysetSort.Position after) {
+        if (after != null) {
+            sql.append("  AND ").append(sort.seekAfter("k", "krawl_id")).append('\n');
+            params.addValue("afterValue", after.value()).addValue("afterId", after.id());
+        }
+        sql.append("ORDER BY ").append(sort.orderBy("k", "krawl_id")).append('\n')
+            .append("LIMIT :limit");
+    }
+}
@@ -3,11 +3,14 @@ package com.krawl.backend.repository;
 import com.krawl.backend.entity.Krawl;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import com.krawl.backend.repository.projection.KrawlSummaryRow;
 
@@ -18,6 +21,21 @@ public interface KrawlRepository extends JpaRepository<Krawl, UUID> {
     List<Krawl> findByVisibility(String visibility);
     Page<Krawl> findByCreator_UserId(UUID creatorId, Pageable pageable);
 
+    /**
+     * Hydrates one keyset page from {@link KrawlListRepository}; callers restore the page order.
+     */
+    @EntityGraph(attributePaths = {"creator", "items", "items.gem"})
+    List<Krawl> findWithItemsByKrawlIdIn(Collection<UUID> krawlIds);
+
+    @EntityGraph(attributePaths = {"creator", "items", "items.gem"})
+    Optional<Krawl> findWithItemsByKrawlId(UUID krawlId);
+
+    /**
+     * Everything an offline bundle maps from the krawl side in one statement.
+     */
+    @EntityGraph(attributePaths = {"creator", "items", "items.gem", "items.gem.founder"})
+    Optional<Krawl> findForBundleByKrawlId(UUID krawlId);
+
     @Query("""
         select k.krawlId as krawlId,
                k.title as title,
@@ -0,0 +1,138 @@
+package com.krawl.backend.repository;
+
+import com.krawl.backend.repository.projection.KrawlAreaRow;
+import com.krawl.backend.repository.projection.KrawlRouteRow;
+import com.krawl.backend.util.BoundingBox;
+import lombok.RequiredArgsConstructor;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads the denormalized krawl_routes rows (V11). The rows are written only by the
+ * database triggers on krawl_items and gems, so there is no write path here.
+ */
+@Repository
+@RequiredArgsConstructor
+public class KrawlRouteRepository {
+
+    private static final String ROUTE_COLUMNS = """
+        r.krawl_id,
+        ST_AsBinary(r.path) AS path_wkb,
+        ST_XMin(r.bbox) AS min_lng, ST_YMin(r.bbox) AS min_lat,
+        ST_XMax(r.bbox) AS max_lng, ST_YMax(r.bbox) AS max_lat,
+        r.stop_count, r.total_meters, r.leg_meters, r.walk_seconds, r.updated_at
+        """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public Map<UUID, KrawlRouteRow> findByKrawlIds(Collection<UUID> krawlIds) {
+        Map<UUID, KrawlRouteRow> routes = new HashMap<>();
+        if (krawlIds.isEmpty()) {
+            return routes;
+        }
+        jdbcTemplate.query(
+            "SELECT " + ROUTE_COLUMNS + " FROM krawl_routes r WHERE r.krawl_id IN (:krawlIds)",
+            new MapSqlParameterSource("krawlIds", krawlIds),
+            rs -> {
+                KrawlRouteRow row = mapRoute(rs);
+                routes.put(row.krawlId(), row);
+            });
+        return routes;
+    }
+
+    /**
+     * Public krawls whose route bbox intersects the viewport, best rated first. The
+     * {@code &&} test runs on idx_krawl_routes_bbox.
+     */
+    public List<KrawlAreaRow> findPublicInArea(BoundingBox bbox, int limit) {
+        String sql = """
+            SELECT k.title, k.average_rating, %s
+            FROM krawl_routes r
+            JOIN krawls k ON k.krawl_id = r.krawl_id
+            WHERE r.bbox && ST_MakeEnvelope(:minLng, :minLat, :maxLng, :maxLat, 4326)
+              AND k.visibility = 'public'
+              AND k.deleted_at IS NULL
+            ORDER BY k.average_rating DESC, k.krawl_id
+            LIMIT :limit
+            """.formatted(ROUTE_COLUMNS);
+
+        var params = new MapSqlParameterSource()
+            .addValue("minLng", bbox.getMinLng())
+            .addValue("minLat", bbox.getMinLat())
+            .addValue("maxLng", bbox.getMaxLng())
+            .addValue("maxLat", bbox.getMaxLat())
+            .addValue("limit", limit);
+
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> new KrawlAreaRow(
+            rs.getObject("krawl_id", UUID.class),
+            rs.getString("title"),
+            rs.getBigDecimal("average_rating"),
+            mapRoute(rs)
+        ));
+    }
+
+    private static KrawlRouteRow mapRoute(ResultSet rs) throws SQLException {
+        double[] bbox = null;
+        rs.getDouble("min_lng");
+        if (!rs.wasNull()) {
+            bbox = new double[] {
+                rs.getDouble("min_lng"), rs.getDouble("min_lat"), rs.getDouble("max_lng"), rs.getDouble("max_lat")
+            };
+        }
+        return new KrawlRouteRow(
+            rs.getObject("krawl_id", UUID.class),
+            readPath(rs.getBytes("path_wkb")),
+            bbox,
+            rs.getInt("stop_count"),
+            rs.getDouble("total_meters"),
+            readLegs(rs.getArray("leg_meters")),
+            rs.getInt("walk_seconds"),
+            rs.getObject("updated_at", OffsetDateTime.class)
+        );
+    }
+
+    private static double[][] readPath(byte[] wkb) {
+        if (wkb == null) {
+            return new double[0][];
+        }
+        try {
+            Geometry line = new WKBReader().read(wkb);
+            Coordinate[] coordinates = line.getCoordinates();
+            double[][] path = new double[coordinates.length][];
+            for (int i = 0; i < coordinates.length; i++) {
+                path[i] = new double[] {coordinates[i].getX(), coordinates[i].getY()};
+            }
+            return path;
+        } catch (ParseException e) {
+            throw new DataRetrievalFailureException("Unreadable krawl route geometry", e);
+        }
+    }
+
+    private static double[] readLegs(Array array) throws SQLException {
+        if (array == null) {
+            return new double[0];
+        }
+        Object[] values = (Object[]) array.getArray();
+        double[] legs = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            legs[i] = ((Number) values[i]).doubleValue();
+        }
+        return legs;
+    }
+}
@@ -0,0 +1,76 @@
+package com.krawl.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reconciliation of the running rating sums kept by the V15 triggers, one range of targets at a
+ * time. Call {@link #lockRange} and {@link #reconcile} in the same transaction: holding the
+ * target rows makes concurrent rating triggers wait, and the recount (a later statement, so a
+ * later snapshot) then sees every rating whose delta has already been applied. Only drifted rows
+ * are rewritten, so a clean pass writes nothing and does not bump updated_at.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RatingAggregateRepository {
+
+    public enum Target {
+        GEMS("gems", "gem_ratings", "gem_id"),
+        KRAWLS("krawls", "krawl_ratings", "krawl_id");
+
+        private final String lockSql;
+        private final String reconcileSql;
+
+        Target(String table, String ratings, String id) {
+            this.lockSql = """
+                SELECT %2$s FROM %1$s
+                WHERE %2$s > :afterId
+                ORDER BY %2$s
+                LIMIT :limit
+                FOR NO KEY UPDATE
+                """.formatted(table, id);
+            this.reconcileSql = """
+                UPDATE %1$s t
+                SET rating_sum = a.rating_sum,
+                    rating_count = a.rating_count,
+                    average_rating = CASE WHEN a.rating_count > 0
+                        THEN ROUND(a.rating_sum::NUMERIC / a.rating_count, 2) ELSE 0.00 END
+                FROM (
+                    SELECT o.%3$s, COALESCE(SUM(r.rating), 0) AS rating_sum, COUNT(r.rating) AS rating_count
+                    FROM %1$s o
+                    LEFT JOIN %2$s r ON r.%3$s = o.%3$s
+                    WHERE o.%3$s IN (:ids)
+                    GROUP BY o.%3$s
+                ) a
+                WHERE t.%3$s = a.%3$s
+                  AND (t.rating_sum <> a.rating_sum OR t.rating_count <> a.rating_count)
+                """.formatted(table, ratings, id);
+        }
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Locks and returns the next {@code limit} targets after {@code afterId} in id order.
+     */
+    public List<UUID> lockRange(Target target, UUID afterId, int limit) {
+        return jdbcTemplate.queryForList(target.lockSql,
+            new MapSqlParameterSource().addValue("afterId", afterId).addValue("limit", limit), UUID.class);
+    }
+
+    /**
+     * Recounts the given targets and returns how many had drifted.
+     */
+    public int reconcile(Target target, List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(target.reconcileSql,
+            new MapSqlParameterSource("ids", ids));
+    }
+}
@@ -3,6 +3,9 @@ package com.krawl.backend.repository;
 import com.krawl.backend.entity.SavedKrawl;
 import com.krawl.backend.entity.SavedKrawlId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,5 +15,17 @@ import java.util.UUID;
 public interface SavedKrawlRepository extends JpaRepository<SavedKrawl, SavedKrawlId> {
     List<SavedKrawl> findByUser(UUID userId);
     boolean existsByUserAndKrawl(UUID userId, UUID krawlId);
+
+    /**
+     * Records a completed offline download of a saved krawl. Downloading does not save a krawl,
+     * so nothing is written when the user has not saved it.
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE saved_krawls
+        SET is_downloaded = TRUE, last_downloaded_at = CURRENT_TIMESTAMP
+        WHERE user_id = :userId AND krawl_id = :krawlId
+        """, nativeQuery = true)
+    int markDownloaded(@Param("userId") UUID userId, @Param("krawlId") UUID krawlId);
 }
 
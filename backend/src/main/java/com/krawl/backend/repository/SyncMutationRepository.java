@@ -0,0 +1,213 @@
+package com.krawl.backend.repository;
+
+import com.krawl.backend.dto.request.GemCreateRequest;
+import com.krawl.backend.repository.projection.ClientOperationRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Batched writes for offline mutation replay. Every write is one prepared statement executed
+ * as a JDBC batch, so a chunk of queued actions costs one round trip per operation type rather
+ * than one per action. Runs on the caller's transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SyncMutationRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record ClaimRow(String clientOpId, String type) {
+    }
+
+    public record NewGemRow(UUID gemId, GemCreateRequest gem) {
+    }
+
+    public record RatingRow(UUID gemId, int rating, String comment) {
+    }
+
+    public record OutcomeRow(String clientOpId, String status, UUID resultId, String message) {
+    }
+
+    /**
+     * Claims operation ids and returns the ledger rows for all of them. Rows still PENDING
+     * were claimed by this transaction; anything else was recorded by an earlier replay. A
+     * concurrent replay of the same id blocks on the key until the first one commits, then
+     * sees its outcome.
+     */
+    public Map<String, ClientOperationRow> claim(UUID userId, List<ClaimRow> claims) {
+        if (claims.isEmpty()) {
+            return Map.of();
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO client_operations (user_id, client_op_id, op_type)
+                VALUES (:userId, :clientOpId, :type)
+                ON CONFLICT (user_id, client_op_id) DO NOTHING
+                """,
+            claims.stream()
+                .map(claim -> new MapSqlParameterSource()
+                    .addValue("userId", userId)
+                    .addValue("clientOpId", claim.clientOpId())
+                    .addValue("type", claim.type()))
+                .toArray(SqlParameterSource[]::new));
+
+        Map<String, ClientOperationRow> rows = new HashMap<>();
+        jdbcTemplate.query("""
+                SELECT client_op_id, status, result_id, message
+                FROM client_operations
+                WHERE user_id = :userId AND client_op_id IN (:ids)
+                """,
+            new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("ids", claims.stream().map(ClaimRow::clientOpId).toList()),
+            rs -> {
+                ClientOperationRow row = new ClientOperationRow(
+                    rs.getString("client_op_id"),
+                    rs.getString("status"),
+                    rs.getObject("result_id", UUID.class),
+                    rs.getString("message"));
+                rows.put(row.clientOpId(), row);
+            });
+        return rows;
+    }
+
+    public void recordOutcomes(UUID userId, List<OutcomeRow> outcomes) {
+        if (outcomes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("""
+                UPDATE client_operations
+                SET status = :status, result_id = :resultId, message = :message
+                WHERE user_id = :userId AND client_op_id = :clientOpId
+                """,
+            outcomes.stream()
+                .map(outcome -> new MapSqlParameterSource()
+                    .addValue("userId", userId)
+                    .addValue("clientOpId", outcome.clientOpId())
+                    .addValue("status", outcome.status())
+                    .addValue("resultId", outcome.resultId())
+                    .addValue("message", outcome.message()))
+                .toArray(SqlParameterSource[]::new));
+    }
+
+    public Set<UUID> findLiveGemIds(Collection<UUID> gemIds) {
+        if (gemIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT gem_id FROM gems WHERE gem_id IN (:ids) AND deleted_at IS NULL",
+            new MapSqlParameterSource("ids", gemIds), UUID.class));
+    }
+
+    /**
+     * Krawls the user may save: live, and public or their own.
+     */
+    public Set<UUID> findSaveableKrawlIds(UUID userId, Collection<UUID> krawlIds) {
+        if (krawlIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList("""
+                SELECT krawl_id FROM krawls
+                WHERE krawl_id IN (:ids)
+                  AND deleted_at IS NULL
+                  AND (visibility = 'public' OR creator_id = :userId)
+                """,
+            new MapSqlParameterSource().addValue("ids", krawlIds).addValue("userId", userId), UUID.class));
+    }
+
+    /**
+     * Inserts new gems as pending. Returns per-row counts; 0 means the client-chosen id was
+     * already taken.
+     */
+    public int[] insertGems(UUID founderId, List<NewGemRow> gems) {
+        if (gems.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate("""
+                INSERT INTO gems (gem_id, name, description, location, founder_id)
+                VALUES (:gemId, :name, :description,
+                        CAST(ST_SetSRID(ST_MakePoint(:lng, :lat), 4326) AS geography), :founderId)
+                ON CONFLICT (gem_id) DO NOTHING
+                """,
+            gems.stream()
+                .map(row -> new MapSqlParameterSource()
+                    .addValue("gemId", row.gemId())
+                    .addValue("name", row.gem().getName())
+                    .addValue("description", row.gem().getDescription())
+                    .addValue("lng", row.gem().getLongitude())
+                    .addValue("lat", row.gem().getLatitude())
+                    .addValue("founderId", founderId))
+                .toArray(SqlParameterSource[]::new));
+    }
+
+    /**
+     * Vouching twice is a no-op. Returns one update count per gem id, 0 for repeats.
+     */
+    public int[] insertVouches(UUID userId, List<UUID> gemIds) {
+        if (gemIds.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate("""
+                INSERT INTO gem_vouches (gem_id, user_id)
+                VALUES (:gemId, :userId)
+                ON CONFLICT (gem_id, user_id) DO NOTHING
+                """,
+            gemIds.stream()
+                .map(gemId -> new MapSqlParameterSource().addValue("gemId", gemId).addValue("userId", userId))
+                .toArray(SqlParameterSource[]::new));
+    }
+
+    /**
+     * A user has one rating per gem; a later rating replaces the earlier one. Batch order is
+     * preserved, so the last rating for a gem in the queue wins.
+     */
+    public void upsertRatings(UUID userId, List<RatingRow> ratings) {
+        if (ratings.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO gem_ratings (gem_id, user_id, rating, comment)
+                VALUES (:gemId, :userId, :rating, :comment)
+                ON CONFLICT (gem_id, user_id)
+                DO UPDATE SET rating = EXCLUDED.rating, comment = EXCLUDED.comment
+                """,
+            ratings.stream()
+                .map(row -> new MapSqlParameterSource()
+                    .addValue("gemId", row.gemId())
+                    .addValue("userId", userId)
+                    .addValue("rating", row.rating())
+                    .addValue("comment", row.comment()))
+                .toArray(SqlParameterSource[]::new));
+    }
+
+    public void insertSavedKrawls(UUID userId, List<UUID> krawlIds) {
+        if (krawlIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO saved_krawls (user_id, krawl_id)
+                VALUES (:userId, :krawlId)
+                ON CONFLICT (user_id, krawl_id) DO NOTHING
+                """,
+            krawlIds.stream()
+                .map(krawlId -> new MapSqlParameterSource().addValue("userId", userId).addValue("krawlId", krawlId))
+                .toArray(SqlParameterSource[]::new));
+    }
+
+    public int purgeOlderThan(OffsetDateTime cutoff) {
+        return jdbcTemplate.update(
+            "DELETE FROM client_operations WHERE created_at < :cutoff",
+            new MapSqlParameterSource("cutoff", cutoff));
+    }
+}
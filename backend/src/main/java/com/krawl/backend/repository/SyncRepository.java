@@ -0,0 +1,134 @@
+package com.krawl.backend.repository;
+
+import com.krawl.backend.repository.projection.SavedKrawlSyncRow;
+import com.krawl.backend.repository.projection.SyncChangeRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Change feeds for delta sync. Every feed reads one half-open window
+ * {@code [after, upper)} in (updated_at, id) order over the V13 sync indexes, so an empty
+ * window is a single index probe per feed. Removed rows come back as tombstones rather than
+ * being filtered out, so clients learn about deletes and visibility changes.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SyncRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Upper bound of a safe sync window. updated_at is stamped with the writing transaction's
+     * start time (V13), so nothing can still commit below the start of the oldest open
+     * transaction. Long read-only transactions only delay the watermark, they never lose rows.
+     * Requires every writer to connect as the application role (pg_stat_activity hides
+     * xact_start of other roles without pg_read_all_stats).
+     */
+    public OffsetDateTime safeUpperBound() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject("""
+            SELECT LEAST(statement_timestamp(), COALESCE(min(a.xact_start), 'infinity'))
+            FROM pg_stat_activity a
+            WHERE a.datname = current_database()
+              AND a.backend_type = 'client backend'
+              AND a.pid <> pg_backend_pid()
+              AND a.xact_start IS NOT NULL
+            """, OffsetDateTime.class);
+    }
+
+    public List<SyncChangeRow> findGemChanges(OffsetDateTime afterTs, UUID afterId, OffsetDateTime upper, int limit) {
+        return jdbcTemplate.query("""
+                SELECT g.gem_id AS id,
+                       g.updated_at,
+                       (g.deleted_at IS NOT NULL OR g.approval_status <> 'approved') AS removed
+                FROM gems g
+                WHERE (g.updated_at, g.gem_id) > (:afterTs, :afterId)
+                  AND g.updated_at < :upper
+                ORDER BY g.updated_at, g.gem_id
+                LIMIT :limit
+                """,
+            window(afterTs, afterId, upper, limit),
+            (rs, rowNum) -> new SyncChangeRow(
+                rs.getObject("id", UUID.class),
+                rs.getObject("updated_at", OffsetDateTime.class),
+                rs.getBoolean("removed")
+            ));
+    }
+
+    /**
+     * Krawls visible to the user: public ones plus their own. Krawls that were deleted or made
+     * private by someone else come back as tombstones, but only if the user could have seen
+     * them: krawls that were ever public (V19), their own, or ones they saved. A krawl that was
+     * always someone else's private krawl never appears.
+     */
+    public List<SyncChangeRow> findKrawlChanges(UUID userId, OffsetDateTime afterTs, UUID afterId,
+                                                OffsetDateTime upper, int limit) {
+        return jdbcTemplate.query("""
+                SELECT k.krawl_id AS id,
+                       k.updated_at,
+                       (k.deleted_at IS NOT NULL OR (k.visibility <> 'public' AND k.creator_id <> :userId)) AS removed
+                FROM krawls k
+                WHERE (k.updated_at, k.krawl_id) > (:afterTs, :afterId)
+                  AND k.updated_at < :upper
+                  AND (k.ever_public
+                       OR k.creator_id = :userId
+                       OR EXISTS (SELECT 1 FROM saved_krawls s WHERE s.user_id = :userId AND s.krawl_id = k.krawl_id))
+                ORDER BY k.updated_at, k.krawl_id
+                LIMIT :limit
+                """,
+            window(afterTs, afterId, upper, limit).addValue("userId", userId),
+            (rs, rowNum) -> new SyncChangeRow(
+                rs.getObject("id", UUID.class),
+                rs.getObject("updated_at", OffsetDateTime.class),
+                rs.getBoolean("removed")
+            ));
+    }
+
+    /**
+     * The user's saves and unsaves, merged from saved_krawls and saved_krawl_tombstones.
+     */
+    public List<SavedKrawlSyncRow> findSavedKrawlChanges(UUID userId, OffsetDateTime afterTs, UUID afterId,
+                                                         OffsetDateTime upper, int limit) {
+        return jdbcTemplate.query("""
+                SELECT c.*
+                FROM (
+                    SELECT s.krawl_id, s.updated_at, FALSE AS removed,
+                           s.saved_at, s.is_downloaded, s.last_downloaded_at
+                    FROM saved_krawls s
+                    WHERE s.user_id = :userId
+                      AND (s.updated_at, s.krawl_id) > (:afterTs, :afterId)
+                      AND s.updated_at < :upper
+                    UNION ALL
+                    SELECT t.krawl_id, t.deleted_at, TRUE, NULL, NULL, NULL
+                    FROM saved_krawl_tombstones t
+                    WHERE t.user_id = :userId
+                      AND (t.deleted_at, t.krawl_id) > (:afterTs, :afterId)
+                      AND t.deleted_at < :upper
+                ) c
+                ORDER BY c.updated_at, c.krawl_id
+                LIMIT :limit
+                """,
+            window(afterTs, afterId, upper, limit).addValue("userId", userId),
+            (rs, rowNum) -> new SavedKrawlSyncRow(
+                rs.getObject("krawl_id", UUID.class),
+                rs.getObject("updated_at", OffsetDateTime.class),
+                rs.getBoolean("removed"),
+                rs.getObject("saved_at", OffsetDateTime.class),
+                rs.getBoolean("is_downloaded"),
+                rs.getObject("last_downloaded_at", OffsetDateTime.class)
+            ));
+    }
+
+    private static MapSqlParameterSource window(OffsetDateTime afterTs, UUID afterId, OffsetDateTime upper, int limit) {
+        return new MapSqlParameterSource()
+            .addValue("afterTs", afterTs)
+            .addValue("afterId", afterId)
+            .addValue("upper", upper)
+            .addValue("limit", limit);
+    }
+}
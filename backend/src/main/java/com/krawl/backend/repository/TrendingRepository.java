@@ -0,0 +1,225 @@
+package com.krawl.backend.repository;
+
+import com.krawl.backend.config.properties.TrendingProperties.Weights;
+import com.krawl.backend.repository.projection.TrendingGemRow;
+import com.krawl.backend.repository.projection.TrendingKrawlRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Running trending scores and the snapshots served from them (V18). Every event is weighted by
+ * {@code exp(-lambda * age)}, with ages measured at the pass's upper bound, so adding an
+ * interval's events to scores already decayed to that bound keeps the sum exact.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TrendingRepository {
+
+    public static final String WATERMARK = "trending";
+
+    // Each event decayed from its own timestamp to :upper
+    private static final String DECAYED_SUM =
+        "SUM(e.weight * exp(CAST(:lambda AS double precision) * CAST(EXTRACT(EPOCH FROM e.at - :upper) AS double precision)))";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Locks the trending watermark for the rest of the transaction and returns it, creating it
+     * at {@code floor} on the first pass. A second instance running the job waits here.
+     */
+    public OffsetDateTime lockWatermark(OffsetDateTime floor) {
+        var params = new MapSqlParameterSource("counter", WATERMARK).addValue("floor", floor);
+        jdbcTemplate.update("""
+                INSERT INTO counter_checkpoints (counter, flushed_at) VALUES (:counter, :floor)
+                ON CONFLICT (counter) DO NOTHING
+                """, params);
+        return jdbcTemplate.queryForObject(
+            "SELECT flushed_at FROM counter_checkpoints WHERE counter = :counter FOR UPDATE",
+            params, OffsetDateTime.class);
+    }
+
+    public void saveWatermark(OffsetDateTime upper) {
+        jdbcTemplate.update("UPDATE counter_checkpoints SET flushed_at = :upper WHERE counter = :counter",
+            new MapSqlParameterSource("counter", WATERMARK).addValue("upper", upper));
+    }
+
+    /**
+     * Multiplies every live score by {@code factor}. Scores falling below {@code minScore} drop
+     * to zero; zero rows are deleted unless they still carry a gem's view baseline.
+     */
+    public void decay(double factor, double minScore) {
+        var params = new MapSqlParameterSource("factor", factor).addValue("minScore", minScore);
+        jdbcTemplate.update("""
+                UPDATE trending_scores
+                SET score = CASE WHEN score * :factor < :minScore THEN 0 ELSE score * :factor END
+                WHERE score > 0
+                """, params);
+        jdbcTemplate.update("DELETE FROM trending_scores WHERE score = 0 AND views_seen = 0", params);
+    }
+
+    /**
+     * Adds krawl ratings and saves made in [since, upper).
+     */
+    public int addKrawlEvents(OffsetDateTime since, OffsetDateTime upper, double lambda, Weights weights) {
+        return jdbcTemplate.update("""
+                INSERT INTO trending_scores (subject_type, subject_id, score)
+                SELECT 'krawl', e.krawl_id, %s
+                FROM (
+                    SELECT krawl_id, CAST(:ratingWeight AS double precision) * rating / 5 AS weight, created_at AS at
+                    FROM krawl_ratings
+                    WHERE created_at >= :since AND created_at < :upper
+                    UNION ALL
+                    SELECT krawl_id, CAST(:saveWeight AS double precision), saved_at
+                    FROM saved_krawls
+                    WHERE saved_at >= :since AND saved_at < :upper
+                ) e
+                GROUP BY e.krawl_id
+                ON CONFLICT (subject_type, subject_id) DO UPDATE SET score = trending_scores.score + EXCLUDED.score
+                """.formatted(DECAYED_SUM),
+            window(since, upper, lambda)
+                .addValue("ratingWeight", weights.getRating())
+                .addValue("saveWeight", weights.getSave()));
+    }
+
+    /**
+     * Adds gem ratings and vouches made in [since, upper).
+     */
+    public int addGemEvents(OffsetDateTime since, OffsetDateTime upper, double lambda, Weights weights) {
+        return jdbcTemplate.update("""
+                INSERT INTO trending_scores (subject_type, subject_id, score)
+                SELECT 'gem', e.gem_id, %s
+                FROM (
+                    SELECT gem_id, CAST(:ratingWeight AS double precision) * rating / 5 AS weight, created_at AS at
+                    FROM gem_ratings
+                    WHERE created_at >= :since AND created_at < :upper
+                    UNION ALL
+                    SELECT gem_id, CAST(:vouchWeight AS double precision), created_at
+                    FROM gem_vouches
+                    WHERE created_at >= :since AND created_at < :upper
+                ) e
+                GROUP BY e.gem_id
+                ON CONFLICT (subject_type, subject_id) DO UPDATE SET score = trending_scores.score + EXCLUDED.score
+                """.formatted(DECAYED_SUM),
+            window(since, upper, lambda)
+                .addValue("ratingWeight", weights.getRating())
+                .addValue("vouchWeight", weights.getVouch()));
+    }
+
+    /**
+     * Adds the growth of gem_counters.view_count since the previous pass, undecayed: views carry
+     * no timestamp. Flushing views stamps the counter row's updated_at, so only gems viewed since
+     * {@code since} are read, through the V21 index.
+     */
+    public int addGemViews(OffsetDateTime since, double viewWeight) {
+        return jdbcTemplate.update("""
+                INSERT INTO trending_scores (subject_type, subject_id, score, views_seen)
+                SELECT 'gem', c.gem_id, CAST(:viewWeight AS double precision) * (c.view_count - COALESCE(t.views_seen, 0)),
+                       c.view_count
+                FROM gem_counters c
+                LEFT JOIN trending_scores t ON t.subject_type = 'gem' AND t.subject_id = c.gem_id
+                WHERE c.updated_at >= :since
+                  AND c.view_count > COALESCE(t.views_seen, 0)
+                ON CONFLICT (subject_type, subject_id) DO UPDATE
+                SET score = trending_scores.score + EXCLUDED.score,
+                    views_seen = EXCLUDED.views_seen
+                """,
+            new MapSqlParameterSource("since", since).addValue("viewWeight", viewWeight));
+    }
+
+    /**
+     * Replaces trending_krawls with the top public krawls. Readers keep seeing the previous
+     * snapshot until the transaction commits.
+     */
+    public int snapshotKrawls(OffsetDateTime computedAt, int size) {
+        var params = new MapSqlParameterSource("computedAt", computedAt).addValue("size", size);
+        jdbcTemplate.update("DELETE FROM trending_krawls", params);
+        return jdbcTemplate.update("""
+                INSERT INTO trending_krawls (rank, krawl_id, title, description, creator_id, creator_username,
+                                             average_rating, rating_count, stop_count, score, computed_at)
+                SELECT row_number() OVER (ORDER BY t.score DESC, t.subject_id),
+                       k.krawl_id, k.title, k.description, k.creator_id, k.creator_username,
+                       k.average_rating, k.rating_count,
+                       (SELECT count(*) FROM krawl_items i WHERE i.krawl_id = k.krawl_id),
+                       t.score, :computedAt
+                FROM trending_scores t
+                JOIN public_krawls_with_creator k ON k.krawl_id = t.subject_id
+                WHERE t.subject_type = 'krawl'
+                  AND t.score > 0
+                ORDER BY t.score DESC, t.subject_id
+                LIMIT :size
+                """, params);
+    }
+
+    /**
+     * Replaces trending_gems with the top approved gems.
+     */
+    public int snapshotGems(OffsetDateTime computedAt, int size) {
+        var params = new MapSqlParameterSource("computedAt", computedAt).addValue("size", size);
+        jdbcTemplate.update("DELETE FROM trending_gems", params);
+        return jdbcTemplate.update("""
+                INSERT INTO trending_gems (rank, gem_id, name, latitude, longitude, average_rating, vouch_count,
+                                           score, computed_at)
+                SELECT row_number() OVER (ORDER BY t.score DESC, t.subject_id),
+                       g.gem_id, g.name,
+                       ST_Y(CAST(g.location AS geometry)), ST_X(CAST(g.location AS geometry)),
+                       g.average_rating, g.vouch_count, t.score, :computedAt
+                FROM trending_scores t
+                JOIN gems g ON g.gem_id = t.subject_id
+                WHERE t.subject_type = 'gem'
+                  AND t.score > 0
+                  AND g.approval_status = 'approved'
+                  AND g.deleted_at IS NULL
+                ORDER BY t.score DESC, t.subject_id
+                LIMIT :size
+                """, params);
+    }
+
+    public List<TrendingKrawlRow> findTrendingKrawls() {
+        return jdbcTemplate.query("""
+                SELECT rank, krawl_id, title, description, creator_id, creator_username,
+                       average_rating, rating_count, stop_count, score
+                FROM trending_krawls
+                ORDER BY rank
+                """,
+            (rs, rowNum) -> new TrendingKrawlRow(
+                rs.getInt("rank"),
+                rs.getObject("krawl_id", UUID.class),
+                rs.getString("title"),
+                rs.getString("description"),
+                rs.getObject("creator_id", UUID.class),
+                rs.getString("creator_username"),
+                rs.getBigDecimal("average_rating"),
+                rs.getInt("rating_count"),
+                rs.getInt("stop_count"),
+                rs.getDouble("score")
+            ));
+    }
+
+    public List<TrendingGemRow> findTrendingGems() {
+        return jdbcTemplate.query("""
+                SELECT rank, gem_id, name, latitude, longitude, average_rating, vouch_count, score
+                FROM trending_gems
+                ORDER BY rank
+                """,
+            (rs, rowNum) -> new TrendingGemRow(
+                rs.getInt("rank"),
+                rs.getObject("gem_id", UUID.class),
+                rs.getString("name"),
+                rs.getDouble("latitude"),
+                rs.getDouble("longitude"),
+                rs.getBigDecimal("average_rating"),
+                rs.getInt("vouch_count"),
+                rs.getDouble("score")
+            ));
+    }
+
+    private static MapSqlParameterSource window(OffsetDateTime since, OffsetDateTime upper, double lambda) {
+        return new MapSqlParameterSource("since", since).addValue("upper", upper).addValue("lambda", lambda);
+    }
+}
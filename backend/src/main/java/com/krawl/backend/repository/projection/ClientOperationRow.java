@@ -0,0 +1,15 @@
+package com.krawl.backend.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * A row of the client_operations ledger (V14).
+ */
+public record ClientOperationRow(String clientOpId, String status, UUID resultId, String message) {
+
+    public static final String PENDING = "PENDING";
+
+    public boolean isPending() {
+        return PENDING.equals(status);
+    }
+}
@@ -0,0 +1,15 @@
+package com.krawl.backend.repository.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public interface GemClusterRow {
+    long getCellX();
+    long getCellY();
+    long getGemCount();
+    Double getCentroidLatitude();
+    Double getCentroidLongitude();
+    UUID getTopGemId();
+    String getTopGemName();
+    BigDecimal getTopGemRating();
+}
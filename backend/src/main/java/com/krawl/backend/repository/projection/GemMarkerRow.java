@@ -0,0 +1,27 @@
+package com.krawl.backend.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.UUID;
+
+public record GemMarkerRow(
+    UUID gemId,
+    double latitude,
+    double longitude,
+    String name,
+    BigDecimal averageRating,
+    int vouchCount,
+    OffsetDateTime createdAt,
+    String lifecycleStatus,
+    String featuredPhotoUrl
+) {
+
+    /**
+     * Same ranking as the ORDER BY of the viewport query: rating, vouches, then newest first.
+     */
+    public static final Comparator<GemMarkerRow> RANKING = Comparator
+        .comparing(GemMarkerRow::averageRating, Comparator.nullsLast(Comparator.reverseOrder()))
+        .thenComparing(GemMarkerRow::vouchCount, Comparator.reverseOrder())
+        .thenComparing(GemMarkerRow::createdAt, Comparator.nullsLast(Comparator.reverseOrder()));
+}
@@ -0,0 +1,16 @@
+package com.krawl.backend.repository.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record GemNearbyRow(
+    UUID gemId,
+    String name,
+    double latitude,
+    double longitude,
+    BigDecimal averageRating,
+    int vouchCount,
+    String lifecycleStatus,
+    double distanceMeters
+) {
+}
@@ -0,0 +1,17 @@
+package com.krawl.backend.repository.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record GemSearchRow(
+    UUID gemId,
+    String name,
+    double latitude,
+    double longitude,
+    BigDecimal averageRating,
+    int vouchCount,
+    String lifecycleStatus,
+    Double distanceMeters,
+    double score
+) {
+}
@@ -0,0 +1,15 @@
+package com.krawl.backend.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * One visible gem as held by the in-memory tag index.
+ */
+public record GemTagIndexRow(
+    UUID gemId,
+    double latitude,
+    double longitude,
+    float averageRating,
+    int[] tagIds
+) {
+}
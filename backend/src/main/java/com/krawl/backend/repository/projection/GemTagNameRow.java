@@ -0,0 +1,8 @@
+package com.krawl.backend.repository.projection;
+
+import java.util.UUID;
+
+public interface GemTagNameRow {
+    UUID getGemId();
+    String getTagName();
+}
@@ -0,0 +1,10 @@
+package com.krawl.backend.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * One row of a keyset page: the entity id plus the value of the active sort column,
+ * which together form the next cursor.
+ */
+public record KeysetRow(UUID id, Object sortValue) {
+}
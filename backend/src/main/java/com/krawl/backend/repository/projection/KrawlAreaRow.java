@@ -0,0 +1,12 @@
+package com.krawl.backend.repository.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record KrawlAreaRow(
+    UUID krawlId,
+    String title,
+    BigDecimal averageRating,
+    KrawlRouteRow route
+) {
+}
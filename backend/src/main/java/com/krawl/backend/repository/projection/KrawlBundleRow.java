@@ -0,0 +1,17 @@
+package com.krawl.backend.repository.projection;
+
+/**
+ * State of a stored krawl bundle. {@code payload} is only read when the bundle is current.
+ */
+public record KrawlBundleRow(
+    long sourceVersion,
+    long builtVersion,
+    String contentHash,
+    byte[] payload,
+    int rawBytes
+) {
+
+    public boolean isCurrent() {
+        return payload != null && builtVersion >= sourceVersion;
+    }
+}
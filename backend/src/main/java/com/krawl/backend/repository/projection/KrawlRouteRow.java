@@ -0,0 +1,20 @@
+package com.krawl.backend.repository.projection;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Row of krawl_routes. {@code path} is [lng, lat] pairs in step order (empty below two
+ * stops); {@code bbox} is minLng, minLat, maxLng, maxLat or null for an empty krawl.
+ */
+public record KrawlRouteRow(
+    UUID krawlId,
+    double[][] path,
+    double[] bbox,
+    int stopCount,
+    double totalMeters,
+    double[] legMeters,
+    int walkSeconds,
+    OffsetDateTime updatedAt
+) {
+}
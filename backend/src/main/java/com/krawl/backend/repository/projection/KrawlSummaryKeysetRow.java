@@ -0,0 +1,16 @@
+package com.krawl.backend.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+public record KrawlSummaryKeysetRow(
+    UUID krawlId,
+    String title,
+    String description,
+    BigDecimal averageRating,
+    OffsetDateTime createdAt,
+    long itemCount,
+    Object sortValue
+) {
+}
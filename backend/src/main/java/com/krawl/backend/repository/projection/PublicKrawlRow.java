@@ -0,0 +1,26 @@
+package com.krawl.backend.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * One keyset page row of public_krawls_with_creator plus its stop count and the value of the
+ * active sort column.
+ */
+public record PublicKrawlRow(
+    UUID krawlId,
+    String title,
+    String description,
+    UUID creatorId,
+    String creatorUsername,
+    BigDecimal creatorScore,
+    String visibility,
+    BigDecimal averageRating,
+    int ratingCount,
+    long itemCount,
+    OffsetDateTime createdAt,
+    OffsetDateTime updatedAt,
+    Object sortValue
+) {
+}
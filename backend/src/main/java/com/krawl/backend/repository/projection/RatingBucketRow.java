@@ -0,0 +1,6 @@
+package com.krawl.backend.repository.projection;
+
+public interface RatingBucketRow {
+    Short getRating();
+    long getCount();
+}
@@ -0,0 +1,17 @@
+package com.krawl.backend.repository.projection;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * A saved krawl change; tombstones ({@code removed}) carry only the krawl id and time.
+ */
+public record SavedKrawlSyncRow(
+    UUID id,
+    OffsetDateTime updatedAt,
+    boolean removed,
+    OffsetDateTime savedAt,
+    boolean downloaded,
+    OffsetDateTime lastDownloadedAt
+) implements SyncRow {
+}
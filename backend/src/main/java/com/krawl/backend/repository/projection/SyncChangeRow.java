@@ -0,0 +1,7 @@
+package com.krawl.backend.repository.projection;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+public record SyncChangeRow(UUID id, OffsetDateTime updatedAt, boolean removed) implements SyncRow {
+}
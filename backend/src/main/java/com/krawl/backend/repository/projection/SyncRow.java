@@ -0,0 +1,13 @@
+package com.krawl.backend.repository.projection;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * A changed row in a sync window, keyed by its (updated_at, id) position.
+ */
+public interface SyncRow {
+    UUID id();
+    OffsetDateTime updatedAt();
+    boolean removed();
+}
@@ -0,0 +1,16 @@
+package com.krawl.backend.repository.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record TrendingGemRow(
+    int rank,
+    UUID gemId,
+    String name,
+    double latitude,
+    double longitude,
+    BigDecimal averageRating,
+    int vouchCount,
+    double score
+) {
+}
@@ -0,0 +1,18 @@
+package com.krawl.backend.repository.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record TrendingKrawlRow(
+    int rank,
+    UUID krawlId,
+    String title,
+    String description,
+    UUID creatorId,
+    String creatorUsername,
+    BigDecimal averageRating,
+    int ratingCount,
+    int stopCount,
+    double score
+) {
+}
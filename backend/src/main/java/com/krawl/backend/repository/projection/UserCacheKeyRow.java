@@ -0,0 +1,9 @@
+package com.krawl.backend.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * The values the users cache is keyed on.
+ */
+public record UserCacheKeyRow(UUID userId, String username, String email) {
+}
@@ -0,0 +1,262 @@
+package com.krawl.backend.route;
+
+import com.krawl.backend.util.GeoDistance;
+
+import java.util.Arrays;
+
+/**
+ * Open-path travelling-salesman heuristic for ordering krawl stops.
+ *
+ * <p>Stops are indexed 0..n-1 in their current order. The solver builds a haversine
+ * matrix, seeds a tour with nearest-neighbour (from every admissible start when the start
+ * is free), then applies 2-opt segment reversals and Or-opt moves of 1-3 consecutive stops
+ * (optionally reversed) until neither improves the walk. The route is a path, not a cycle:
+ * there is no leg back to the first stop. With {@code fixStart} stop 0 stays first, with
+ * {@code fixEnd} stop n-1 stays last.</p>
+ *
+ * <p>All state lives in primitive arrays allocated once per call, so a 50-stop krawl
+ * solves in well under a millisecond after warm-up (see RouteOptimizerBenchmark). The
+ * result is never longer than the current order.</p>
+ */
+public final class RouteOptimizer {
+
+    private static final double EPSILON = 1e-7;
+    private static final int MAX_SEGMENT = 3;
+    private static final int MAX_PASSES = 1_000;
+
+    private final int n;
+    private final double[] dist;
+    private final boolean fixStart;
+    private final boolean fixEnd;
+    private final int[] tour;
+    private final int[] scratch;
+
+    private RouteOptimizer(double[] dist, int n, boolean fixStart, boolean fixEnd) {
+        this.n = n;
+        this.dist = dist;
+        this.fixStart = fixStart;
+        this.fixEnd = fixEnd;
+        this.tour = new int[n];
+        this.scratch = new int[n];
+    }
+
+    /**
+     * @param lats latitudes of the stops in their current order
+     * @param lngs longitudes of the stops in their current order
+     */
+    public static Result optimize(double[] lats, double[] lngs, boolean fixStart, boolean fixEnd) {
+        if (lats.length != lngs.length) {
+            throw new IllegalArgumentException("lats and lngs must have the same length");
+        }
+        return optimize(GeoDistance.matrix(lats, lngs), lats.length, fixStart, fixEnd);
+    }
+
+    /**
+     * @param dist row-major n x n distance matrix in metres
+     */
+    public static Result optimize(double[] dist, int n, boolean fixStart, boolean fixEnd) {
+        int[] identity = new int[n];
+        for (int i = 0; i < n; i++) {
+            identity[i] = i;
+        }
+        RouteOptimizer optimizer = new RouteOptimizer(dist, n, fixStart, fixEnd);
+        double original = optimizer.length(identity);
+        // With three or fewer stops and both ends pinned there is nothing to reorder
+        if (n <= 2 || (n == 3 && fixStart && fixEnd)) {
+            return new Result(identity, original, original);
+        }
+
+        optimizer.nearestNeighbour();
+        optimizer.improve();
+        double optimized = optimizer.length(optimizer.tour);
+        if (optimized >= original - EPSILON) {
+            return new Result(identity, original, original);
+        }
+        return new Result(optimizer.tour.clone(), original, optimized);
+    }
+
+    private double d(int a, int b) {
+        return (a < 0 || b < 0) ? 0.0 : dist[a * n + b];
+    }
+
+    private double length(int[] order) {
+        double total = 0;
+        for (int i = 1; i < order.length; i++) {
+            total += d(order[i - 1], order[i]);
+        }
+        return total;
+    }
+
+    /** Tour node at a position, or -1 past either end of the path. */
+    private int at(int position) {
+        return (position < 0 || position >= n) ? -1 : tour[position];
+    }
+
+    private void nearestNeighbour() {
+        boolean[] visited = new boolean[n];
+        double best = Double.MAX_VALUE;
+        int firstStart = 0;
+        int lastStart = fixStart ? 0 : (fixEnd ? n - 2 : n - 1);
+        for (int start = firstStart; start <= lastStart; start++) {
+            Arrays.fill(visited, false);
+            scratch[0] = start;
+            visited[start] = true;
+            if (fixEnd) {
+                visited[n - 1] = true;
+            }
+            double total = 0;
+            int free = fixEnd ? n - 1 : n;
+            for (int position = 1; position < free; position++) {
+                int from = scratch[position - 1];
+                int next = -1;
+                double nextDist = Double.MAX_VALUE;
+                for (int candidate = 0; candidate < n; candidate++) {
+                    if (!visited[candidate] && dist[from * n + candidate] < nextDist) {
+                        next = candidate;
+                        nextDist = dist[from * n + candidate];
+                    }
+                }
+                scratch[position] = next;
+                visited[next] = true;
+                total += nextDist;
+                if (total >= best) {
+                    break;
+                }
+            }
+            if (fixEnd) {
+                scratch[n - 1] = n - 1;
+                total += d(scratch[n - 2], n - 1);
+            }
+            if (total < best) {
+                best = total;
+                System.arraycopy(scratch, 0, tour, 0, n);
+            }
+        }
+    }
+
+    private void improve() {
+        for (int pass = 0; pass < MAX_PASSES; pass++) {
+            boolean improved = twoOpt();
+            improved |= orOpt();
+            if (!improved) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reverses tour[i..j] whenever that shortens the path. Missing edges past either end of
+     * the path cost nothing, which is what lets a free endpoint move.
+     */
+    private boolean twoOpt() {
+        int lo = fixStart ? 1 : 0;
+        int hi = fixEnd ? n - 2 : n - 1;
+        boolean improved = false;
+        for (int i = lo; i < hi; i++) {
+            for (int j = i + 1; j <= hi; j++) {
+                int before = at(i - 1);
+                int after = at(j + 1);
+                double delta = d(before, tour[j]) + d(tour[i], after) - d(before, tour[i]) - d(tour[j], after);
+                if (delta < -EPSILON) {
+                    reverse(i, j);
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    /**
+     * Moves a run of 1-3 consecutive stops (forwards or reversed) to the best other gap.
+     * Gap g of the path with the run removed sits before its g-th remaining stop.
+     */
+    private boolean orOpt() {
+        int lo = fixStart ? 1 : 0;
+        int hi = fixEnd ? n - 2 : n - 1;
+        boolean improved = false;
+        for (int length = 1; length <= MAX_SEGMENT; length++) {
+            for (int s = lo; s + length - 1 <= hi; s++) {
+                int e = s + length - 1;
+                int prev = at(s - 1);
+                int next = at(e + 1);
+                int first = tour[s];
+                int last = tour[e];
+                double removeGain = d(prev, first) + d(last, next) - d(prev, next);
+                if (removeGain <= EPSILON) {
+                    continue;
+                }
+
+                int remaining = n - length;
+                int gapLo = fixStart ? 1 : 0;
+                int gapHi = fixEnd ? remaining - 1 : remaining;
+                double bestDelta = -EPSILON;
+                int bestGap = -1;
+                boolean bestReversed = false;
+                for (int g = gapLo; g <= gapHi; g++) {
+                    if (g == s) {
+                        continue; // the gap the run came from
+                    }
+                    int a = g == 0 ? -1 : reducedAt(g - 1, s, length);
+                    int b = g == remaining ? -1 : reducedAt(g, s, length);
+                    double bridge = d(a, b);
+                    double forward = d(a, first) + d(last, b) - bridge - removeGain;
+                    double backward = d(a, last) + d(first, b) - bridge - removeGain;
+                    if (forward < bestDelta) {
+                        bestDelta = forward;
+                        bestGap = g;
+                        bestReversed = false;
+                    }
+                    if (length > 1 && backward < bestDelta) {
+                        bestDelta = backward;
+                        bestGap = g;
+                        bestReversed = true;
+                    }
+                }
+                if (bestGap >= 0) {
+                    move(s, length, bestGap, bestReversed);
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    /** Node at position k of the tour with run [s, s+length) taken out. */
+    private int reducedAt(int k, int s, int length) {
+        return k < s ? tour[k] : tour[k + length];
+    }
+
+    private void move(int s, int length, int gap, boolean reversed) {
+        int out = 0;
+        int remaining = n - length;
+        for (int k = 0; k <= remaining; k++) {
+            if (k == gap) {
+                for (int m = 0; m < length; m++) {
+                    scratch[out++] = reversed ? tour[s + length - 1 - m] : tour[s + m];
+                }
+            }
+            if (k < remaining) {
+                scratch[out++] = reducedAt(k, s, length);
+            }
+        }
+        System.arraycopy(scratch, 0, tour, 0, n);
+    }
+
+    private void reverse(int i, int j) {
+        while (i < j) {
+            int tmp = tour[i];
+            tour[i++] = tour[j];
+            tour[j--] = tmp;
+        }
+    }
+
+    /**
+     * @param order proposed visiting order as indices into the input stops
+     */
+    public record Result(int[] order, double originalMeters, double optimizedMeters) {
+
+        public double savedMeters() {
+            return originalMeters - optimizedMeters;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.krawl.backend.service;
+
+public interface CreatorScoreService {
+    /**
+     * Recomputes score and tier for every creator whose krawls changed since the last pass and
+     * returns how many users changed.
+     */
+    int recomputeChangedCreators();
+}
@@ -0,0 +1,29 @@
+package com.krawl.backend.service;
+
+import java.util.Collection;
+import java.util.UUID;
+
+public interface GemCounterService {
+    /**
+     * Shows newly inserted gem_vouches rows on this instance until the next flush counts them;
+     * inside a transaction they show once it commits.
+     */
+    void recordVouches(Collection<UUID> gemIds);
+
+    void recordView(UUID gemId);
+
+    /**
+     * Vouches recorded here since the last flush.
+     */
+    long pendingVouches(UUID gemId);
+
+    /**
+     * Views recorded but not yet written to gem_counters.view_count.
+     */
+    long pendingViews(UUID gemId);
+
+    /**
+     * Writes pending deltas back and returns the number of counter rows written.
+     */
+    int flush();
+}
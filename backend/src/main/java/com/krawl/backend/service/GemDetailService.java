@@ -0,0 +1,9 @@
+package com.krawl.backend.service;
+
+import com.krawl.backend.dto.response.GemDetailResponse;
+
+import java.util.UUID;
+
+public interface GemDetailService {
+    GemDetailResponse getGemDetail(UUID gemId);
+}
@@ -0,0 +1,16 @@
+package com.krawl.backend.service;
+
+import java.io.OutputStream;
+
+public interface GemExportService {
+
+    enum Format {
+        NDJSON,
+        GEOJSON
+    }
+
+    /**
+     * Writes every approved, non-deleted gem to {@code out}; returns the number of gems written.
+     */
+    long exportGems(Format format, OutputStream out);
+}
@@ -0,0 +1,11 @@
+package com.krawl.backend.service;
+
+import com.krawl.backend.dto.response.GemImportResponse;
+import com.krawl.backend.service.importer.GemImportFormat;
+
+import java.io.InputStream;
+import java.util.UUID;
+
+public interface GemImportService {
+    GemImportResponse importGems(InputStream upload, GemImportFormat format, UUID founderId);
+}
@@ -2,16 +2,34 @@ package com.krawl.backend.service;
 
 import com.krawl.backend.dto.request.GemCreateRequest;
 import com.krawl.backend.dto.request.GemUpdateRequest;
+import com.krawl.backend.dto.response.CursorPage;
+import com.krawl.backend.dto.response.GemClusterResponse;
+import com.krawl.backend.dto.response.GemMarkerResponse;
+import com.krawl.backend.dto.response.GemNearbyResponse;
 import com.krawl.backend.dto.response.GemResponse;
+import com.krawl.backend.dto.response.GemSearchResponse;
+import com.krawl.backend.util.BoundingBox;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface GemService {
     GemResponse createGem(GemCreateRequest request, UUID founderId);
     GemResponse getGemById(UUID gemId);
     Page<GemResponse> getAllGems(Pageable pageable);
+    CursorPage<GemResponse> listGems(String sortBy, String cursor, Integer size);
+    List<GemMarkerResponse> getGemsInViewport(BoundingBox bbox, Integer limit);
+
+    List<GemMarkerResponse> discoverGems(BoundingBox bbox, List<String> allTags, List<String> anyTags, Integer limit);
+    void streamGemsInViewport(BoundingBox bbox, Integer limit, Consumer<GemMarkerResponse> consumer);
+    GemClusterResponse getGemClusters(BoundingBox bbox, int zoom);
+    CursorPage<GemNearbyResponse> getNearbyGems(double lat, double lng, Double radiusMeters, Integer limit, String cursor);
+
+    CursorPage<GemSearchResponse> searchGems(String query, Double lat, Double lng, Double radiusMeters,
+                                             Integer limit, String cursor);
     GemResponse updateGem(UUID gemId, GemUpdateRequest request);
     void deleteGem(UUID gemId);
 }
@@ -0,0 +1,7 @@
+package com.krawl.backend.service;
+
+import com.krawl.backend.dto.response.VectorTile;
+
+public interface GemTileService {
+    VectorTile getGemTile(int z, int x, int y);
+}
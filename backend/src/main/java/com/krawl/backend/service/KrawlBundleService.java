@@ -0,0 +1,37 @@
+package com.krawl.backend.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+public interface KrawlBundleService {
+
+    /**
+     * Current offline bundle for a krawl, rebuilt first if anything in it changed since the
+     * last build. Private krawls are only visible to their creator.
+     */
+    Bundle getBundle(UUID krawlId, UUID requesterId);
+
+    /**
+     * Marks a krawl the user saved as downloaded; a krawl that is not saved is left alone.
+     */
+    void recordDownload(UUID krawlId, UUID userId);
+
+    /**
+     * @param contentHash SHA-256 (hex) of the uncompressed JSON
+     * @param gzip        gzip-compressed JSON
+     * @param rawBytes    uncompressed size
+     */
+    record Bundle(String contentHash, byte[] gzip, int rawBytes) {
+
+        public byte[] json() {
+            try (var in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+                return in.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
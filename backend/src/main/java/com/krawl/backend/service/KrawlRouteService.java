@@ -0,0 +1,13 @@
+package com.krawl.backend.service;
+
+import com.krawl.backend.dto.response.KrawlAreaResponse;
+import com.krawl.backend.dto.response.KrawlRouteOptimizationResponse;
+import com.krawl.backend.util.BoundingBox;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface KrawlRouteService {
+    KrawlRouteOptimizationResponse optimizeRoute(UUID krawlId, UUID requesterId, boolean fixStart, boolean fixEnd);
+    List<KrawlAreaResponse> findKrawlsInArea(BoundingBox bbox, Integer limit);
+}
@@ -2,6 +2,7 @@ package com.krawl.backend.service;
 
 import com.krawl.backend.dto.request.KrawlCreateRequest;
 import com.krawl.backend.dto.request.KrawlUpdateRequest;
+import com.krawl.backend.dto.response.CursorPage;
 import com.krawl.backend.dto.response.KrawlResponse;
 import com.krawl.backend.dto.response.KrawlSummaryResponse;
 import org.springframework.data.domain.Page;
@@ -12,9 +13,10 @@ import java.util.UUID;
 public interface KrawlService {
     KrawlResponse createKrawl(KrawlCreateRequest request, UUID creatorId);
     KrawlResponse getKrawlById(UUID krawlId);
-    Page<KrawlResponse> getAllKrawls(Pageable pageable);
+    CursorPage<KrawlResponse> getPublicKrawls(String sortBy, String cursor, Integer size);
     Page<KrawlResponse> getKrawlsByCreator(UUID creatorId, Pageable pageable);
     Page<KrawlSummaryResponse> getKrawlSummariesByCreator(UUID creatorId, Pageable pageable);
+    CursorPage<KrawlSummaryResponse> getKrawlSummariesByCreator(UUID creatorId, String sortBy, String cursor, Integer size);
     KrawlResponse updateKrawl(UUID krawlId, KrawlUpdateRequest request);
     void deleteKrawl(UUID krawlId);
 }
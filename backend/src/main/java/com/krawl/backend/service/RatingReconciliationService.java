@@ -0,0 +1,8 @@
+package com.krawl.backend.service;
+
+public interface RatingReconciliationService {
+    /**
+     * Recounts gem and krawl rating aggregates from the ratings and returns how many had drifted.
+     */
+    int reconcile();
+}
@@ -0,0 +1,12 @@
+package com.krawl.backend.service;
+
+import com.krawl.backend.dto.request.SyncMutationRequest;
+import com.krawl.backend.dto.response.SyncMutationResponse;
+
+import java.util.UUID;
+
+public interface SyncMutationService {
+    SyncMutationResponse applyMutations(UUID userId, SyncMutationRequest request);
+
+    void purgeExpiredOperations();
+}
@@ -0,0 +1,9 @@
+package com.krawl.backend.service;
+
+import com.krawl.backend.dto.response.SyncChangesResponse;
+
+import java.util.UUID;
+
+public interface SyncService {
+    SyncChangesResponse getChanges(UUID userId, String since, Integer limit);
+}
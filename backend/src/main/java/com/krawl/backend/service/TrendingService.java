@@ -0,0 +1,17 @@
+package com.krawl.backend.service;
+
+import com.krawl.backend.dto.response.TrendingGemResponse;
+import com.krawl.backend.dto.response.TrendingKrawlResponse;
+
+import java.util.List;
+
+public interface TrendingService {
+    List<TrendingKrawlResponse> getTrendingKrawls(Integer limit);
+    List<TrendingGemResponse> getTrendingGems(Integer limit);
+
+    /**
+     * Runs one scoring pass and rebuilds both snapshots. Returns the number of krawls ranked,
+     * or -1 when another instance had just run the pass.
+     */
+    int refresh();
+}
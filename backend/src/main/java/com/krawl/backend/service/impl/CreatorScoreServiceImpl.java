@@ -0,0 +1,87 @@
+package com.krawl.backend.service.impl;
+
+import com.krawl.backend.cache.UserCacheEvictor;
+import com.krawl.backend.config.properties.CreatorScoreProperties;
+import com.krawl.backend.repository.CreatorScoreRepository;
+import com.krawl.backend.repository.SyncRepository;
+import com.krawl.backend.repository.projection.UserCacheKeyRow;
+import com.krawl.backend.service.CreatorScoreService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Debounced creator score and reputation tier recompute. Instead of recomputing inside every
+ * rating transaction, each pass collects the creators of krawls whose updated_at moved since the
+ * previous pass, so any number of ratings on a creator's krawls within one interval cost a single
+ * recompute. Creators are recomputed in set-based batches, then their users cache entries are
+ * evicted on every instance. The watermark is a counter_checkpoints row (V22) locked for the
+ * whole pass, so one instance runs each pass and a restart resumes where the last one stopped.
+ * It only advances when the pass commits, up to the oldest open transaction (see
+ * {@link SyncRepository#safeUpperBound()}), so late commits are picked up by the next pass.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CreatorScoreServiceImpl implements CreatorScoreService {
+
+    private final CreatorScoreRepository creatorScoreRepository;
+    private final SyncRepository syncRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final UserCacheEvictor userCacheEvictor;
+    private final CreatorScoreProperties properties;
+
+    private static final OffsetDateTime EPOCH = Instant.EPOCH.atOffset(ZoneOffset.UTC);
+
+    @Scheduled(initialDelayString = "${app.users.creator-score.recompute-interval-ms:10000}",
+        fixedDelayString = "${app.users.creator-score.recompute-interval-ms:10000}")
+    public void scheduledRecompute() {
+        try {
+            recomputeChangedCreators();
+        } catch (RuntimeException e) {
+            log.warn("Creator score recompute failed, retrying next pass: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized int recomputeChangedCreators() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        OffsetDateTime upper = syncRepository.safeUpperBound();
+        Integer changed = transactionTemplate.execute(status -> {
+            OffsetDateTime since = creatorScoreRepository.lockWatermark(EPOCH);
+            if (!upper.isAfter(since)) {
+                // Another instance already covered this interval
+                return 0;
+            }
+            List<UUID> creators = creatorScoreRepository.findCreatorsOfChangedKrawls(since, upper);
+            int updated = 0;
+            int batchSize = Math.max(1, properties.getBatchSize());
+            for (int from = 0; from < creators.size(); from += batchSize) {
+                List<UUID> batch = creators.subList(from, Math.min(from + batchSize, creators.size()));
+                List<UserCacheKeyRow> rows = creatorScoreRepository.recompute(batch);
+                rows.forEach(this::evict);
+                updated += rows.size();
+            }
+            creatorScoreRepository.saveWatermark(upper);
+            if (!creators.isEmpty()) {
+                log.debug("Recomputed {} creators, {} changed", creators.size(), updated);
+            }
+            return updated;
+        });
+        return changed != null ? changed : 0;
+    }
+
+    private void evict(UserCacheKeyRow user) {
+        // Only the instance holding the watermark runs the pass, so the eviction is broadcast; it lands on commit
+        userCacheEvictor.evict(user.userId(), user.email(), user.username());
+    }
+}
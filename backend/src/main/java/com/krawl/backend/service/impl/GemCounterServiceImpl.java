@@ -0,0 +1,157 @@
+package com.krawl.backend.service.impl;
+
+import com.krawl.backend.config.properties.GemCounterProperties;
+import com.krawl.backend.repository.GemCounterRepository;
+import com.krawl.backend.repository.GemCounterRepository.Delta;
+import com.krawl.backend.service.GemCounterService;
+import com.krawl.backend.util.WriteBehindCounter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Write-behind vouch and view counters (V17, V20). Vouches are counted from gem_vouches: every
+ * flush interval, uncounted rows are claimed and added to gems in batched
+ * UPDATE ... FROM (VALUES ...) statements, so a viral gem costs one row update per interval
+ * instead of one per vouch. A vouch is counted exactly once whichever instance claims it, and
+ * vouches left behind by a crashed instance are claimed by the next flush of any other.
+ *
+ * <p>Views have no source table and are counted in memory per instance; a crash loses at most
+ * one interval of them. Vouches recorded here only make the vouching instance show them before
+ * they are claimed.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GemCounterServiceImpl implements GemCounterService, SmartLifecycle {
+
+    private final GemCounterRepository gemCounterRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final GemCounterProperties properties;
+
+    private final WriteBehindCounter<UUID> vouches = new WriteBehindCounter<>();
+    private final WriteBehindCounter<UUID> views = new WriteBehindCounter<>();
+    private volatile boolean running;
+
+    @Override
+    public void recordVouches(Collection<UUID> gemIds) {
+        if (gemIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            gemIds.forEach(vouches::increment);
+            return;
+        }
+        List<UUID> committed = List.copyOf(gemIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                committed.forEach(vouches::increment);
+            }
+        });
+    }
+
+    @Override
+    public void recordView(UUID gemId) {
+        views.increment(gemId);
+    }
+
+    @Override
+    public long pendingVouches(UUID gemId) {
+        return vouches.pending(gemId);
+    }
+
+    @Override
+    public long pendingViews(UUID gemId) {
+        return views.pending(gemId);
+    }
+
+    @Scheduled(initialDelayString = "${app.gems.counters.flush-interval-ms:2000}",
+        fixedDelayString = "${app.gems.counters.flush-interval-ms:2000}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Gem counter flush failed, deltas kept for the next attempt: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized int flush() {
+        // Shown until this flush; the vouches themselves are claimed from gem_vouches below
+        Map<UUID, Long> shownVouches = vouches.drain();
+        Map<UUID, Long> viewDeltas = views.drain();
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int batchSize = Math.max(1, properties.getBatchSize());
+        try {
+            Integer updated = transactionTemplate.execute(status -> {
+                Map<UUID, Long> vouchDeltas =
+                    gemCounterRepository.claimUncountedVouches(Math.max(1, properties.getMaxVouchesPerFlush()));
+                Set<UUID> gemIds = new HashSet<>(vouchDeltas.keySet());
+                gemIds.addAll(viewDeltas.keySet());
+                List<Delta> deltas = new ArrayList<>(gemIds.size());
+                gemIds.stream().sorted().forEach(gemId -> deltas.add(new Delta(gemId,
+                    vouchDeltas.getOrDefault(gemId, 0L), viewDeltas.getOrDefault(gemId, 0L))));
+
+                int rows = 0;
+                for (int from = 0; from < deltas.size(); from += batchSize) {
+                    rows += gemCounterRepository.applyDeltas(deltas.subList(from, Math.min(from + batchSize, deltas.size())));
+                }
+                return rows;
+            });
+            vouches.drained();
+            views.drained();
+            return updated != null ? updated : 0;
+        } catch (RuntimeException e) {
+            vouches.restore(shownVouches);
+            views.restore(viewDeltas);
+            throw e;
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * Flushes what is left before the context closes.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Final gem counter flush failed; vouches are claimed by the next flush: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops after the web server, so no view arrives after the final flush.
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+}
@@ -0,0 +1,84 @@
+package com.krawl.backend.service.impl;
+
+import com.krawl.backend.config.properties.GemDetailProperties;
+import com.krawl.backend.dto.response.GemDetailResponse;
+import com.krawl.backend.entity.Gem;
+import com.krawl.backend.entity.GemPhoto;
+import com.krawl.backend.exception.EntityNotFoundException;
+import com.krawl.backend.mapper.GemMapper;
+import com.krawl.backend.repository.GemPhotoRepository;
+import com.krawl.backend.repository.GemRatingRepository;
+import com.krawl.backend.repository.GemRepository;
+import com.krawl.backend.repository.GemTagRepository;
+import com.krawl.backend.repository.projection.RatingBucketRow;
+import com.krawl.backend.service.GemCounterService;
+import com.krawl.backend.service.GemDetailService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Builds the gem detail read model in exactly four statements, whatever the gem's size:
+ * gem joined to its founder (entity graph), one capped page of photos, the capped tag names,
+ * and a grouped rating histogram. None of the lazy collections on {@link Gem} are touched.
+ * The view itself is only counted in memory and written back later by {@link GemCounterService}.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class GemDetailServiceImpl implements GemDetailService {
+
+    private static final Sort PHOTO_ORDER = Sort.by(Sort.Order.desc("isFeatured"), Sort.Order.desc("createdAt"));
+
+    private final GemRepository gemRepository;
+    private final GemPhotoRepository gemPhotoRepository;
+    private final GemTagRepository gemTagRepository;
+    private final GemRatingRepository gemRatingRepository;
+    private final GemMapper gemMapper;
+    private final GemCounterService gemCounterService;
+    private final GemDetailProperties properties;
+
+    @Override
+    public GemDetailResponse getGemDetail(UUID gemId) {
+        Gem gem = gemRepository.findWithFounderByGemId(gemId)
+            .filter(g -> g.getDeletedAt() == null)
+            .orElseThrow(() -> new EntityNotFoundException("Gem", gemId));
+        gemCounterService.recordView(gemId);
+
+        int maxPhotos = properties.getMaxPhotos();
+        // One extra row tells us whether there are more photos without a count query
+        List<GemPhoto> photos = gemPhotoRepository.findSliceByGem_GemId(gemId, PageRequest.of(0, maxPhotos + 1, PHOTO_ORDER));
+        boolean morePhotos = photos.size() > maxPhotos;
+        List<GemPhoto> shown = morePhotos ? photos.subList(0, maxPhotos) : photos;
+
+        List<String> tags = gemTagRepository.findTagNamesByGemId(gemId, PageRequest.of(0, properties.getMaxTags()));
+
+        Map<Integer, Long> distribution = new LinkedHashMap<>();
+        for (int star = 5; star >= 1; star--) {
+            distribution.put(star, 0L);
+        }
+        for (RatingBucketRow bucket : gemRatingRepository.countByRating(gemId)) {
+            distribution.put(bucket.getRating().intValue(), bucket.getCount());
+        }
+
+        return GemDetailResponse.builder()
+            .gem(gemMapper.toResponse(gem))
+            .founder(gemMapper.toFounder(gem.getFounder()))
+            .photos(shown.stream().map(gemMapper::toPhoto).toList())
+            .morePhotos(morePhotos)
+            .tags(tags)
+            .ratings(GemDetailResponse.RatingSummary.builder()
+                .average(gem.getAverageRating())
+                .count(gem.getRatingCount())
+                .distribution(distribution)
+                .build())
+            .build();
+    }
+}
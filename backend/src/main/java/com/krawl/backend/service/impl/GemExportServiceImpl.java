@@ -0,0 +1,126 @@
+package com.krawl.backend.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.krawl.backend.entity.Gem;
+import com.krawl.backend.repository.GemRepository;
+import com.krawl.backend.service.GemExportService;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams the public gems (approved, not deleted) out through a server-side cursor, with the fields
+ * the public gem endpoints already show. The read-only transaction keeps Hibernate from
+ * taking dirty-checking snapshots, and the persistence context is cleared after every fetch so memory stays
+ * flat whatever the table size.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class GemExportServiceImpl implements GemExportService {
+
+    private final GemRepository gemRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public long exportGems(Format format, OutputStream out) {
+        long written = 0;
+        try (Stream<Gem> gems = gemRepository.streamPublic();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // Root values are otherwise separated by a space, which would start every NDJSON line after the first
+            generator.setRootValueSeparator(null);
+            if (format == Format.GEOJSON) {
+                generator.writeStartObject();
+                generator.writeStringField("type", "FeatureCollection");
+                generator.writeArrayFieldStart("features");
+            }
+
+            Iterator<Gem> iterator = gems.iterator();
+            while (iterator.hasNext()) {
+                Gem gem = iterator.next();
+                if (format == Format.GEOJSON) {
+                    writeFeature(generator, gem);
+                } else {
+                    writeGem(generator, gem, true);
+                    generator.writeRaw('\n');
+                }
+                if (++written % GemRepository.EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                    generator.flush();
+                }
+            }
+
+            if (format == Format.GEOJSON) {
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Exported {} gems as {}", written, format);
+        return written;
+    }
+
+    private static void writeFeature(JsonGenerator generator, Gem gem) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", "Feature");
+        generator.writeStringField("id", gem.getGemId().toString());
+        generator.writeObjectFieldStart("geometry");
+        generator.writeStringField("type", "Point");
+        generator.writeArrayFieldStart("coordinates");
+        generator.writeNumber(gem.getLocation().getX());
+        generator.writeNumber(gem.getLocation().getY());
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeFieldName("properties");
+        writeGem(generator, gem, false);
+        generator.writeEndObject();
+    }
+
+    /**
+     * NDJSON records carry the same name/description/latitude/longitude fields the bulk import reads,
+     * so an export can be fed straight back in.
+     */
+    private static void writeGem(JsonGenerator generator, Gem gem, boolean withCoordinates) throws IOException {
+        generator.writeStartObject();
+        if (withCoordinates) {
+            generator.writeStringField("id", gem.getGemId().toString());
+            generator.writeNumberField("latitude", gem.getLocation().getY());
+            generator.writeNumberField("longitude", gem.getLocation().getX());
+        }
+        generator.writeStringField("name", gem.getName());
+        if (gem.getDescription() != null) {
+            generator.writeStringField("description", gem.getDescription());
+        }
+        if (gem.getFounder() != null) {
+            // Reading the id of a lazy proxy does not initialise it
+            generator.writeStringField("founderId", gem.getFounder().getUserId().toString());
+        }
+        generator.writeNumberField("vouchCount", gem.getVouchCount());
+        generator.writeNumberField("averageRating", gem.getAverageRating());
+        generator.writeNumberField("ratingCount", gem.getRatingCount());
+        generator.writeStringField("lifecycleStatus", gem.getLifecycleStatus());
+        writeTimestamp(generator, "lastVerifiedAt", gem.getLastVerifiedAt());
+        writeTimestamp(generator, "createdAt", gem.getCreatedAt());
+        writeTimestamp(generator, "updatedAt", gem.getUpdatedAt());
+        generator.writeEndObject();
+    }
+
+    private static void writeTimestamp(JsonGenerator generator, String field, LocalDateTime value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(field, value.toString());
+        }
+    }
+}
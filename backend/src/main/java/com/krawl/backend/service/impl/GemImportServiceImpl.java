@@ -0,0 +1,239 @@
+package com.krawl.backend.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.krawl.backend.config.properties.GemImportProperties;
+import com.krawl.backend.dto.request.GemCreateRequest;
+import com.krawl.backend.dto.response.GemImportResponse;
+import com.krawl.backend.entity.User;
+import com.krawl.backend.exception.EntityNotFoundException;
+import com.krawl.backend.repository.GemCopyRepository;
+import com.krawl.backend.repository.UserRepository;
+import com.krawl.backend.service.GemImportService;
+import com.krawl.backend.service.importer.GemImportFormat;
+import com.krawl.backend.service.importer.GemImportReader;
+import com.krawl.backend.service.importer.GemImportRow;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streams an upload through {@link GemImportReader}, validates each record with the same constraints as
+ * {@code POST /api/v1/gems}, and loads valid rows with COPY in fixed-size batches. Each batch commits on
+ * its own, so a rejected batch only fails its own rows. Imported gems start as pending, like single creates,
+ * so no map cache needs invalidating. Only users in one of the configured reputation tiers may import, and
+ * uploads are cut off at a row and a byte limit.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GemImportServiceImpl implements GemImportService {
+
+    private final GemCopyRepository gemCopyRepository;
+    private final UserRepository userRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final GemImportProperties properties;
+
+    @Override
+    public GemImportResponse importGems(InputStream upload, GemImportFormat format, UUID founderId) {
+        User founder = userRepository.findById(founderId)
+            .orElseThrow(() -> new EntityNotFoundException("User", founderId));
+        if (!properties.getAllowedTiers().isEmpty() && !properties.getAllowedTiers().contains(founder.getReputationTier())) {
+            throw new AccessDeniedException("Bulk import requires one of the reputation tiers " + properties.getAllowedTiers());
+        }
+
+        Report report = new Report(properties.getMaxReportedErrors());
+        List<GemCreateRequest> batch = new ArrayList<>(properties.getBatchSize());
+        List<Long> batchRows = new ArrayList<>(properties.getBatchSize());
+        long start = System.nanoTime();
+
+        try (GemImportReader reader = GemImportReader.open(format, new LimitedInputStream(upload, properties.getMaxBytes()),
+                objectMapper)) {
+            GemImportRow row;
+            while ((row = reader.next()) != null) {
+                if (row.rowNumber() > properties.getMaxRows()) {
+                    report.truncated = true;
+                    break;
+                }
+                report.total++;
+                if (!isValid(row, report)) {
+                    continue;
+                }
+                batch.add(row.request());
+                batchRows.add(row.rowNumber());
+                if (batch.size() >= properties.getBatchSize()) {
+                    flush(batch, batchRows, founderId, report);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Gem import upload aborted after {} rows: {}", report.total, e.getMessage());
+            report.error(report.total + 1, "file", "Upload could not be read: " + e.getMessage());
+            report.truncated = true;
+        }
+        flush(batch, batchRows, founderId, report);
+
+        log.info("Gem import by {}: {} rows, {} imported, {} failed in {} ms", founderId, report.total,
+            report.imported, report.failed, (System.nanoTime() - start) / 1_000_000);
+        return report.toResponse();
+    }
+
+    private boolean isValid(GemImportRow row, Report report) {
+        if (row.parseError() != null) {
+            report.rowFailed(row.rowNumber(), null, row.parseError());
+            return false;
+        }
+
+        GemCreateRequest request = row.request();
+        List<String[]> problems = new ArrayList<>();
+        for (ConstraintViolation<GemCreateRequest> violation : validator.validate(request)) {
+            problems.add(new String[]{violation.getPropertyPath().toString(), violation.getMessage()});
+        }
+        if (request.getLatitude() != null && !(request.getLatitude() >= -90 && request.getLatitude() <= 90)) {
+            problems.add(new String[]{"latitude", "Latitude must be between -90 and 90"});
+        }
+        if (request.getLongitude() != null && !(request.getLongitude() >= -180 && request.getLongitude() <= 180)) {
+            problems.add(new String[]{"longitude", "Longitude must be between -180 and 180"});
+        }
+        if (problems.isEmpty()) {
+            return true;
+        }
+
+        report.failed++;
+        for (String[] problem : problems) {
+            report.error(row.rowNumber(), problem[0], problem[1]);
+        }
+        return false;
+    }
+
+    private void flush(List<GemCreateRequest> batch, List<Long> batchRows, UUID founderId, Report report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            Long copied = transactionTemplate.execute(status -> {
+                try {
+                    return gemCopyRepository.copyGems(batch, founderId);
+                } catch (SQLException | IOException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+            });
+            report.imported += copied != null ? copied : 0;
+        } catch (RuntimeException e) {
+            log.warn("Gem import batch of {} rows starting at row {} rejected", batch.size(), batchRows.getFirst(), e);
+            String reason = rejectionReason(e);
+            for (Long rowNumber : batchRows) {
+                report.rowFailed(rowNumber, null, reason);
+            }
+        }
+        batch.clear();
+        batchRows.clear();
+    }
+
+    /**
+     * Says why a batch failed without passing on the database's message, which can quote SQL,
+     * table and constraint names.
+     */
+    private static String rejectionReason(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && sql.getSQLState() != null) {
+                if (sql.getSQLState().startsWith("22")) {
+                    return "Batch rejected: a row has a value the database cannot store";
+                }
+                if (sql.getSQLState().startsWith("23")) {
+                    return "Batch rejected: a row conflicts with existing data";
+                }
+            }
+        }
+        return "Batch could not be saved; import these rows again later";
+    }
+
+    /**
+     * Fails the read once more than {@code maxBytes} have been read, so a chunked upload without
+     * a Content-Length is cut off too.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long maxBytes;
+        private long read;
+
+        LimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) throws IOException {
+            read += n;
+            if (read > maxBytes) {
+                throw new IOException("upload is larger than " + maxBytes + " bytes");
+            }
+        }
+    }
+
+    private static final class Report {
+        private final int maxErrors;
+        private final List<GemImportResponse.RowError> errors = new ArrayList<>();
+        private long total;
+        private long imported;
+        private long failed;
+        private boolean truncated;
+
+        Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void rowFailed(long row, String field, String message) {
+            failed++;
+            error(row, field, message);
+        }
+
+        void error(long row, String field, String message) {
+            if (errors.size() < maxErrors) {
+                errors.add(new GemImportResponse.RowError(row, field, message));
+            } else {
+                truncated = true;
+            }
+        }
+
+        GemImportResponse toResponse() {
+            return GemImportResponse.builder()
+                .totalRows(total)
+                .importedRows(imported)
+                .failedRows(failed)
+                .truncated(truncated)
+                .errors(errors)
+                .build();
+        }
+    }
+}
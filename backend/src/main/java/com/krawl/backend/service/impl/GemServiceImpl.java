@@ -2,29 +2,81 @@ package com.krawl.backend.service.impl;
 
 import com.krawl.backend.dto.request.GemCreateRequest;
 import com.krawl.backend.dto.request.GemUpdateRequest;
+import com.krawl.backend.cache.GemViewportCache;
+import com.krawl.backend.config.properties.GemSearchProperties;
+import com.krawl.backend.config.properties.MapProperties;
+import com.krawl.backend.dto.response.CursorPage;
+import com.krawl.backend.dto.response.GemClusterResponse;
+import com.krawl.backend.dto.response.GemMarkerResponse;
+import com.krawl.backend.dto.response.GemNearbyResponse;
 import com.krawl.backend.dto.response.GemResponse;
+import com.krawl.backend.dto.response.GemSearchResponse;
 import com.krawl.backend.entity.Gem;
+import com.krawl.backend.entity.Tag;
+import com.krawl.backend.event.GemChangedEvent;
 import com.krawl.backend.exception.EntityNotFoundException;
+import com.krawl.backend.exception.ValidationException;
+import com.krawl.backend.index.TagBitmapIndex;
 import com.krawl.backend.mapper.GemMapper;
+import com.krawl.backend.repository.GemListRepository;
+import com.krawl.backend.repository.GemMarkerRepository;
+import com.krawl.backend.repository.GemNearbyRepository;
 import com.krawl.backend.repository.GemRepository;
+import com.krawl.backend.repository.GemSearchRepository;
+import com.krawl.backend.repository.GemTagIndexRepository;
 import com.krawl.backend.repository.UserRepository;
+import com.krawl.backend.repository.projection.GemMarkerRow;
+import com.krawl.backend.repository.projection.KeysetRow;
 import com.krawl.backend.service.GemService;
+import com.krawl.backend.service.StorageService;
+import com.krawl.backend.service.TagService;
+import com.krawl.backend.util.BoundingBox;
+import com.krawl.backend.util.CursorCodec;
+import com.krawl.backend.util.KeysetSort;
+import com.krawl.backend.util.PaginationHelper;
+import com.krawl.backend.util.TileGrid;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class GemServiceImpl implements GemService {
 
     private final GemRepository gemRepository;
+    private final GemListRepository gemListRepository;
+    private final GemMarkerRepository gemMarkerRepository;
+    private final GemViewportCache gemViewportCache;
+    private final GemNearbyRepository gemNearbyRepository;
+    private final GemSearchRepository gemSearchRepository;
+    private final GemTagIndexRepository gemTagIndexRepository;
+    private final TagBitmapIndex tagBitmapIndex;
+    private final TagService tagService;
     private final UserRepository userRepository;
     private final GemMapper gemMapper;
+    private final StorageService storageService;
+    private final MapProperties mapProperties;
+    private final GemSearchProperties searchProperties;
+    private final PaginationHelper paginationHelper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -36,12 +88,14 @@ public class GemServiceImpl implements GemService {
         gem.setFounder(founder);
 
         Gem saved = gemRepository.save(gem);
+        eventPublisher.publishEvent(GemChangedEvent.created(saved));
         return gemMapper.toResponse(saved);
     }
 
     @Override
     public GemResponse getGemById(UUID gemId) {
         Gem gem = gemRepository.findById(gemId)
+            .filter(g -> g.getDeletedAt() == null)
             .orElseThrow(() -> new EntityNotFoundException("Gem", gemId));
         return gemMapper.toResponse(gem);
     }
@@ -51,23 +105,257 @@ public class GemServiceImpl implements GemService {
         return gemRepository.findAll(pageable).map(gemMapper::toResponse);
     }
 
+    @Override
+    public CursorPage<GemResponse> listGems(String sortBy, String cursor, Integer size) {
+        KeysetSort sort = paginationHelper.resolveSort(sortBy, GemListRepository.SORTS);
+        int pageSize = paginationHelper.pageSize(size);
+
+        // Fetch one extra row to know whether another page exists without counting
+        var rows = gemListRepository.findPage(sort, sort.decodeCursor(cursor), pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        var page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        Map<UUID, Gem> gems = new HashMap<>();
+        gemRepository.findWithFounderByGemIdIn(page.stream().map(KeysetRow::id).toList())
+            .forEach(gem -> gems.put(gem.getGemId(), gem));
+        List<GemResponse> items = page.stream()
+            .map(row -> gems.get(row.id()))
+            .filter(Objects::nonNull)
+            .map(gemMapper::toResponse)
+            .toList();
+
+        String nextCursor = null;
+        if (hasMore) {
+            var last = page.get(page.size() - 1);
+            nextCursor = sort.encodeCursor(last.sortValue(), last.id());
+        }
+        return CursorPage.of(items, nextCursor);
+    }
+
+    @Override
+    public List<GemMarkerResponse> getGemsInViewport(BoundingBox bbox, Integer limit) {
+        List<GemMarkerResponse> markers = new ArrayList<>();
+        streamGemsInViewport(bbox, limit, markers::add);
+        return markers;
+    }
+
+    @Override
+    public void streamGemsInViewport(BoundingBox bbox, Integer limit, Consumer<GemMarkerResponse> consumer) {
+        if (gemViewportCache.isEnabled()) {
+            Optional<List<GemMarkerRow>> cached = gemViewportCache.findInViewport(bbox, viewportLimit(limit));
+            if (cached.isPresent()) {
+                cached.get().forEach(row -> consumer.accept(toMarker(row)));
+                return;
+            }
+        }
+        gemMarkerRepository.streamInBoundingBox(bbox, viewportLimit(limit), row -> consumer.accept(toMarker(row)));
+    }
+
+    @Override
+    public List<GemMarkerResponse> discoverGems(BoundingBox bbox, List<String> allTags, List<String> anyTags,
+                                                Integer limit) {
+        List<String> required = allTags != null ? allTags : List.of();
+        List<String> optional = anyTags != null ? anyTags : List.of();
+        if (required.isEmpty() && optional.isEmpty()) {
+            throw new ValidationException("tags", "at least one of all or any is required");
+        }
+
+        Set<Integer> allTagIds = new LinkedHashSet<>();
+        for (String name : required) {
+            Optional<Tag> tag = tagService.getTagByName(name.strip());
+            if (tag.isEmpty()) {
+                // A required tag nobody has can never match
+                return List.of();
+            }
+            allTagIds.add(tag.get().getTagId());
+        }
+        Set<Integer> anyTagIds = new LinkedHashSet<>();
+        for (String name : optional) {
+            tagService.getTagByName(name.strip()).ifPresent(tag -> anyTagIds.add(tag.getTagId()));
+        }
+        if (!optional.isEmpty() && anyTagIds.isEmpty()) {
+            return List.of();
+        }
+
+        int pageSize = viewportLimit(limit);
+        List<UUID> gemIds = tagBitmapIndex.isReady()
+            ? tagBitmapIndex.find(bbox, allTagIds, anyTagIds, pageSize)
+            : gemTagIndexRepository.findIdsByTags(bbox, allTagIds, anyTagIds, pageSize);
+
+        // The index ranks on the rating it was last fed; re-rank on the current row values
+        List<GemMarkerRow> rows = new ArrayList<>(gemMarkerRepository.findByIds(gemIds));
+        rows.sort(GemMarkerRow.RANKING);
+        return rows.stream().map(this::toMarker).toList();
+    }
+
+    private int viewportLimit(Integer limit) {
+        var viewport = mapProperties.getViewport();
+        return (limit != null && limit > 0)
+            ? Math.min(limit, viewport.getMaxResults())
+            : viewport.getDefaultResults();
+    }
+
+    private GemMarkerResponse toMarker(GemMarkerRow row) {
+        String thumb = null;
+        if (row.featuredPhotoUrl() != null) {
+            int size = mapProperties.getViewport().getThumbnailSize();
+            try {
+                thumb = storageService.getThumbnailUrl(row.featuredPhotoUrl(), size, size);
+            } catch (RuntimeException e) {
+                log.debug("No thumbnail transformation for {}: {}", row.featuredPhotoUrl(), e.getMessage());
+                thumb = row.featuredPhotoUrl();
+            }
+        }
+        return gemMapper.toMarker(row, thumb);
+    }
+
+    @Override
+    public GemClusterResponse getGemClusters(BoundingBox bbox, int zoom) {
+        TileGrid.requireZoom(zoom);
+        var settings = mapProperties.getClusters();
+        double cellSize = TileGrid.cellSizeDegrees(zoom, settings.getCellsPerTile());
+        BoundingBox snapped = TileGrid.snapOutward(bbox, cellSize);
+
+        if (zoom >= settings.getMarkerZoom()) {
+            return GemClusterResponse.builder()
+                .zoom(zoom)
+                .clustered(false)
+                .clusters(List.of())
+                .markers(getGemsInViewport(snapped, mapProperties.getViewport().getMaxResults()))
+                .build();
+        }
+
+        var clusters = gemRepository.findClustersInBoundingBox(
+                snapped.getMinLng(), snapped.getMinLat(), snapped.getMaxLng(), snapped.getMaxLat(),
+                cellSize, settings.getMaxCells())
+            .stream()
+            .map(row -> gemMapper.toCluster(row, zoom))
+            .toList();
+
+        return GemClusterResponse.builder()
+            .zoom(zoom)
+            .clustered(true)
+            .clusters(clusters)
+            .markers(List.of())
+            .build();
+    }
+
+    @Override
+    public CursorPage<GemNearbyResponse> getNearbyGems(double lat, double lng, Double radiusMeters,
+                                                       Integer limit, String cursor) {
+        if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            throw new ValidationException("Latitude must be between -90 and 90 and longitude between -180 and 180");
+        }
+        var settings = mapProperties.getNearby();
+        if (radiusMeters != null && (radiusMeters <= 0 || radiusMeters > settings.getMaxRadiusMeters())) {
+            throw new ValidationException("radius", "must be between 0 and " + settings.getMaxRadiusMeters() + " metres");
+        }
+        int pageSize = (limit != null && limit > 0)
+            ? Math.min(limit, settings.getMaxResults())
+            : settings.getDefaultResults();
+
+        Double afterDistance = null;
+        UUID afterGemId = null;
+        String[] position = CursorCodec.decode(cursor, 2);
+        if (position != null) {
+            try {
+                afterDistance = Double.parseDouble(position[0]);
+                afterGemId = UUID.fromString(position[1]);
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException("cursor", "is malformed");
+            }
+        }
+
+        // Fetch one extra row to know whether another page exists without counting
+        var rows = gemNearbyRepository.findNearest(lat, lng, radiusMeters, afterDistance, afterGemId, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        var page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            var last = page.get(page.size() - 1);
+            nextCursor = CursorCodec.encode(last.distanceMeters(), last.gemId());
+        }
+        return CursorPage.of(page.stream().map(gemMapper::toNearby).toList(), nextCursor);
+    }
+
+    @Override
+    public CursorPage<GemSearchResponse> searchGems(String query, Double lat, Double lng, Double radiusMeters,
+                                                    Integer limit, String cursor) {
+        String text = query == null ? "" : query.strip();
+        if (text.length() < searchProperties.getMinQueryLength() || text.length() > searchProperties.getMaxQueryLength()) {
+            throw new ValidationException("q", "must be between " + searchProperties.getMinQueryLength()
+                + " and " + searchProperties.getMaxQueryLength() + " characters");
+        }
+        if ((lat == null) != (lng == null)) {
+            throw new ValidationException("lat", "lat and lng must be given together");
+        }
+        if (lat != null && (lat < -90 || lat > 90 || lng < -180 || lng > 180)) {
+            throw new ValidationException("Latitude must be between -90 and 90 and longitude between -180 and 180");
+        }
+        if (radiusMeters != null) {
+            if (lat == null) {
+                throw new ValidationException("radius", "requires lat and lng");
+            }
+            if (radiusMeters <= 0 || radiusMeters > searchProperties.getMaxRadiusMeters()) {
+                throw new ValidationException("radius", "must be between 0 and " + searchProperties.getMaxRadiusMeters() + " metres");
+            }
+        }
+        int pageSize = (limit != null && limit > 0)
+            ? Math.min(limit, searchProperties.getMaxResults())
+            : searchProperties.getDefaultResults();
+
+        Double afterScore = null;
+        UUID afterGemId = null;
+        String[] position = CursorCodec.decode(cursor, 2);
+        if (position != null) {
+            try {
+                afterScore = Double.parseDouble(position[0]);
+                afterGemId = UUID.fromString(position[1]);
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException("cursor", "is malformed");
+            }
+        }
+
+        var rows = gemSearchRepository.search(text, lat, lng, radiusMeters, afterScore, afterGemId, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        var page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            var last = page.get(page.size() - 1);
+            nextCursor = CursorCodec.encode(last.score(), last.gemId());
+        }
+        return CursorPage.of(page.stream().map(gemMapper::toSearchResult).toList(), nextCursor);
+    }
+
     @Override
     @Transactional
     public GemResponse updateGem(UUID gemId, GemUpdateRequest request) {
         Gem gem = gemRepository.findById(gemId)
+            .filter(g -> g.getDeletedAt() == null)
             .orElseThrow(() -> new EntityNotFoundException("Gem", gemId));
 
+        var oldLocation = gem.getLocation();
         gemMapper.updateEntity(gem, request);
         Gem saved = gemRepository.save(gem);
+        eventPublisher.publishEvent(GemChangedEvent.updated(saved, oldLocation));
         return gemMapper.toResponse(saved);
     }
 
+    /**
+     * Soft delete: setting deleted_at also stamps updated_at, so delta sync sends the gem to
+     * offline clients as a tombstone instead of losing it with the row.
+     */
     @Override
     @Transactional
     public void deleteGem(UUID gemId) {
-        if (gemRepository.existsById(gemId)) {
-            gemRepository.deleteById(gemId);
-        }
+        gemRepository.findById(gemId).filter(gem -> gem.getDeletedAt() == null).ifPresent(gem -> {
+            var oldLocation = gem.getLocation();
+            gem.setDeletedAt(LocalDateTime.now());
+            gemRepository.save(gem);
+            eventPublisher.publishEvent(GemChangedEvent.deleted(gemId, oldLocation));
+        });
     }
 }
 
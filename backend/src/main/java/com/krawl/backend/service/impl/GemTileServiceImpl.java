@@ -0,0 +1,100 @@
+package com.krawl.backend.service.impl;
+
+import com.krawl.backend.config.properties.MapProperties;
+import com.krawl.backend.dto.response.VectorTile;
+import com.krawl.backend.event.GemChangedEvent;
+import com.krawl.backend.repository.GemTileRepository;
+import com.krawl.backend.service.GemTileService;
+import com.krawl.backend.util.TileGrid;
+import com.krawl.backend.util.WeightedLruCache;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Point;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.time.Duration;
+
+/**
+ * Serves gem vector tiles through a byte-bounded LRU cache.
+ * A change evicts, at every zoom, each tile whose buffered extent contains the old or the new
+ * location: the tile holding the gem and the neighbours whose buffer reaches it. A render that
+ * started before a change is not cached, and rating and vouch changes are not evented, so
+ * tiles also expire a short while after they were rendered.
+ */
+@Slf4j
+@Service
+public class GemTileServiceImpl implements GemTileService {
+
+    private static final double BOUNDARY_EPSILON = 1e-9;
+
+    private final GemTileRepository gemTileRepository;
+    private final MapProperties.Tiles settings;
+    private final WeightedLruCache<String, VectorTile> cache;
+    // Bumped on every eviction; guarded by the cache's monitor so a check and a put are atomic
+    private long generation;
+
+    public GemTileServiceImpl(GemTileRepository gemTileRepository, MapProperties mapProperties) {
+        this.gemTileRepository = gemTileRepository;
+        this.settings = mapProperties.getTiles();
+        this.cache = new WeightedLruCache<>(settings.getCacheMaxBytes(), tile -> tile.getData().length,
+            Duration.ofSeconds(settings.getCacheTtlSeconds()));
+    }
+
+    @Override
+    public VectorTile getGemTile(int z, int x, int y) {
+        TileGrid.requireTile(z, x, y);
+        String key = key(z, x, y);
+
+        long renderedAt;
+        synchronized (cache) {
+            VectorTile cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            renderedAt = generation;
+        }
+
+        byte[] data = gemTileRepository.renderTile(z, x, y,
+            settings.getExtent(), settings.getBuffer(), settings.getMaxFeatures());
+        VectorTile tile = new VectorTile(data, "\"" + DigestUtils.md5DigestAsHex(data) + "\"");
+        synchronized (cache) {
+            // A gem changed while rendering; the tile may predate it
+            if (generation == renderedAt) {
+                cache.put(key, tile);
+            }
+        }
+        return tile;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGemChanged(GemChangedEvent event) {
+        synchronized (cache) {
+            generation++;
+            evictTilesContaining(event.getOldLocation());
+            evictTilesContaining(event.getNewLocation());
+        }
+    }
+
+    private void evictTilesContaining(Point location) {
+        if (location == null) {
+            return;
+        }
+        // Buffer as a share of a tile; never zero so a point on a tile edge evicts both sides
+        double margin = Math.max((double) settings.getBuffer() / settings.getExtent(), BOUNDARY_EPSILON);
+        for (int z = TileGrid.MIN_ZOOM; z <= TileGrid.MAX_ZOOM; z++) {
+            double x = TileGrid.mercatorX(location.getX(), z);
+            double y = TileGrid.mercatorY(location.getY(), z);
+            for (int tx = TileGrid.clampTile(x - margin, z); tx <= TileGrid.clampTile(x + margin, z); tx++) {
+                for (int ty = TileGrid.clampTile(y - margin, z); ty <= TileGrid.clampTile(y + margin, z); ty++) {
+                    cache.invalidate(key(z, tx, ty));
+                }
+            }
+        }
+        log.debug("Evicted gem tiles around ({}, {})", location.getX(), location.getY());
+    }
+
+    private static String key(int z, int x, int y) {
+        return z + "/" + x + "/" + y;
+    }
+}
@@ -0,0 +1,181 @@
+package com.krawl.backend.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.krawl.backend.dto.response.KrawlBundleResponse;
+import com.krawl.backend.entity.Gem;
+import com.krawl.backend.entity.GemPhoto;
+import com.krawl.backend.entity.Krawl;
+import com.krawl.backend.entity.KrawlItem;
+import com.krawl.backend.exception.EntityNotFoundException;
+import com.krawl.backend.mapper.GemMapper;
+import com.krawl.backend.mapper.KrawlMapper;
+import com.krawl.backend.repository.GemPhotoRepository;
+import com.krawl.backend.repository.GemTagRepository;
+import com.krawl.backend.repository.KrawlBundleRepository;
+import com.krawl.backend.repository.KrawlRepository;
+import com.krawl.backend.repository.KrawlRouteRepository;
+import com.krawl.backend.repository.SavedKrawlRepository;
+import com.krawl.backend.repository.projection.KrawlBundleRow;
+import com.krawl.backend.service.KrawlBundleService;
+import com.krawl.backend.service.StorageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves prebuilt offline bundles from krawl_bundles and rebuilds them lazily. Triggers (V12)
+ * bump a krawl's source version when the krawl, its items or a member gem's record, photos or
+ * tags change; a request that finds the stored build behind rebuilds it in five statements
+ * (krawl graph, photos, tags, route, save) and every other request is a single row read.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class KrawlBundleServiceImpl implements KrawlBundleService {
+
+    static final int FORMAT_VERSION = 1;
+    private static final int THUMBNAIL_SIZE = 320;
+
+    private final KrawlRepository krawlRepository;
+    private final KrawlBundleRepository krawlBundleRepository;
+    private final KrawlRouteRepository krawlRouteRepository;
+    private final GemPhotoRepository gemPhotoRepository;
+    private final GemTagRepository gemTagRepository;
+    private final SavedKrawlRepository savedKrawlRepository;
+    private final KrawlMapper krawlMapper;
+    private final GemMapper gemMapper;
+    private final StorageService storageService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Bundle getBundle(UUID krawlId, UUID requesterId) {
+        Krawl krawl = krawlRepository.findById(krawlId)
+            .filter(k -> k.getDeletedAt() == null)
+            .filter(k -> "public".equals(k.getVisibility())
+                || (requesterId != null && requesterId.equals(k.getCreator().getUserId())))
+            .orElseThrow(() -> new EntityNotFoundException("Krawl", krawlId));
+
+        var stored = krawlBundleRepository.find(krawlId);
+        if (stored.isPresent() && stored.get().isCurrent()) {
+            KrawlBundleRow row = stored.get();
+            return new Bundle(row.contentHash(), row.payload(), row.rawBytes());
+        }
+        return build(krawl.getKrawlId());
+    }
+
+    @Override
+    public void recordDownload(UUID krawlId, UUID userId) {
+        savedKrawlRepository.markDownloaded(userId, krawlId);
+    }
+
+    private Bundle build(UUID krawlId) {
+        long version = krawlBundleRepository.startBuild(krawlId);
+        Krawl krawl = krawlRepository.findForBundleByKrawlId(krawlId)
+            .orElseThrow(() -> new EntityNotFoundException("Krawl", krawlId));
+
+        List<KrawlItem> items = krawl.getItems() == null ? List.of() : krawl.getItems();
+        List<UUID> gemIds = items.stream().map(item -> item.getGem().getGemId()).toList();
+
+        Map<UUID, List<KrawlBundleResponse.Photo>> photos = new HashMap<>();
+        Map<UUID, List<String>> tags = new HashMap<>();
+        if (!gemIds.isEmpty()) {
+            for (GemPhoto photo : gemPhotoRepository.findByGemIds(gemIds)) {
+                photos.computeIfAbsent(photo.getGem().getGemId(), id -> new ArrayList<>()).add(toPhoto(photo));
+            }
+            gemTagRepository.findTagNamesByGemIds(gemIds).forEach(row ->
+                tags.computeIfAbsent(row.getGemId(), id -> new ArrayList<>()).add(row.getTagName()));
+        }
+
+        List<KrawlBundleResponse.BundleGem> gems = items.stream()
+            .map(KrawlItem::getGem)
+            .filter(KrawlBundleServiceImpl::isVisible)
+            .map(gem -> toBundleGem(gem, tags, photos))
+            .toList();
+
+        var content = KrawlBundleResponse.builder()
+            .formatVersion(FORMAT_VERSION)
+            .krawl(krawlMapper.toResponse(krawl, krawlRouteRepository.findByKrawlIds(List.of(krawlId)).get(krawlId)))
+            .gems(gems)
+            .build();
+
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(content);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        String contentHash = sha256(json);
+        byte[] gzip = gzip(json);
+        krawlBundleRepository.saveBuild(krawlId, version, contentHash, gzip, json.length);
+        log.debug("Built offline bundle for krawl {} (version {}, {} -> {} bytes)", krawlId, version, json.length, gzip.length);
+        return new Bundle(contentHash, gzip, json.length);
+    }
+
+    /**
+     * Full gem records follow the public gem read paths: approved and not deleted.
+     */
+    private static boolean isVisible(Gem gem) {
+        return gem.getDeletedAt() == null && "approved".equals(gem.getApprovalStatus());
+    }
+
+    private KrawlBundleResponse.BundleGem toBundleGem(Gem gem, Map<UUID, List<String>> tags,
+                                                      Map<UUID, List<KrawlBundleResponse.Photo>> photos) {
+        return KrawlBundleResponse.BundleGem.builder()
+            .gem(gemMapper.toResponse(gem))
+            .tags(tags.getOrDefault(gem.getGemId(), List.of()))
+            .photos(photos.getOrDefault(gem.getGemId(), List.of()))
+            .build();
+    }
+
+    private KrawlBundleResponse.Photo toPhoto(GemPhoto photo) {
+        String thumb;
+        try {
+            thumb = storageService.getThumbnailUrl(photo.getPhotoUrl(), THUMBNAIL_SIZE, THUMBNAIL_SIZE);
+        } catch (RuntimeException e) {
+            log.debug("No thumbnail transformation for {}: {}", photo.getPhotoUrl(), e.getMessage());
+            thumb = photo.getPhotoUrl();
+        }
+        return KrawlBundleResponse.Photo.builder()
+            .photoId(photo.getPhotoId())
+            .url(photo.getPhotoUrl())
+            .thumbnailUrl(thumb)
+            .caption(photo.getCaption())
+            .featured(Boolean.TRUE.equals(photo.getIsFeatured()))
+            .createdAt(photo.getCreatedAt())
+            .build();
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        var out = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+        try (var gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
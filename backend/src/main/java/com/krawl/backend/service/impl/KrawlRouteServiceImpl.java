@@ -0,0 +1,94 @@
+package com.krawl.backend.service.impl;
+
+import com.krawl.backend.dto.response.KrawlAreaResponse;
+import com.krawl.backend.dto.response.KrawlRouteOptimizationResponse;
+import com.krawl.backend.dto.response.KrawlRouteResponse;
+import com.krawl.backend.entity.Krawl;
+import com.krawl.backend.entity.KrawlItem;
+import com.krawl.backend.exception.EntityNotFoundException;
+import com.krawl.backend.repository.KrawlRepository;
+import com.krawl.backend.repository.KrawlRouteRepository;
+import com.krawl.backend.route.RouteOptimizer;
+import com.krawl.backend.service.KrawlRouteService;
+import com.krawl.backend.util.BoundingBox;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Route reads for krawls. Optimization proposes a shorter stop order with {@link RouteOptimizer},
+ * reusing the krawl's existing step numbers in the new order so applying it is a plain update
+ * of step_order values. Area lookups read the trigger-maintained krawl_routes rows.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class KrawlRouteServiceImpl implements KrawlRouteService {
+
+    private static final int DEFAULT_AREA_RESULTS = 50;
+    private static final int MAX_AREA_RESULTS = 200;
+
+    private final KrawlRepository krawlRepository;
+    private final KrawlRouteRepository krawlRouteRepository;
+
+    @Override
+    public List<KrawlAreaResponse> findKrawlsInArea(BoundingBox bbox, Integer limit) {
+        int capped = (limit != null && limit > 0) ? Math.min(limit, MAX_AREA_RESULTS) : DEFAULT_AREA_RESULTS;
+        return krawlRouteRepository.findPublicInArea(bbox, capped).stream()
+            .map(row -> KrawlAreaResponse.builder()
+                .krawlId(row.krawlId())
+                .title(row.title())
+                .averageRating(row.averageRating())
+                .route(KrawlRouteResponse.from(row.route()))
+                .build())
+            .toList();
+    }
+
+    @Override
+    public KrawlRouteOptimizationResponse optimizeRoute(UUID krawlId, UUID requesterId, boolean fixStart, boolean fixEnd) {
+        Krawl krawl = krawlRepository.findWithItemsByKrawlId(krawlId)
+            .filter(k -> k.getDeletedAt() == null)
+            .filter(k -> "public".equals(k.getVisibility())
+                || (requesterId != null && requesterId.equals(k.getCreator().getUserId())))
+            .orElseThrow(() -> new EntityNotFoundException("Krawl", krawlId));
+
+        List<KrawlItem> items = krawl.getItems() == null ? List.of() : krawl.getItems();
+        int n = items.size();
+        double[] lats = new double[n];
+        double[] lngs = new double[n];
+        for (int i = 0; i < n; i++) {
+            var location = items.get(i).getGem().getLocation();
+            lats[i] = location.getY();
+            lngs[i] = location.getX();
+        }
+
+        RouteOptimizer.Result result = RouteOptimizer.optimize(lats, lngs, fixStart, fixEnd);
+
+        List<KrawlRouteOptimizationResponse.Stop> stops = new ArrayList<>(n);
+        int[] order = result.order();
+        for (int position = 0; position < n; position++) {
+            KrawlItem item = items.get(order[position]);
+            stops.add(KrawlRouteOptimizationResponse.Stop.builder()
+                .krawlItemId(item.getKrawlItemId())
+                .gemId(item.getGem().getGemId())
+                .gemName(item.getGem().getName())
+                .currentStepOrder(item.getStepOrder())
+                .proposedStepOrder(items.get(position).getStepOrder())
+                .build());
+        }
+
+        return KrawlRouteOptimizationResponse.builder()
+            .krawlId(krawlId)
+            .fixedStart(fixStart)
+            .fixedEnd(fixEnd)
+            .originalMeters(result.originalMeters())
+            .optimizedMeters(result.optimizedMeters())
+            .savedMeters(result.savedMeters())
+            .stops(stops)
+            .build();
+    }
+}
@@ -1,33 +1,73 @@
 package com.krawl.backend.service.impl;
 
+import com.krawl.backend.cache.InvalidatingCacheManager;
 import com.krawl.backend.dto.request.KrawlCreateRequest;
 import com.krawl.backend.dto.request.KrawlUpdateRequest;
+import com.krawl.backend.dto.response.CursorPage;
 import com.krawl.backend.dto.response.KrawlResponse;
 import com.krawl.backend.dto.response.KrawlSummaryResponse;
 import com.krawl.backend.entity.Krawl;
+import com.krawl.backend.exception.EntityNotFoundException;
+import com.krawl.backend.mapper.KrawlMapper;
+import com.krawl.backend.repository.KrawlListRepository;
 import com.krawl.backend.repository.KrawlRepository;
+import com.krawl.backend.repository.KrawlRouteRepository;
+import com.krawl.backend.repository.SyncRepository;
+import com.krawl.backend.repository.projection.KrawlRouteRow;
+import com.krawl.backend.repository.projection.KrawlSummaryKeysetRow;
+import com.krawl.backend.repository.projection.PublicKrawlRow;
 import com.krawl.backend.service.KrawlService;
+import com.krawl.backend.util.KeysetSort;
+import com.krawl.backend.util.PaginationHelper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.stream.Collectors;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import com.krawl.backend.repository.projection.KrawlSummaryRow;
 
+/**
+ * Krawl reads. Public krawl details are cached in "publicKrawls" by id; a scheduled pass evicts
+ * every krawl whose updated_at, or one of whose gems' updated_at, moved since the previous pass, using the same watermark as delta
+ * sync (see {@link SyncRepository#safeUpperBound()}). Ids evicted by one pass are evicted again
+ * by the next, which covers a detail read that loaded the old row just before the change
+ * committed and cached it just after the eviction. Every instance runs the pass against its own
+ * cache, so its evictions are not broadcast.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class KrawlServiceImpl implements KrawlService {
 
+    static final String DETAIL_CACHE = "publicKrawls";
+
     private final KrawlRepository krawlRepository;
+    private final KrawlListRepository krawlListRepository;
+    private final KrawlRouteRepository krawlRouteRepository;
+    private final KrawlMapper krawlMapper;
+    private final PaginationHelper paginationHelper;
+    private final SyncRepository syncRepository;
+    private final CacheManager cacheManager;
+
+    private OffsetDateTime evictedUpTo;
+    private List<UUID> lastEvicted = List.of();
 
     @Override
     @Transactional(readOnly = true)
     public Page<KrawlResponse> getKrawlsByCreator(UUID creatorId, Pageable pageable) {
         return krawlRepository.findByCreator_UserId(creatorId, pageable)
-                .map(this::toResponse);
+                .map(krawlMapper::toResponse);
     }
 
     @Override
@@ -37,31 +77,52 @@ public class KrawlServiceImpl implements KrawlService {
                 .map(this::toSummary);
     }
 
-    private KrawlResponse toResponse(Krawl krawl) {
-        var items = krawl.getItems() == null ? java.util.List.<KrawlResponse.KrawlItemResponse>of() :
-            krawl.getItems().stream().map(it -> KrawlResponse.KrawlItemResponse.builder()
-                .krawlItemId(it.getKrawlItemId())
-                .gemId(it.getGem().getGemId())
-                .gemName(it.getGem().getName())
-                .stepOrder(it.getStepOrder())
-                .creatorNote(it.getCreatorNote())
-                .lokalSecret(it.getLokalSecret())
-                .build()).collect(Collectors.toList());
-
-        return KrawlResponse.builder()
-            .krawlId(krawl.getKrawlId())
-            .title(krawl.getTitle())
-            .description(krawl.getDescription())
-            .creatorId(krawl.getCreator().getUserId())
-            .creatorUsername(krawl.getCreator().getUsername())
-            .creatorScore(krawl.getCreator().getCreatorScore())
-            .visibility(krawl.getVisibility())
-            .averageRating(krawl.getAverageRating())
-            .ratingCount(krawl.getRatingCount())
-            .items(items)
-            .createdAt(krawl.getCreatedAt())
-            .updatedAt(krawl.getUpdatedAt())
-            .build();
+    /**
+     * Public krawls with creator and stop count from one keyset projection statement, plus one
+     * statement for their routes; items are not loaded.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<KrawlResponse> getPublicKrawls(String sortBy, String cursor, Integer size) {
+        KeysetSort sort = paginationHelper.resolveSort(sortBy, KrawlListRepository.SORTS);
+        int pageSize = paginationHelper.pageSize(size);
+
+        // Fetch one extra row to know whether another page exists without counting
+        var rows = krawlListRepository.findPublicPage(sort, sort.decodeCursor(cursor), pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        var page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        Map<UUID, KrawlRouteRow> routes =
+            krawlRouteRepository.findByKrawlIds(page.stream().map(PublicKrawlRow::krawlId).toList());
+        List<KrawlResponse> items = page.stream()
+            .map(row -> krawlMapper.toResponse(row, routes.get(row.krawlId())))
+            .toList();
+
+        String nextCursor = null;
+        if (hasMore) {
+            var last = page.get(page.size() - 1);
+            nextCursor = sort.encodeCursor(last.sortValue(), last.krawlId());
+        }
+        return CursorPage.of(items, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<KrawlSummaryResponse> getKrawlSummariesByCreator(UUID creatorId, String sortBy,
+                                                                       String cursor, Integer size) {
+        KeysetSort sort = paginationHelper.resolveSort(sortBy, KrawlListRepository.SORTS);
+        int pageSize = paginationHelper.pageSize(size);
+
+        var rows = krawlListRepository.findCreatorSummaries(creatorId, sort, sort.decodeCursor(cursor), pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        var page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            var last = page.get(page.size() - 1);
+            nextCursor = sort.encodeCursor(last.sortValue(), last.krawlId());
+        }
+        return CursorPage.of(page.stream().map(this::toSummary).toList(), nextCursor);
     }
 
     private KrawlSummaryResponse toSummary(KrawlSummaryRow row) {
@@ -75,21 +136,71 @@ public class KrawlServiceImpl implements KrawlService {
         );
     }
 
-    // The remaining methods are not in scope for this task
-    @Override
-    public KrawlResponse createKrawl(KrawlCreateRequest request, UUID creatorId) {
-        throw new UnsupportedOperationException("Not implemented");
+    private KrawlSummaryResponse toSummary(KrawlSummaryKeysetRow row) {
+        return new KrawlSummaryResponse(
+            row.krawlId().toString(),
+            row.title(),
+            row.description(),
+            row.averageRating(),
+            (int) row.itemCount(),
+            row.createdAt() == null ? null : row.createdAt().atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime()
+        );
     }
 
+    /**
+     * Public, non-deleted krawl with creator, items and their gems in one entity-graph statement,
+     * plus its precomputed route. Missing and private krawls are not cached.
+     */
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(value = DETAIL_CACHE, key = "#krawlId")
     public KrawlResponse getKrawlById(UUID krawlId) {
-        throw new UnsupportedOperationException("Not implemented");
+        Krawl krawl = krawlRepository.findWithItemsByKrawlId(krawlId)
+            .filter(k -> k.getDeletedAt() == null)
+            .filter(k -> "public".equals(k.getVisibility()))
+            .orElseThrow(() -> new EntityNotFoundException("Krawl", krawlId));
+        KrawlRouteRow route = krawlRouteRepository.findByKrawlIds(List.of(krawlId)).get(krawlId);
+        return krawlMapper.toResponse(krawl, route);
+    }
+
+    @Scheduled(initialDelayString = "${app.krawls.cache.evict-interval-ms:5000}",
+        fixedDelayString = "${app.krawls.cache.evict-interval-ms:5000}")
+    public void scheduledEviction() {
+        try {
+            evictChangedKrawls();
+        } catch (RuntimeException e) {
+            log.warn("Krawl cache eviction failed, retrying next pass: {}", e.getMessage());
+        }
     }
 
+    /**
+     * Evicts cached details of krawls changed since the previous pass and returns how many
+     * changed. The first pass clears the cache, since changes before it are not tracked.
+     */
+    public synchronized int evictChangedKrawls() {
+        Cache cache = cacheManager.getCache(DETAIL_CACHE);
+        OffsetDateTime upper = syncRepository.safeUpperBound();
+        if (cache == null) {
+            return 0;
+        }
+        cache = InvalidatingCacheManager.localCache(cache);
+        if (evictedUpTo == null) {
+            cache.clear();
+            evictedUpTo = upper;
+            return 0;
+        }
+
+        List<UUID> changed = krawlListRepository.findChangedKrawlIds(evictedUpTo, upper);
+        lastEvicted.forEach(cache::evict);
+        changed.forEach(cache::evict);
+        lastEvicted = changed;
+        evictedUpTo = upper;
+        return changed.size();
+    }
+
+    // The remaining methods are not in scope for this task
     @Override
-    @Transactional(readOnly = true)
-    public Page<KrawlResponse> getAllKrawls(Pageable pageable) {
+    public KrawlResponse createKrawl(KrawlCreateRequest request, UUID creatorId) {
         throw new UnsupportedOperationException("Not implemented");
     }
 
@@ -0,0 +1,273 @@
+package com.krawl.backend.service.impl;
+
+import com.krawl.backend.config.properties.SyncProperties;
+import com.krawl.backend.dto.request.GemCreateRequest;
+import com.krawl.backend.dto.request.SyncMutationRequest;
+import com.krawl.backend.dto.request.SyncMutationRequest.Operation;
+import com.krawl.backend.dto.request.SyncMutationRequest.OperationType;
+import com.krawl.backend.dto.response.SyncMutationResponse;
+import com.krawl.backend.dto.response.SyncMutationResponse.Result;
+import com.krawl.backend.dto.response.SyncMutationResponse.Status;
+import com.krawl.backend.exception.ValidationException;
+import com.krawl.backend.repository.SyncMutationRepository;
+import com.krawl.backend.repository.SyncMutationRepository.ClaimRow;
+import com.krawl.backend.repository.SyncMutationRepository.NewGemRow;
+import com.krawl.backend.repository.SyncMutationRepository.OutcomeRow;
+import com.krawl.backend.repository.SyncMutationRepository.RatingRow;
+import com.krawl.backend.repository.projection.ClientOperationRow;
+import com.krawl.backend.service.GemCounterService;
+import com.krawl.backend.service.SyncMutationService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Applies a replayed offline queue in chunks. Each chunk is one transaction: claim the
+ * operation ids in the client_operations ledger (V14), apply the unclaimed ones as one JDBC
+ * batch per operation type, and record their outcomes. Gem creates run first within a chunk so
+ * later operations can refer to a gem created offline by its client-generated id; the other
+ * operation types commute. A chunk that fails rolls back its claims, so retrying it is safe.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SyncMutationServiceImpl implements SyncMutationService {
+
+    private static final int MAX_CLIENT_OP_ID_LENGTH = 64;
+
+    private final SyncMutationRepository syncMutationRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final Validator validator;
+    private final SyncProperties properties;
+    private final GemCounterService gemCounterService;
+
+    @Override
+    public SyncMutationResponse applyMutations(UUID userId, SyncMutationRequest request) {
+        List<Operation> operations = request.getOperations();
+        if (operations.size() > properties.getMaxOperations()) {
+            throw new ValidationException("operations",
+                "At most " + properties.getMaxOperations() + " operations per request");
+        }
+
+        Result[] results = new Result[operations.size()];
+        Set<String> seen = new HashSet<>();
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            Operation operation = operations.get(i);
+            String problem = check(operation);
+            if (problem == null && !seen.add(operation.getClientOpId())) {
+                problem = "Duplicate clientOpId in this request";
+            }
+            if (problem != null) {
+                results[i] = result(operation, Status.REJECTED, null, problem);
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        for (int from = 0; from < accepted.size(); from += chunkSize) {
+            List<Integer> chunk = accepted.subList(from, Math.min(from + chunkSize, accepted.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> applyChunk(userId, operations, chunk, results));
+            } catch (RuntimeException e) {
+                log.warn("Sync replay chunk of {} operations for {} failed: {}", chunk.size(), userId, e.getMessage());
+                for (int i : chunk) {
+                    results[i] = result(operations.get(i), Status.FAILED, null,
+                        "Not applied; retry with the same clientOpId");
+                }
+            }
+        }
+
+        return SyncMutationResponse.builder().results(Arrays.asList(results)).build();
+    }
+
+    @Override
+    public void purgeExpiredOperations() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Integer purged = transactionTemplate.execute(status -> syncMutationRepository.purgeOlderThan(
+            OffsetDateTime.now().minusDays(properties.getRetentionDays())));
+        log.info("Purged {} recorded client operations", purged);
+    }
+
+    private void applyChunk(UUID userId, List<Operation> operations, List<Integer> chunk, Result[] results) {
+        Map<String, ClientOperationRow> ledger = syncMutationRepository.claim(userId, chunk.stream()
+            .map(i -> new ClaimRow(operations.get(i).getClientOpId(), operations.get(i).getType().name()))
+            .toList());
+
+        List<Integer> creates = new ArrayList<>();
+        List<Integer> gemTargets = new ArrayList<>();
+        List<Integer> saves = new ArrayList<>();
+        for (int i : chunk) {
+            Operation operation = operations.get(i);
+            ClientOperationRow recorded = ledger.get(operation.getClientOpId());
+            if (recorded != null && !recorded.isPending()) {
+                results[i] = Result.builder()
+                    .clientOpId(operation.getClientOpId())
+                    .type(operation.getType())
+                    .status(Status.valueOf(recorded.status()))
+                    .replayed(true)
+                    .resultId(recorded.resultId())
+                    .message(recorded.message())
+                    .build();
+                continue;
+            }
+            switch (operation.getType()) {
+                case CREATE_GEM -> creates.add(i);
+                case VOUCH_GEM, RATE_GEM -> gemTargets.add(i);
+                case SAVE_KRAWL -> saves.add(i);
+            }
+        }
+
+        applyCreates(userId, operations, creates, results);
+        applyGemTargets(userId, operations, gemTargets, results);
+        applySaves(userId, operations, saves, results);
+
+        List<OutcomeRow> outcomes = new ArrayList<>();
+        for (List<Integer> applied : List.of(creates, gemTargets, saves)) {
+            for (int i : applied) {
+                outcomes.add(new OutcomeRow(results[i].getClientOpId(), results[i].getStatus().name(),
+                    results[i].getResultId(), results[i].getMessage()));
+            }
+        }
+        syncMutationRepository.recordOutcomes(userId, outcomes);
+    }
+
+    private void applyCreates(UUID userId, List<Operation> operations, List<Integer> creates, Result[] results) {
+        List<NewGemRow> rows = new ArrayList<>(creates.size());
+        for (int i : creates) {
+            Operation operation = operations.get(i);
+            UUID gemId = operation.getGemId() != null ? operation.getGemId() : UUID.randomUUID();
+            rows.add(new NewGemRow(gemId, operation.getGem()));
+        }
+        int[] counts = syncMutationRepository.insertGems(userId, rows);
+        for (int k = 0; k < creates.size(); k++) {
+            int i = creates.get(k);
+            results[i] = counts[k] == 0
+                ? result(operations.get(i), Status.REJECTED, null, "gemId is already in use")
+                : result(operations.get(i), Status.APPLIED, rows.get(k).gemId(), null);
+        }
+    }
+
+    private void applyGemTargets(UUID userId, List<Operation> operations, List<Integer> targets, Result[] results) {
+        Set<UUID> live = syncMutationRepository.findLiveGemIds(
+            targets.stream().map(i -> operations.get(i).getGemId()).distinct().toList());
+
+        List<UUID> vouches = new ArrayList<>();
+        List<RatingRow> ratings = new ArrayList<>();
+        for (int i : targets) {
+            Operation operation = operations.get(i);
+            if (!live.contains(operation.getGemId())) {
+                results[i] = result(operation, Status.NOT_FOUND, operation.getGemId(), "Gem not found");
+                continue;
+            }
+            if (operation.getType() == OperationType.VOUCH_GEM) {
+                vouches.add(operation.getGemId());
+            } else {
+                ratings.add(new RatingRow(operation.getGemId(), operation.getRating(), operation.getComment()));
+            }
+            results[i] = result(operation, Status.APPLIED, operation.getGemId(), null);
+        }
+        int[] inserted = syncMutationRepository.insertVouches(userId, vouches);
+        List<UUID> newVouches = new ArrayList<>();
+        for (int i = 0; i < inserted.length; i++) {
+            if (inserted[i] > 0) {
+                newVouches.add(vouches.get(i));
+            }
+        }
+        gemCounterService.recordVouches(newVouches);
+        syncMutationRepository.upsertRatings(userId, ratings);
+    }
+
+    private void applySaves(UUID userId, List<Operation> operations, List<Integer> saves, Result[] results) {
+        Set<UUID> saveable = syncMutationRepository.findSaveableKrawlIds(userId,
+            saves.stream().map(i -> operations.get(i).getKrawlId()).distinct().toList());
+
+        List<UUID> krawlIds = new ArrayList<>();
+        for (int i : saves) {
+            Operation operation = operations.get(i);
+            if (saveable.contains(operation.getKrawlId())) {
+                krawlIds.add(operation.getKrawlId());
+                results[i] = result(operation, Status.APPLIED, operation.getKrawlId(), null);
+            } else {
+                results[i] = result(operation, Status.NOT_FOUND, operation.getKrawlId(), "Krawl not found");
+            }
+        }
+        syncMutationRepository.insertSavedKrawls(userId, krawlIds);
+    }
+
+    /**
+     * Returns why an operation can never apply, or null. Rejections are deterministic, so they
+     * are not recorded in the ledger.
+     */
+    private String check(Operation operation) {
+        if (operation == null) {
+            return "Operation is required";
+        }
+        String clientOpId = operation.getClientOpId();
+        if (clientOpId == null || clientOpId.isBlank()) {
+            return "clientOpId is required";
+        }
+        if (clientOpId.length() > MAX_CLIENT_OP_ID_LENGTH) {
+            return "clientOpId must not exceed " + MAX_CLIENT_OP_ID_LENGTH + " characters";
+        }
+        if (operation.getType() == null) {
+            return "type is required";
+        }
+        return switch (operation.getType()) {
+            case CREATE_GEM -> checkGem(operation.getGem());
+            case VOUCH_GEM -> operation.getGemId() == null ? "gemId is required" : null;
+            case RATE_GEM -> {
+                if (operation.getGemId() == null) {
+                    yield "gemId is required";
+                }
+                Integer rating = operation.getRating();
+                yield rating == null || rating < 1 || rating > 5 ? "rating must be between 1 and 5" : null;
+            }
+            case SAVE_KRAWL -> operation.getKrawlId() == null ? "krawlId is required" : null;
+        };
+    }
+
+    /**
+     * Same constraints as POST /api/v1/gems.
+     */
+    private String checkGem(GemCreateRequest gem) {
+        if (gem == null) {
+            return "gem is required";
+        }
+        for (ConstraintViolation<GemCreateRequest> violation : validator.validate(gem)) {
+            return violation.getPropertyPath() + ": " + violation.getMessage();
+        }
+        if (!(gem.getLatitude() >= -90 && gem.getLatitude() <= 90)) {
+            return "latitude: Latitude must be between -90 and 90";
+        }
+        if (!(gem.getLongitude() >= -180 && gem.getLongitude() <= 180)) {
+            return "longitude: Longitude must be between -180 and 180";
+        }
+        return null;
+    }
+
+    private static Result result(Operation operation, Status status, UUID resultId, String message) {
+        return Result.builder()
+            .clientOpId(operation != null ? operation.getClientOpId() : null)
+            .type(operation != null ? operation.getType() : null)
+            .status(status)
+            .resultId(resultId)
+            .message(message)
+            .build();
+    }
+}
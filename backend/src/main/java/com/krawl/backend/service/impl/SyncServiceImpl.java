@@ -0,0 +1,209 @@
+package com.krawl.backend.service.impl;
+
+import com.krawl.backend.dto.response.GemResponse;
+import com.krawl.backend.dto.response.KrawlResponse;
+import com.krawl.backend.dto.response.SyncChangesResponse;
+import com.krawl.backend.entity.Gem;
+import com.krawl.backend.entity.Krawl;
+import com.krawl.backend.exception.ValidationException;
+import com.krawl.backend.mapper.GemMapper;
+import com.krawl.backend.mapper.KrawlMapper;
+import com.krawl.backend.repository.GemRepository;
+import com.krawl.backend.repository.KrawlRepository;
+import com.krawl.backend.repository.KrawlRouteRepository;
+import com.krawl.backend.repository.SyncRepository;
+import com.krawl.backend.repository.projection.KrawlRouteRow;
+import com.krawl.backend.repository.projection.SavedKrawlSyncRow;
+import com.krawl.backend.repository.projection.SyncRow;
+import com.krawl.backend.service.SyncService;
+import com.krawl.backend.util.CursorCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Delta sync over the V13 watermarks. A sync window is {@code [since, upper)} where upper is
+ * fixed when the window opens (see {@link SyncRepository#safeUpperBound()}); the window is
+ * drained feed by feed (gems, krawls, saved krawls) in chunks of at most {@code limit} rows.
+ * The cursor carries the window and the position inside it, so a resumed chunk never skips or
+ * repeats a row even while writes continue; the final cursor opens the next window at upper.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class SyncServiceImpl implements SyncService {
+
+    private static final int DEFAULT_CHUNK = 500;
+    private static final int MAX_CHUNK = 2000;
+    // Postgres orders uuid by its unsigned bytes, so the all-zero id sorts before every other
+    static final UUID MIN_ID = new UUID(0, 0);
+
+    enum Feed { GEMS, KRAWLS, SAVED_KRAWLS }
+
+    private final SyncRepository syncRepository;
+    private final GemRepository gemRepository;
+    private final KrawlRepository krawlRepository;
+    private final KrawlRouteRepository krawlRouteRepository;
+    private final GemMapper gemMapper;
+    private final KrawlMapper krawlMapper;
+
+    @Override
+    public SyncChangesResponse getChanges(UUID userId, String since, Integer limit) {
+        int chunk = (limit != null && limit > 0) ? Math.min(limit, MAX_CHUNK) : DEFAULT_CHUNK;
+        Position position = Position.decode(since);
+
+        OffsetDateTime upper = position.upper();
+        if (upper == null) {
+            upper = syncRepository.safeUpperBound();
+            if (upper.isBefore(position.since())) {
+                upper = position.since();
+            }
+        }
+
+        var response = SyncChangesResponse.builder().watermark(upper).build();
+        List<UUID> gemIds = new ArrayList<>();
+        List<UUID> krawlIds = new ArrayList<>();
+
+        int remaining = chunk;
+        OffsetDateTime afterTs = position.afterTs();
+        UUID afterId = position.afterId();
+        String nextCursor = null;
+        for (Feed feed : Feed.values()) {
+            if (feed.ordinal() < position.feed().ordinal()) {
+                continue;
+            }
+            // One extra row tells us whether this feed has more without counting
+            List<? extends SyncRow> rows = fetch(feed, userId, afterTs, afterId, upper, remaining + 1);
+            boolean more = rows.size() > remaining;
+            List<? extends SyncRow> taken = more ? rows.subList(0, remaining) : rows;
+            for (SyncRow row : taken) {
+                collect(feed, row, response, gemIds, krawlIds);
+            }
+            if (more) {
+                if (!taken.isEmpty()) {
+                    SyncRow last = taken.get(taken.size() - 1);
+                    afterTs = last.updatedAt();
+                    afterId = last.id();
+                }
+                nextCursor = new Position(position.since(), upper, feed, afterTs, afterId).encode();
+                break;
+            }
+            remaining -= taken.size();
+            afterTs = position.since();
+            afterId = MIN_ID;
+        }
+
+        response.setHasMore(nextCursor != null);
+        response.setNextCursor(nextCursor != null ? nextCursor : Position.start(upper).encode());
+        response.setGems(loadGems(gemIds));
+        response.setKrawls(loadKrawls(krawlIds));
+        return response;
+    }
+
+    private List<? extends SyncRow> fetch(Feed feed, UUID userId, OffsetDateTime afterTs, UUID afterId,
+                                          OffsetDateTime upper, int limit) {
+        return switch (feed) {
+            case GEMS -> syncRepository.findGemChanges(afterTs, afterId, upper, limit);
+            case KRAWLS -> syncRepository.findKrawlChanges(userId, afterTs, afterId, upper, limit);
+            case SAVED_KRAWLS -> syncRepository.findSavedKrawlChanges(userId, afterTs, afterId, upper, limit);
+        };
+    }
+
+    private static void collect(Feed feed, SyncRow row, SyncChangesResponse response,
+                                List<UUID> gemIds, List<UUID> krawlIds) {
+        switch (feed) {
+            case GEMS -> (row.removed() ? response.getRemovedGemIds() : gemIds).add(row.id());
+            case KRAWLS -> (row.removed() ? response.getRemovedKrawlIds() : krawlIds).add(row.id());
+            case SAVED_KRAWLS -> {
+                if (row.removed()) {
+                    response.getUnsavedKrawlIds().add(row.id());
+                } else {
+                    SavedKrawlSyncRow saved = (SavedKrawlSyncRow) row;
+                    response.getSavedKrawls().add(SyncChangesResponse.SavedKrawl.builder()
+                        .krawlId(saved.id())
+                        .savedAt(saved.savedAt())
+                        .downloaded(saved.downloaded())
+                        .lastDownloadedAt(saved.lastDownloadedAt())
+                        .build());
+                }
+            }
+        }
+    }
+
+    private List<GemResponse> loadGems(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<UUID, Gem> gems = new HashMap<>();
+        gemRepository.findWithFounderByGemIdIn(ids).forEach(gem -> gems.put(gem.getGemId(), gem));
+        return ids.stream().map(gems::get).filter(Objects::nonNull).map(gemMapper::toResponse).toList();
+    }
+
+    private List<KrawlResponse> loadKrawls(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<UUID, Krawl> krawls = new HashMap<>();
+        krawlRepository.findWithItemsByKrawlIdIn(ids).forEach(krawl -> krawls.put(krawl.getKrawlId(), krawl));
+        Map<UUID, KrawlRouteRow> routes = krawlRouteRepository.findByKrawlIds(ids);
+        return ids.stream()
+            .map(krawls::get)
+            .filter(Objects::nonNull)
+            .map(krawl -> krawlMapper.toResponse(krawl, routes.get(krawl.getKrawlId())))
+            .toList();
+    }
+
+    /**
+     * Cursor state: the window [since, upper) and the last (updated_at, id) returned in feed.
+     * A cursor without upper opens a new window at since.
+     */
+    record Position(OffsetDateTime since, OffsetDateTime upper, Feed feed, OffsetDateTime afterTs, UUID afterId) {
+
+        static Position start(OffsetDateTime since) {
+            return new Position(since, null, Feed.GEMS, since, MIN_ID);
+        }
+
+        static Position decode(String token) {
+            String[] parts = CursorCodec.decode(token, 5);
+            if (parts == null) {
+                return start(fromMicros(0));
+            }
+            try {
+                OffsetDateTime since = fromMicros(Long.parseLong(parts[0]));
+                if (parts[1].isEmpty()) {
+                    return start(since);
+                }
+                return new Position(since, fromMicros(Long.parseLong(parts[1])), Feed.values()[Integer.parseInt(parts[2])],
+                    fromMicros(Long.parseLong(parts[3])), UUID.fromString(parts[4]));
+            } catch (RuntimeException e) {
+                throw new ValidationException("since", "is not a valid sync cursor");
+            }
+        }
+
+        String encode() {
+            if (upper == null) {
+                return CursorCodec.encode(toMicros(since), "", "", "", "");
+            }
+            return CursorCodec.encode(toMicros(since), toMicros(upper), feed.ordinal(), toMicros(afterTs), afterId);
+        }
+
+        private static long toMicros(OffsetDateTime value) {
+            return ChronoUnit.MICROS.between(Instant.EPOCH, value.toInstant());
+        }
+
+        private static OffsetDateTime fromMicros(long micros) {
+            return Instant.EPOCH.plus(micros, ChronoUnit.MICROS).atOffset(ZoneOffset.UTC);
+        }
+    }
+}
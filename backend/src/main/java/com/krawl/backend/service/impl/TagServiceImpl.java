@@ -1,6 +1,7 @@
 package com.krawl.backend.service.impl;
 
 import com.krawl.backend.entity.Tag;
+import com.krawl.backend.event.TagChangedEvent;
 import com.krawl.backend.exception.ConflictException;
 import com.krawl.backend.repository.TagRepository;
 import com.krawl.backend.service.TagService;
@@ -8,6 +9,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +22,7 @@ import java.util.Optional;
 public class TagServiceImpl implements TagService {
     
     private final TagRepository tagRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Override
     @Cacheable(value = "tags")
@@ -49,7 +52,9 @@ public class TagServiceImpl implements TagService {
         
         Tag tag = new Tag();
         tag.setTagName(tagName);
-        return tagRepository.save(tag);
+        Tag saved = tagRepository.save(tag);
+        eventPublisher.publishEvent(new TagChangedEvent(saved.getTagId(), TagChangedEvent.Type.CREATED));
+        return saved;
     }
     
     @Override
@@ -58,6 +63,7 @@ public class TagServiceImpl implements TagService {
     public void deleteTag(Integer tagId) {
         log.info("Deleting tag with id: {}", tagId);
         tagRepository.deleteById(tagId);
+        eventPublisher.publishEvent(new TagChangedEvent(tagId, TagChangedEvent.Type.DELETED));
     }
 }
 
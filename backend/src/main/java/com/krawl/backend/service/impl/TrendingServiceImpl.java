@@ -0,0 +1,138 @@
+package com.krawl.backend.service.impl;
+
+import com.krawl.backend.config.properties.TrendingProperties;
+import com.krawl.backend.dto.response.TrendingGemResponse;
+import com.krawl.backend.dto.response.TrendingKrawlResponse;
+import com.krawl.backend.repository.SyncRepository;
+import com.krawl.backend.repository.TrendingRepository;
+import com.krawl.backend.service.TrendingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Trending krawls and gems. A scheduled pass decays the running scores in trending_scores to
+ * the pass's upper bound, adds the ratings, saves, vouches and views since the previous pass,
+ * and rebuilds the trending_krawls / trending_gems snapshots in the same transaction. The
+ * feed endpoints read a whole snapshot once per pass through the "trending" cache, which each
+ * pass clears, so no request aggregates anything.
+ *
+ * <p>The watermark row is locked for the pass, so several instances can run the job: a pass
+ * that finds the watermark already at its upper bound does nothing.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TrendingServiceImpl implements TrendingService {
+
+    static final String CACHE = "trending";
+
+    private final TrendingRepository trendingRepository;
+    private final SyncRepository syncRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final CacheManager cacheManager;
+    private final TrendingProperties properties;
+
+    @Override
+    public List<TrendingKrawlResponse> getTrendingKrawls(Integer limit) {
+        List<TrendingKrawlResponse> snapshot = cached("krawls", () -> trendingRepository.findTrendingKrawls().stream()
+            .map(row -> TrendingKrawlResponse.builder()
+                .rank(row.rank())
+                .krawlId(row.krawlId())
+                .title(row.title())
+                .description(row.description())
+                .creatorId(row.creatorId())
+                .creatorUsername(row.creatorUsername())
+                .averageRating(row.averageRating())
+                .ratingCount(row.ratingCount())
+                .stopCount(row.stopCount())
+                .score(row.score())
+                .build())
+            .toList());
+        return snapshot.subList(0, Math.min(capped(limit), snapshot.size()));
+    }
+
+    @Override
+    public List<TrendingGemResponse> getTrendingGems(Integer limit) {
+        List<TrendingGemResponse> snapshot = cached("gems", () -> trendingRepository.findTrendingGems().stream()
+            .map(row -> TrendingGemResponse.builder()
+                .rank(row.rank())
+                .gemId(row.gemId())
+                .name(row.name())
+                .latitude(row.latitude())
+                .longitude(row.longitude())
+                .averageRating(row.averageRating())
+                .vouchCount(row.vouchCount())
+                .score(row.score())
+                .build())
+            .toList());
+        return snapshot.subList(0, Math.min(capped(limit), snapshot.size()));
+    }
+
+    @Scheduled(initialDelayString = "${app.trending.refresh-interval-ms:300000}",
+        fixedDelayString = "${app.trending.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Trending refresh failed, retrying next pass: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized int refresh() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        OffsetDateTime upper = syncRepository.safeUpperBound();
+        OffsetDateTime floor = upper.minusDays(properties.getWindowDays());
+        double lambda = Math.log(2) / (properties.getHalfLifeHours() * 3600);
+
+        Integer ranked = transactionTemplate.execute(status -> {
+            OffsetDateTime last = trendingRepository.lockWatermark(floor);
+            if (!upper.isAfter(last)) {
+                return null;
+            }
+            double elapsedSeconds = Duration.between(last, upper).toMillis() / 1000.0;
+            trendingRepository.decay(Math.exp(-lambda * elapsedSeconds), properties.getMinScore());
+
+            // Anything older than the window has decayed to almost nothing; skip reading it
+            OffsetDateTime since = last.isBefore(floor) ? floor : last;
+            trendingRepository.addKrawlEvents(since, upper, lambda, properties.getWeights());
+            trendingRepository.addGemEvents(since, upper, lambda, properties.getWeights());
+            trendingRepository.addGemViews(since, properties.getWeights().getView());
+
+            int krawls = trendingRepository.snapshotKrawls(upper, properties.getSize());
+            trendingRepository.snapshotGems(upper, properties.getSize());
+            trendingRepository.saveWatermark(upper);
+            return krawls;
+        });
+        if (ranked == null) {
+            return -1;
+        }
+
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache != null) {
+            cache.clear();
+        }
+        log.debug("Trending refreshed up to {}, {} krawls ranked", upper, ranked);
+        return ranked;
+    }
+
+    private int capped(Integer limit) {
+        return (limit != null && limit > 0) ? Math.min(limit, properties.getSize()) : properties.getDefaultResults();
+    }
+
+    private <T> List<T> cached(String key, Supplier<List<T>> loader) {
+        Cache cache = cacheManager.getCache(CACHE);
+        return cache != null ? cache.get(key, loader::get) : loader.get();
+    }
+}
@@ -1,5 +1,6 @@
 package com.krawl.backend.service.impl;
 
+import com.krawl.backend.cache.UserCacheEvictor;
 import com.krawl.backend.dto.request.UpdateProfileRequest;
 import com.krawl.backend.dto.response.UserResponse;
 import com.krawl.backend.entity.User;
@@ -10,7 +11,6 @@ import com.krawl.backend.mapper.UserMapper;
 import com.krawl.backend.repository.UserRepository;
 import com.krawl.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -26,6 +26,7 @@ public class UserServiceImpl implements UserService {
 
 	private final UserRepository userRepository;
 	private final UserMapper userMapper;
+	private final UserCacheEvictor userCacheEvictor;
 
 	@Override
 	@Cacheable(value = "users", key = "#userId.toString()")
@@ -57,11 +58,11 @@ public class UserServiceImpl implements UserService {
 	}
 
 	@Override
-	@CacheEvict(value = "users", allEntries = true)
 	@Transactional
 	public UserResponse updateUser(UUID userId, UpdateProfileRequest request) {
 		User user = userRepository.findById(userId)
 			.orElseThrow(() -> new EntityNotFoundException("User", userId));
+		String previousUsername = user.getUsername();
 
 		if (request.getUsername() != null) {
 			String username = sanitizeUsername(request.getUsername());
@@ -79,7 +80,9 @@ public class UserServiceImpl implements UserService {
 			user.setBio(bio);
 		}
 
-		return userMapper.toResponse(userRepository.save(user));
+		User saved = userRepository.save(user);
+		userCacheEvictor.evict(userId, saved.getEmail(), previousUsername, saved.getUsername());
+		return userMapper.toResponse(saved);
 	}
 
 	private String sanitizeUsername(String value) {
@@ -98,12 +101,12 @@ public class UserServiceImpl implements UserService {
 	}
 
 	@Override
-	@CacheEvict(value = "users", allEntries = true)
 	@Transactional
 	public void deleteUser(UUID userId) {
-		if (userRepository.existsById(userId)) {
-			userRepository.deleteById(userId);
-		}
+		userRepository.findById(userId).ifPresent(user -> {
+			userRepository.delete(user);
+			userCacheEvictor.evict(userId, user.getEmail(), user.getUsername());
+		});
 	}
 }
 
@@ -0,0 +1,48 @@
+package com.krawl.backend.service.importer;
+
+import com.krawl.backend.exception.ValidationException;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+
+import java.util.Locale;
+
+/**
+ * Upload formats accepted by the bulk gem import.
+ */
+public enum GemImportFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv"),
+    GEOJSON("application/geo+json");
+
+    private final String mediaType;
+
+    GemImportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Resolves the format from an explicit {@code format} parameter, falling back to the request Content-Type.
+     */
+    public static GemImportFormat resolve(String format, String contentType) {
+        if (StringUtils.hasText(format)) {
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException("format", "must be one of ndjson, csv, geojson");
+            }
+        }
+        if (StringUtils.hasText(contentType)) {
+            MediaType parsed = MediaType.parseMediaType(contentType);
+            for (GemImportFormat candidate : values()) {
+                if (parsed.isCompatibleWith(MediaType.parseMediaType(candidate.mediaType))) {
+                    return candidate;
+                }
+            }
+        }
+        throw new ValidationException("format", "unsupported upload type " + contentType);
+    }
+}
@@ -0,0 +1,280 @@
+package com.krawl.backend.service.importer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.krawl.backend.dto.request.GemCreateRequest;
+import com.krawl.backend.exception.ValidationException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Pull-style reader over an import upload. Records are decoded one at a time so the upload is
+ * never held in memory; a malformed record is returned as a failed row instead of aborting the import.
+ */
+public abstract class GemImportReader implements Closeable {
+
+    protected long rowNumber;
+
+    /**
+     * Returns the next record, or {@code null} once the upload is exhausted.
+     */
+    public abstract GemImportRow next() throws IOException;
+
+    public static GemImportReader open(GemImportFormat format, InputStream in, ObjectMapper objectMapper)
+            throws IOException {
+        return switch (format) {
+            case NDJSON -> new Ndjson(in, objectMapper);
+            case CSV -> new Csv(in);
+            case GEOJSON -> new GeoJson(in, objectMapper);
+        };
+    }
+
+    private static BufferedReader utf8(InputStream in) {
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    /**
+     * One JSON object per line with the same fields as {@code POST /api/v1/gems}.
+     */
+    static final class Ndjson extends GemImportReader {
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+
+        Ndjson(InputStream in, ObjectMapper objectMapper) {
+            this.reader = utf8(in);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public GemImportRow next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+
+            rowNumber++;
+            try {
+                return GemImportRow.parsed(rowNumber, objectMapper.readValue(line, GemCreateRequest.class));
+            } catch (JsonProcessingException e) {
+                return GemImportRow.failed(rowNumber, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row naming at least {@code name}, {@code latitude} and {@code longitude}
+     * ({@code lat}, {@code lng}/{@code lon} are accepted as aliases) and optionally {@code description}.
+     */
+    static final class Csv extends GemImportReader {
+        private final BufferedReader reader;
+        private final int nameColumn;
+        private final int descriptionColumn;
+        private final int latitudeColumn;
+        private final int longitudeColumn;
+
+        Csv(InputStream in) throws IOException {
+            this.reader = utf8(in);
+            List<String> header = readRecord();
+            if (header == null) {
+                throw new ValidationException("file", "CSV upload is empty");
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT).replace("\uFEFF", ""), i);
+            }
+            this.nameColumn = column(columns, "name");
+            this.descriptionColumn = columns.getOrDefault("description", -1);
+            this.latitudeColumn = column(columns, "latitude", "lat");
+            this.longitudeColumn = column(columns, "longitude", "lng", "lon");
+        }
+
+        private static int column(Map<String, Integer> columns, String... names) {
+            for (String name : names) {
+                Integer index = columns.get(name);
+                if (index != null) {
+                    return index;
+                }
+            }
+            throw new ValidationException("file", "CSV header is missing column '" + names[0] + "'");
+        }
+
+        @Override
+        public GemImportRow next() throws IOException {
+            List<String> record;
+            do {
+                record = readRecord();
+                if (record == null) {
+                    return null;
+                }
+            } while (record.size() == 1 && record.getFirst().isBlank());
+
+            rowNumber++;
+            GemCreateRequest request = new GemCreateRequest();
+            request.setName(cell(record, nameColumn));
+            request.setDescription(cell(record, descriptionColumn));
+            try {
+                request.setLatitude(number(cell(record, latitudeColumn)));
+                request.setLongitude(number(cell(record, longitudeColumn)));
+            } catch (NumberFormatException e) {
+                return GemImportRow.failed(rowNumber, "Latitude and longitude must be numbers");
+            }
+            return GemImportRow.parsed(rowNumber, request);
+        }
+
+        private static String cell(List<String> record, int index) {
+            if (index < 0 || index >= record.size()) {
+                return null;
+            }
+            String value = record.get(index);
+            return value.isEmpty() ? null : value;
+        }
+
+        private static Double number(String value) {
+            return value == null ? null : Double.valueOf(value.trim());
+        }
+
+        /**
+         * Reads one record, following quoted fields across line breaks. Returns {@code null} at end of input.
+         */
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int following = reader.read();
+                        if (following == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * A FeatureCollection of Point features; {@code properties.name} and {@code properties.description}
+     * map to the gem. The features array is walked with the streaming parser, one feature tree at a time.
+     */
+    static final class GeoJson extends GemImportReader {
+        private final JsonParser parser;
+        private boolean exhausted;
+
+        GeoJson(InputStream in, ObjectMapper objectMapper) throws IOException {
+            this.parser = objectMapper.getFactory().createParser(in);
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new ValidationException("file", "GeoJSON upload must be a FeatureCollection object");
+            }
+            while (true) {
+                JsonToken token = parser.nextToken();
+                if (token == null || token == JsonToken.END_OBJECT) {
+                    throw new ValidationException("file", "GeoJSON upload has no features array");
+                }
+                if (token == JsonToken.FIELD_NAME && "features".equals(parser.currentName())) {
+                    if (parser.nextToken() != JsonToken.START_ARRAY) {
+                        throw new ValidationException("file", "GeoJSON features must be an array");
+                    }
+                    return;
+                }
+                parser.nextToken();
+                parser.skipChildren();
+            }
+        }
+
+        @Override
+        public GemImportRow next() throws IOException {
+            if (exhausted) {
+                return null;
+            }
+            long current = rowNumber + 1;
+            JsonNode feature;
+            try {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    exhausted = true;
+                    return null;
+                }
+                feature = parser.readValueAsTree();
+            } catch (JsonProcessingException e) {
+                // The stream cannot be resynchronised after a syntax error, so report it and stop
+                exhausted = true;
+                rowNumber = current;
+                return GemImportRow.failed(rowNumber, "Malformed JSON: " + e.getOriginalMessage());
+            }
+            rowNumber = current;
+
+            JsonNode geometry = feature.path("geometry");
+            JsonNode coordinates = geometry.path("coordinates");
+            if (!"Point".equals(geometry.path("type").asText()) || coordinates.size() < 2
+                    || !coordinates.get(0).isNumber() || !coordinates.get(1).isNumber()) {
+                return GemImportRow.failed(rowNumber, "Feature geometry must be a Point with [longitude, latitude]");
+            }
+
+            JsonNode properties = feature.path("properties");
+            GemCreateRequest request = new GemCreateRequest();
+            request.setName(text(properties, "name"));
+            request.setDescription(text(properties, "description"));
+            request.setLongitude(coordinates.get(0).asDouble());
+            request.setLatitude(coordinates.get(1).asDouble());
+            return GemImportRow.parsed(rowNumber, request);
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+}
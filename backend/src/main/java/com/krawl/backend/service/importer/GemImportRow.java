@@ -0,0 +1,19 @@
+package com.krawl.backend.service.importer;
+
+import com.krawl.backend.dto.request.GemCreateRequest;
+
+/**
+ * One record read from an import upload. Exactly one of {@code request} or {@code parseError} is set.
+ *
+ * @param rowNumber  1-based record number within the upload (header lines are not counted)
+ */
+public record GemImportRow(long rowNumber, GemCreateRequest request, String parseError) {
+
+    static GemImportRow parsed(long rowNumber, GemCreateRequest request) {
+        return new GemImportRow(rowNumber, request, null);
+    }
+
+    static GemImportRow failed(long rowNumber, String parseError) {
+        return new GemImportRow(rowNumber, null, parseError);
+    }
+}
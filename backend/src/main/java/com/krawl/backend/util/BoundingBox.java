@@ -0,0 +1,65 @@
+package com.krawl.backend.util;
+
+import com.krawl.backend.exception.ValidationException;
+import lombok.Value;
+
+/**
+ * WGS84 bounding box in the "minLng,minLat,maxLng,maxLat" order used by map clients.
+ * Boxes crossing the antimeridian are rejected; clients split those into two requests.
+ */
+@Value
+public class BoundingBox {
+
+    double minLng;
+    double minLat;
+    double maxLng;
+    double maxLat;
+
+    public static BoundingBox of(double minLng, double minLat, double maxLng, double maxLat) {
+        if (!isLongitude(minLng) || !isLongitude(maxLng)) {
+            throw new ValidationException("bbox", "longitude must be between -180 and 180");
+        }
+        if (!isLatitude(minLat) || !isLatitude(maxLat)) {
+            throw new ValidationException("bbox", "latitude must be between -90 and 90");
+        }
+        if (minLng > maxLng || minLat > maxLat) {
+            throw new ValidationException("bbox", "min corner must be south-west of max corner");
+        }
+        return new BoundingBox(minLng, minLat, maxLng, maxLat);
+    }
+
+    /**
+     * Parses a "minLng,minLat,maxLng,maxLat" query parameter.
+     */
+    public static BoundingBox parse(String value) {
+        if (value == null || value.isBlank()) {
+            throw new ValidationException("bbox", "is required");
+        }
+        String[] parts = value.split(",");
+        if (parts.length != 4) {
+            throw new ValidationException("bbox", "expected minLng,minLat,maxLng,maxLat");
+        }
+        try {
+            return of(
+                Double.parseDouble(parts[0].trim()),
+                Double.parseDouble(parts[1].trim()),
+                Double.parseDouble(parts[2].trim()),
+                Double.parseDouble(parts[3].trim())
+            );
+        } catch (NumberFormatException e) {
+            throw new ValidationException("bbox", "coordinates must be numeric");
+        }
+    }
+
+    public boolean contains(double lng, double lat) {
+        return lng >= minLng && lng <= maxLng && lat >= minLat && lat <= maxLat;
+    }
+
+    private static boolean isLongitude(double value) {
+        return value >= -180 && value <= 180;
+    }
+
+    private static boolean isLatitude(double value) {
+        return value >= -90 && value <= 90;
+    }
+}
@@ -0,0 +1,49 @@
+package com.krawl.backend.util;
+
+import com.krawl.backend.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes keyset positions as opaque, URL-safe cursor tokens.
+ * Clients must treat tokens as opaque; the layout may change between releases.
+ */
+public final class CursorCodec {
+
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {
+    }
+
+    public static String encode(Object... parts) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                raw.append(SEPARATOR);
+            }
+            raw.append(parts[i] == null ? "" : parts[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode}. Returns null for a null/blank token.
+     */
+    public static String[] decode(String token, int expectedParts) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != expectedParts) {
+                throw new ValidationException("cursor", "is malformed");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("cursor", "is malformed");
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.krawl.backend.util;
+
+/**
+ * Great-circle distances on the WGS84 mean sphere. Good to a few metres at city scale,
+ * which is all route planning needs; use ST_Distance(geography) where exact figures matter.
+ */
+public final class GeoDistance {
+
+    public static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    private GeoDistance() {
+    }
+
+    public static double haversineMeters(double lat1, double lng1, double lat2, double lng2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double sinDLat = Math.sin((phi2 - phi1) / 2);
+        double sinDLng = Math.sin(Math.toRadians(lng2 - lng1) / 2);
+        double a = sinDLat * sinDLat + Math.cos(phi1) * Math.cos(phi2) * sinDLng * sinDLng;
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Row-major n x n haversine matrix for the given points.
+     */
+    public static double[] matrix(double[] lats, double[] lngs) {
+        int n = lats.length;
+        double[] matrix = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double d = haversineMeters(lats[i], lngs[i], lats[j], lngs[j]);
+                matrix[i * n + j] = d;
+                matrix[j * n + i] = d;
+            }
+        }
+        return matrix;
+    }
+}
@@ -1,10 +1,14 @@
 package com.krawl.backend.util;
 
+import com.krawl.backend.exception.ValidationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+import java.util.Set;
+
 @Component
 public class PaginationHelper {
     
@@ -12,6 +16,12 @@ public class PaginationHelper {
     private static final String DEFAULT_SORT_DIR = "desc";
     private static final int DEFAULT_PAGE_SIZE = 20;
     private static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Offset paging is kept for callers that still need it, but only on columns that have a
+     * composite index (V10); anything else would sort the whole table on every request.
+     */
+    private static final Set<String> SORTABLE_FIELDS = Set.of("createdAt", "averageRating");
     
     /**
      * Creates a Pageable object with pagination and sorting
@@ -33,6 +43,9 @@ public class PaginationHelper {
         String sortField = (sortBy != null && !sortBy.trim().isEmpty()) 
             ? sortBy.trim() 
             : DEFAULT_SORT_BY;
+        if (!SORTABLE_FIELDS.contains(sortField)) {
+            throw new ValidationException("sortBy", "must be one of " + SORTABLE_FIELDS);
+        }
         
         // Normalize sort direction
         String sortDirection = (sortDir != null && "asc".equalsIgnoreCase(sortDir)) 
@@ -59,5 +72,26 @@ public class PaginationHelper {
     public Pageable createPageable(Integer page, String sortBy, String sortDir) {
         return createPageable(page, null, sortBy, sortDir);
     }
-}
 
+    /**
+     * Normalizes a cursor page size (default: 20, max: 100)
+     */
+    public int pageSize(Integer size) {
+        return (size != null && size > 0) ? Math.min(size, MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+    }
+
+    /**
+     * Resolves a keyset sort from an endpoint's whitelist. A blank sortBy picks the first
+     * (default) entry; an unknown one is rejected rather than silently falling back.
+     */
+    public KeysetSort resolveSort(String sortBy, Map<String, KeysetSort> allowed) {
+        if (sortBy == null || sortBy.isBlank()) {
+            return allowed.values().iterator().next();
+        }
+        KeysetSort sort = allowed.get(sortBy.trim());
+        if (sort == null) {
+            throw new ValidationException("sortBy", "must be one of " + allowed.keySet());
+        }
+        return sort;
+    }
+}
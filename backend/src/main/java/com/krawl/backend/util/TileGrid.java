@@ -0,0 +1,90 @@
+package com.krawl.backend.util;
+
+import com.krawl.backend.exception.ValidationException;
+
+/**
+ * Grid arithmetic shared by the map read paths.
+ * Cells are aligned to a global lng/lat grid anchored at (0, 0), so the same cell
+ * always produces the same key no matter which viewport it was requested from.
+ */
+public final class TileGrid {
+
+    public static final int MIN_ZOOM = 0;
+    public static final int MAX_ZOOM = 22;
+
+    private TileGrid() {
+    }
+
+    /**
+     * Width in degrees of one grid cell when a tile at {@code zoom} is split into
+     * {@code cellsPerTile} x {@code cellsPerTile} cells.
+     */
+    public static double cellSizeDegrees(int zoom, int cellsPerTile) {
+        return 360.0 / (1L << zoom) / Math.max(cellsPerTile, 1);
+    }
+
+    /**
+     * Expands a bbox outwards to whole grid cells so equivalent pans share one query and one cache entry.
+     */
+    public static BoundingBox snapOutward(BoundingBox bbox, double cellSize) {
+        return BoundingBox.of(
+            Math.max(-180, Math.floor(bbox.getMinLng() / cellSize) * cellSize),
+            Math.max(-90, Math.floor(bbox.getMinLat() / cellSize) * cellSize),
+            Math.min(180, Math.ceil(bbox.getMaxLng() / cellSize) * cellSize),
+            Math.min(90, Math.ceil(bbox.getMaxLat() / cellSize) * cellSize)
+        );
+    }
+
+    public static int requireZoom(int zoom) {
+        if (zoom < MIN_ZOOM || zoom > MAX_ZOOM) {
+            throw new ValidationException(
+                "zoom", "must be between " + MIN_ZOOM + " and " + MAX_ZOOM);
+        }
+        return zoom;
+    }
+
+    /**
+     * Web Mercator (slippy map) tile column containing {@code lng} at {@code zoom}.
+     */
+    public static int tileX(double lng, int zoom) {
+        return clampTile(mercatorX(lng, zoom), zoom);
+    }
+
+    /**
+     * Web Mercator (slippy map) tile row containing {@code lat} at {@code zoom}.
+     */
+    public static int tileY(double lat, int zoom) {
+        return clampTile(mercatorY(lat, zoom), zoom);
+    }
+
+    /**
+     * Position of {@code lng} on the tile columns at {@code zoom}; the integer part is the column.
+     */
+    public static double mercatorX(double lng, int zoom) {
+        return (lng + 180.0) / 360.0 * (1 << zoom);
+    }
+
+    /**
+     * Position of {@code lat} on the tile rows at {@code zoom}; the integer part is the row.
+     */
+    public static double mercatorY(double lat, int zoom) {
+        double latRad = Math.toRadians(lat);
+        return (1 - Math.log(Math.tan(latRad) + 1 / Math.cos(latRad)) / Math.PI) / 2 * (1 << zoom);
+    }
+
+    /**
+     * Tile column or row at {@code position} on the tile grid of {@code zoom}, clamped to the grid.
+     */
+    public static int clampTile(double position, int zoom) {
+        int n = 1 << zoom;
+        return Math.min(Math.max((int) Math.floor(position), 0), n - 1);
+    }
+
+    public static void requireTile(int zoom, int x, int y) {
+        requireZoom(zoom);
+        int n = 1 << zoom;
+        if (x < 0 || x >= n || y < 0 || y >= n) {
+            throw new ValidationException("tile", "x and y must be between 0 and " + (n - 1) + " at zoom " + zoom);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.krawl.backend.util;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Small thread-safe LRU map bounded by total weight (usually bytes or rows) rather than entry count.
+ * Values heavier than the whole budget are never stored. An optional time-to-live expires
+ * entries a fixed time after they were written.
+ */
+public class WeightedLruCache<K, V> {
+
+    private record Entry<V>(V value, long writtenAtNanos) {
+    }
+
+    private final long maxWeight;
+    private final long ttlNanos;
+    private final ToLongFunction<V> weigher;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long weight;
+
+    public WeightedLruCache(long maxWeight, ToLongFunction<V> weigher) {
+        this(maxWeight, weigher, null);
+    }
+
+    public WeightedLruCache(long maxWeight, ToLongFunction<V> weigher, Duration ttl) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.ttlNanos = (ttl == null || ttl.isZero() || ttl.isNegative()) ? 0 : ttl.toNanos();
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (ttlNanos > 0 && System.nanoTime() - entry.writtenAtNanos() > ttlNanos) {
+            invalidate(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    public synchronized void put(K key, V value) {
+        long valueWeight = weigher.applyAsLong(value);
+        if (valueWeight > maxWeight) {
+            return;
+        }
+        Entry<V> previous = entries.put(key, new Entry<>(value, System.nanoTime()));
+        if (previous != null) {
+            weight -= weigher.applyAsLong(previous.value());
+        }
+        weight += valueWeight;
+
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            weight -= weigher.applyAsLong(eldest.next().getValue().value());
+            eldest.remove();
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            weight -= weigher.applyAsLong(removed.value());
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return weight;
+    }
+}
@@ -0,0 +1,92 @@
+package com.krawl.backend.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-key in-memory deltas for write-behind counters. Increments go to a {@link LongAdder} per
+ * key, so concurrent increments of one hot key spread over striped cells instead of contending
+ * on a single value. {@link #drain()} swaps in a fresh generation and returns the old one's
+ * totals once no increment is still writing into it, so no increment is ever lost or counted
+ * twice. Writers track themselves in a striped in-flight adder and re-check the generation
+ * after registering, which is what lets the drain wait only for writers already committed to
+ * the old generation.
+ */
+public final class WriteBehindCounter<K> {
+
+    private static final class Generation<K> {
+        final ConcurrentHashMap<K, LongAdder> counts = new ConcurrentHashMap<>();
+        final LongAdder inFlight = new LongAdder();
+    }
+
+    private volatile Generation<K> current = new Generation<>();
+    private volatile Map<K, Long> draining = Map.of();
+
+    public void add(K key, long delta) {
+        while (true) {
+            Generation<K> generation = current;
+            generation.inFlight.increment();
+            try {
+                if (generation == current) {
+                    generation.counts.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+                    return;
+                }
+            } finally {
+                generation.inFlight.decrement();
+            }
+        }
+    }
+
+    public void increment(K key) {
+        add(key, 1);
+    }
+
+    /**
+     * Delta not yet written back: the live generation plus any drained totals whose write is
+     * still in progress.
+     */
+    public long pending(K key) {
+        LongAdder adder = current.counts.get(key);
+        long live = adder != null ? adder.sum() : 0;
+        Long inFlush = draining.get(key);
+        return inFlush != null ? live + inFlush : live;
+    }
+
+    /**
+     * Takes the totals accumulated since the previous drain, leaving out zero deltas. They keep
+     * showing in {@link #pending} until {@link #drained} or {@link #restore} is called.
+     */
+    public synchronized Map<K, Long> drain() {
+        Generation<K> old = current;
+        current = new Generation<>();
+        while (old.inFlight.sum() != 0) {
+            Thread.onSpinWait();
+        }
+        Map<K, Long> totals = new HashMap<>();
+        old.counts.forEach((key, adder) -> {
+            long sum = adder.sum();
+            if (sum != 0) {
+                totals.put(key, sum);
+            }
+        });
+        draining = Map.copyOf(totals);
+        return totals;
+    }
+
+    /**
+     * The drained totals were written back.
+     */
+    public void drained() {
+        draining = Map.of();
+    }
+
+    /**
+     * The write-back failed; fold the drained totals back in for the next attempt.
+     */
+    public void restore(Map<K, Long> totals) {
+        totals.forEach(this::add);
+        draining = Map.of();
+    }
+}
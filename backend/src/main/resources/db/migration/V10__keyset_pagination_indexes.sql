@@ -0,0 +1,54 @@
+-- =============================================================================
+-- Keyset Pagination Indexes
+-- Version: 10
+-- Description: One composite index per whitelisted list sort, each ending in the
+--              primary key as tie-breaker in the same direction as the sort
+--              column. Cursor pages seek with (column, id) < (:value, :id), which
+--              these indexes answer as a range scan, so deep pages cost the same
+--              as the first. Predicates mirror GemListRepository and
+--              KrawlListRepository literally so the partial indexes are usable.
+-- =============================================================================
+
+-- Row-value comparisons never match NULL, so the sort timestamps must be present.
+UPDATE gems SET created_at = CURRENT_TIMESTAMP WHERE created_at IS NULL;
+ALTER TABLE gems ALTER COLUMN created_at SET NOT NULL;
+UPDATE krawls SET created_at = CURRENT_TIMESTAMP WHERE created_at IS NULL;
+ALTER TABLE krawls ALTER COLUMN created_at SET NOT NULL;
+
+-- Gem list: GET /api/v1/gems
+CREATE INDEX IF NOT EXISTS idx_gems_keyset_created_at
+    ON gems (created_at DESC, gem_id DESC)
+    WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_gems_keyset_average_rating
+    ON gems (average_rating DESC, gem_id DESC)
+    WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_gems_keyset_vouch_count
+    ON gems (vouch_count DESC, gem_id DESC)
+    WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_gems_keyset_name
+    ON gems (name, gem_id)
+    WHERE deleted_at IS NULL;
+
+-- Public krawl feed: GET /api/v1/krawls
+CREATE INDEX IF NOT EXISTS idx_krawls_public_keyset_created_at
+    ON krawls (created_at DESC, krawl_id DESC)
+    WHERE visibility = 'public' AND deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_krawls_public_keyset_average_rating
+    ON krawls (average_rating DESC, krawl_id DESC)
+    WHERE visibility = 'public' AND deleted_at IS NULL;
+
+-- A creator's own krawls: GET /api/v1/users/me/krawls
+CREATE INDEX IF NOT EXISTS idx_krawls_creator_keyset_created_at
+    ON krawls (creator_id, created_at DESC, krawl_id DESC)
+    WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_krawls_creator_keyset_average_rating
+    ON krawls (creator_id, average_rating DESC, krawl_id DESC)
+    WHERE deleted_at IS NULL;
+
+-- Superseded by idx_krawls_creator_keyset_created_at (V2)
+DROP INDEX IF EXISTS idx_krawls_creator_created_at;
@@ -0,0 +1,136 @@
+-- =============================================================================
+-- Krawl Routes
+-- Version: 11
+-- Description: Denormalized route per krawl: the stops joined in step_order as a
+--              LineString, its bounding box, total and per-leg distances and an
+--              estimated walk time. Maintained by statement-level triggers on
+--              krawl_items and on gem moves, so each statement refreshes every
+--              affected krawl once however many items it touched. The bbox is
+--              GiST-indexed for "krawls in this map area" reads.
+-- =============================================================================
+
+CREATE TABLE krawl_routes (
+    krawl_id UUID PRIMARY KEY REFERENCES krawls(krawl_id) ON DELETE CASCADE,
+    path geometry(LineString, 4326),
+    bbox geometry(Polygon, 4326),
+    stop_count INTEGER NOT NULL DEFAULT 0,
+    total_meters DOUBLE PRECISION NOT NULL DEFAULT 0,
+    leg_meters DOUBLE PRECISION[] NOT NULL DEFAULT '{}',
+    walk_seconds INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_krawl_routes_bbox ON krawl_routes USING GIST (bbox);
+
+COMMENT ON COLUMN krawl_routes.leg_meters IS 'Geodesic distance of each leg; leg i runs from stop i to stop i+1';
+COMMENT ON COLUMN krawl_routes.walk_seconds IS 'total_meters at 1.3 m/s (about 4.7 km/h) straight-line walking pace';
+
+-- Function: Rebuild the route of one krawl from its items
+-- =============================================================================
+CREATE OR REPLACE FUNCTION refresh_krawl_route(p_krawl_id UUID)
+RETURNS VOID AS $$
+BEGIN
+    INSERT INTO krawl_routes (krawl_id, path, bbox, stop_count, total_meters, leg_meters, walk_seconds, updated_at)
+    SELECT p_krawl_id,
+           CASE WHEN count(*) >= 2 THEN ST_MakeLine(s.point ORDER BY s.step_order) END,
+           CASE WHEN count(*) >= 1 THEN ST_MakeEnvelope(ST_XMin(ST_Extent(s.point)), ST_YMin(ST_Extent(s.point)),
+                                                        ST_XMax(ST_Extent(s.point)), ST_YMax(ST_Extent(s.point)), 4326) END,
+           count(*),
+           COALESCE(sum(s.leg), 0),
+           COALESCE(array_agg(s.leg ORDER BY s.step_order) FILTER (WHERE s.leg IS NOT NULL), '{}'),
+           round(COALESCE(sum(s.leg), 0) / 1.3)::INTEGER,
+           CURRENT_TIMESTAMP
+    FROM (
+        SELECT i.step_order,
+               CAST(g.location AS geometry) AS point,
+               ST_Distance(LAG(g.location) OVER (ORDER BY i.step_order), g.location) AS leg
+        FROM krawl_items i
+        JOIN gems g ON g.gem_id = i.gem_id
+        WHERE i.krawl_id = p_krawl_id
+    ) s
+    ON CONFLICT (krawl_id) DO UPDATE
+    SET path = EXCLUDED.path,
+        bbox = EXCLUDED.bbox,
+        stop_count = EXCLUDED.stop_count,
+        total_meters = EXCLUDED.total_meters,
+        leg_meters = EXCLUDED.leg_meters,
+        walk_seconds = EXCLUDED.walk_seconds,
+        updated_at = EXCLUDED.updated_at;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Function: Refresh routes of krawls whose items changed in this statement
+-- =============================================================================
+CREATE OR REPLACE FUNCTION refresh_krawl_routes_for_items()
+RETURNS TRIGGER AS $$
+DECLARE
+    affected UUID;
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        FOR affected IN SELECT DISTINCT krawl_id FROM new_items LOOP
+            PERFORM refresh_krawl_route(affected);
+        END LOOP;
+    ELSIF TG_OP = 'UPDATE' THEN
+        FOR affected IN
+            SELECT krawl_id FROM new_items UNION SELECT krawl_id FROM old_items
+        LOOP
+            PERFORM refresh_krawl_route(affected);
+        END LOOP;
+    ELSE
+        -- Skip krawls deleted in the same statement (their items cascade here)
+        FOR affected IN
+            SELECT DISTINCT o.krawl_id FROM old_items o JOIN krawls k ON k.krawl_id = o.krawl_id
+        LOOP
+            PERFORM refresh_krawl_route(affected);
+        END LOOP;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Function: Refresh routes of krawls that visit gems moved in this statement
+-- =============================================================================
+CREATE OR REPLACE FUNCTION refresh_krawl_routes_for_gems()
+RETURNS TRIGGER AS $$
+DECLARE
+    affected UUID;
+BEGIN
+    FOR affected IN
+        SELECT DISTINCT i.krawl_id
+        FROM new_gems n
+        JOIN old_gems o ON o.gem_id = n.gem_id
+        JOIN krawl_items i ON i.gem_id = n.gem_id
+        WHERE NOT ST_Equals(CAST(n.location AS geometry), CAST(o.location AS geometry))
+    LOOP
+        PERFORM refresh_krawl_route(affected);
+    END LOOP;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trigger_krawl_routes_items_insert
+    AFTER INSERT ON krawl_items
+    REFERENCING NEW TABLE AS new_items
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION refresh_krawl_routes_for_items();
+
+CREATE TRIGGER trigger_krawl_routes_items_update
+    AFTER UPDATE ON krawl_items
+    REFERENCING OLD TABLE AS old_items NEW TABLE AS new_items
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION refresh_krawl_routes_for_items();
+
+CREATE TRIGGER trigger_krawl_routes_items_delete
+    AFTER DELETE ON krawl_items
+    REFERENCING OLD TABLE AS old_items
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION refresh_krawl_routes_for_items();
+
+CREATE TRIGGER trigger_krawl_routes_gems_update
+    AFTER UPDATE ON gems
+    REFERENCING OLD TABLE AS old_gems NEW TABLE AS new_gems
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION refresh_krawl_routes_for_gems();
+
+-- Backfill existing krawls
+SELECT refresh_krawl_route(k.krawl_id) FROM krawls k;
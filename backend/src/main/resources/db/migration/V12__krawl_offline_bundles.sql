@@ -0,0 +1,115 @@
+-- =============================================================================
+-- Krawl Offline Bundles
+-- Version: 12
+-- Description: Prebuilt, gzip-compressed offline bundle per krawl. A row is
+--              created the first time a bundle is requested. Statement-level
+--              triggers bump source_version whenever the krawl, its items or a
+--              member gem (including its photos and tags) changes; the
+--              application rebuilds lazily on the next request when
+--              built_version lags behind.
+-- =============================================================================
+
+CREATE TABLE krawl_bundles (
+    krawl_id UUID PRIMARY KEY REFERENCES krawls(krawl_id) ON DELETE CASCADE,
+    source_version BIGINT NOT NULL DEFAULT 1,
+    built_version BIGINT NOT NULL DEFAULT 0,
+    content_hash VARCHAR(64),
+    payload BYTEA,
+    raw_bytes INTEGER,
+    built_at TIMESTAMPTZ
+);
+
+COMMENT ON COLUMN krawl_bundles.content_hash IS 'SHA-256 (hex) of the uncompressed JSON; used as the ETag';
+COMMENT ON COLUMN krawl_bundles.payload IS 'gzip-compressed bundle JSON';
+
+-- Function: Mark bundles of affected krawls stale
+-- =============================================================================
+CREATE OR REPLACE FUNCTION bump_krawl_bundle_versions()
+RETURNS TRIGGER AS $$
+DECLARE
+    krawl_ids UUID[];
+    gem_ids UUID[];
+BEGIN
+    IF TG_TABLE_NAME IN ('krawls', 'krawl_items') THEN
+        IF TG_OP <> 'DELETE' THEN
+            krawl_ids := ARRAY(SELECT krawl_id FROM new_rows);
+        END IF;
+        IF TG_OP <> 'INSERT' THEN
+            krawl_ids := krawl_ids || ARRAY(SELECT krawl_id FROM old_rows);
+        END IF;
+    ELSE
+        IF TG_OP <> 'DELETE' THEN
+            gem_ids := ARRAY(SELECT gem_id FROM new_rows);
+        END IF;
+        IF TG_OP <> 'INSERT' THEN
+            gem_ids := gem_ids || ARRAY(SELECT gem_id FROM old_rows);
+        END IF;
+        krawl_ids := ARRAY(SELECT DISTINCT i.krawl_id FROM krawl_items i WHERE i.gem_id = ANY (gem_ids));
+    END IF;
+
+    UPDATE krawl_bundles
+    SET source_version = source_version + 1
+    WHERE krawl_id = ANY (krawl_ids);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trigger_krawl_bundles_krawls_update
+    AFTER UPDATE ON krawls
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION bump_krawl_bundle_versions();
+
+CREATE TRIGGER trigger_krawl_bundles_items_insert
+    AFTER INSERT ON krawl_items
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION bump_krawl_bundle_versions();
+
+CREATE TRIGGER trigger_krawl_bundles_items_update
+    AFTER UPDATE ON krawl_items
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION bump_krawl_bundle_versions();
+
+CREATE TRIGGER trigger_krawl_bundles_items_delete
+    AFTER DELETE ON krawl_items
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION bump_krawl_bundle_versions();
+
+CREATE TRIGGER trigger_krawl_bundles_gems_update
+    AFTER UPDATE ON gems
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION bump_krawl_bundle_versions();
+
+CREATE TRIGGER trigger_krawl_bundles_photos_insert
+    AFTER INSERT ON gem_photos
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION bump_krawl_bundle_versions();
+
+CREATE TRIGGER trigger_krawl_bundles_photos_update
+    AFTER UPDATE ON gem_photos
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION bump_krawl_bundle_versions();
+
+CREATE TRIGGER trigger_krawl_bundles_photos_delete
+    AFTER DELETE ON gem_photos
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION bump_krawl_bundle_versions();
+
+CREATE TRIGGER trigger_krawl_bundles_tags_insert
+    AFTER INSERT ON gem_tags
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION bump_krawl_bundle_versions();
+
+CREATE TRIGGER trigger_krawl_bundles_tags_delete
+    AFTER DELETE ON gem_tags
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION bump_krawl_bundle_versions();
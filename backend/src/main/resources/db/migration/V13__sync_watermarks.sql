@@ -0,0 +1,124 @@
+-- =============================================================================
+-- Delta Sync Watermarks
+-- Version: 13
+-- Description: Everything the offline client syncs carries an updated_at that
+--              the database sets to CURRENT_TIMESTAMP (the writing
+--              transaction's start time) on insert and update, so a sync window
+--              can be closed at the start of the oldest open transaction and
+--              never miss a late commit. Each synced table gets an
+--              (updated_at, id) index so a sync with nothing new is one index
+--              probe per table.
+--              - krawl_items changes touch their krawl, which is synced with
+--                its full item list.
+--              - Unsaving a krawl leaves a row in saved_krawl_tombstones.
+-- =============================================================================
+
+-- Function: Stamp updated_at with the transaction start time
+-- =============================================================================
+CREATE OR REPLACE FUNCTION set_sync_updated_at()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.updated_at = CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- gems / krawls: BEFORE UPDATE already stamps updated_at (V1); stamp inserts too
+UPDATE gems SET updated_at = COALESCE(created_at, CURRENT_TIMESTAMP) WHERE updated_at IS NULL;
+ALTER TABLE gems ALTER COLUMN updated_at SET NOT NULL;
+UPDATE krawls SET updated_at = COALESCE(created_at, CURRENT_TIMESTAMP) WHERE updated_at IS NULL;
+ALTER TABLE krawls ALTER COLUMN updated_at SET NOT NULL;
+
+CREATE TRIGGER set_gems_sync_updated_at
+    BEFORE INSERT ON gems
+    FOR EACH ROW
+    EXECUTE FUNCTION set_sync_updated_at();
+
+CREATE TRIGGER set_krawls_sync_updated_at
+    BEFORE INSERT ON krawls
+    FOR EACH ROW
+    EXECUTE FUNCTION set_sync_updated_at();
+
+CREATE INDEX IF NOT EXISTS idx_gems_sync ON gems (updated_at, gem_id);
+CREATE INDEX IF NOT EXISTS idx_krawls_sync ON krawls (updated_at, krawl_id);
+
+-- Function: Touch krawls whose items changed in this statement
+-- =============================================================================
+CREATE OR REPLACE FUNCTION touch_krawls_for_items()
+RETURNS TRIGGER AS $$
+DECLARE
+    krawl_ids UUID[];
+BEGIN
+    IF TG_OP <> 'DELETE' THEN
+        krawl_ids := ARRAY(SELECT krawl_id FROM new_rows);
+    END IF;
+    IF TG_OP <> 'INSERT' THEN
+        krawl_ids := krawl_ids || ARRAY(SELECT krawl_id FROM old_rows);
+    END IF;
+    -- updated_at itself is stamped by update_krawls_updated_at
+    UPDATE krawls SET updated_at = CURRENT_TIMESTAMP WHERE krawl_id = ANY (krawl_ids);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trigger_krawls_sync_items_insert
+    AFTER INSERT ON krawl_items
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION touch_krawls_for_items();
+
+CREATE TRIGGER trigger_krawls_sync_items_update
+    AFTER UPDATE ON krawl_items
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION touch_krawls_for_items();
+
+CREATE TRIGGER trigger_krawls_sync_items_delete
+    AFTER DELETE ON krawl_items
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION touch_krawls_for_items();
+
+-- saved_krawls: per-user changes plus tombstones for unsaves
+ALTER TABLE saved_krawls ADD COLUMN updated_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+CREATE TABLE saved_krawl_tombstones (
+    user_id UUID NOT NULL REFERENCES users(user_id) ON DELETE CASCADE,
+    krawl_id UUID NOT NULL,
+    deleted_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, krawl_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_saved_krawls_sync ON saved_krawls (user_id, updated_at, krawl_id);
+CREATE INDEX IF NOT EXISTS idx_saved_krawl_tombstones_sync ON saved_krawl_tombstones (user_id, deleted_at, krawl_id);
+
+CREATE OR REPLACE FUNCTION track_saved_krawl_sync()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        -- Skip rows removed by a cascade from the user's own deletion
+        IF EXISTS (SELECT 1 FROM users WHERE user_id = OLD.user_id) THEN
+            INSERT INTO saved_krawl_tombstones (user_id, krawl_id, deleted_at)
+            VALUES (OLD.user_id, OLD.krawl_id, CURRENT_TIMESTAMP)
+            ON CONFLICT (user_id, krawl_id) DO UPDATE SET deleted_at = EXCLUDED.deleted_at;
+        END IF;
+        RETURN OLD;
+    END IF;
+    IF TG_OP = 'INSERT' THEN
+        DELETE FROM saved_krawl_tombstones WHERE user_id = NEW.user_id AND krawl_id = NEW.krawl_id;
+    END IF;
+    NEW.updated_at = CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trigger_saved_krawls_sync_write
+    BEFORE INSERT OR UPDATE ON saved_krawls
+    FOR EACH ROW
+    EXECUTE FUNCTION track_saved_krawl_sync();
+
+-- AFTER so a cascading user delete is already visible to the trigger
+CREATE TRIGGER trigger_saved_krawls_sync_delete
+    AFTER DELETE ON saved_krawls
+    FOR EACH ROW
+    EXECUTE FUNCTION track_saved_krawl_sync();
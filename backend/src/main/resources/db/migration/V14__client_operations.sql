@@ -0,0 +1,25 @@
+-- =============================================================================
+-- Client Operations
+-- Version: 14
+-- Description: Idempotency ledger for offline mutation replay. Each queued
+--              client action carries an id chosen by the client; the first
+--              replay claims (user_id, client_op_id) and records the outcome
+--              in the same transaction as the mutation, so a retried or
+--              concurrent replay of the same id gets the recorded outcome
+--              instead of applying the action twice. A claim that is still
+--              PENDING is only ever visible to the transaction holding it.
+-- =============================================================================
+
+CREATE TABLE client_operations (
+    user_id UUID NOT NULL REFERENCES users(user_id) ON DELETE CASCADE,
+    client_op_id VARCHAR(64) NOT NULL,
+    op_type VARCHAR(32) NOT NULL,
+    status VARCHAR(32) DEFAULT 'PENDING' NOT NULL,
+    result_id UUID,
+    message TEXT,
+    created_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    PRIMARY KEY (user_id, client_op_id)
+);
+
+-- Retention purge
+CREATE INDEX idx_client_operations_created_at ON client_operations (created_at);
@@ -0,0 +1,245 @@
+-- =============================================================================
+-- Incremental Rating Aggregates
+-- Version: 15
+-- Description: Replaces the V1 rating triggers, which re-ran AVG/COUNT over
+--              every rating of the target on each row change, with running
+--              sums. gems and krawls keep rating_sum next to rating_count, and
+--              statement-level triggers apply the net delta of each statement
+--              per target, so a rating write costs the same on a gem with ten
+--              ratings as on one with a hundred thousand. Targets are locked
+--              in id order so concurrent multi-row statements cannot deadlock.
+--              The application reconciles the sums nightly in case anything
+--              bypasses the triggers (e.g. a session_replication_role restore).
+-- =============================================================================
+
+ALTER TABLE gems ADD COLUMN rating_sum BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE krawls ADD COLUMN rating_sum BIGINT DEFAULT 0 NOT NULL;
+
+DROP TRIGGER IF EXISTS trigger_update_gem_rating_stats ON gem_ratings;
+DROP TRIGGER IF EXISTS trigger_update_krawl_rating_stats ON krawl_ratings;
+DROP TRIGGER IF EXISTS trigger_update_user_creator_score ON krawl_ratings;
+DROP FUNCTION IF EXISTS update_gem_rating_stats();
+DROP FUNCTION IF EXISTS update_krawl_rating_stats();
+DROP FUNCTION IF EXISTS update_user_creator_score();
+
+-- Backfill from the ratings themselves
+UPDATE gems g
+SET rating_sum = r.rating_sum,
+    rating_count = r.rating_count,
+    average_rating = ROUND(r.rating_sum::NUMERIC / r.rating_count, 2)
+FROM (
+    SELECT gem_id, SUM(rating) AS rating_sum, COUNT(*) AS rating_count
+    FROM gem_ratings
+    GROUP BY gem_id
+) r
+WHERE g.gem_id = r.gem_id;
+
+UPDATE krawls k
+SET rating_sum = r.rating_sum,
+    rating_count = r.rating_count,
+    average_rating = ROUND(r.rating_sum::NUMERIC / r.rating_count, 2)
+FROM (
+    SELECT krawl_id, SUM(rating) AS rating_sum, COUNT(*) AS rating_count
+    FROM krawl_ratings
+    GROUP BY krawl_id
+) r
+WHERE k.krawl_id = r.krawl_id;
+
+-- Function: Apply per-gem rating deltas of one statement
+-- =============================================================================
+CREATE OR REPLACE FUNCTION apply_gem_rating_deltas()
+RETURNS TRIGGER AS $$
+DECLARE
+    ids UUID[];
+    sums BIGINT[];
+    counts INTEGER[];
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        SELECT array_agg(gem_id ORDER BY gem_id), array_agg(s ORDER BY gem_id), array_agg(n ORDER BY gem_id)
+        INTO ids, sums, counts
+        FROM (SELECT gem_id, SUM(rating) AS s, COUNT(*)::INTEGER AS n FROM new_rows GROUP BY gem_id) d;
+    ELSIF TG_OP = 'UPDATE' THEN
+        SELECT array_agg(gem_id ORDER BY gem_id), array_agg(s ORDER BY gem_id), array_agg(n ORDER BY gem_id)
+        INTO ids, sums, counts
+        FROM (
+            SELECT gem_id, SUM(rating)::BIGINT AS s, SUM(n)::INTEGER AS n
+            FROM (
+                SELECT gem_id, rating::BIGINT AS rating, 1 AS n FROM new_rows
+                UNION ALL
+                SELECT gem_id, -rating::BIGINT, -1 FROM old_rows
+            ) c
+            GROUP BY gem_id
+            HAVING SUM(rating) <> 0 OR SUM(n) <> 0
+        ) d;
+    ELSE
+        SELECT array_agg(gem_id ORDER BY gem_id), array_agg(-s ORDER BY gem_id), array_agg(-n ORDER BY gem_id)
+        INTO ids, sums, counts
+        FROM (SELECT gem_id, SUM(rating) AS s, COUNT(*)::INTEGER AS n FROM old_rows GROUP BY gem_id) d;
+    END IF;
+
+    IF ids IS NULL THEN
+        RETURN NULL;
+    END IF;
+
+    PERFORM 1 FROM gems WHERE gem_id = ANY(ids) ORDER BY gem_id FOR NO KEY UPDATE;
+
+    UPDATE gems g
+    SET rating_sum = g.rating_sum + d.s,
+        rating_count = g.rating_count + d.n,
+        average_rating = CASE
+            WHEN g.rating_count + d.n > 0 THEN ROUND((g.rating_sum + d.s)::NUMERIC / (g.rating_count + d.n), 2)
+            ELSE 0.00
+        END
+    FROM unnest(ids, sums, counts) AS d(gem_id, s, n)
+    WHERE g.gem_id = d.gem_id;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Function: Apply per-krawl rating deltas of one statement
+-- =============================================================================
+CREATE OR REPLACE FUNCTION apply_krawl_rating_deltas()
+RETURNS TRIGGER AS $$
+DECLARE
+    ids UUID[];
+    sums BIGINT[];
+    counts INTEGER[];
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        SELECT array_agg(krawl_id ORDER BY krawl_id), array_agg(s ORDER BY krawl_id), array_agg(n ORDER BY krawl_id)
+        INTO ids, sums, counts
+        FROM (SELECT krawl_id, SUM(rating) AS s, COUNT(*)::INTEGER AS n FROM new_rows GROUP BY krawl_id) d;
+    ELSIF TG_OP = 'UPDATE' THEN
+        SELECT array_agg(krawl_id ORDER BY krawl_id), array_agg(s ORDER BY krawl_id), array_agg(n ORDER BY krawl_id)
+        INTO ids, sums, counts
+        FROM (
+            SELECT krawl_id, SUM(rating)::BIGINT AS s, SUM(n)::INTEGER AS n
+            FROM (
+                SELECT krawl_id, rating::BIGINT AS rating, 1 AS n FROM new_rows
+                UNION ALL
+                SELECT krawl_id, -rating::BIGINT, -1 FROM old_rows
+            ) c
+            GROUP BY krawl_id
+            HAVING SUM(rating) <> 0 OR SUM(n) <> 0
+        ) d;
+    ELSE
+        SELECT array_agg(krawl_id ORDER BY krawl_id), array_agg(-s ORDER BY krawl_id), array_agg(-n ORDER BY krawl_id)
+        INTO ids, sums, counts
+        FROM (SELECT krawl_id, SUM(rating) AS s, COUNT(*)::INTEGER AS n FROM old_rows GROUP BY krawl_id) d;
+    END IF;
+
+    IF ids IS NULL THEN
+        RETURN NULL;
+    END IF;
+
+    PERFORM 1 FROM krawls WHERE krawl_id = ANY(ids) ORDER BY krawl_id FOR NO KEY UPDATE;
+
+    UPDATE krawls k
+    SET rating_sum = k.rating_sum + d.s,
+        rating_count = k.rating_count + d.n,
+        average_rating = CASE
+            WHEN k.rating_count + d.n > 0 THEN ROUND((k.rating_sum + d.s)::NUMERIC / (k.rating_count + d.n), 2)
+            ELSE 0.00
+        END
+    FROM unnest(ids, sums, counts) AS d(krawl_id, s, n)
+    WHERE k.krawl_id = d.krawl_id;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Function: Recompute creator scores of the creators whose krawls were rated
+-- in this statement (once per creator rather than once per rating row)
+-- =============================================================================
+CREATE OR REPLACE FUNCTION update_creator_scores_for_ratings()
+RETURNS TRIGGER AS $$
+DECLARE
+    creators UUID[];
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        SELECT array_agg(DISTINCT k.creator_id) INTO creators
+        FROM new_rows r JOIN krawls k ON k.krawl_id = r.krawl_id;
+    ELSIF TG_OP = 'UPDATE' THEN
+        SELECT array_agg(DISTINCT k.creator_id) INTO creators
+        FROM (SELECT krawl_id FROM new_rows UNION SELECT krawl_id FROM old_rows) r
+        JOIN krawls k ON k.krawl_id = r.krawl_id;
+    ELSE
+        SELECT array_agg(DISTINCT k.creator_id) INTO creators
+        FROM old_rows r JOIN krawls k ON k.krawl_id = r.krawl_id;
+    END IF;
+
+    IF creators IS NULL THEN
+        RETURN NULL;
+    END IF;
+
+    UPDATE users u
+    SET creator_score = COALESCE(
+        (SELECT AVG(k.average_rating)::NUMERIC(3,2)
+         FROM krawls k
+         WHERE k.creator_id = u.user_id
+           AND k.rating_count >= 3),  -- Only count krawls with at least 3 ratings
+        0.00
+    )
+    WHERE u.user_id = ANY(creators);
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Triggers: statement triggers fire in name order, so krawl stats are current
+-- before creator scores read them
+-- =============================================================================
+CREATE TRIGGER trigger_update_gem_rating_stats_insert
+    AFTER INSERT ON gem_ratings
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION apply_gem_rating_deltas();
+
+CREATE TRIGGER trigger_update_gem_rating_stats_update
+    AFTER UPDATE ON gem_ratings
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION apply_gem_rating_deltas();
+
+CREATE TRIGGER trigger_update_gem_rating_stats_delete
+    AFTER DELETE ON gem_ratings
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION apply_gem_rating_deltas();
+
+CREATE TRIGGER trigger_update_krawl_rating_stats_insert
+    AFTER INSERT ON krawl_ratings
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION apply_krawl_rating_deltas();
+
+CREATE TRIGGER trigger_update_krawl_rating_stats_update
+    AFTER UPDATE ON krawl_ratings
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION apply_krawl_rating_deltas();
+
+CREATE TRIGGER trigger_update_krawl_rating_stats_delete
+    AFTER DELETE ON krawl_ratings
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION apply_krawl_rating_deltas();
+
+CREATE TRIGGER trigger_update_user_creator_score_insert
+    AFTER INSERT ON krawl_ratings
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION update_creator_scores_for_ratings();
+
+CREATE TRIGGER trigger_update_user_creator_score_update
+    AFTER UPDATE ON krawl_ratings
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION update_creator_scores_for_ratings();
+
+CREATE TRIGGER trigger_update_user_creator_score_delete
+    AFTER DELETE ON krawl_ratings
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION update_creator_scores_for_ratings();
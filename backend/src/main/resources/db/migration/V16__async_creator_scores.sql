@@ -0,0 +1,15 @@
+-- =============================================================================
+-- Asynchronous Creator Scores
+-- Version: 16
+-- Description: Takes creator score off the rating write path. Krawl rating
+--              writes now only maintain the krawl's own aggregates (V15); the
+--              application picks up krawls whose updated_at moved, coalesces
+--              their creators over a short window and recomputes creator_score
+--              and reputation_tier for them in set-based batches.
+-- =============================================================================
+
+DROP TRIGGER IF EXISTS trigger_update_user_creator_score_insert ON krawl_ratings;
+DROP TRIGGER IF EXISTS trigger_update_user_creator_score_update ON krawl_ratings;
+DROP TRIGGER IF EXISTS trigger_update_user_creator_score_delete ON krawl_ratings;
+DROP FUNCTION IF EXISTS update_creator_scores_for_ratings();
+
@@ -0,0 +1,63 @@
+-- =============================================================================
+-- Write-behind Gem Counters
+-- Version: 17
+-- Description: New vouches no longer recount gem_vouches and update the gem
+--              row inside the vouching transaction. The application counts
+--              them in memory and adds the aggregated deltas to gems in
+--              periodic batches, together with gem view counts.
+--              counter_checkpoints records how far flushed deltas are known to
+--              reach; on startup vouch counts of gems vouched since then are
+--              recounted from gem_vouches, so deltas lost in a crash are
+--              replayed from the source table. Deletes are rare (cascades and
+--              cleanups) and still adjust vouch_count in the deleting
+--              statement, one delta per gem.
+-- =============================================================================
+
+DROP TRIGGER IF EXISTS trigger_update_gem_vouch_count ON gem_vouches;
+DROP FUNCTION IF EXISTS update_gem_vouch_count();
+
+ALTER TABLE gems ADD COLUMN view_count BIGINT DEFAULT 0 NOT NULL;
+
+-- Startup replay looks up recent vouches
+CREATE INDEX IF NOT EXISTS idx_gem_vouches_created_at ON gem_vouches (created_at);
+
+CREATE TABLE counter_checkpoints (
+    counter VARCHAR(50) PRIMARY KEY,
+    flushed_at TIMESTAMPTZ NOT NULL
+);
+
+-- Counts are exact up to now: the recount trigger was active until this migration
+INSERT INTO counter_checkpoints (counter, flushed_at) VALUES ('gem_vouches', CURRENT_TIMESTAMP);
+
+-- Function: Subtract deleted vouches per gem
+-- =============================================================================
+CREATE OR REPLACE FUNCTION apply_gem_vouch_deletes()
+RETURNS TRIGGER AS $$
+DECLARE
+    ids UUID[];
+    counts INTEGER[];
+BEGIN
+    SELECT array_agg(gem_id ORDER BY gem_id), array_agg(n ORDER BY gem_id)
+    INTO ids, counts
+    FROM (SELECT gem_id, COUNT(*)::INTEGER AS n FROM old_rows GROUP BY gem_id) d;
+
+    IF ids IS NULL THEN
+        RETURN NULL;
+    END IF;
+
+    PERFORM 1 FROM gems WHERE gem_id = ANY(ids) ORDER BY gem_id FOR NO KEY UPDATE;
+
+    UPDATE gems g
+    SET vouch_count = GREATEST(g.vouch_count - d.n, 0)
+    FROM unnest(ids, counts) AS d(gem_id, n)
+    WHERE g.gem_id = d.gem_id;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trigger_update_gem_vouch_count_delete
+    AFTER DELETE ON gem_vouches
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION apply_gem_vouch_deletes();
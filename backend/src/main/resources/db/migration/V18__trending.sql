@@ -0,0 +1,56 @@
+-- =============================================================================
+-- Trending Krawls and Gems
+-- Version: 18
+-- Description: trending_scores holds a running time-decayed engagement score
+--              per krawl and gem. A scheduled job decays every score by the
+--              time since its last pass and adds the ratings, saves, vouches
+--              and views that arrived in between, each decayed from its own
+--              timestamp, so a pass only reads the events of one interval.
+--              The job then rebuilds trending_krawls / trending_gems: the top
+--              rows with everything the home feed shows, so serving the feed
+--              is a primary key range read with no aggregation.
+--              The job's watermark is the 'trending' row in
+--              counter_checkpoints (V17).
+-- =============================================================================
+
+CREATE TABLE trending_scores (
+    subject_type VARCHAR(10) NOT NULL CHECK (subject_type IN ('krawl', 'gem')),
+    subject_id UUID NOT NULL,
+    score DOUBLE PRECISION NOT NULL,
+    -- gems.view_count already counted; view_count has no history, so its growth is the event
+    views_seen BIGINT DEFAULT 0 NOT NULL,
+    PRIMARY KEY (subject_type, subject_id)
+);
+
+CREATE INDEX idx_trending_scores_rank ON trending_scores (subject_type, score DESC);
+
+-- Event windows of a pass are created_at ranges
+CREATE INDEX IF NOT EXISTS idx_gem_ratings_created_at ON gem_ratings (created_at);
+CREATE INDEX IF NOT EXISTS idx_krawl_ratings_created_at ON krawl_ratings (created_at);
+CREATE INDEX IF NOT EXISTS idx_saved_krawls_saved_at ON saved_krawls (saved_at);
+
+CREATE TABLE trending_krawls (
+    rank INTEGER PRIMARY KEY,
+    krawl_id UUID NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    description TEXT,
+    creator_id UUID NOT NULL,
+    creator_username VARCHAR(50),
+    average_rating NUMERIC(3, 2) NOT NULL,
+    rating_count INTEGER NOT NULL,
+    stop_count INTEGER NOT NULL,
+    score DOUBLE PRECISION NOT NULL,
+    computed_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE TABLE trending_gems (
+    rank INTEGER PRIMARY KEY,
+    gem_id UUID NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    latitude DOUBLE PRECISION NOT NULL,
+    longitude DOUBLE PRECISION NOT NULL,
+    average_rating NUMERIC(3, 2) NOT NULL,
+    vouch_count INTEGER NOT NULL,
+    score DOUBLE PRECISION NOT NULL,
+    computed_at TIMESTAMPTZ NOT NULL
+);
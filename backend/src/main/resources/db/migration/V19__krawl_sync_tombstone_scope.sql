@@ -0,0 +1,32 @@
+-- =============================================================================
+-- Krawl Sync Tombstone Scope
+-- Version: 19
+-- Description: The krawl change feed only sends a removal to users who could
+--              have seen the krawl: its creator, users who saved it, and
+--              everyone once it has been public. ever_public is set the first
+--              time a krawl is public and never cleared, so a krawl that was
+--              always private never shows up in anyone else's feed.
+-- =============================================================================
+
+ALTER TABLE krawls ADD COLUMN ever_public BOOLEAN DEFAULT FALSE NOT NULL;
+
+-- Backfill without stamping updated_at or bumping bundle versions: nothing changed for clients.
+-- Krawls that are private now are treated as never public; their history is not recorded.
+ALTER TABLE krawls DISABLE TRIGGER USER;
+UPDATE krawls SET ever_public = TRUE WHERE visibility = 'public';
+ALTER TABLE krawls ENABLE TRIGGER USER;
+
+CREATE OR REPLACE FUNCTION mark_krawl_ever_public()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.visibility = 'public' THEN
+        NEW.ever_public = TRUE;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trigger_krawls_ever_public
+    BEFORE INSERT OR UPDATE OF visibility ON krawls
+    FOR EACH ROW
+    EXECUTE FUNCTION mark_krawl_ever_public();
@@ -0,0 +1,50 @@
+-- =============================================================================
+-- Idempotent Vouch Counting
+-- Version: 20
+-- Description: Replaces the V17 startup replay, which recounted vouch_count
+--              from gem_vouches and so double counted vouches still held in
+--              the memory of other instances. Every vouch now records whether
+--              it has been added to gems.vouch_count. A flush claims uncounted
+--              rows (FOR UPDATE SKIP LOCKED, so instances never wait on each
+--              other), marks them counted and adds one delta per gem in the
+--              same transaction: each vouch is counted exactly once, by
+--              whichever instance claims it, and vouches of a crashed instance
+--              are claimed by the next flush of any other. Deletes subtract
+--              only vouches that were counted.
+--              Instances running the V17 counters must be stopped before this
+--              migration runs; their final flush counts what they hold.
+-- =============================================================================
+
+-- Existing rows are already in vouch_count; new rows start uncounted
+ALTER TABLE gem_vouches ADD COLUMN counted BOOLEAN DEFAULT TRUE NOT NULL;
+ALTER TABLE gem_vouches ALTER COLUMN counted SET DEFAULT FALSE;
+
+CREATE INDEX idx_gem_vouches_uncounted ON gem_vouches (gem_id, user_id) WHERE NOT counted;
+
+CREATE OR REPLACE FUNCTION apply_gem_vouch_deletes()
+RETURNS TRIGGER AS $$
+DECLARE
+    ids UUID[];
+    counts INTEGER[];
+BEGIN
+    SELECT array_agg(gem_id ORDER BY gem_id), array_agg(n ORDER BY gem_id)
+    INTO ids, counts
+    FROM (SELECT gem_id, COUNT(*)::INTEGER AS n FROM old_rows WHERE counted GROUP BY gem_id) d;
+
+    IF ids IS NULL THEN
+        RETURN NULL;
+    END IF;
+
+    PERFORM 1 FROM gems WHERE gem_id = ANY(ids) ORDER BY gem_id FOR NO KEY UPDATE;
+
+    UPDATE gems g
+    SET vouch_count = GREATEST(g.vouch_count - d.n, 0)
+    FROM unnest(ids, counts) AS d(gem_id, n)
+    WHERE g.gem_id = d.gem_id;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- The replay checkpoint is gone with the replay
+DELETE FROM counter_checkpoints WHERE counter = 'gem_vouches';
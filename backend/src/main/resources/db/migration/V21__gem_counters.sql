@@ -0,0 +1,92 @@
+-- =============================================================================
+-- Gem Counters Side Table
+-- Version: 21
+-- Description: Counter flushes no longer look like edits of the gem.
+--              - View counts move to gem_counters. A flush upserts them there
+--                and never touches gems, so a viewed gem is not re-sent by
+--                delta sync, does not mark offline bundles stale and does not
+--                fire the route triggers. gem_counters.updated_at tells the
+--                trending job which gems gained views.
+--              - vouch_count stays on gems, where every ranking query and
+--                index reads it. An update that changes nothing but
+--                vouch_count keeps updated_at and leaves bundle versions
+--                alone; the V11 route refresh already ignores gems that did
+--                not move.
+-- =============================================================================
+
+CREATE TABLE gem_counters (
+    gem_id UUID PRIMARY KEY REFERENCES gems(gem_id) ON DELETE CASCADE,
+    view_count BIGINT DEFAULT 0 NOT NULL,
+    updated_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_gem_counters_updated_at ON gem_counters (updated_at);
+
+-- trending_scores.views_seen already matches these counts, so the copies add no trending score
+INSERT INTO gem_counters (gem_id, view_count)
+SELECT gem_id, view_count FROM gems WHERE view_count > 0;
+
+ALTER TABLE gems DROP COLUMN view_count;
+
+-- updated_at: skip updates that change nothing but vouch_count
+-- =============================================================================
+-- A BEFORE trigger's WHEN clause cannot reference NEW as a whole row while gems
+-- has the generated search_vector (V9), so the check lives in the function.
+-- NEW.search_vector is not computed yet at this point and is left out, as is
+-- updated_at itself.
+CREATE OR REPLACE FUNCTION update_gems_updated_at_column()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF (to_jsonb(OLD) - ARRAY['vouch_count', 'search_vector', 'updated_at'])
+        IS DISTINCT FROM (to_jsonb(NEW) - ARRAY['vouch_count', 'search_vector', 'updated_at']) THEN
+        NEW.updated_at = CURRENT_TIMESTAMP;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER update_gems_updated_at ON gems;
+
+CREATE TRIGGER update_gems_updated_at
+    BEFORE UPDATE ON gems
+    FOR EACH ROW
+    EXECUTE FUNCTION update_gems_updated_at_column();
+
+-- Bundles: gems whose update changed nothing but vouch_count are not bundle changes
+-- =============================================================================
+CREATE OR REPLACE FUNCTION bump_krawl_bundle_versions()
+RETURNS TRIGGER AS $$
+DECLARE
+    krawl_ids UUID[];
+    gem_ids UUID[];
+BEGIN
+    IF TG_TABLE_NAME IN ('krawls', 'krawl_items') THEN
+        IF TG_OP <> 'DELETE' THEN
+            krawl_ids := ARRAY(SELECT krawl_id FROM new_rows);
+        END IF;
+        IF TG_OP <> 'INSERT' THEN
+            krawl_ids := krawl_ids || ARRAY(SELECT krawl_id FROM old_rows);
+        END IF;
+    ELSIF TG_TABLE_NAME = 'gems' THEN
+        gem_ids := ARRAY(
+            SELECT n.gem_id
+            FROM new_rows n
+            JOIN old_rows o ON o.gem_id = n.gem_id
+            WHERE (to_jsonb(n) - 'vouch_count') IS DISTINCT FROM (to_jsonb(o) - 'vouch_count'));
+        krawl_ids := ARRAY(SELECT DISTINCT i.krawl_id FROM krawl_items i WHERE i.gem_id = ANY (gem_ids));
+    ELSE
+        IF TG_OP <> 'DELETE' THEN
+            gem_ids := ARRAY(SELECT gem_id FROM new_rows);
+        END IF;
+        IF TG_OP <> 'INSERT' THEN
+            gem_ids := gem_ids || ARRAY(SELECT gem_id FROM old_rows);
+        END IF;
+        krawl_ids := ARRAY(SELECT DISTINCT i.krawl_id FROM krawl_items i WHERE i.gem_id = ANY (gem_ids));
+    END IF;
+
+    UPDATE krawl_bundles
+    SET source_version = source_version + 1
+    WHERE krawl_id = ANY (krawl_ids);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
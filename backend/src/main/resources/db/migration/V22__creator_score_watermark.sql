@@ -0,0 +1,15 @@
+-- =============================================================================
+-- Creator Score Watermark
+-- Version: 22
+-- Description: The creator score pass keeps its watermark in the
+--              'creator_scores' row of counter_checkpoints and locks it for
+--              the pass, so a restart resumes where the last pass stopped
+--              and only one instance runs a pass at a time.
+-- =============================================================================
+
+-- Until now every instance recomputed all creators on startup and then every
+-- few seconds, so scores are current; the hour covers passes still running
+-- against the old code during the rollout.
+INSERT INTO counter_checkpoints (counter, flushed_at)
+VALUES ('creator_scores', CURRENT_TIMESTAMP - INTERVAL '1 hour')
+ON CONFLICT (counter) DO NOTHING;
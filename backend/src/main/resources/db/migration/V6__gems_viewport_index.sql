@@ -0,0 +1,14 @@
+-- =============================================================================
+-- Gem Viewport Index
+-- Version: 6
+-- Description: Index-backed viewport search. The map queries gems with a planar
+--              bounding box (&&) on location::geometry, so the GiST index has to
+--              be built on that same expression to be usable. The index is
+--              partial so it only covers gems that can actually be shown.
+-- =============================================================================
+
+CREATE INDEX IF NOT EXISTS idx_gems_location_geom_visible
+    ON gems USING GIST ((location::geometry))
+    WHERE approval_status = 'approved' AND deleted_at IS NULL;
+
+COMMENT ON INDEX idx_gems_location_geom_visible IS 'Viewport bbox prefilter for approved, non-deleted gems';
@@ -0,0 +1,12 @@
+-- =============================================================================
+-- Gem Nearby Index
+-- Version: 7
+-- Description: Partial geography GiST index for "gems near me". KNN ordering
+--              (location <-> origin) walks this index nearest-first, and because
+--              it only holds approved, non-deleted gems the scan never has to
+--              step over rows the query would throw away.
+-- =============================================================================
+
+CREATE INDEX IF NOT EXISTS idx_gems_location_visible
+    ON gems USING GIST (location)
+    WHERE approval_status = 'approved' AND deleted_at IS NULL;
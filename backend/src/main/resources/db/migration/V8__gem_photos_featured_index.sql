@@ -0,0 +1,11 @@
+-- =============================================================================
+-- Featured Gem Photo Index
+-- Version: 8
+-- Description: Map markers carry the gem's latest featured photo as a thumbnail.
+--              This partial index answers that lookup with a single index probe
+--              per marker.
+-- =============================================================================
+
+CREATE INDEX IF NOT EXISTS idx_gem_photos_featured
+    ON gem_photos (gem_id, created_at DESC)
+    WHERE is_featured;
@@ -0,0 +1,31 @@
+-- =============================================================================
+-- Gem Search
+-- Version: 9
+-- Description: Full-text and typo-tolerant search over gems.
+--              search_vector is a stored generated column (name weighted A,
+--              description B) so writes through JPA, COPY or triggers never
+--              have to maintain it. The 'simple' configuration is used because
+--              gem names are mostly proper nouns and Filipino/English mixes
+--              that stemming would mangle.
+--              The trigram index is GiST rather than GIN so fuzzy candidates can
+--              be pulled nearest-first with name <-> query and a LIMIT.
+--              Both indexes are partial on the visible-gem predicate used by
+--              every public read.
+-- =============================================================================
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE gems
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_gems_search_vector_visible
+    ON gems USING GIN (search_vector)
+    WHERE approval_status = 'approved' AND deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_gems_name_trgm_visible
+    ON gems USING GIST (name gist_trgm_ops)
+    WHERE approval_status = 'approved' AND deleted_at IS NULL;
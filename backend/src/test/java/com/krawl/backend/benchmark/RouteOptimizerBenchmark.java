@@ -0,0 +1,64 @@
+package com.krawl.backend.benchmark;
+
+import com.krawl.backend.route.RouteOptimizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RouteOptimizer} on random stops scattered over a 10 km square of Metro Manila,
+ * including matrix construction. Run with {@code main} from the IDE or the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteOptimizerBenchmark {
+
+    @Param({"10", "50", "100"})
+    public int stops;
+
+    private double[] lats;
+    private double[] lngs;
+
+    @Setup
+    public void setUp() {
+        var random = new SplittableRandom(7);
+        lats = new double[stops];
+        lngs = new double[stops];
+        for (int i = 0; i < stops; i++) {
+            lats[i] = 14.50 + random.nextDouble() * 0.09;
+            lngs[i] = 121.00 + random.nextDouble() * 0.09;
+        }
+    }
+
+    @Benchmark
+    public RouteOptimizer.Result freeEnds() {
+        return RouteOptimizer.optimize(lats, lngs, false, false);
+    }
+
+    @Benchmark
+    public RouteOptimizer.Result fixedStartAndEnd() {
+        return RouteOptimizer.optimize(lats, lngs, true, true);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RouteOptimizerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,123 @@
+package com.krawl.backend.benchmark;
+
+import com.krawl.backend.config.properties.TagIndexProperties;
+import com.krawl.backend.index.TagBitmapIndex;
+import com.krawl.backend.repository.GemTagIndexRepository;
+import com.krawl.backend.repository.projection.GemTagIndexRow;
+import com.krawl.backend.util.BoundingBox;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ * Tag-filtered viewport lookup: {@link TagBitmapIndex} against the equivalent SQL in
+ * {@link GemTagIndexRepository#findIdsByTags}.
+ *
+ * <p>The bitmap benchmarks run on synthetic gems spread over Metro Manila with 20 tags
+ * (each gem gets 1-4, skewed towards the low ids like real category tags). The SQL
+ * benchmark needs KRAWL_PERF_DB_URL (see GemViewportQueryExplainTest) pointing at a database
+ * with comparable gem_tags data; it is only included when that variable is set.
+ * Run with {@code main} from the IDE or the test classpath.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TagFilterBenchmark {
+
+    private static final int TAGS = 20;
+    private static final BoundingBox DISTRICT = BoundingBox.of(121.00, 14.54, 121.06, 14.60);
+    private static final BoundingBox CITY = BoundingBox.of(120.90, 14.40, 121.20, 14.80);
+
+    @Param({"1000000"})
+    public int gems;
+
+    private TagBitmapIndex index;
+    private GemTagIndexRepository sqlRepository;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        GemTagIndexRepository source = Mockito.mock(GemTagIndexRepository.class);
+        Mockito.doAnswer(invocation -> {
+            Consumer<GemTagIndexRow> consumer = invocation.getArgument(0);
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i < gems; i++) {
+                int[] tags = new int[1 + random.nextInt(4)];
+                for (int t = 0; t < tags.length; t++) {
+                    tags[t] = 1 + (int) (TAGS * Math.pow(random.nextDouble(), 2));
+                }
+                consumer.accept(new GemTagIndexRow(UUID.randomUUID(),
+                    14.40 + random.nextDouble() * 0.40,
+                    120.90 + random.nextDouble() * 0.30,
+                    (float) (random.nextDouble() * 5),
+                    tags));
+            }
+            return null;
+        }).when(source).streamIndexRows(any(Consumer.class));
+
+        index = new TagBitmapIndex(source, new TagIndexProperties());
+        index.rebuild();
+
+        String url = System.getenv("KRAWL_PERF_DB_URL");
+        if (url != null && !url.isBlank()) {
+            sqlRepository = new GemTagIndexRepository(new DriverManagerDataSource(
+                url, System.getenv("KRAWL_PERF_DB_USER"), System.getenv("KRAWL_PERF_DB_PASSWORD")));
+        }
+    }
+
+    @Benchmark
+    public List<UUID> bitmapAndInDistrict() {
+        return index.find(DISTRICT, Set.of(1, 2), Set.of(), 200);
+    }
+
+    @Benchmark
+    public List<UUID> bitmapAndOrInCity() {
+        return index.find(CITY, Set.of(1), Set.of(7, 12, 15), 200);
+    }
+
+    @Benchmark
+    public List<UUID> sqlAndInDistrict() {
+        return sqlRepository.findIdsByTags(DISTRICT, Set.of(1, 2), Set.of(), 200);
+    }
+
+    @Benchmark
+    public List<UUID> sqlAndOrInCity() {
+        return sqlRepository.findIdsByTags(CITY, Set.of(1), Set.of(7, 12, 15), 200);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        var options = new OptionsBuilder()
+            .include(TagFilterBenchmark.class.getSimpleName() + ".bitmap");
+        String url = System.getenv("KRAWL_PERF_DB_URL");
+        if (url != null && !url.isBlank()) {
+            options.include(TagFilterBenchmark.class.getSimpleName() + ".sql");
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,194 @@
+package com.krawl.backend.cache;
+
+import com.krawl.backend.config.properties.LocalCacheProperties;
+import com.krawl.backend.repository.CacheInvalidationRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application contexts standing in for two instances, sharing the database named by
+ * KRAWL_PERF_DB_URL (plus KRAWL_PERF_DB_USER / KRAWL_PERF_DB_PASSWORD). Only NOTIFY and LISTEN
+ * are used, so no schema is needed. Skipped otherwise.
+ */
+@EnabledIfEnvironmentVariable(named = "KRAWL_PERF_DB_URL", matches = ".+")
+class CacheInvalidationBusIntegrationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private AnnotationConfigApplicationContext nodeA;
+    private AnnotationConfigApplicationContext nodeB;
+
+    @BeforeEach
+    void startNodes() {
+        nodeA = new AnnotationConfigApplicationContext(Node.class);
+        nodeB = new AnnotationConfigApplicationContext(Node.class);
+        awaitListening(nodeA);
+        awaitListening(nodeB);
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void keyEviction_reachesTheOtherInstance_andLeavesOtherKeys() {
+        UUID userId = UUID.randomUUID();
+        users(nodeA).put(userId, "profile on A");
+        users(nodeB).put(userId, "profile on B");
+        users(nodeB).put("username:kept", "other profile");
+
+        users(nodeA).evict(userId);
+
+        await(() -> users(nodeB).get(userId) == null);
+        assertThat(users(nodeB).get("username:kept")).isNotNull();
+        assertThat(users(nodeA).get(userId)).isNull();
+    }
+
+    @Test
+    void cacheClear_reachesTheOtherInstance() {
+        tags(nodeB).put("food", "tag");
+        tags(nodeB).put("art", "tag");
+        users(nodeB).put("username:kept", "profile");
+
+        tags(nodeA).clear();
+
+        await(() -> tags(nodeB).get("food") == null && tags(nodeB).get("art") == null);
+        assertThat(users(nodeB).get("username:kept")).isNotNull();
+    }
+
+    @Test
+    void evictionInRolledBackTransaction_isNotSent() {
+        users(nodeB).put("username:rolled-back", "profile");
+        users(nodeB).put("username:marker", "profile");
+
+        new TransactionTemplate(nodeA.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+            users(nodeA).evict("username:rolled-back");
+            status.setRollbackOnly();
+        });
+        users(nodeA).evict("username:marker");
+
+        // Invalidations are sent in order, so once the marker is gone the rolled-back one was not sent
+        await(() -> users(nodeB).get("username:marker") == null);
+        assertThat(users(nodeB).get("username:rolled-back")).isNotNull();
+    }
+
+    @Test
+    void lostListenerConnection_resubscribes_andClearsWhatItMayHaveMissed() {
+        users(nodeB).put("username:before", "profile");
+        String listener = "krawl-cache-listener-" + nodeB.getBean(CacheInvalidationBus.class).origin();
+
+        new JdbcTemplate(nodeA.getBean(DataSource.class)).execute(
+            "SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE application_name = '" + listener + "'");
+
+        await(() -> users(nodeB).get("username:before") == null);
+        awaitListening(nodeB);
+        users(nodeB).put("username:after", "profile");
+        users(nodeA).evict("username:after");
+        await(() -> users(nodeB).get("username:after") == null);
+    }
+
+    private static Cache users(AnnotationConfigApplicationContext node) {
+        return node.getBean(CacheManager.class).getCache("users");
+    }
+
+    private static Cache tags(AnnotationConfigApplicationContext node) {
+        return node.getBean(CacheManager.class).getCache("tags");
+    }
+
+    private static void awaitListening(AnnotationConfigApplicationContext node) {
+        String listener = "krawl-cache-listener-" + node.getBean(CacheInvalidationBus.class).origin();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(node.getBean(DataSource.class));
+        await(() -> {
+            Integer listening = new TransactionTemplate(node.getBean(PlatformTransactionManager.class)).execute(status ->
+                jdbcTemplate.queryForObject("""
+                        SELECT count(*) FROM pg_stat_activity
+                        WHERE application_name = ? AND (query LIKE 'LISTEN %' OR query = 'SELECT 1')
+                        """, Integer.class, listener));
+            return listening != null && listening > 0;
+        });
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition within %s", TIMEOUT).isLessThan(deadline);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Configuration
+    static class Node {
+
+        @Bean(destroyMethod = "close")
+        HikariDataSource dataSource() {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl(System.getenv("KRAWL_PERF_DB_URL"));
+            dataSource.setUsername(System.getenv("KRAWL_PERF_DB_USER"));
+            dataSource.setPassword(System.getenv("KRAWL_PERF_DB_PASSWORD"));
+            // As in production: nothing is visible to other sessions until a commit
+            dataSource.setAutoCommit(false);
+            dataSource.setMaximumPoolSize(3);
+            return dataSource;
+        }
+
+        @Bean
+        DataSourceTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean
+        CacheInvalidationRepository cacheInvalidationRepository(DataSource dataSource) {
+            return new CacheInvalidationRepository(new NamedParameterJdbcTemplate(dataSource));
+        }
+
+        @Bean
+        LocalCacheProperties localCacheProperties() {
+            LocalCacheProperties properties = new LocalCacheProperties();
+            properties.getInvalidation().setChannel("krawl_cache_invalidation_test");
+            properties.getInvalidation().setPollTimeout(Duration.ofMillis(500));
+            properties.getInvalidation().setReconnectDelay(Duration.ofMillis(200));
+            return properties;
+        }
+
+        @Bean
+        CacheInvalidationBus cacheInvalidationBus(LocalCacheProperties properties,
+                                                  CacheInvalidationRepository repository,
+                                                  PlatformTransactionManager transactionManager,
+                                                  DataSource dataSource) {
+            return new CacheInvalidationBus(properties, repository, transactionManager, dataSource);
+        }
+
+        @Bean
+        CacheManager cacheManager(CacheInvalidationBus bus) {
+            return new InvalidatingCacheManager(new ConcurrentMapCacheManager("users", "tags"), bus);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.krawl.backend.cache;
+
+import com.krawl.backend.config.properties.MapProperties;
+import com.krawl.backend.event.GemChangedEvent;
+import com.krawl.backend.repository.GemMarkerRepository;
+import com.krawl.backend.repository.projection.GemMarkerRow;
+import com.krawl.backend.util.BoundingBox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class GemViewportCacheTest {
+
+    private static final GeometryFactory GEOMETRY = new GeometryFactory(new PrecisionModel(), 4326);
+    private static final BoundingBox DOWNTOWN = BoundingBox.of(123.88, 10.28, 123.92, 10.32);
+
+    private GemMarkerRepository gemMarkerRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private MapProperties properties;
+    private GemViewportCache cache;
+
+    @BeforeEach
+    void setUp() {
+        gemMarkerRepository = mock(GemMarkerRepository.class);
+        when(gemMarkerRepository.findInBoundingBox(any(), anyInt())).thenReturn(List.of());
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new MapProperties();
+        properties.getViewportCache().setMaxCellLoadsPerRequest(100);
+        cache = new GemViewportCache(gemMarkerRepository, properties, meterRegistry);
+    }
+
+    @Test
+    void repeatedViewport_isServedFromCache_andReportsHitRatio() {
+        cache.findInViewport(DOWNTOWN, 100);
+        int cellLoads = mockingDetails(gemMarkerRepository).getInvocations().size();
+
+        cache.findInViewport(DOWNTOWN, 100);
+
+        assertThat(cellLoads).isPositive();
+        verify(gemMarkerRepository, times(cellLoads)).findInBoundingBox(any(), anyInt());
+        assertThat(cache.hitRatio()).isEqualTo(0.5);
+        assertThat(meterRegistry.get("krawl.map.viewport.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void gemChange_evictsOnlyCellsContainingTheLocation() {
+        cache.findInViewport(DOWNTOWN, 100);
+        int cellLoads = mockingDetails(gemMarkerRepository).getInvocations().size();
+
+        var location = GEOMETRY.createPoint(new Coordinate(123.9001, 10.3001));
+        cache.onGemChanged(GemChangedEvent.deleted(UUID.randomUUID(), location));
+        cache.findInViewport(DOWNTOWN, 100);
+
+        int reloaded = mockingDetails(gemMarkerRepository).getInvocations().size() - cellLoads;
+        assertThat(reloaded).isEqualTo(1);
+    }
+
+    @Test
+    void cellLoadedWhileAGemChanges_isNotCached() {
+        var location = GEOMETRY.createPoint(new Coordinate(123.9001, 10.3001));
+        when(gemMarkerRepository.findInBoundingBox(any(), anyInt())).thenAnswer(invocation -> {
+            // The change commits and evicts while this read still holds the old rows
+            cache.onGemChanged(GemChangedEvent.deleted(UUID.randomUUID(), location));
+            return List.of();
+        }).thenReturn(List.of());
+        cache.findInViewport(DOWNTOWN, 100);
+        int cellLoads = mockingDetails(gemMarkerRepository).getInvocations().size();
+
+        cache.findInViewport(DOWNTOWN, 100);
+
+        // Only the first load raced the change; every later load was cached
+        int reloaded = mockingDetails(gemMarkerRepository).getInvocations().size() - cellLoads;
+        assertThat(reloaded).isEqualTo(1);
+    }
+
+    @Test
+    void mergesCellsInRankingOrder_andAppliesLimit() {
+        GemMarkerRow low = row(3.0);
+        GemMarkerRow high = row(4.5);
+        when(gemMarkerRepository.findInBoundingBox(any(), anyInt()))
+            .thenReturn(List.of(low))
+            .thenReturn(List.of(high, low));
+
+        List<GemMarkerRow> result = cache.findInViewport(DOWNTOWN, 1).orElseThrow();
+
+        assertThat(result).containsExactly(high);
+    }
+
+    @Test
+    void rowsOfSnappedCellsOutsideTheViewport_areDropped() {
+        GemMarkerRow outside = row(5.0, 10.3, 123.925);
+        GemMarkerRow inside = row(3.0, 10.3, 123.9);
+        when(gemMarkerRepository.findInBoundingBox(any(), anyInt())).thenReturn(List.of(outside, inside));
+
+        assertThat(cache.findInViewport(DOWNTOWN, 10).orElseThrow()).containsExactly(inside);
+    }
+
+    @Test
+    void coldViewport_loadsAtMostTheCapPerRequest_andFallsBackUntilWarm() {
+        properties.getViewportCache().setMaxCellLoadsPerRequest(8);
+        cache = new GemViewportCache(gemMarkerRepository, properties, new SimpleMeterRegistry());
+
+        int requests = 0;
+        Optional<List<GemMarkerRow>> result = Optional.empty();
+        while (result.isEmpty()) {
+            int before = mockingDetails(gemMarkerRepository).getInvocations().size();
+            result = cache.findInViewport(DOWNTOWN, 100);
+            assertThat(mockingDetails(gemMarkerRepository).getInvocations().size() - before).isLessThanOrEqualTo(8);
+            requests++;
+        }
+
+        assertThat(requests).isGreaterThan(1);
+    }
+
+    @Test
+    void truncatedEdgeCell_thatMayHideVisibleGems_fallsBack() {
+        int cap = properties.getViewport().getMaxResults();
+        // Every cell is full and its rows all lie outside the viewport
+        List<GemMarkerRow> full = IntStream.range(0, cap)
+            .mapToObj(i -> row(4.0, 10.3, 123.925)).toList();
+        when(gemMarkerRepository.findInBoundingBox(any(), anyInt())).thenReturn(full);
+
+        assertThat(cache.findInViewport(DOWNTOWN, 10)).isEmpty();
+    }
+
+    private static GemMarkerRow row(double rating) {
+        return row(rating, 10.3, 123.9);
+    }
+
+    private static GemMarkerRow row(double rating, double latitude, double longitude) {
+        return new GemMarkerRow(UUID.randomUUID(), latitude, longitude, "Gem", BigDecimal.valueOf(rating), 0,
+            null, "open", null);
+    }
+}
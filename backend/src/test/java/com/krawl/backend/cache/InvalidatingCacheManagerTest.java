@@ -0,0 +1,107 @@
+package com.krawl.backend.cache;
+
+import com.krawl.backend.config.properties.LocalCacheProperties;
+import com.krawl.backend.repository.CacheInvalidationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+class InvalidatingCacheManagerTest {
+
+    private final CacheInvalidationBus bus = new CacheInvalidationBus(new LocalCacheProperties(),
+        mock(CacheInvalidationRepository.class), mock(PlatformTransactionManager.class), mock(DataSource.class));
+    private final InvalidatingCacheManager cacheManager =
+        new InvalidatingCacheManager(new ConcurrentMapCacheManager("users", "tags"), bus);
+
+    @Test
+    void payloads_roundTripUuidAndStringKeys_andCacheClears() {
+        UUID userId = UUID.randomUUID();
+
+        assertThat(CacheInvalidationBus.decode(CacheInvalidationBus.encode("node", "users", userId)))
+            .isEqualTo(new CacheInvalidationBus.Message("node", new CacheInvalidationBus.Invalidation("users", userId)));
+        assertThat(CacheInvalidationBus.decode(CacheInvalidationBus.encode("node", "users", "email:a\tb@example.com")))
+            .isEqualTo(new CacheInvalidationBus.Message("node",
+                new CacheInvalidationBus.Invalidation("users", "email:a\tb@example.com")));
+        assertThat(CacheInvalidationBus.decode(CacheInvalidationBus.encode("node", "tags", null)).invalidation())
+            .isEqualTo(new CacheInvalidationBus.Invalidation("tags", null));
+    }
+
+    @Test
+    void keysThatCannotBeSent_becomeCacheClears() {
+        String longKey = "username:" + "x".repeat(CacheInvalidationBus.MAX_PAYLOAD_BYTES);
+
+        assertThat(CacheInvalidationBus.decode(CacheInvalidationBus.encode("node", "users", longKey)).invalidation().key())
+            .isNull();
+        assertThat(CacheInvalidationBus.decode(CacheInvalidationBus.encode("node", "tags", 42L)).invalidation().key())
+            .isNull();
+        assertThat(CacheInvalidationBus.decode("garbage")).isNull();
+    }
+
+    @Test
+    void remoteKeyEviction_evictsOnlyThatKey() {
+        UUID userId = UUID.randomUUID();
+        Cache users = cacheManager.getCache("users");
+        users.put(userId, "profile");
+        users.put("username:other", "profile");
+
+        bus.receive(CacheInvalidationBus.encode("other-node", "users", userId));
+
+        assertThat(users.get(userId)).isNull();
+        assertThat(users.get("username:other")).isNotNull();
+    }
+
+    @Test
+    void ownInvalidations_areNotAppliedTwice() {
+        Cache users = cacheManager.getCache("users");
+        users.put("username:mine", "profile");
+
+        bus.receive(CacheInvalidationBus.encode(bus.origin(), "users", "username:mine"));
+
+        assertThat(users.get("username:mine")).isNotNull();
+    }
+
+    @Test
+    void resubscribe_clearsEveryCache() {
+        cacheManager.getCache("users").put("username:someone", "profile");
+        cacheManager.getCache("tags").put("food", "tag");
+
+        cacheManager.apply(new CacheInvalidationBus.Invalidation(CacheInvalidationBus.ALL_CACHES, null));
+
+        assertThat(cacheManager.getCache("users").get("username:someone")).isNull();
+        assertThat(cacheManager.getCache("tags").get("food")).isNull();
+    }
+
+    @Test
+    void unknownCaches_areIgnored() {
+        bus.receive(CacheInvalidationBus.encode("other-node", "removedCache", "key"));
+
+        assertThat(cacheManager.getCache("removedCache")).isNull();
+    }
+
+    @Test
+    void localCacheEvictions_areNotBroadcast() {
+        CacheInvalidationBus mockBus = mock(CacheInvalidationBus.class);
+        Cache users = new InvalidatingCacheManager(new ConcurrentMapCacheManager("users"), mockBus).getCache("users");
+        users.put("username:polled", "profile");
+        users.put("username:edited", "profile");
+
+        InvalidatingCacheManager.localCache(users).evict("username:polled");
+        InvalidatingCacheManager.localCache(users).clear();
+        users.evict("username:edited");
+
+        assertThat(users.get("username:polled")).isNull();
+        verify(mockBus).onInvalidation(any());
+        verify(mockBus).publish("users", "username:edited");
+        verifyNoMoreInteractions(mockBus);
+    }
+}
@@ -0,0 +1,107 @@
+package com.krawl.backend.config;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.krawl.backend.cache.CacheReloader;
+import com.krawl.backend.config.properties.LocalCacheProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CacheConfigTest {
+
+    @Test
+    void caches_areBoundedBySize_andRecordStats() {
+        CacheManager manager = CacheConfig.caffeineCacheManager(properties("users", spec(2L, null)), List.of());
+        Cache users = manager.getCache("users");
+
+        for (int i = 0; i < 50; i++) {
+            users.put("key-" + i, i);
+        }
+        users.get("key-49");
+        users.get("missing");
+
+        var nativeCache = ((CaffeineCache) users).getNativeCache();
+        nativeCache.cleanUp();
+        CacheStats stats = nativeCache.stats();
+        assertThat(nativeCache.estimatedSize()).isLessThanOrEqualTo(2);
+        assertThat(stats.evictionCount()).isGreaterThanOrEqualTo(48);
+        assertThat(stats.hitCount() + stats.missCount()).isEqualTo(2);
+    }
+
+    @Test
+    void weightBound_countsCollectionElements() {
+        CacheManager manager = CacheConfig.caffeineCacheManager(properties("trending", spec(null, 10L)), List.of());
+        Cache trending = manager.getCache("trending");
+
+        trending.put("krawls", List.of(1, 2, 3, 4, 5, 6, 7, 8));
+        trending.put("gems", List.of(1, 2, 3, 4, 5, 6, 7, 8));
+        ((CaffeineCache) trending).getNativeCache().cleanUp();
+
+        assertThat(((CaffeineCache) trending).getNativeCache().estimatedSize()).isEqualTo(1);
+    }
+
+    @Test
+    void unconfiguredCacheNames_haveNoCache() {
+        CacheManager manager = CacheConfig.caffeineCacheManager(properties("users", spec(10L, null)), List.of());
+
+        assertThat(manager.getCache("somethingElse")).isNull();
+        assertThat(manager.getCacheNames()).containsExactly("users");
+    }
+
+    @Test
+    void unboundedOrUnreloadableSpecs_failAtStartup() {
+        assertThatThrownBy(() -> CacheConfig.caffeineCacheManager(properties("users", spec(null, null)), List.of()))
+            .hasMessageContaining("maximum-size");
+
+        LocalCacheProperties.Spec refreshing = spec(10L, null);
+        refreshing.setRefreshAfterWrite(Duration.ofMinutes(5));
+        assertThatThrownBy(() -> CacheConfig.caffeineCacheManager(properties("users", refreshing), List.of()))
+            .hasMessageContaining("CacheReloader");
+    }
+
+    @Test
+    void reloadableCaches_loadMissesThroughTheReloader() {
+        AtomicInteger loads = new AtomicInteger();
+        CacheReloader reloader = new CacheReloader() {
+            @Override
+            public String cacheName() {
+                return "users";
+            }
+
+            @Override
+            public Object reload(Object key) {
+                loads.incrementAndGet();
+                return "known".equals(key) ? "value" : null;
+            }
+        };
+        LocalCacheProperties.Spec refreshing = spec(10L, null);
+        refreshing.setRefreshAfterWrite(Duration.ofMinutes(5));
+        Cache users = CacheConfig.caffeineCacheManager(properties("users", refreshing), List.of(reloader)).getCache("users");
+
+        assertThat(users.get("known", String.class)).isEqualTo("value");
+        assertThat(users.get("known", String.class)).isEqualTo("value");
+        assertThat(users.get("unknown")).isNull();
+        assertThat(loads).hasValue(2);
+    }
+
+    private static LocalCacheProperties properties(String name, LocalCacheProperties.Spec spec) {
+        LocalCacheProperties properties = new LocalCacheProperties();
+        properties.getCaches().put(name, spec);
+        return properties;
+    }
+
+    private static LocalCacheProperties.Spec spec(Long maximumSize, Long maximumWeight) {
+        LocalCacheProperties.Spec spec = new LocalCacheProperties.Spec();
+        spec.setMaximumSize(maximumSize);
+        spec.setMaximumWeight(maximumWeight);
+        return spec;
+    }
+}
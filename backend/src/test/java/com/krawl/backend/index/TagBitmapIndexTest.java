@@ -0,0 +1,90 @@
+package com.krawl.backend.index;
+
+import com.krawl.backend.config.properties.TagIndexProperties;
+import com.krawl.backend.event.GemChangedEvent;
+import com.krawl.backend.event.TagChangedEvent;
+import com.krawl.backend.repository.GemTagIndexRepository;
+import com.krawl.backend.repository.projection.GemTagIndexRow;
+import com.krawl.backend.util.BoundingBox;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TagBitmapIndexTest {
+
+    private static final int FOOD = 1;
+    private static final int BUDGET = 2;
+    private static final int VIEW = 3;
+    private static final BoundingBox CEBU = BoundingBox.of(123.85, 10.25, 123.95, 10.35);
+
+    private final UUID lechon = UUID.randomUUID();
+    private final UUID taho = UUID.randomUUID();
+    private final UUID temple = UUID.randomUUID();
+    private final UUID manilaEatery = UUID.randomUUID();
+
+    private GemTagIndexRepository repository;
+    private TagBitmapIndex index;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(GemTagIndexRepository.class);
+        doAnswer(invocation -> {
+            Consumer<GemTagIndexRow> consumer = invocation.getArgument(0);
+            consumer.accept(new GemTagIndexRow(lechon, 10.30, 123.90, 4.8f, new int[]{FOOD}));
+            consumer.accept(new GemTagIndexRow(taho, 10.31, 123.91, 4.2f, new int[]{FOOD, BUDGET}));
+            consumer.accept(new GemTagIndexRow(temple, 10.32, 123.89, 4.9f, new int[]{VIEW}));
+            consumer.accept(new GemTagIndexRow(manilaEatery, 14.60, 121.00, 5.0f, new int[]{FOOD, BUDGET}));
+            return null;
+        }).when(repository).streamIndexRows(any(Consumer.class));
+
+        index = new TagBitmapIndex(repository, new TagIndexProperties());
+        index.rebuild();
+    }
+
+    @Test
+    void and_filtersToGemsCarryingEveryTag_insideTheViewport() {
+        assertThat(index.find(CEBU, Set.of(FOOD, BUDGET), Set.of(), 10)).containsExactly(taho);
+    }
+
+    @Test
+    void or_unionsTags_andRanksByRating() {
+        assertThat(index.find(CEBU, Set.of(), Set.of(FOOD, VIEW), 10)).containsExactly(temple, lechon, taho);
+        assertThat(index.find(CEBU, Set.of(), Set.of(FOOD, VIEW), 2)).containsExactly(temple, lechon);
+    }
+
+    @Test
+    void unknownRequiredTag_matchesNothing() {
+        assertThat(index.find(CEBU, Set.of(FOOD, 99), Set.of(), 10)).isEmpty();
+    }
+
+    @Test
+    void gemChange_isAppliedIncrementally() {
+        when(repository.findIndexRow(lechon))
+            .thenReturn(Optional.of(new GemTagIndexRow(lechon, 10.30, 123.90, 4.8f, new int[]{FOOD, BUDGET})));
+        when(repository.findIndexRow(taho)).thenReturn(Optional.empty());
+
+        index.onGemChanged(new GemChangedEvent(lechon, GemChangedEvent.Type.UPDATED, null, null));
+        index.onGemChanged(new GemChangedEvent(taho, GemChangedEvent.Type.DELETED, null, null));
+
+        assertThat(index.find(CEBU, Set.of(FOOD, BUDGET), Set.of(), 10)).containsExactly(lechon);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void deletedTag_dropsItsBitmap() {
+        index.onTagChanged(new TagChangedEvent(VIEW, TagChangedEvent.Type.DELETED));
+
+        assertThat(index.find(CEBU, Set.of(), Set.of(VIEW), 10)).isEmpty();
+        assertThat(index.find(CEBU, Set.of(), Set.of(FOOD), 10)).isEqualTo(List.of(lechon, taho));
+    }
+}
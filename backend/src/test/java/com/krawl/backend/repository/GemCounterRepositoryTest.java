@@ -0,0 +1,138 @@
+package com.krawl.backend.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks vouch claiming (V20) and the counter side table (V21) against a Flyway-migrated PostGIS database, inside one transaction
+ * that is rolled back. See GemViewportQueryExplainTest for the KRAWL_PERF_DB_* variables; skipped
+ * otherwise.
+ */
+@EnabledIfEnvironmentVariable(named = "KRAWL_PERF_DB_URL", matches = ".+")
+class GemCounterRepositoryTest {
+
+    private Connection connection;
+    private Statement statement;
+    private GemCounterRepository repository;
+
+    @BeforeEach
+    void connect() throws SQLException {
+        connection = DriverManager.getConnection(
+            System.getenv("KRAWL_PERF_DB_URL"),
+            System.getenv("KRAWL_PERF_DB_USER"),
+            System.getenv("KRAWL_PERF_DB_PASSWORD"));
+        connection.setAutoCommit(false);
+        statement = connection.createStatement();
+        repository = new GemCounterRepository(new NamedParameterJdbcTemplate(new SingleConnectionDataSource(connection, true)));
+    }
+
+    @AfterEach
+    void rollback() throws SQLException {
+        connection.rollback();
+        connection.close();
+    }
+
+    @Test
+    void vouchesAreClaimedOnce_andOnlyCountedOnesAreSubtractedOnDelete() throws SQLException {
+        UUID gemId = insertGem();
+        UUID first = insertUser();
+        UUID second = insertUser();
+        UUID late = insertUser();
+        insertVouch(gemId, first);
+        insertVouch(gemId, second);
+
+        long claimed = repository.claimUncountedVouches(1_000).get(gemId);
+        repository.applyDeltas(List.of(new GemCounterRepository.Delta(gemId, claimed, 0)));
+
+        assertThat(claimed).isEqualTo(2);
+        assertThat(repository.claimUncountedVouches(1_000)).doesNotContainKey(gemId);
+        assertThat(vouchCount(gemId)).isEqualTo(2);
+
+        // An uncounted vouch was never added, so deleting it must not subtract
+        insertVouch(gemId, late);
+        statement.execute("DELETE FROM gem_vouches WHERE gem_id = '%s' AND user_id IN ('%s', '%s')"
+            .formatted(gemId, first, late));
+
+        assertThat(vouchCount(gemId)).isEqualTo(1);
+        assertThat(repository.claimUncountedVouches(1_000)).doesNotContainKey(gemId);
+    }
+
+    @Test
+    void flushedCounters_doNotTouchTheGemsUpdatedAt() throws SQLException {
+        UUID gemId = insertGem();
+        // Everything here shares one CURRENT_TIMESTAMP, so backdate the gem to see a stamp
+        statement.execute("ALTER TABLE gems DISABLE TRIGGER update_gems_updated_at");
+        statement.execute("UPDATE gems SET updated_at = TIMESTAMPTZ '2025-01-01 00:00Z' WHERE gem_id = '%s'".formatted(gemId));
+        statement.execute("ALTER TABLE gems ENABLE TRIGGER update_gems_updated_at");
+        OffsetDateTime backdated = updatedAt(gemId);
+
+        repository.applyDeltas(List.of(new GemCounterRepository.Delta(gemId, 2, 5)));
+        repository.applyDeltas(List.of(new GemCounterRepository.Delta(gemId, 0, 1)));
+
+        assertThat(updatedAt(gemId)).isEqualTo(backdated);
+        assertThat(vouchCount(gemId)).isEqualTo(2);
+        try (ResultSet rs = statement.executeQuery(
+                "SELECT view_count FROM gem_counters WHERE gem_id = '%s'".formatted(gemId))) {
+            rs.next();
+            assertThat(rs.getLong(1)).isEqualTo(6);
+        }
+
+        statement.execute("UPDATE gems SET name = 'Renamed' WHERE gem_id = '%s'".formatted(gemId));
+        assertThat(updatedAt(gemId)).isAfter(backdated);
+    }
+
+    private UUID insertGem() throws SQLException {
+        return queryUuid("""
+            INSERT INTO gems (name, location)
+            VALUES ('Counter gem', ST_SetSRID(ST_MakePoint(121.0, 14.55), 4326)::geography) RETURNING gem_id
+            """);
+    }
+
+    private OffsetDateTime updatedAt(UUID gemId) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SELECT updated_at FROM gems WHERE gem_id = '%s'".formatted(gemId))) {
+            rs.next();
+            return rs.getObject(1, OffsetDateTime.class);
+        }
+    }
+
+    private UUID insertUser() throws SQLException {
+        String username = "counter_" + UUID.randomUUID().toString().substring(0, 8);
+        return queryUuid("""
+            INSERT INTO users (username, email, password_hash)
+            VALUES ('%1$s', '%1$s@example.com', 'x') RETURNING user_id
+            """.formatted(username));
+    }
+
+    private void insertVouch(UUID gemId, UUID userId) throws SQLException {
+        statement.execute("INSERT INTO gem_vouches (gem_id, user_id) VALUES ('%s', '%s')".formatted(gemId, userId));
+    }
+
+    private int vouchCount(UUID gemId) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SELECT vouch_count FROM gems WHERE gem_id = '%s'".formatted(gemId))) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private UUID queryUuid(String sql) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getObject(1, UUID.class);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.krawl.backend.repository;
+
+import com.krawl.backend.config.properties.GemSearchProperties;
+import com.krawl.backend.repository.projection.GemSearchRow;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plan and latency check for {@link GemSearchRepository} against a local PostGIS database.
+ *
+ * <p>Same setup as {@link GemViewportQueryExplainTest}: point KRAWL_PERF_DB_URL at a Flyway-migrated
+ * database. The gems table is topped up to 1M rows, including a block of food/place names so queries
+ * are realistically selective. Skipped otherwise.</p>
+ */
+@EnabledIfEnvironmentVariable(named = "KRAWL_PERF_DB_URL", matches = ".+")
+class GemSearchQueryPerformanceTest {
+
+    private static final int TARGET_ROWS = 1_000_000;
+    private static final int NAMED_ROWS = 100_000;
+    private static final double BUDGET_MS = 30;
+    // A common term still ranks every match by ts_rank_cd to pick the candidates
+    private static final double COMMON_TERM_BUDGET_MS = 150;
+    private static final Pattern EXECUTION_TIME = Pattern.compile("Execution Time: ([0-9.]+) ms");
+
+    private static NamedParameterJdbcTemplate jdbc;
+    private static GemSearchRepository repository;
+
+    @BeforeAll
+    static void seed() {
+        var dataSource = new DriverManagerDataSource(
+            System.getenv("KRAWL_PERF_DB_URL"),
+            System.getenv("KRAWL_PERF_DB_USER"),
+            System.getenv("KRAWL_PERF_DB_PASSWORD")
+        );
+        jdbc = new NamedParameterJdbcTemplate(dataSource);
+        repository = new GemSearchRepository(jdbc, new GemSearchProperties());
+
+        var none = new MapSqlParameterSource();
+        Long named = jdbc.queryForObject("SELECT count(*) FROM gems WHERE name LIKE 'Perf %'", none, Long.class);
+        if (named == null || named < NAMED_ROWS) {
+            jdbc.update("""
+                INSERT INTO gems (name, description, location, approval_status, average_rating, vouch_count)
+                SELECT 'Perf ' || (ARRAY['Lechon','Sisig','Taho','Halo-halo','Kare-kare','Adobo','Bibingka','Puto',
+                                         'Ensaymada','Kwek-kwek'])[1 + i % 10]
+                              || ' ' || (ARRAY['House','Corner','Stand','Kitchen','Carinderia','Hub','Garden','Market'])[1 + (i / 10) % 8]
+                              || ' ' || i,
+                       'Local favourite near the ' || (ARRAY['church','plaza','port','university'])[1 + i % 4],
+                       ST_SetSRID(ST_MakePoint(120.90 + random() * 0.30, 14.40 + random() * 0.40), 4326)::geography,
+                       'approved',
+                       round((random() * 5)::numeric, 2),
+                       (random() * 50)::int
+                FROM generate_series(1, :rows) AS i
+                """, new MapSqlParameterSource("rows", NAMED_ROWS - (named == null ? 0 : named)));
+        }
+        Long total = jdbc.queryForObject("SELECT count(*) FROM gems", none, Long.class);
+        if (total != null && total < TARGET_ROWS) {
+            jdbc.update("""
+                INSERT INTO gems (name, location, approval_status, average_rating, vouch_count)
+                SELECT 'Synthetic gem ' || i,
+                       ST_SetSRID(ST_MakePoint(120.90 + random() * 0.30, 14.40 + random() * 0.40), 4326)::geography,
+                       CASE WHEN i % 10 = 0 THEN 'pending' ELSE 'approved' END,
+                       round((random() * 5)::numeric, 2),
+                       (random() * 50)::int
+                FROM generate_series(1, :rows) AS i
+                """, new MapSqlParameterSource("rows", TARGET_ROWS - total));
+        }
+        jdbc.update("ANALYZE gems", none);
+    }
+
+    @Test
+    void phraseSearch_withLocation_usesTextIndex_withinBudget() {
+        String plan = explain("sisig corner", 14.58, 121.0);
+
+        assertThat(plan).contains("idx_gems_search_vector_visible");
+        assertThat(plan).doesNotContain("Seq Scan on gems");
+        assertThat(executionMillis(plan)).isLessThan(BUDGET_MS);
+    }
+
+    @Test
+    void commonTerm_onlyScoresTheCappedTextCandidates_withinBudget() {
+        // "perf" is in every seeded food/place name
+        List<GemSearchRow> rows = repository.search("perf", 14.58, 121.0, null, null, null, 20);
+        String plan = explain("perf", 14.58, 121.0);
+
+        assertThat(rows).hasSize(20);
+        assertThat(plan).contains("idx_gems_search_vector_visible");
+        assertThat(plan).doesNotContain("Seq Scan on gems");
+        assertThat(executionMillis(plan)).isLessThan(COMMON_TERM_BUDGET_MS);
+    }
+
+    @Test
+    void typo_isMatchedThroughTrigramIndex_withinBudget() {
+        List<GemSearchRow> rows = repository.search("Ensaymda Kitchen", null, null, null, null, null, 20);
+        String plan = explain("Ensaymda Kitchen", null, null);
+
+        assertThat(rows).isNotEmpty();
+        assertThat(rows.getFirst().name()).contains("Ensaymada");
+        assertThat(plan).contains("idx_gems_name_trgm_visible");
+        assertThat(executionMillis(plan)).isLessThan(BUDGET_MS);
+    }
+
+    @Test
+    void cursorPages_doNotOverlap() {
+        List<GemSearchRow> first = repository.search("adobo", 14.6, 121.0, null, null, null, 10);
+        var last = first.getLast();
+        List<GemSearchRow> second = repository.search("adobo", 14.6, 121.0, null, last.score(), last.gemId(), 10);
+
+        assertThat(second).isNotEmpty();
+        assertThat(second.getFirst().score()).isLessThanOrEqualTo(last.score());
+        assertThat(second).extracting(GemSearchRow::gemId)
+            .doesNotContainAnyElementsOf(first.stream().map(GemSearchRow::gemId).toList());
+    }
+
+    private static String explain(String query, Double lat, Double lng) {
+        var settings = new GemSearchProperties();
+        var params = new MapSqlParameterSource()
+            .addValue("q", query)
+            .addValue("textCandidates", settings.getTextCandidates())
+            .addValue("fuzzyCandidates", settings.getFuzzyCandidates())
+            .addValue("minSimilarity", settings.getMinSimilarity())
+            .addValue("textWeight", settings.getTextWeight())
+            .addValue("ratingWeight", settings.getRatingWeight())
+            .addValue("vouchWeight", settings.getVouchWeight())
+            .addValue("limit", 21);
+        if (lat != null) {
+            params.addValue("lat", lat)
+                .addValue("lng", lng)
+                .addValue("distanceWeight", settings.getDistanceWeight())
+                .addValue("distanceHalf", settings.getDistanceHalfMeters());
+        }
+        // Warm the buffers so the check measures the plan, not a cold disk
+        String sql = GemSearchRepository.searchSql(lat != null, false, false);
+        jdbc.queryForList(sql, params);
+        return String.join("\n", jdbc.queryForList("EXPLAIN (ANALYZE, BUFFERS) " + sql, params, String.class));
+    }
+
+    private static double executionMillis(String plan) {
+        Matcher matcher = EXECUTION_TIME.matcher(plan);
+        assertThat(matcher.find()).as("EXPLAIN output has an execution time").isTrue();
+        return Double.parseDouble(matcher.group(1));
+    }
+}
@@ -0,0 +1,98 @@
+package com.krawl.backend.repository;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plan check for {@link GemMarkerRepository#VIEWPORT_SQL} against a local PostGIS database.
+ *
+ * <p>Point KRAWL_PERF_DB_URL (plus KRAWL_PERF_DB_USER / KRAWL_PERF_DB_PASSWORD) at a
+ * database that has been migrated by Flyway. The test tops the gems table up to 1M
+ * synthetic rows around Metro Manila before running EXPLAIN ANALYZE. Skipped otherwise.</p>
+ */
+@EnabledIfEnvironmentVariable(named = "KRAWL_PERF_DB_URL", matches = ".+")
+class GemViewportQueryExplainTest {
+
+    private static final int TARGET_ROWS = 1_000_000;
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(
+            System.getenv("KRAWL_PERF_DB_URL"),
+            System.getenv("KRAWL_PERF_DB_USER"),
+            System.getenv("KRAWL_PERF_DB_PASSWORD")
+        );
+    }
+
+    @BeforeAll
+    static void seedSyntheticGems() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            long existing;
+            try (ResultSet rs = statement.executeQuery("SELECT count(*) FROM gems")) {
+                rs.next();
+                existing = rs.getLong(1);
+            }
+            if (existing < TARGET_ROWS) {
+                statement.execute("""
+                    INSERT INTO gems (name, location, approval_status, average_rating, vouch_count, created_at)
+                    SELECT 'Synthetic gem ' || i,
+                           ST_SetSRID(ST_MakePoint(120.90 + random() * 0.30, 14.40 + random() * 0.40), 4326)::geography,
+                           CASE WHEN i % 10 = 0 THEN 'pending' ELSE 'approved' END,
+                           round((random() * 5)::numeric, 2),
+                           (random() * 50)::int,
+                           now() - (random() * interval '365 days')
+                    FROM generate_series(1, %d) AS i
+                    """.formatted(TARGET_ROWS - existing));
+            }
+            statement.execute("ANALYZE gems");
+        }
+    }
+
+    @Test
+    void viewportQuery_usesPartialGistIndex_insteadOfSeqScan() throws SQLException {
+        List<String> plan = explain(121.01, 14.55, 121.03, 14.57, 500);
+
+        String joined = String.join("\n", plan);
+        assertThat(joined).contains("idx_gems_location_geom_visible");
+        assertThat(joined).doesNotContain("Seq Scan on gems");
+        assertThat(joined).contains("Limit");
+    }
+
+    @Test
+    void cityWideViewport_stillHonoursHardCap() throws SQLException {
+        List<String> plan = explain(120.90, 14.40, 121.20, 14.80, 500);
+
+        String limitLine = plan.stream().filter(line -> line.contains("Limit")).findFirst().orElseThrow();
+        assertThat(limitLine).contains("rows=500");
+    }
+
+    private List<String> explain(double minLng, double minLat, double maxLng, double maxLat, int limit)
+            throws SQLException {
+        String sql = GemMarkerRepository.VIEWPORT_SQL
+            .replace(":minLng", Double.toString(minLng))
+            .replace(":minLat", Double.toString(minLat))
+            .replace(":maxLng", Double.toString(maxLng))
+            .replace(":maxLat", Double.toString(maxLat))
+            .replace(":limit", Integer.toString(limit));
+
+        List<String> lines = new ArrayList<>();
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXPLAIN (ANALYZE, BUFFERS) " + sql)) {
+            while (rs.next()) {
+                lines.add(rs.getString(1));
+            }
+        }
+        return lines;
+    }
+}
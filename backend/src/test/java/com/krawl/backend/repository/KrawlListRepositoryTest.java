@@ -0,0 +1,83 @@
+package com.krawl.backend.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the krawl detail cache's change query against a Flyway-migrated PostGIS database, inside
+ * one transaction that is rolled back. See GemViewportQueryExplainTest for the KRAWL_PERF_DB_*
+ * variables; skipped otherwise.
+ */
+@EnabledIfEnvironmentVariable(named = "KRAWL_PERF_DB_URL", matches = ".+")
+class KrawlListRepositoryTest {
+
+    private Connection connection;
+    private Statement statement;
+    private KrawlListRepository repository;
+    private OffsetDateTime now;
+
+    @BeforeEach
+    void connect() throws SQLException {
+        connection = DriverManager.getConnection(
+            System.getenv("KRAWL_PERF_DB_URL"),
+            System.getenv("KRAWL_PERF_DB_USER"),
+            System.getenv("KRAWL_PERF_DB_PASSWORD"));
+        connection.setAutoCommit(false);
+        statement = connection.createStatement();
+        repository = new KrawlListRepository(new NamedParameterJdbcTemplate(new SingleConnectionDataSource(connection, true)));
+        try (ResultSet rs = statement.executeQuery("SELECT CURRENT_TIMESTAMP")) {
+            rs.next();
+            now = rs.getObject(1, OffsetDateTime.class);
+        }
+    }
+
+    @AfterEach
+    void rollback() throws SQLException {
+        connection.rollback();
+        connection.close();
+    }
+
+    @Test
+    void krawlWhoseGemChanged_isReportedAsChanged() throws SQLException {
+        String username = "krawl_list_" + UUID.randomUUID().toString().substring(0, 8);
+        UUID creator = queryUuid("""
+            INSERT INTO users (username, email, password_hash)
+            VALUES ('%1$s', '%1$s@example.com', 'x') RETURNING user_id
+            """.formatted(username));
+        UUID gem = queryUuid("""
+            INSERT INTO gems (name, location)
+            VALUES ('Renamed gem', ST_SetSRID(ST_MakePoint(121.0, 14.55), 4326)::geography) RETURNING gem_id
+            """);
+        UUID krawl = queryUuid("INSERT INTO krawls (title, creator_id, visibility) VALUES ('Gem change', '%s', 'public') RETURNING krawl_id"
+            .formatted(creator));
+        statement.execute("INSERT INTO krawl_items (krawl_id, gem_id, step_order) VALUES ('%s', '%s', 1)".formatted(krawl, gem));
+        // Leave only the gem stamped inside the window
+        statement.execute("ALTER TABLE krawls DISABLE TRIGGER USER");
+        statement.execute("UPDATE krawls SET updated_at = CURRENT_TIMESTAMP - INTERVAL '1 day' WHERE krawl_id = '%s'".formatted(krawl));
+        statement.execute("ALTER TABLE krawls ENABLE TRIGGER USER");
+
+        assertThat(repository.findChangedKrawlIds(now, now.plusDays(1))).contains(krawl);
+        assertThat(repository.findChangedKrawlIds(now.minusDays(2), now.minusHours(1))).contains(krawl);
+    }
+
+    private UUID queryUuid(String sql) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getObject(1, UUID.class);
+        }
+    }
+}
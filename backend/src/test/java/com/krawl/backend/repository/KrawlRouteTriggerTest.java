@@ -0,0 +1,106 @@
+package com.krawl.backend.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Checks the krawl_routes triggers (V11) against a Flyway-migrated PostGIS database.
+ * Runs inside one transaction that is rolled back, so nothing is left behind.
+ * See GemViewportQueryExplainTest for the KRAWL_PERF_DB_* variables; skipped otherwise.
+ */
+@EnabledIfEnvironmentVariable(named = "KRAWL_PERF_DB_URL", matches = ".+")
+class KrawlRouteTriggerTest {
+
+    @Test
+    void routeFollowsItemInsertsReordersAndGemMoves() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(
+                System.getenv("KRAWL_PERF_DB_URL"),
+                System.getenv("KRAWL_PERF_DB_USER"),
+                System.getenv("KRAWL_PERF_DB_PASSWORD"))) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                String suffix = UUID.randomUUID().toString().substring(0, 8);
+                UUID userId = queryUuid(statement, """
+                    INSERT INTO users (username, email, password_hash)
+                    VALUES ('route_%1$s', 'route_%1$s@example.com', 'x') RETURNING user_id
+                    """.formatted(suffix));
+                UUID krawlId = queryUuid(statement,
+                    "INSERT INTO krawls (title, creator_id) VALUES ('Route test', '%s') RETURNING krawl_id".formatted(userId));
+                // Three gems 0.01 degrees of longitude apart (~1.08 km at this latitude)
+                UUID a = insertGem(statement, 121.00);
+                UUID b = insertGem(statement, 121.02);
+                UUID c = insertGem(statement, 121.01);
+
+                statement.execute("""
+                    INSERT INTO krawl_items (krawl_id, gem_id, step_order)
+                    VALUES ('%1$s', '%2$s', 1), ('%1$s', '%3$s', 2), ('%1$s', '%4$s', 3)
+                    """.formatted(krawlId, a, b, c));
+                double zigZag = totalMeters(connection, krawlId);
+
+                // Swap the last two stops in one statement: the route straightens
+                statement.execute("""
+                    UPDATE krawl_items SET step_order = CASE step_order WHEN 2 THEN 3 ELSE 2 END
+                    WHERE krawl_id = '%s' AND step_order IN (2, 3)
+                    """.formatted(krawlId));
+                double straight = totalMeters(connection, krawlId);
+                assertThat(straight).isCloseTo(zigZag * 2 / 3, within(5.0));
+
+                // Moving a gem refreshes every krawl that visits it
+                statement.execute(
+                    "UPDATE gems SET location = ST_SetSRID(ST_MakePoint(121.03, 14.55), 4326)::geography WHERE gem_id = '%s'"
+                        .formatted(b));
+                assertThat(totalMeters(connection, krawlId)).isGreaterThan(straight);
+
+                try (ResultSet rs = statement.executeQuery("""
+                        SELECT stop_count, cardinality(leg_meters), ST_NPoints(path),
+                               ST_Intersects(bbox, ST_MakeEnvelope(121.025, 14.54, 121.035, 14.56, 4326))
+                        FROM krawl_routes WHERE krawl_id = '%s'
+                        """.formatted(krawlId))) {
+                    assertThat(rs.next()).isTrue();
+                    assertThat(rs.getInt(1)).isEqualTo(3);
+                    assertThat(rs.getInt(2)).isEqualTo(2);
+                    assertThat(rs.getInt(3)).isEqualTo(3);
+                    assertThat(rs.getBoolean(4)).isTrue();
+                }
+            } finally {
+                connection.rollback();
+            }
+        }
+    }
+
+    private static UUID insertGem(Statement statement, double lng) throws SQLException {
+        return queryUuid(statement, """
+            INSERT INTO gems (name, location)
+            VALUES ('Route gem', ST_SetSRID(ST_MakePoint(%s, 14.55), 4326)::geography) RETURNING gem_id
+            """.formatted(lng));
+    }
+
+    private static UUID queryUuid(Statement statement, String sql) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getObject(1, UUID.class);
+        }
+    }
+
+    private static double totalMeters(Connection connection, UUID krawlId) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT total_meters FROM krawl_routes WHERE krawl_id = ?")) {
+            select.setObject(1, krawlId);
+            try (ResultSet rs = select.executeQuery()) {
+                assertThat(rs.next()).isTrue();
+                return rs.getDouble(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.krawl.backend.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load check for the incremental rating triggers (V15): a rating on a gem that already has
+ * 100k ratings must cost about the same as one on a gem with none, and the running sums must
+ * match a full recount afterwards. Runs in one rolled-back transaction.
+ * See GemViewportQueryExplainTest for the KRAWL_PERF_DB_* variables; skipped otherwise.
+ */
+@EnabledIfEnvironmentVariable(named = "KRAWL_PERF_DB_URL", matches = ".+")
+class RatingAggregateLoadTest {
+
+    private static final int EXISTING_RATINGS = 100_000;
+    private static final int TIMED_WRITES = 500;
+
+    @Test
+    void ratingWriteCost_doesNotGrowWithRatingCount() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(
+                System.getenv("KRAWL_PERF_DB_URL"),
+                System.getenv("KRAWL_PERF_DB_USER"),
+                System.getenv("KRAWL_PERF_DB_PASSWORD"))) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                String suffix = UUID.randomUUID().toString().substring(0, 8);
+                UUID popular = insertGem(statement);
+                UUID fresh = insertGem(statement);
+
+                // Raters: enough for the seed plus one timed write per gem each
+                statement.execute("""
+                    INSERT INTO users (username, email, password_hash)
+                    SELECT 'load_%1$s_' || i, 'load_%1$s_' || i || '@example.com', 'x'
+                    FROM generate_series(1, %2$d) AS i
+                    """.formatted(suffix, EXISTING_RATINGS + TIMED_WRITES));
+                statement.execute("""
+                    INSERT INTO gem_ratings (gem_id, user_id, rating)
+                    SELECT '%s', user_id, 1 + (random() * 4)::int
+                    FROM users WHERE username LIKE 'load_%s_%%'
+                    ORDER BY username
+                    LIMIT %d
+                    """.formatted(popular, suffix, EXISTING_RATINGS));
+                statement.execute("ANALYZE gem_ratings");
+
+                UUID[] raters = timedRaters(statement, suffix, popular);
+                long freshNanos = medianWriteNanos(connection, fresh, raters);
+                long popularNanos = medianWriteNanos(connection, popular, raters);
+                // The old AVG/COUNT triggers scanned all 100k ratings per write, dozens of times slower
+                assertThat(popularNanos)
+                    .as("median rating write: %d us on a new gem, %d us at %d ratings",
+                        freshNanos / 1000, popularNanos / 1000, EXISTING_RATINGS)
+                    .isLessThan(freshNanos * 3 + 200_000);
+
+                try (ResultSet rs = statement.executeQuery("""
+                        SELECT g.rating_sum = s.rating_sum, g.rating_count = s.rating_count,
+                               g.average_rating = ROUND(s.rating_sum::NUMERIC / s.rating_count, 2), g.rating_count
+                        FROM gems g
+                        JOIN (SELECT gem_id, SUM(rating) AS rating_sum, COUNT(*) AS rating_count
+                              FROM gem_ratings WHERE gem_id = '%1$s' GROUP BY gem_id) s ON s.gem_id = g.gem_id
+                        """.formatted(popular))) {
+                    assertThat(rs.next()).isTrue();
+                    assertThat(rs.getBoolean(1)).isTrue();
+                    assertThat(rs.getBoolean(2)).isTrue();
+                    assertThat(rs.getBoolean(3)).isTrue();
+                    assertThat(rs.getInt(4)).isEqualTo(EXISTING_RATINGS + TIMED_WRITES);
+                }
+            } finally {
+                connection.rollback();
+            }
+        }
+    }
+
+    private static long medianWriteNanos(Connection connection, UUID gemId, UUID[] raters) throws SQLException {
+        long[] nanos = new long[raters.length];
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO gem_ratings (gem_id, user_id, rating) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < raters.length; i++) {
+                insert.setObject(1, gemId);
+                insert.setObject(2, raters[i]);
+                insert.setInt(3, 1 + i % 5);
+                long start = System.nanoTime();
+                insert.executeUpdate();
+                nanos[i] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(nanos);
+        return nanos[nanos.length / 2];
+    }
+
+    private static UUID[] timedRaters(Statement statement, String suffix, UUID popular) throws SQLException {
+        UUID[] raters = new UUID[TIMED_WRITES];
+        try (ResultSet rs = statement.executeQuery("""
+                SELECT u.user_id FROM users u
+                WHERE u.username LIKE 'load_%s_%%'
+                  AND NOT EXISTS (SELECT 1 FROM gem_ratings r WHERE r.gem_id = '%s' AND r.user_id = u.user_id)
+                LIMIT %d
+                """.formatted(suffix, popular, TIMED_WRITES))) {
+            for (int i = 0; rs.next(); i++) {
+                raters[i] = rs.getObject(1, UUID.class);
+            }
+        }
+        return raters;
+    }
+
+    private static UUID insertGem(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("""
+                INSERT INTO gems (name, location)
+                VALUES ('Rating load gem', ST_SetSRID(ST_MakePoint(121.0, 14.55), 4326)::geography)
+                RETURNING gem_id
+                """)) {
+            rs.next();
+            return rs.getObject(1, UUID.class);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.krawl.backend.repository;
+
+import com.krawl.backend.repository.projection.SyncChangeRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the sync change feeds against a Flyway-migrated PostGIS database, inside one
+ * transaction that is rolled back. Every row written here is stamped with that transaction's
+ * start time. See GemViewportQueryExplainTest for the KRAWL_PERF_DB_* variables; skipped
+ * otherwise.
+ */
+@EnabledIfEnvironmentVariable(named = "KRAWL_PERF_DB_URL", matches = ".+")
+class SyncRepositoryTest {
+
+    // The start of a window, as SyncServiceImpl opens it
+    private static final UUID MIN_ID = new UUID(0, 0);
+
+    private Connection connection;
+    private Statement statement;
+    private SyncRepository repository;
+    private OffsetDateTime now;
+
+    @BeforeEach
+    void connect() throws SQLException {
+        connection = DriverManager.getConnection(
+            System.getenv("KRAWL_PERF_DB_URL"),
+            System.getenv("KRAWL_PERF_DB_USER"),
+            System.getenv("KRAWL_PERF_DB_PASSWORD"));
+        connection.setAutoCommit(false);
+        statement = connection.createStatement();
+        repository = new SyncRepository(new NamedParameterJdbcTemplate(new SingleConnectionDataSource(connection, true)));
+        try (ResultSet rs = statement.executeQuery("SELECT CURRENT_TIMESTAMP")) {
+            rs.next();
+            now = rs.getObject(1, OffsetDateTime.class);
+        }
+    }
+
+    @AfterEach
+    void rollback() throws SQLException {
+        connection.rollback();
+        connection.close();
+    }
+
+    @Test
+    void rowStampedExactlyAtSince_withALowId_isInTheWindow() throws SQLException {
+        UUID lowId = new UUID(0, Long.parseLong(UUID.randomUUID().toString().substring(24), 16));
+        statement.execute("""
+            INSERT INTO gems (gem_id, name, location)
+            VALUES ('%s', 'Low id gem', ST_SetSRID(ST_MakePoint(121.0, 14.55), 4326)::geography)
+            """.formatted(lowId));
+
+        List<SyncChangeRow> rows = repository.findGemChanges(now, MIN_ID, now.plusDays(1), 10_000);
+
+        assertThat(rows).extracting(SyncChangeRow::id).contains(lowId);
+    }
+
+    @Test
+    void softDeletedGem_isReportedAsRemoved() throws SQLException {
+        UUID gemId = queryUuid("""
+            INSERT INTO gems (name, location, approval_status)
+            VALUES ('Deleted gem', ST_SetSRID(ST_MakePoint(121.0, 14.55), 4326)::geography, 'approved') RETURNING gem_id
+            """);
+        statement.execute("UPDATE gems SET deleted_at = CURRENT_TIMESTAMP WHERE gem_id = '%s'".formatted(gemId));
+
+        List<SyncChangeRow> rows = repository.findGemChanges(now, MIN_ID, now.plusDays(1), 10_000);
+
+        assertThat(rows).filteredOn(SyncChangeRow::removed).extracting(SyncChangeRow::id).contains(gemId);
+    }
+
+    @Test
+    void krawlTombstones_onlyReachUsersWhoCouldHaveSeenTheKrawl() throws SQLException {
+        UUID owner = insertUser("owner");
+        UUID reader = insertUser("reader");
+        UUID alwaysPrivate = insertKrawl(owner, "private");
+        UUID unpublished = insertKrawl(owner, "public");
+        UUID savedPrivate = insertKrawl(owner, "private");
+        statement.execute("UPDATE krawls SET visibility = 'private' WHERE krawl_id = '%s'".formatted(unpublished));
+        statement.execute("UPDATE krawls SET deleted_at = CURRENT_TIMESTAMP WHERE krawl_id = '%s'".formatted(alwaysPrivate));
+        statement.execute("INSERT INTO saved_krawls (user_id, krawl_id) VALUES ('%s', '%s')".formatted(reader, savedPrivate));
+
+        List<SyncChangeRow> readerRows = repository.findKrawlChanges(reader, now, MIN_ID, now.plusDays(1), 10_000);
+        List<SyncChangeRow> ownerRows = repository.findKrawlChanges(owner, now, MIN_ID, now.plusDays(1), 10_000);
+
+        assertThat(readerRows).extracting(SyncChangeRow::id).doesNotContain(alwaysPrivate);
+        assertThat(readerRows).filteredOn(SyncChangeRow::removed).extracting(SyncChangeRow::id)
+            .contains(unpublished, savedPrivate);
+        assertThat(ownerRows).extracting(SyncChangeRow::id).contains(alwaysPrivate, unpublished, savedPrivate);
+    }
+
+    private UUID insertUser(String prefix) throws SQLException {
+        String username = prefix + "_" + UUID.randomUUID().toString().substring(0, 8);
+        return queryUuid("""
+            INSERT INTO users (username, email, password_hash)
+            VALUES ('%1$s', '%1$s@example.com', 'x') RETURNING user_id
+            """.formatted(username));
+    }
+
+    private UUID insertKrawl(UUID creatorId, String visibility) throws SQLException {
+        return queryUuid("INSERT INTO krawls (title, creator_id, visibility) VALUES ('Sync test', '%s', '%s') RETURNING krawl_id"
+            .formatted(creatorId, visibility));
+    }
+
+    private UUID queryUuid(String sql) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getObject(1, UUID.class);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.krawl.backend.route;
+
+import com.krawl.backend.util.GeoDistance;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class RouteOptimizerTest {
+
+    @Test
+    void zigZagAlongAStreet_isStraightened() {
+        // Five stops on one line of latitude, visited out of order
+        double[] lats = {14.55, 14.55, 14.55, 14.55, 14.55};
+        double[] lngs = {121.00, 121.04, 121.01, 121.03, 121.02};
+
+        var result = RouteOptimizer.optimize(lats, lngs, true, false);
+
+        assertThat(result.order()).containsExactly(0, 2, 4, 3, 1);
+        assertThat(result.savedMeters()).isPositive();
+        assertThat(result.optimizedMeters())
+            .isCloseTo(GeoDistance.haversineMeters(14.55, 121.00, 14.55, 121.04), offset(1.0));
+    }
+
+    @Test
+    void fixedEndpoints_stayInPlace_andResultIsAPermutation() {
+        var random = new SplittableRandom(42);
+        int n = 60;
+        double[] lats = new double[n];
+        double[] lngs = new double[n];
+        for (int i = 0; i < n; i++) {
+            lats[i] = 14.50 + random.nextDouble() * 0.10;
+            lngs[i] = 121.00 + random.nextDouble() * 0.10;
+        }
+
+        var result = RouteOptimizer.optimize(lats, lngs, true, true);
+
+        int[] order = result.order();
+        assertThat(order[0]).isZero();
+        assertThat(order[n - 1]).isEqualTo(n - 1);
+        assertThat(order).hasSize(n).doesNotHaveDuplicates();
+        assertThat(result.optimizedMeters()).isLessThan(result.originalMeters());
+        assertThat(length(order, lats, lngs)).isCloseTo(result.optimizedMeters(), offset(1e-6));
+    }
+
+    @Test
+    void alreadyOptimalOrder_isReturnedUnchanged() {
+        double[] lats = {14.55, 14.55, 14.55};
+        double[] lngs = {121.00, 121.01, 121.02};
+
+        var result = RouteOptimizer.optimize(lats, lngs, false, false);
+
+        assertThat(result.order()).containsExactly(0, 1, 2);
+        assertThat(result.savedMeters()).isZero();
+    }
+
+    private static double length(int[] order, double[] lats, double[] lngs) {
+        double total = 0;
+        for (int i = 1; i < order.length; i++) {
+            total += GeoDistance.haversineMeters(lats[order[i - 1]], lngs[order[i - 1]], lats[order[i]], lngs[order[i]]);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,114 @@
+package com.krawl.backend.service.impl;
+
+import com.krawl.backend.cache.UserCacheEvictor;
+import com.krawl.backend.config.properties.CreatorScoreProperties;
+import com.krawl.backend.repository.CreatorScoreRepository;
+import com.krawl.backend.repository.SyncRepository;
+import com.krawl.backend.repository.projection.UserCacheKeyRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CreatorScoreServiceImplTest {
+
+    private static final OffsetDateTime EPOCH = Instant.EPOCH.atOffset(ZoneOffset.UTC);
+    private static final OffsetDateTime FIRST = OffsetDateTime.of(2025, 5, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+    private static final OffsetDateTime SECOND = FIRST.plusSeconds(10);
+
+    private CreatorScoreRepository repository;
+    private SyncRepository syncRepository;
+    private CreatorScoreProperties properties;
+    private Cache users;
+    private CreatorScoreServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(CreatorScoreRepository.class);
+        syncRepository = mock(SyncRepository.class);
+        properties = new CreatorScoreProperties();
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("users");
+        users = cacheManager.getCache("users");
+        service = new CreatorScoreServiceImpl(repository, syncRepository, mock(PlatformTransactionManager.class),
+            new UserCacheEvictor(cacheManager), properties);
+    }
+
+    @Test
+    void changedCreators_areRecomputedInBatches_andOnlyTheirCacheEntriesEvicted() {
+        properties.setBatchSize(2);
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        UUID untouched = UUID.randomUUID();
+        when(syncRepository.safeUpperBound()).thenReturn(FIRST);
+        when(repository.lockWatermark(EPOCH)).thenReturn(EPOCH);
+        when(repository.findCreatorsOfChangedKrawls(EPOCH, FIRST)).thenReturn(List.of(a, b, c));
+        when(repository.recompute(List.of(a, b))).thenReturn(List.of(new UserCacheKeyRow(a, "ana", "ana@example.com")));
+        when(repository.recompute(List.of(c))).thenReturn(List.of());
+        users.put(a.toString(), "cached");
+        users.put("username:ana", "cached");
+        users.put("email:ana@example.com", "cached");
+        users.put(untouched.toString(), "cached");
+
+        assertThat(service.recomputeChangedCreators()).isEqualTo(1);
+
+        verify(repository, times(2)).recompute(anyList());
+        verify(repository).saveWatermark(FIRST);
+        assertThat(users.get(a.toString())).isNull();
+        assertThat(users.get("username:ana")).isNull();
+        assertThat(users.get("email:ana@example.com")).isNull();
+        assertThat(users.get(untouched.toString())).isNotNull();
+    }
+
+    @Test
+    void watermarkAdvances_onlyAfterASuccessfulPass() {
+        UUID creator = UUID.randomUUID();
+        when(syncRepository.safeUpperBound()).thenReturn(FIRST, SECOND, SECOND);
+        // The failed pass rolls back, so the stored watermark stays at FIRST
+        when(repository.lockWatermark(EPOCH)).thenReturn(EPOCH, FIRST, FIRST);
+        when(repository.findCreatorsOfChangedKrawls(any(), any())).thenReturn(List.of(creator));
+        when(repository.recompute(anyList()))
+            .thenReturn(List.of())
+            .thenThrow(new QueryTimeoutException("timeout"))
+            .thenReturn(List.of());
+
+        service.recomputeChangedCreators();
+        assertThatThrownBy(service::recomputeChangedCreators).isInstanceOf(QueryTimeoutException.class);
+        service.recomputeChangedCreators();
+
+        verify(repository).findCreatorsOfChangedKrawls(EPOCH, FIRST);
+        // The failed pass is retried from the same watermark
+        verify(repository, times(2)).findCreatorsOfChangedKrawls(FIRST, SECOND);
+        verify(repository).saveWatermark(FIRST);
+        verify(repository).saveWatermark(SECOND);
+    }
+
+    @Test
+    void passAlreadyCoveredByAnotherInstance_isSkipped() {
+        when(syncRepository.safeUpperBound()).thenReturn(FIRST);
+        when(repository.lockWatermark(EPOCH)).thenReturn(SECOND);
+
+        assertThat(service.recomputeChangedCreators()).isZero();
+
+        verify(repository, never()).findCreatorsOfChangedKrawls(any(), any());
+        verify(repository, never()).saveWatermark(any());
+    }
+}
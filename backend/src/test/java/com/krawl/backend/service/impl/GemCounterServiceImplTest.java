@@ -0,0 +1,110 @@
+package com.krawl.backend.service.impl;
+
+import com.krawl.backend.config.properties.GemCounterProperties;
+import com.krawl.backend.repository.GemCounterRepository;
+import com.krawl.backend.repository.GemCounterRepository.Delta;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GemCounterServiceImplTest {
+
+    private GemCounterRepository repository;
+    private GemCounterProperties properties;
+    private GemCounterServiceImpl service;
+    private final List<List<Delta>> applied = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(GemCounterRepository.class);
+        when(repository.claimUncountedVouches(anyInt())).thenReturn(Map.of());
+        when(repository.applyDeltas(anyList())).thenAnswer(invocation -> {
+            List<Delta> batch = List.copyOf(invocation.getArgument(0));
+            applied.add(batch);
+            return batch.size();
+        });
+        properties = new GemCounterProperties();
+        service = new GemCounterServiceImpl(repository, mock(PlatformTransactionManager.class), properties);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void flush_mergesClaimedVouchesWithViews_inGemIdOrder_inBatches() {
+        properties.setBatchSize(2);
+        properties.setMaxVouchesPerFlush(1_000);
+        UUID a = new UUID(0, 1);
+        UUID b = new UUID(0, 2);
+        UUID c = new UUID(0, 3);
+        when(repository.claimUncountedVouches(1_000)).thenReturn(Map.of(c, 2L, a, 1L));
+        service.recordVouches(List.of(c, a, c));
+        service.recordView(b);
+        service.recordView(c);
+
+        int updated = service.flush();
+
+        assertThat(updated).isEqualTo(3);
+        assertThat(applied).containsExactly(
+            List.of(new Delta(a, 1, 0), new Delta(b, 0, 1)),
+            List.of(new Delta(c, 2, 1)));
+        assertThat(service.pendingVouches(c)).isZero();
+    }
+
+    @Test
+    void flush_countsClaimedVouches_recordedByAnyInstance() {
+        UUID gemId = UUID.randomUUID();
+        when(repository.claimUncountedVouches(anyInt())).thenReturn(Map.of(gemId, 3L));
+
+        service.flush();
+
+        // Nothing was recorded here: the vouches came from another instance, or one that crashed
+        assertThat(applied).containsExactly(List.of(new Delta(gemId, 3, 0)));
+    }
+
+    @Test
+    void failedFlush_keepsDeltasPending_forTheNextAttempt() {
+        UUID gemId = UUID.randomUUID();
+        service.recordVouches(List.of(gemId, gemId));
+        service.recordView(gemId);
+        when(repository.applyDeltas(anyList())).thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThatThrownBy(service::flush).isInstanceOf(QueryTimeoutException.class);
+
+        // The claim rolls back with the flush, so the vouches stay uncounted in gem_vouches
+        assertThat(service.pendingVouches(gemId)).isEqualTo(2);
+        assertThat(service.pendingViews(gemId)).isEqualTo(1);
+    }
+
+    @Test
+    void vouchesInsideATransaction_countOnlyAfterCommit() {
+        UUID gemId = UUID.randomUUID();
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.recordVouches(List.of(gemId));
+        assertThat(service.pendingVouches(gemId)).isZero();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(service.pendingVouches(gemId)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,125 @@
+package com.krawl.backend.service.impl;
+
+import com.krawl.backend.config.properties.GemDetailProperties;
+import com.krawl.backend.dto.response.GemDetailResponse;
+import com.krawl.backend.entity.Gem;
+import com.krawl.backend.entity.GemPhoto;
+import com.krawl.backend.entity.GemRating;
+import com.krawl.backend.entity.GemTag;
+import com.krawl.backend.entity.Tag;
+import com.krawl.backend.entity.User;
+import com.krawl.backend.mapper.GemMapper;
+import com.krawl.backend.service.GemCounterService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins the gem detail read model to a fixed statement count, so a lazy association sneaking
+ * into the mapper shows up as a failure instead of an N+1 in production.
+ *
+ * <p>Runs against the PostGIS database named by KRAWL_PERF_DB_URL (schema migrated by Flyway
+ * on startup); the test transaction is rolled back. Skipped otherwise.</p>
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({GemDetailServiceImpl.class, GemDetailProperties.class, GemMapper.class})
+@EnabledIfEnvironmentVariable(named = "KRAWL_PERF_DB_URL", matches = ".+")
+class GemDetailServiceImplQueryCountTest {
+
+    private static final GeometryFactory GEOMETRY = new GeometryFactory(new PrecisionModel(), 4326);
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("KRAWL_PERF_DB_URL"));
+        registry.add("spring.datasource.username", () -> System.getenv("KRAWL_PERF_DB_USER"));
+        registry.add("spring.datasource.password", () -> System.getenv("KRAWL_PERF_DB_PASSWORD"));
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private GemDetailServiceImpl service;
+
+    @MockitoBean
+    private GemCounterService gemCounterService;
+
+    @Test
+    void detail_isLoadedInFourStatements_regardlessOfCollectionSizes() {
+        User founder = user("founder");
+        Gem gem = new Gem();
+        gem.setName("Query count gem");
+        gem.setLocation(GEOMETRY.createPoint(new Coordinate(123.9, 10.3)));
+        gem.setFounder(founder);
+        entityManager.persist(gem);
+
+        for (int i = 0; i < 20; i++) {
+            GemPhoto photo = new GemPhoto();
+            photo.setGem(gem);
+            photo.setUploader(founder);
+            photo.setPhotoUrl("https://example.com/photo-" + i + ".jpg");
+            photo.setIsFeatured(i == 7);
+            entityManager.persist(photo);
+        }
+        for (int i = 0; i < 5; i++) {
+            Tag tag = new Tag();
+            tag.setTagName("query-count-tag-" + UUID.randomUUID());
+            entityManager.persist(tag);
+            GemTag gemTag = new GemTag();
+            gemTag.setGem(gem);
+            gemTag.setTag(tag);
+            entityManager.persist(gemTag);
+        }
+        for (int i = 0; i < 6; i++) {
+            GemRating rating = new GemRating();
+            rating.setGem(gem);
+            rating.setUser(user("rater" + i));
+            rating.setRating((short) (1 + i % 5));
+            entityManager.persist(rating);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+        statistics.clear();
+
+        GemDetailResponse detail = service.getGemDetail(gem.getGemId());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(detail.getFounder().getUsername()).startsWith("founder");
+        assertThat(detail.getPhotos()).hasSize(12);
+        assertThat(detail.getPhotos().getFirst().isFeatured()).isTrue();
+        assertThat(detail.isMorePhotos()).isTrue();
+        assertThat(detail.getTags()).hasSize(5);
+        assertThat(detail.getRatings().getDistribution().values().stream().mapToLong(Long::longValue).sum())
+            .isEqualTo(6);
+    }
+
+    private User user(String prefix) {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setUsername(prefix + "-" + suffix);
+        user.setEmail(prefix + "-" + suffix + "@example.com");
+        user.setPasswordHash("not-a-real-hash");
+        return entityManager.persist(user);
+    }
+}
@@ -0,0 +1,49 @@
+package com.krawl.backend.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.krawl.backend.entity.Gem;
+import com.krawl.backend.repository.GemRepository;
+import com.krawl.backend.service.GemExportService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GemExportServiceImplTest {
+
+    private static final GeometryFactory GEOMETRY = new GeometryFactory(new PrecisionModel(), 4326);
+
+    @Test
+    void ndjson_writesOneObjectPerLine_withoutLeadingSeparators() throws Exception {
+        GemRepository gemRepository = mock(GemRepository.class);
+        when(gemRepository.streamPublic()).thenReturn(Stream.of(gem("Taho Stand"), gem("Sisig Corner")));
+        ObjectMapper objectMapper = new ObjectMapper();
+        var service = new GemExportServiceImpl(gemRepository, mock(EntityManager.class), objectMapper);
+        var out = new ByteArrayOutputStream();
+
+        assertThat(service.exportGems(GemExportService.Format.NDJSON, out)).isEqualTo(2);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines).allSatisfy(line -> assertThat(line).startsWith("{"));
+        assertThat(objectMapper.readTree(lines[1]).get("name").asText()).isEqualTo("Sisig Corner");
+    }
+
+    private static Gem gem(String name) {
+        Gem gem = new Gem();
+        gem.setGemId(UUID.randomUUID());
+        gem.setName(name);
+        gem.setLocation(GEOMETRY.createPoint(new Coordinate(123.9, 10.3)));
+        return gem;
+    }
+}
@@ -0,0 +1,80 @@
+package com.krawl.backend.service.impl;
+
+import com.krawl.backend.config.properties.MapProperties;
+import com.krawl.backend.entity.Gem;
+import com.krawl.backend.event.GemChangedEvent;
+import com.krawl.backend.repository.GemTileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.PrecisionModel;
+
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GemTileServiceImplTest {
+
+    private static final GeometryFactory GEOMETRY = new GeometryFactory(new PrecisionModel(), 4326);
+
+    private GemTileRepository gemTileRepository;
+    private GemTileServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        gemTileRepository = mock(GemTileRepository.class);
+        when(gemTileRepository.renderTile(anyInt(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt()))
+            .thenReturn(new byte[] {1, 2, 3});
+        service = new GemTileServiceImpl(gemTileRepository, new MapProperties());
+    }
+
+    @Test
+    void gemNearATileEdge_evictsTheNeighbourWhoseBufferReachesIt_andNothingElse() {
+        service.getGemTile(1, 0, 0);
+        service.getGemTile(1, 1, 0);
+        service.getGemTile(1, 1, 1);
+
+        // Half a degree east of the antimeridian split at zoom 1: inside tile 1/1/0, in the buffer of 1/0/0
+        service.onGemChanged(GemChangedEvent.created(gem(0.5, 10.0)));
+        service.getGemTile(1, 0, 0);
+        service.getGemTile(1, 1, 0);
+        service.getGemTile(1, 1, 1);
+
+        verifyRenders(0, 0, 2);
+        verifyRenders(1, 0, 2);
+        verifyRenders(1, 1, 1);
+    }
+
+    @Test
+    void tileRenderedAcrossAChange_isNotCached() {
+        when(gemTileRepository.renderTile(eq(2), eq(3), eq(1), anyInt(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            // A gem elsewhere commits while this tile renders; the render may predate it
+            service.onGemChanged(GemChangedEvent.created(gem(170.0, -60.0)));
+            return new byte[] {1};
+        });
+
+        service.getGemTile(2, 3, 1);
+        service.getGemTile(2, 3, 1);
+
+        verify(gemTileRepository, times(2)).renderTile(eq(2), eq(3), eq(1), anyInt(), anyInt(), anyInt());
+    }
+
+    private void verifyRenders(int x, int y, int renders) {
+        verify(gemTileRepository, times(renders)).renderTile(eq(1), eq(x), eq(y), anyInt(), anyInt(), anyInt());
+    }
+
+    private static Gem gem(double lng, double lat) {
+        Point location = GEOMETRY.createPoint(new Coordinate(lng, lat));
+        Gem gem = new Gem();
+        gem.setGemId(UUID.randomUUID());
+        gem.setLocation(location);
+        return gem;
+    }
+}
@@ -0,0 +1,165 @@
+package com.krawl.backend.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.krawl.backend.entity.Gem;
+import com.krawl.backend.entity.Krawl;
+import com.krawl.backend.entity.KrawlItem;
+import com.krawl.backend.entity.User;
+import com.krawl.backend.exception.EntityNotFoundException;
+import com.krawl.backend.mapper.GemMapper;
+import com.krawl.backend.mapper.KrawlMapper;
+import com.krawl.backend.repository.GemPhotoRepository;
+import com.krawl.backend.repository.GemTagRepository;
+import com.krawl.backend.repository.KrawlBundleRepository;
+import com.krawl.backend.repository.KrawlRepository;
+import com.krawl.backend.repository.KrawlRouteRepository;
+import com.krawl.backend.repository.SavedKrawlRepository;
+import com.krawl.backend.repository.projection.KrawlBundleRow;
+import com.krawl.backend.service.GemCounterService;
+import com.krawl.backend.service.StorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class KrawlBundleServiceImplTest {
+
+    private KrawlRepository krawlRepository;
+    private KrawlBundleRepository bundleRepository;
+    private KrawlRouteRepository routeRepository;
+    private GemPhotoRepository photoRepository;
+    private GemTagRepository tagRepository;
+    private KrawlBundleServiceImpl service;
+
+    private final UUID krawlId = UUID.randomUUID();
+    private Krawl krawl;
+
+    @BeforeEach
+    void setUp() {
+        krawlRepository = mock(KrawlRepository.class);
+        bundleRepository = mock(KrawlBundleRepository.class);
+        routeRepository = mock(KrawlRouteRepository.class);
+        photoRepository = mock(GemPhotoRepository.class);
+        tagRepository = mock(GemTagRepository.class);
+        service = new KrawlBundleServiceImpl(krawlRepository, bundleRepository, routeRepository, photoRepository,
+            tagRepository, mock(SavedKrawlRepository.class), new KrawlMapper(), new GemMapper(mock(GemCounterService.class)),
+            mock(StorageService.class), new ObjectMapper().findAndRegisterModules());
+
+        User creator = new User();
+        creator.setUserId(UUID.randomUUID());
+        creator.setUsername("maria");
+        Gem gem = new Gem();
+        gem.setGemId(UUID.randomUUID());
+        gem.setName("Binondo Kapihan");
+        gem.setApprovalStatus("approved");
+        gem.setLocation(new GeometryFactory().createPoint(new Coordinate(120.97, 14.60)));
+        KrawlItem item = new KrawlItem();
+        item.setKrawlItemId(UUID.randomUUID());
+        item.setGem(gem);
+        item.setStepOrder(1);
+        krawl = new Krawl();
+        krawl.setKrawlId(krawlId);
+        krawl.setTitle("Kape crawl");
+        krawl.setCreator(creator);
+        krawl.setItems(List.of(item));
+
+        when(krawlRepository.findById(krawlId)).thenReturn(Optional.of(krawl));
+        when(krawlRepository.findForBundleByKrawlId(krawlId)).thenReturn(Optional.of(krawl));
+        when(routeRepository.findByKrawlIds(any())).thenReturn(Map.of());
+        when(photoRepository.findByGemIds(any())).thenReturn(List.of());
+        when(tagRepository.findTagNamesByGemIds(any())).thenReturn(List.of());
+    }
+
+    @Test
+    void currentStoredBundle_isServedWithoutRebuilding() {
+        byte[] payload = {1, 2, 3};
+        when(bundleRepository.find(krawlId)).thenReturn(Optional.of(new KrawlBundleRow(4, 4, "abc", payload, 10)));
+
+        var bundle = service.getBundle(krawlId, null);
+
+        assertThat(bundle.contentHash()).isEqualTo("abc");
+        assertThat(bundle.gzip()).isSameAs(payload);
+        verify(krawlRepository, never()).findForBundleByKrawlId(any());
+        verify(bundleRepository, never()).saveBuild(any(), anyLong(), anyString(), any(), anyInt());
+    }
+
+    @Test
+    void staleBundle_isRebuiltAndStoredUnderTheVersionReadBeforeBuilding() {
+        when(bundleRepository.find(krawlId)).thenReturn(Optional.of(new KrawlBundleRow(5, 4, "old", null, 10)));
+        when(bundleRepository.startBuild(krawlId)).thenReturn(5L);
+
+        var bundle = service.getBundle(krawlId, null);
+
+        assertThat(new String(bundle.json())).contains("\"title\":\"Kape crawl\"", "Binondo Kapihan");
+        assertThat(bundle.rawBytes()).isEqualTo(bundle.json().length);
+        verify(bundleRepository).saveBuild(eq(krawlId), eq(5L), eq(bundle.contentHash()), eq(bundle.gzip()), eq(bundle.rawBytes()));
+    }
+
+    @Test
+    void rebuildOfUnchangedContent_keepsTheSameContentHash() {
+        when(bundleRepository.find(krawlId)).thenReturn(Optional.empty());
+        when(bundleRepository.startBuild(krawlId)).thenReturn(1L, 2L);
+
+        String first = service.getBundle(krawlId, null).contentHash();
+        String second = service.getBundle(krawlId, null).contentHash();
+
+        assertThat(first).hasSize(64).isEqualTo(second);
+    }
+
+    @Test
+    void privateKrawl_isHiddenFromOtherUsers() {
+        krawl.setVisibility("private");
+
+        assertThrows(EntityNotFoundException.class, () -> service.getBundle(krawlId, UUID.randomUUID()));
+        assertThat(service.getBundle(krawlId, krawl.getCreator().getUserId())).isNotNull();
+    }
+
+    @Test
+    void gemsHiddenFromThePublicReadPaths_areLeftOutOfTheGemRecords() throws Exception {
+        Gem pending = new Gem();
+        pending.setGemId(UUID.randomUUID());
+        pending.setName("Pending stall");
+        pending.setLocation(new GeometryFactory().createPoint(new Coordinate(120.98, 14.60)));
+        Gem deleted = new Gem();
+        deleted.setGemId(UUID.randomUUID());
+        deleted.setName("Closed stall");
+        deleted.setApprovalStatus("approved");
+        deleted.setDeletedAt(LocalDateTime.now());
+        deleted.setLocation(new GeometryFactory().createPoint(new Coordinate(120.99, 14.60)));
+        List<KrawlItem> items = new ArrayList<>(krawl.getItems());
+        for (Gem gem : List.of(pending, deleted)) {
+            KrawlItem item = new KrawlItem();
+            item.setKrawlItemId(UUID.randomUUID());
+            item.setGem(gem);
+            item.setStepOrder(items.size() + 1);
+            items.add(item);
+        }
+        krawl.setItems(items);
+        when(bundleRepository.find(krawlId)).thenReturn(Optional.empty());
+        when(bundleRepository.startBuild(krawlId)).thenReturn(1L);
+
+        var gems = new ObjectMapper().readTree(service.getBundle(krawlId, null).json()).get("gems");
+
+        assertThat(gems).hasSize(1);
+        assertThat(gems.get(0).get("gem").get("name").asText()).isEqualTo("Binondo Kapihan");
+    }
+}
@@ -0,0 +1,146 @@
+package com.krawl.backend.service.impl;
+
+import com.krawl.backend.dto.response.CursorPage;
+import com.krawl.backend.dto.response.KrawlResponse;
+import com.krawl.backend.entity.Krawl;
+import com.krawl.backend.entity.User;
+import com.krawl.backend.exception.EntityNotFoundException;
+import com.krawl.backend.mapper.KrawlMapper;
+import com.krawl.backend.repository.KrawlListRepository;
+import com.krawl.backend.repository.KrawlRepository;
+import com.krawl.backend.repository.KrawlRouteRepository;
+import com.krawl.backend.repository.SyncRepository;
+import com.krawl.backend.repository.projection.PublicKrawlRow;
+import com.krawl.backend.util.PaginationHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class KrawlServiceImplTest {
+
+    private static final OffsetDateTime FIRST = OffsetDateTime.of(2025, 5, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+    private static final OffsetDateTime SECOND = FIRST.plusSeconds(5);
+    private static final OffsetDateTime THIRD = SECOND.plusSeconds(5);
+
+    private KrawlRepository krawlRepository;
+    private KrawlListRepository krawlListRepository;
+    private KrawlRouteRepository krawlRouteRepository;
+    private SyncRepository syncRepository;
+    private Cache cache;
+    private KrawlServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        krawlRepository = mock(KrawlRepository.class);
+        krawlListRepository = mock(KrawlListRepository.class);
+        krawlRouteRepository = mock(KrawlRouteRepository.class);
+        syncRepository = mock(SyncRepository.class);
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(KrawlServiceImpl.DETAIL_CACHE);
+        cache = cacheManager.getCache(KrawlServiceImpl.DETAIL_CACHE);
+        service = new KrawlServiceImpl(krawlRepository, krawlListRepository, krawlRouteRepository, new KrawlMapper(),
+            new PaginationHelper(), syncRepository, cacheManager);
+    }
+
+    @Test
+    void list_mapsProjectionRows_withoutLoadingKrawlEntities() {
+        when(krawlListRepository.findPublicPage(any(), any(), eq(3)))
+            .thenReturn(List.of(row("A", 3), row("B", 0), row("C", 1)));
+        when(krawlRouteRepository.findByKrawlIds(anyList())).thenReturn(Map.of());
+
+        CursorPage<KrawlResponse> page = service.getPublicKrawls(null, null, 2);
+
+        assertThat(page.getItems()).extracting(KrawlResponse::getTitle).containsExactly("A", "B");
+        assertThat(page.getItems().getFirst().getItemCount()).isEqualTo(3);
+        assertThat(page.getItems().getFirst().getItems()).isNull();
+        assertThat(page.getNextCursor()).isNotNull();
+        verify(krawlRepository, never()).findWithItemsByKrawlIdIn(anyList());
+    }
+
+    @Test
+    void privateOrDeletedKrawls_areNotFound() {
+        UUID privateId = UUID.randomUUID();
+        UUID deletedId = UUID.randomUUID();
+        when(krawlRepository.findWithItemsByKrawlId(privateId)).thenReturn(Optional.of(krawl(privateId, "private")));
+        Krawl deleted = krawl(deletedId, "public");
+        deleted.setDeletedAt(FIRST.toLocalDateTime());
+        when(krawlRepository.findWithItemsByKrawlId(deletedId)).thenReturn(Optional.of(deleted));
+
+        assertThrows(EntityNotFoundException.class, () -> service.getKrawlById(privateId));
+        assertThrows(EntityNotFoundException.class, () -> service.getKrawlById(deletedId));
+    }
+
+    @Test
+    void detail_mapsCreatorItemsAndRoute() {
+        UUID krawlId = UUID.randomUUID();
+        when(krawlRepository.findWithItemsByKrawlId(krawlId)).thenReturn(Optional.of(krawl(krawlId, "public")));
+        when(krawlRouteRepository.findByKrawlIds(List.of(krawlId))).thenReturn(Map.of());
+
+        KrawlResponse response = service.getKrawlById(krawlId);
+
+        assertThat(response.getCreatorUsername()).isEqualTo("creator");
+        assertThat(response.getItemCount()).isZero();
+    }
+
+    @Test
+    void changedKrawls_areEvicted_onThatPassAndTheNext() {
+        UUID changed = UUID.randomUUID();
+        UUID untouched = UUID.randomUUID();
+        cache.put(changed, "stale");
+        cache.put(untouched, "fresh");
+        when(syncRepository.safeUpperBound()).thenReturn(FIRST, SECOND, THIRD);
+        when(krawlListRepository.findChangedKrawlIds(FIRST, SECOND)).thenReturn(List.of(changed));
+        when(krawlListRepository.findChangedKrawlIds(SECOND, THIRD)).thenReturn(List.of());
+
+        // The first pass cannot know what changed before it
+        service.evictChangedKrawls();
+        assertThat(cache.get(untouched)).isNull();
+        cache.put(changed, "stale");
+        cache.put(untouched, "fresh");
+
+        assertThat(service.evictChangedKrawls()).isEqualTo(1);
+        assertThat(cache.get(changed)).isNull();
+        assertThat(cache.get(untouched)).isNotNull();
+
+        // A read racing the change may have cached the old row again
+        cache.put(changed, "stale");
+        service.evictChangedKrawls();
+        assertThat(cache.get(changed)).isNull();
+    }
+
+    private static PublicKrawlRow row(String title, long items) {
+        return new PublicKrawlRow(UUID.randomUUID(), title, null, UUID.randomUUID(), "creator", new BigDecimal("3.50"),
+            "public", new BigDecimal("4.00"), 2, items, FIRST, FIRST, FIRST);
+    }
+
+    private static Krawl krawl(UUID krawlId, String visibility) {
+        User creator = new User();
+        creator.setUserId(UUID.randomUUID());
+        creator.setUsername("creator");
+        Krawl krawl = new Krawl();
+        krawl.setKrawlId(krawlId);
+        krawl.setTitle("Krawl");
+        krawl.setCreator(creator);
+        krawl.setVisibility(visibility);
+        krawl.setItems(List.of());
+        return krawl;
+    }
+}
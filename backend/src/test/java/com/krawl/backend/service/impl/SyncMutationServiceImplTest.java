@@ -0,0 +1,212 @@
+package com.krawl.backend.service.impl;
+
+import com.krawl.backend.config.properties.SyncProperties;
+import com.krawl.backend.dto.request.GemCreateRequest;
+import com.krawl.backend.dto.request.SyncMutationRequest;
+import com.krawl.backend.dto.request.SyncMutationRequest.Operation;
+import com.krawl.backend.dto.request.SyncMutationRequest.OperationType;
+import com.krawl.backend.dto.response.SyncMutationResponse;
+import com.krawl.backend.dto.response.SyncMutationResponse.Result;
+import com.krawl.backend.dto.response.SyncMutationResponse.Status;
+import com.krawl.backend.exception.ValidationException;
+import com.krawl.backend.repository.SyncMutationRepository;
+import com.krawl.backend.repository.projection.ClientOperationRow;
+import com.krawl.backend.service.GemCounterService;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SyncMutationServiceImplTest {
+
+    private SyncMutationRepository repository;
+    private SyncProperties properties;
+    private GemCounterService gemCounterService;
+    private SyncMutationServiceImpl service;
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(SyncMutationRepository.class);
+        Validator validator = mock(Validator.class);
+        when(validator.validate(any())).thenReturn(Set.of());
+        properties = new SyncProperties();
+        gemCounterService = mock(GemCounterService.class);
+        service = new SyncMutationServiceImpl(repository, mock(PlatformTransactionManager.class), validator, properties,
+            gemCounterService);
+
+        // Fresh claims: every id comes back PENDING
+        when(repository.claim(eq(userId), anyList())).thenAnswer(invocation -> {
+            List<SyncMutationRepository.ClaimRow> claims = invocation.getArgument(1);
+            Map<String, ClientOperationRow> rows = new HashMap<>();
+            claims.forEach(claim -> rows.put(claim.clientOpId(),
+                new ClientOperationRow(claim.clientOpId(), ClientOperationRow.PENDING, null, null)));
+            return rows;
+        });
+        // Every vouch is new unless a test says otherwise
+        when(repository.insertVouches(eq(userId), anyList())).thenAnswer(invocation -> {
+            int[] counts = new int[invocation.<List<UUID>>getArgument(1).size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+    }
+
+    @Test
+    void appliesEachTypeAsOneBatch_andCreatesRunBeforeReferencesToThem() {
+        UUID newGem = UUID.randomUUID();
+        UUID krawlId = UUID.randomUUID();
+        when(repository.insertGems(eq(userId), anyList())).thenReturn(new int[]{1});
+        when(repository.findLiveGemIds(List.of(newGem))).thenReturn(Set.of(newGem));
+        when(repository.findSaveableKrawlIds(userId, List.of(krawlId))).thenReturn(Set.of(krawlId));
+
+        SyncMutationResponse response = service.applyMutations(userId, request(
+            vouch("op-2", newGem),
+            create("op-1", newGem),
+            rate("op-3", newGem, 4),
+            save("op-4", krawlId)));
+
+        assertThat(response.getResults()).extracting(Result::getStatus).containsOnly(Status.APPLIED);
+        assertThat(response.getResults().get(1).getResultId()).isEqualTo(newGem);
+        verify(repository).insertVouches(userId, List.of(newGem));
+        verify(gemCounterService).recordVouches(List.of(newGem));
+        verify(repository).upsertRatings(eq(userId), anyList());
+        verify(repository).insertSavedKrawls(userId, List.of(krawlId));
+        verify(repository).recordOutcomes(eq(userId), anyList());
+    }
+
+    @Test
+    void repeatedVouches_areNotCounted() {
+        UUID vouched = UUID.randomUUID();
+        UUID fresh = UUID.randomUUID();
+        when(repository.findLiveGemIds(anyList())).thenReturn(Set.of(vouched, fresh));
+        when(repository.insertVouches(userId, List.of(vouched, fresh))).thenReturn(new int[]{0, 1});
+
+        service.applyMutations(userId, request(vouch("op-1", vouched), vouch("op-2", fresh)));
+
+        verify(gemCounterService).recordVouches(List.of(fresh));
+    }
+
+    @Test
+    void recordedOperations_returnTheRecordedOutcome_withoutApplyingAgain() {
+        UUID gemId = UUID.randomUUID();
+        when(repository.claim(eq(userId), anyList())).thenReturn(Map.of(
+            "op-1", new ClientOperationRow("op-1", "APPLIED", gemId, null)));
+
+        SyncMutationResponse response = service.applyMutations(userId, request(vouch("op-1", gemId)));
+
+        Result result = response.getResults().getFirst();
+        assertThat(result.getStatus()).isEqualTo(Status.APPLIED);
+        assertThat(result.isReplayed()).isTrue();
+        assertThat(result.getResultId()).isEqualTo(gemId);
+        verify(repository).insertVouches(userId, List.of());
+    }
+
+    @Test
+    void invalidAndDuplicateOperations_areRejectedIndividually() {
+        UUID gemId = UUID.randomUUID();
+        when(repository.findLiveGemIds(List.of(gemId))).thenReturn(Set.of());
+
+        SyncMutationResponse response = service.applyMutations(userId, request(
+            rate("op-1", gemId, 9),
+            vouch("op-2", gemId),
+            vouch("op-2", gemId),
+            vouch(" ", gemId)));
+
+        assertThat(response.getResults()).extracting(Result::getStatus)
+            .containsExactly(Status.REJECTED, Status.NOT_FOUND, Status.REJECTED, Status.REJECTED);
+        assertThat(response.getResults().getFirst().getMessage()).contains("rating");
+    }
+
+    @Test
+    void failedChunk_marksOnlyItsOwnOperationsFailed() {
+        properties.setChunkSize(2);
+        UUID gemId = UUID.randomUUID();
+        UUID krawlId = UUID.randomUUID();
+        when(repository.findLiveGemIds(anyList())).thenReturn(Set.of(gemId));
+        when(repository.findSaveableKrawlIds(eq(userId), anyList())).thenReturn(Set.of(krawlId));
+        doThrow(new DataIntegrityViolationException("boom")).when(repository).insertSavedKrawls(userId, List.of(krawlId));
+
+        SyncMutationResponse response = service.applyMutations(userId, request(
+            vouch("op-1", gemId),
+            vouch("op-2", gemId),
+            save("op-3", krawlId)));
+
+        assertThat(response.getResults()).extracting(Result::getStatus)
+            .containsExactly(Status.APPLIED, Status.APPLIED, Status.FAILED);
+        verify(repository, times(2)).claim(eq(userId), anyList());
+        verify(repository, times(1)).recordOutcomes(eq(userId), anyList());
+    }
+
+    @Test
+    void oversizedBatch_isRejectedBeforeTouchingTheDatabase() {
+        properties.setMaxOperations(1);
+        UUID gemId = UUID.randomUUID();
+
+        assertThrows(ValidationException.class,
+            () -> service.applyMutations(userId, request(vouch("op-1", gemId), vouch("op-2", gemId))));
+        verify(repository, never()).claim(any(), anyList());
+    }
+
+    private static SyncMutationRequest request(Operation... operations) {
+        SyncMutationRequest request = new SyncMutationRequest();
+        request.setOperations(List.of(operations));
+        return request;
+    }
+
+    private static Operation create(String clientOpId, UUID gemId) {
+        GemCreateRequest gem = new GemCreateRequest();
+        gem.setName("Offline gem");
+        gem.setLatitude(14.6);
+        gem.setLongitude(121.0);
+        Operation operation = operation(clientOpId, OperationType.CREATE_GEM);
+        operation.setGemId(gemId);
+        operation.setGem(gem);
+        return operation;
+    }
+
+    private static Operation vouch(String clientOpId, UUID gemId) {
+        Operation operation = operation(clientOpId, OperationType.VOUCH_GEM);
+        operation.setGemId(gemId);
+        return operation;
+    }
+
+    private static Operation rate(String clientOpId, UUID gemId, int rating) {
+        Operation operation = operation(clientOpId, OperationType.RATE_GEM);
+        operation.setGemId(gemId);
+        operation.setRating(rating);
+        return operation;
+    }
+
+    private static Operation save(String clientOpId, UUID krawlId) {
+        Operation operation = operation(clientOpId, OperationType.SAVE_KRAWL);
+        operation.setKrawlId(krawlId);
+        return operation;
+    }
+
+    private static Operation operation(String clientOpId, OperationType type) {
+        Operation operation = new Operation();
+        operation.setClientOpId(clientOpId);
+        operation.setType(type);
+        return operation;
+    }
+}
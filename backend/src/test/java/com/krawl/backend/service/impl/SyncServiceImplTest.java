@@ -0,0 +1,167 @@
+package com.krawl.backend.service.impl;
+
+import com.krawl.backend.cache.GemViewportCache;
+import com.krawl.backend.config.properties.GemSearchProperties;
+import com.krawl.backend.config.properties.MapProperties;
+import com.krawl.backend.dto.response.SyncChangesResponse;
+import com.krawl.backend.entity.Gem;
+import com.krawl.backend.exception.ValidationException;
+import com.krawl.backend.index.TagBitmapIndex;
+import com.krawl.backend.mapper.GemMapper;
+import com.krawl.backend.mapper.KrawlMapper;
+import com.krawl.backend.repository.GemListRepository;
+import com.krawl.backend.repository.GemMarkerRepository;
+import com.krawl.backend.repository.GemNearbyRepository;
+import com.krawl.backend.repository.GemRepository;
+import com.krawl.backend.repository.GemSearchRepository;
+import com.krawl.backend.repository.GemTagIndexRepository;
+import com.krawl.backend.repository.KrawlRepository;
+import com.krawl.backend.repository.KrawlRouteRepository;
+import com.krawl.backend.repository.SyncRepository;
+import com.krawl.backend.repository.UserRepository;
+import com.krawl.backend.repository.projection.SavedKrawlSyncRow;
+import com.krawl.backend.repository.projection.SyncChangeRow;
+import com.krawl.backend.service.StorageService;
+import com.krawl.backend.service.TagService;
+import com.krawl.backend.util.PaginationHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SyncServiceImplTest {
+
+    private static final OffsetDateTime UPPER = OffsetDateTime.of(2025, 3, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    private SyncRepository syncRepository;
+    private SyncServiceImpl service;
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        syncRepository = mock(SyncRepository.class);
+        service = new SyncServiceImpl(syncRepository, mock(GemRepository.class), mock(KrawlRepository.class),
+            mock(KrawlRouteRepository.class), mock(GemMapper.class), mock(KrawlMapper.class));
+        when(syncRepository.safeUpperBound()).thenReturn(UPPER);
+    }
+
+    @Test
+    void fullSync_drainsAllFeedsInOneChunk_andCursorOpensNextWindowAtUpper() {
+        UUID removedGem = UUID.randomUUID();
+        UUID unsaved = UUID.randomUUID();
+        when(syncRepository.findGemChanges(any(), any(), eq(UPPER), eq(501)))
+            .thenReturn(List.of(new SyncChangeRow(removedGem, UPPER.minusHours(2), true)));
+        when(syncRepository.findKrawlChanges(eq(userId), any(), any(), eq(UPPER), eq(500))).thenReturn(List.of());
+        when(syncRepository.findSavedKrawlChanges(eq(userId), any(), any(), eq(UPPER), eq(500)))
+            .thenReturn(List.of(new SavedKrawlSyncRow(unsaved, UPPER.minusHours(1), true, null, false, null)));
+
+        SyncChangesResponse response = service.getChanges(userId, null, null);
+
+        assertThat(response.isHasMore()).isFalse();
+        assertThat(response.getWatermark()).isEqualTo(UPPER);
+        assertThat(response.getRemovedGemIds()).containsExactly(removedGem);
+        assertThat(response.getUnsavedKrawlIds()).containsExactly(unsaved);
+
+        // The final cursor starts the next window at the previous upper bound
+        when(syncRepository.safeUpperBound()).thenReturn(UPPER.plusMinutes(5));
+        service.getChanges(userId, response.getNextCursor(), null);
+        verify(syncRepository).findGemChanges(eq(UPPER), any(), eq(UPPER.plusMinutes(5)), anyInt());
+    }
+
+    @Test
+    void overflow_stopsMidFeed_andResumesAfterLastRowWithinSameWindow() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        when(syncRepository.findGemChanges(any(), any(), eq(UPPER), eq(3))).thenReturn(List.of(
+            new SyncChangeRow(first, UPPER.minusHours(3), true),
+            new SyncChangeRow(second, UPPER.minusHours(2), true),
+            new SyncChangeRow(third, UPPER.minusHours(1), true)));
+
+        SyncChangesResponse firstChunk = service.getChanges(userId, null, 2);
+
+        assertThat(firstChunk.isHasMore()).isTrue();
+        assertThat(firstChunk.getRemovedGemIds()).containsExactly(first, second);
+        verify(syncRepository, never()).findKrawlChanges(any(), any(), any(), any(), anyInt());
+
+        when(syncRepository.findGemChanges(UPPER.minusHours(2), second, UPPER, 3))
+            .thenReturn(List.of(new SyncChangeRow(third, UPPER.minusHours(1), true)));
+        when(syncRepository.findKrawlChanges(eq(userId), any(), any(), eq(UPPER), eq(2))).thenReturn(List.of());
+        when(syncRepository.findSavedKrawlChanges(eq(userId), any(), any(), eq(UPPER), eq(2))).thenReturn(List.of());
+        when(syncRepository.safeUpperBound()).thenReturn(UPPER.plusHours(1));
+
+        SyncChangesResponse secondChunk = service.getChanges(userId, firstChunk.getNextCursor(), 2);
+
+        assertThat(secondChunk.isHasMore()).isFalse();
+        assertThat(secondChunk.getRemovedGemIds()).containsExactly(third);
+        // A resumed window keeps its original upper bound
+        assertThat(secondChunk.getWatermark()).isEqualTo(UPPER);
+    }
+
+    @Test
+    void nextWindow_startsBelowEveryIdAtSince() {
+        UUID lowId = UUID.fromString("00000000-0000-0000-0000-00000000000a");
+        when(syncRepository.findGemChanges(any(), any(), any(), anyInt())).thenReturn(List.of());
+        when(syncRepository.findKrawlChanges(any(), any(), any(), any(), anyInt())).thenReturn(List.of());
+        when(syncRepository.findSavedKrawlChanges(any(), any(), any(), any(), anyInt())).thenReturn(List.of());
+        String cursor = service.getChanges(userId, null, null).getNextCursor();
+
+        when(syncRepository.safeUpperBound()).thenReturn(UPPER.plusMinutes(5));
+        when(syncRepository.findGemChanges(UPPER, SyncServiceImpl.MIN_ID, UPPER.plusMinutes(5), 501))
+            .thenReturn(List.of(new SyncChangeRow(lowId, UPPER, true)));
+        SyncChangesResponse response = service.getChanges(userId, cursor, null);
+
+        // Rows stamped exactly at the previous upper bound belong to this window, whatever their id
+        assertThat(SyncServiceImpl.MIN_ID).isEqualTo(UUID.fromString("00000000-0000-0000-0000-000000000000"));
+        assertThat(response.getRemovedGemIds()).containsExactly(lowId);
+        verify(syncRepository).findKrawlChanges(userId, UPPER, SyncServiceImpl.MIN_ID, UPPER.plusMinutes(5), 500);
+    }
+
+    @Test
+    void deletedGem_staysAsARow_andComesBackAsATombstone() {
+        UUID gemId = UUID.randomUUID();
+        Gem gem = new Gem();
+        gem.setGemId(gemId);
+        GemRepository gemRepository = mock(GemRepository.class);
+        when(gemRepository.findById(gemId)).thenReturn(Optional.of(gem));
+        GemServiceImpl gemService = new GemServiceImpl(gemRepository, mock(GemListRepository.class),
+            mock(GemMarkerRepository.class), mock(GemViewportCache.class), mock(GemNearbyRepository.class),
+            mock(GemSearchRepository.class), mock(GemTagIndexRepository.class), mock(TagBitmapIndex.class),
+            mock(TagService.class), mock(UserRepository.class), mock(GemMapper.class), mock(StorageService.class),
+            new MapProperties(), new GemSearchProperties(), new PaginationHelper(), mock(ApplicationEventPublisher.class));
+
+        gemService.deleteGem(gemId);
+
+        verify(gemRepository, never()).delete(any());
+        verify(gemRepository).save(gem);
+        assertThat(gem.getDeletedAt()).isNotNull();
+
+        // findGemChanges reports a row with deleted_at set as removed (see SyncRepositoryTest)
+        when(syncRepository.findGemChanges(any(), any(), eq(UPPER), anyInt()))
+            .thenReturn(List.of(new SyncChangeRow(gemId, UPPER.minusMinutes(1), gem.getDeletedAt() != null)));
+        when(syncRepository.findKrawlChanges(any(), any(), any(), any(), anyInt())).thenReturn(List.of());
+        when(syncRepository.findSavedKrawlChanges(any(), any(), any(), any(), anyInt())).thenReturn(List.of());
+
+        assertThat(service.getChanges(userId, null, null).getRemovedGemIds()).containsExactly(gemId);
+    }
+
+    @Test
+    void malformedCursor_isRejected() {
+        assertThrows(ValidationException.class, () -> service.getChanges(userId, "not-a-cursor", null));
+    }
+}
@@ -0,0 +1,110 @@
+package com.krawl.backend.service.impl;
+
+import com.krawl.backend.config.properties.TrendingProperties;
+import com.krawl.backend.dto.response.TrendingKrawlResponse;
+import com.krawl.backend.repository.SyncRepository;
+import com.krawl.backend.repository.TrendingRepository;
+import com.krawl.backend.repository.projection.TrendingKrawlRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TrendingServiceImplTest {
+
+    private static final OffsetDateTime UPPER = OffsetDateTime.of(2025, 5, 3, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    private TrendingRepository repository;
+    private SyncRepository syncRepository;
+    private TrendingProperties properties;
+    private TrendingServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TrendingRepository.class);
+        syncRepository = mock(SyncRepository.class);
+        when(syncRepository.safeUpperBound()).thenReturn(UPPER);
+        properties = new TrendingProperties();
+        service = new TrendingServiceImpl(repository, syncRepository, mock(PlatformTransactionManager.class),
+            new ConcurrentMapCacheManager(TrendingServiceImpl.CACHE), properties);
+    }
+
+    @Test
+    void pass_decaysByElapsedHalfLives_andOnlyReadsEventsSinceTheWatermark() {
+        OffsetDateTime last = UPPER.minusHours((long) properties.getHalfLifeHours());
+        when(repository.lockWatermark(UPPER.minusDays(properties.getWindowDays()))).thenReturn(last);
+        when(repository.snapshotKrawls(UPPER, properties.getSize())).thenReturn(7);
+
+        assertThat(service.refresh()).isEqualTo(7);
+
+        ArgumentCaptor<Double> factor = ArgumentCaptor.forClass(Double.class);
+        verify(repository).decay(factor.capture(), eq(properties.getMinScore()));
+        assertThat(factor.getValue()).isCloseTo(0.5, within(1e-9));
+        verify(repository).addKrawlEvents(eq(last), eq(UPPER), anyDouble(), eq(properties.getWeights()));
+        verify(repository).addGemEvents(eq(last), eq(UPPER), anyDouble(), eq(properties.getWeights()));
+        verify(repository).addGemViews(last, properties.getWeights().getView());
+        verify(repository).snapshotGems(UPPER, properties.getSize());
+        verify(repository).saveWatermark(UPPER);
+    }
+
+    @Test
+    void longOutage_readsNoFurtherBackThanTheWindow() {
+        OffsetDateTime floor = UPPER.minusDays(properties.getWindowDays());
+        when(repository.lockWatermark(floor)).thenReturn(UPPER.minusDays(90));
+
+        service.refresh();
+
+        verify(repository).addKrawlEvents(eq(floor), eq(UPPER), anyDouble(), any());
+    }
+
+    @Test
+    void passAlreadyRunByAnotherInstance_changesNothing() {
+        when(repository.lockWatermark(any())).thenReturn(UPPER);
+
+        assertThat(service.refresh()).isEqualTo(-1);
+
+        verify(repository, never()).decay(anyDouble(), anyDouble());
+        verify(repository, never()).snapshotKrawls(any(), anyInt());
+        verify(repository, never()).saveWatermark(any());
+    }
+
+    @Test
+    void snapshot_isReadOncePerPass_andLimitsAreCapped() {
+        when(repository.findTrendingKrawls()).thenReturn(IntStream.rangeClosed(1, 60).mapToObj(this::row).toList());
+        when(repository.lockWatermark(any())).thenReturn(UPPER.minusMinutes(5));
+
+        assertThat(service.getTrendingKrawls(null)).hasSize(properties.getDefaultResults());
+        assertThat(service.getTrendingKrawls(500)).hasSize(properties.getSize()).first()
+            .extracting(TrendingKrawlResponse::getRank).isEqualTo(1);
+        verify(repository, times(1)).findTrendingKrawls();
+
+        service.refresh();
+        service.getTrendingKrawls(3);
+        verify(repository, times(2)).findTrendingKrawls();
+    }
+
+    private TrendingKrawlRow row(int rank) {
+        return new TrendingKrawlRow(rank, UUID.randomUUID(), "Krawl " + rank, null, UUID.randomUUID(), "creator",
+            new BigDecimal("4.50"), 10, 5, 100.0 / rank);
+    }
+}
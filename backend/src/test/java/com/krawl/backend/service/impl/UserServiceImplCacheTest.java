@@ -0,0 +1,215 @@
+package com.krawl.backend.service.impl;
+
+import com.krawl.backend.cache.UserCacheEvictor;
+import com.krawl.backend.dto.request.UpdateProfileRequest;
+import com.krawl.backend.entity.User;
+import com.krawl.backend.mapper.UserMapper;
+import com.krawl.backend.repository.UserRepository;
+import com.krawl.backend.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs UserServiceImpl behind Spring's cache proxy, with an in-memory repository whose lookups
+ * count as cache misses.
+ */
+@SpringJUnitConfig(UserServiceImplCacheTest.Config.class)
+class UserServiceImplCacheTest {
+
+    private static final int USERS = 200;
+    private static final int OPERATIONS = 10_000;
+    private static final double EDIT_SHARE = 0.02;
+
+    @Autowired
+    private UserService service;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final Map<UUID, User> users = new HashMap<>();
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(UserCacheEvictor.CACHE).clear();
+        users.clear();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUserId(UUID.randomUUID());
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            users.put(user.getUserId(), user);
+        }
+        when(userRepository.findById(any())).thenAnswer(invocation -> {
+            lookups.incrementAndGet();
+            return Optional.ofNullable(users.get(invocation.<UUID>getArgument(0)));
+        });
+        when(userRepository.findByUsername(anyString())).thenAnswer(invocation -> {
+            lookups.incrementAndGet();
+            return users.values().stream()
+                .filter(user -> user.getUsername().equals(invocation.getArgument(0)))
+                .findFirst();
+        });
+        when(userRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepository.existsByUsernameAndUserIdNot(anyString(), any())).thenReturn(false);
+    }
+
+    @Test
+    void profileEdits_evictOnlyTheEditedUser_keepingTheHitRatioHigh() {
+        double targeted = hitRatio(false);
+        double wholeCache = hitRatio(true);
+
+        // With 2% edits, clearing the whole cache on every edit loses most hits
+        assertThat(targeted).isGreaterThan(0.9);
+        assertThat(wholeCache).isLessThan(0.5);
+    }
+
+    @Test
+    void usernameChange_evictsTheOldUsernameKey_andKeepsOtherUsers() {
+        User user = users.values().iterator().next();
+        UUID other = users.keySet().stream().filter(id -> !id.equals(user.getUserId())).findFirst().orElseThrow();
+        service.getUserById(user.getUserId());
+        service.getUserByUsername(user.getUsername());
+        service.getUserById(other);
+        String previous = user.getUsername();
+
+        UpdateProfileRequest request = new UpdateProfileRequest();
+        request.setUsername("renamed");
+        service.updateUser(user.getUserId(), request);
+
+        Cache cache = cacheManager.getCache(UserCacheEvictor.CACHE);
+        assertThat(cache.get(user.getUserId().toString())).isNull();
+        assertThat(cache.get(UserCacheEvictor.USERNAME_PREFIX + previous)).isNull();
+        assertThat(cache.get(other.toString())).isNotNull();
+        assertThat(service.getUserById(user.getUserId()).getUsername()).isEqualTo("renamed");
+    }
+
+    @Test
+    void deleteUser_evictsOnlyThatUser() {
+        List<UUID> ids = new ArrayList<>(users.keySet());
+        User deleted = users.get(ids.get(0));
+        service.getUserById(deleted.getUserId());
+        service.getUserByUsername(deleted.getUsername());
+        service.getUserById(ids.get(1));
+
+        service.deleteUser(deleted.getUserId());
+
+        Cache cache = cacheManager.getCache(UserCacheEvictor.CACHE);
+        assertThat(cache.get(deleted.getUserId().toString())).isNull();
+        assertThat(cache.get(UserCacheEvictor.USERNAME_PREFIX + deleted.getUsername())).isNull();
+        assertThat(cache.get(ids.get(1).toString())).isNotNull();
+    }
+
+    @Test
+    void profileEditInsideATransaction_keepsTheOldEntryUntilCommit() {
+        User user = users.values().iterator().next();
+        service.getUserById(user.getUserId());
+        Cache cache = cacheManager.getCache(UserCacheEvictor.CACHE);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            UpdateProfileRequest request = new UpdateProfileRequest();
+            request.setBio("edited");
+            service.updateUser(user.getUserId(), request);
+
+            // Not committed yet: evicting now would let a concurrent read cache the old row again
+            assertThat(cache.get(user.getUserId().toString())).isNotNull();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(cache.get(user.getUserId().toString())).isNull();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * Warms the cache with every user by id and by username, then replays a fixed mix of profile
+     * reads and bio edits. {@code clearOnEdit} replays the previous allEntries eviction.
+     */
+    private double hitRatio(boolean clearOnEdit) {
+        Cache cache = cacheManager.getCache(UserCacheEvictor.CACHE);
+        cache.clear();
+        List<User> all = new ArrayList<>(users.values());
+        all.forEach(user -> {
+            service.getUserById(user.getUserId());
+            service.getUserByUsername(user.getUsername());
+        });
+
+        Random random = new Random(42);
+        lookups.set(0);
+        int reads = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            User user = all.get(random.nextInt(all.size()));
+            if (random.nextDouble() < EDIT_SHARE) {
+                UpdateProfileRequest request = new UpdateProfileRequest();
+                request.setBio("bio " + i);
+                service.updateUser(user.getUserId(), request);
+                if (clearOnEdit) {
+                    cache.clear();
+                }
+            } else {
+                reads++;
+                if (random.nextBoolean()) {
+                    service.getUserById(user.getUserId());
+                } else {
+                    service.getUserByUsername(user.getUsername());
+                }
+            }
+        }
+        // Every edit loads its user once; that lookup is not a read
+        int edits = OPERATIONS - reads;
+        return 1.0 - (double) (lookups.get() - edits) / reads;
+    }
+
+    @Configuration
+    @EnableCaching
+    static class Config {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(UserCacheEvictor.CACHE);
+        }
+
+        @Bean
+        UserRepository userRepository() {
+            return mock(UserRepository.class);
+        }
+
+        @Bean
+        UserCacheEvictor userCacheEvictor(CacheManager cacheManager) {
+            return new UserCacheEvictor(cacheManager);
+        }
+
+        @Bean
+        UserServiceImpl userService(UserRepository userRepository, UserCacheEvictor userCacheEvictor) {
+            return new UserServiceImpl(userRepository, new UserMapper(), userCacheEvictor);
+        }
+    }
+}
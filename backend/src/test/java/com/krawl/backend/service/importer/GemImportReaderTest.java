@@ -0,0 +1,81 @@
+package com.krawl.backend.service.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.krawl.backend.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GemImportReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void ndjson_readsEachLine_andReportsMalformedLines() throws IOException {
+        List<GemImportRow> rows = readAll(GemImportFormat.NDJSON, """
+            {"name":"Lechon House","latitude":10.3,"longitude":123.9}
+
+            {"name": broken}
+            {"name":"Taho Stand","description":"Morning only","latitude":10.31,"longitude":123.91}
+            """);
+
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0).request().getName()).isEqualTo("Lechon House");
+        assertThat(rows.get(1).rowNumber()).isEqualTo(2);
+        assertThat(rows.get(1).parseError()).startsWith("Malformed JSON");
+        assertThat(rows.get(2).request().getDescription()).isEqualTo("Morning only");
+    }
+
+    @Test
+    void csv_mapsHeaderAliases_andHandlesQuotedFields() throws IOException {
+        List<GemImportRow> rows = readAll(GemImportFormat.CSV,
+            "lat,lng,name,description\r\n"
+                + "10.3,123.9,\"Carbon, Market\",\"Says \"\"fresh\"\"\nand cheap\"\r\n"
+                + "north,123.9,Bad Row,\r\n");
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).request().getName()).isEqualTo("Carbon, Market");
+        assertThat(rows.get(0).request().getDescription()).isEqualTo("Says \"fresh\"\nand cheap");
+        assertThat(rows.get(0).request().getLatitude()).isEqualTo(10.3);
+        assertThat(rows.get(1).parseError()).isNotNull();
+    }
+
+    @Test
+    void csv_withoutRequiredColumn_isRejected() {
+        assertThrows(ValidationException.class, () -> readAll(GemImportFormat.CSV, "name,description\nA,B\n"));
+    }
+
+    @Test
+    void geojson_streamsPointFeatures_andRejectsOtherGeometries() throws IOException {
+        List<GemImportRow> rows = readAll(GemImportFormat.GEOJSON, """
+            {"type":"FeatureCollection","name":"cebu","features":[
+              {"type":"Feature","geometry":{"type":"Point","coordinates":[123.9,10.3]},"properties":{"name":"Fort"}},
+              {"type":"Feature","geometry":{"type":"LineString","coordinates":[[0,0],[1,1]]},"properties":{}}
+            ]}
+            """);
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).request().getLongitude()).isEqualTo(123.9);
+        assertThat(rows.get(0).request().getLatitude()).isEqualTo(10.3);
+        assertThat(rows.get(1).parseError()).contains("Point");
+    }
+
+    private List<GemImportRow> readAll(GemImportFormat format, String body) throws IOException {
+        List<GemImportRow> rows = new ArrayList<>();
+        try (GemImportReader reader = GemImportReader.open(format,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), objectMapper)) {
+            GemImportRow row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
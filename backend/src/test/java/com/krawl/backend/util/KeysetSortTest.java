@@ -0,0 +1,58 @@
+package com.krawl.backend.util;
+
+import com.krawl.backend.exception.ValidationException;
+import com.krawl.backend.repository.GemListRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetSortTest {
+
+    private final PaginationHelper paginationHelper = new PaginationHelper();
+
+    @Test
+    void cursor_roundTripsEachSortValueType() {
+        UUID id = UUID.randomUUID();
+        var created = OffsetDateTime.parse("2025-03-01T10:15:30.123456Z");
+
+        assertRoundTrip("createdAt", created, id);
+        assertRoundTrip("averageRating", new BigDecimal("4.25"), id);
+        assertRoundTrip("vouchCount", 17, id);
+        assertRoundTrip("name", "Kape | Tsokolate", id);
+    }
+
+    @Test
+    void descendingSort_seeksBelowTheLastRow_andTieBreaksOnId() {
+        KeysetSort sort = GemListRepository.SORTS.get("averageRating");
+
+        assertThat(sort.orderBy("g", "gem_id")).isEqualTo("g.average_rating DESC, g.gem_id DESC");
+        assertThat(sort.seekAfter("g", "gem_id")).isEqualTo("(g.average_rating, g.gem_id) < (:afterValue, :afterId)");
+    }
+
+    @Test
+    void cursorFromAnotherSort_isRejected() {
+        String cursor = GemListRepository.SORTS.get("vouchCount").encodeCursor(3, UUID.randomUUID());
+
+        assertThrows(ValidationException.class, () -> GemListRepository.SORTS.get("createdAt").decodeCursor(cursor));
+    }
+
+    @Test
+    void resolveSort_defaultsToFirstEntry_andRejectsUnknownKeys() {
+        assertThat(paginationHelper.resolveSort(null, GemListRepository.SORTS).key()).isEqualTo("createdAt");
+        assertThrows(ValidationException.class, () -> paginationHelper.resolveSort("description", GemListRepository.SORTS));
+        assertThrows(ValidationException.class, () -> paginationHelper.createPageable(0, 20, "description", "asc"));
+    }
+
+    private void assertRoundTrip(String key, Object value, UUID id) {
+        KeysetSort sort = GemListRepository.SORTS.get(key);
+        var position = sort.decodeCursor(sort.encodeCursor(value, id));
+
+        assertThat(position.value()).isEqualTo(value);
+        assertThat(position.id()).isEqualTo(id);
+    }
+}
@@ -0,0 +1,80 @@
+package com.krawl.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteBehindCounterTest {
+
+    @Test
+    void concurrentIncrements_areNeitherLostNorDoubleCounted_acrossDrains() throws Exception {
+        WriteBehindCounter<String> counter = new WriteBehindCounter<>();
+        int threads = 8;
+        int perThread = 200_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            writers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    counter.increment(i % 2 == 0 ? "hot" : "warm");
+                }
+                return null;
+            }));
+        }
+
+        long drained = 0;
+        start.countDown();
+        while (!writers.stream().allMatch(Future::isDone)) {
+            drained += counter.drain().values().stream().mapToLong(Long::longValue).sum();
+            counter.drained();
+        }
+        drained += counter.drain().values().stream().mapToLong(Long::longValue).sum();
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(drained).isEqualTo((long) threads * perThread);
+    }
+
+    @Test
+    void drainedTotals_stayPending_untilWrittenBack() {
+        WriteBehindCounter<String> counter = new WriteBehindCounter<>();
+        counter.add("gem", 3);
+
+        Map<String, Long> totals = counter.drain();
+        counter.increment("gem");
+
+        assertThat(totals).containsEntry("gem", 3L);
+        assertThat(counter.pending("gem")).isEqualTo(4);
+        counter.drained();
+        assertThat(counter.pending("gem")).isEqualTo(1);
+    }
+
+    @Test
+    void restoredTotals_areDrainedAgain_andZeroDeltasAreSkipped() {
+        WriteBehindCounter<String> counter = new WriteBehindCounter<>();
+        counter.add("gem", 2);
+        counter.add("flat", 1);
+        counter.add("flat", -1);
+
+        Map<String, Long> totals = counter.drain();
+        counter.restore(totals);
+
+        assertThat(totals).containsOnlyKeys("gem");
+        assertThat(counter.pending("gem")).isEqualTo(2);
+        assertThat(counter.drain()).containsExactly(Map.entry("gem", 2L));
+    }
+}
@@ -3,6 +3,7 @@ import maplibregl from 'maplibre-gl';
 import { MAP_CONFIG } from '../config';
 import { CompassControl } from '../controls/CompassControl';
 import { add3DBuildingsLayer } from '../layers/buildings';
+import { addGemTileLayer } from '../layers/gems';
 import { addSampleMarkers } from '../markers';
 
 export interface UseMapInitializationOptions {
@@ -143,6 +144,9 @@ export function useMapInitialization(options: UseMapInitializationOptions) {
       // Add 3D buildings
       add3DBuildingsLayer(map);
 
+      // Add gem vector tile layer
+      addGemTileLayer(map);
+
       // Add sample markers
       const markers = addSampleMarkers(map);
       markersRef.current = markers;
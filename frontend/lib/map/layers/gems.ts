@@ -0,0 +1,48 @@
+import maplibregl from 'maplibre-gl';
+import { MAP_CONFIG } from '../config';
+import { config } from '../../config/env';
+
+export const GEM_TILE_SOURCE_ID = 'krawl-gems';
+export const GEM_TILE_LAYER_ID = 'krawl-gems-circles';
+
+/**
+ * Adds the gem layer backed by the backend vector tile endpoint
+ * (`/api/v1/tiles/gems/{z}/{x}/{y}.mvt`, source layer `gems`).
+ * Tiles are cached server-side and revalidated by ETag, so panning does not refetch JSON lists.
+ */
+export function addGemTileLayer(map: maplibregl.Map): void {
+  if (map.getSource(GEM_TILE_SOURCE_ID)) {
+    return;
+  }
+
+  try {
+    map.addSource(GEM_TILE_SOURCE_ID, {
+      type: 'vector',
+      tiles: [`${config.api.getBasePath()}/tiles/gems/{z}/{x}/{y}.mvt`],
+      minzoom: 0,
+      maxzoom: 22,
+    });
+
+    map.addLayer({
+      'id': GEM_TILE_LAYER_ID,
+      'source': GEM_TILE_SOURCE_ID,
+      'source-layer': 'gems',
+      'type': 'circle',
+      'paint': {
+        'circle-color': MAP_CONFIG.VERDE_MARKER_COLOR,
+        'circle-radius': [
+          'interpolate',
+          ['linear'],
+          ['zoom'],
+          10, 3,
+          16, 7
+        ],
+        'circle-stroke-color': '#ffffff',
+        'circle-stroke-width': 1.5,
+        'circle-opacity': 0.9
+      }
+    });
+  } catch (error) {
+    console.log('ℹ️ Gem tile layer could not be added', error);
+  }
+}